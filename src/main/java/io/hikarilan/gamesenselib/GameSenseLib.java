@@ -1,14 +1,22 @@
 package io.hikarilan.gamesenselib;
 
+import io.hikarilan.gamesenselib.timings.BStatsMetrics;
 import org.bukkit.plugin.java.JavaPlugin;
 
 @SuppressWarnings("unused")
 public final class GameSenseLib extends JavaPlugin {
 
+    /**
+     * GameSenseLib 作为独立插件在 bStats 上注册的服务 ID。
+     * <p>
+     * The service id GameSenseLib registered on bStats as a standalone plugin.
+     */
+    private static final int BSTATS_SERVICE_ID = 17203;
+
     @Override
     public void onEnable() {
         // Plugin startup logic
-
+        BStatsMetrics.enable(this, BSTATS_SERVICE_ID);
     }
 
     @Override
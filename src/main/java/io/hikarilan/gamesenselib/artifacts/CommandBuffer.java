@@ -0,0 +1,140 @@
+package io.hikarilan.gamesenselib.artifacts;
+
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * 一个线程安全的游戏命令缓冲区。
+ * <br/>
+ * 在工作线程中运行的逻辑（例如 {@link io.hikarilan.gamesenselib.modules.IAsyncModule#onAsyncTick(CommandBuffer)}）
+ * 不应直接调用 Bukkit API，而应将其副作用记录到命令缓冲区中，
+ * 这些命令将在下一 tick 于主线程中按记录顺序被批量执行。
+ * <p>
+ * A thread-safe game command buffer.
+ * <br/>
+ * Logic running on worker threads (such as {@link io.hikarilan.gamesenselib.modules.IAsyncModule#onAsyncTick(CommandBuffer)})
+ * should not call the Bukkit API directly, but record its side effects into the command buffer instead,
+ * these commands will be applied in one batch on the main thread in recording order the next tick.
+ */
+public class CommandBuffer implements IConsumerQueueHolder<AbstractGame> {
+
+    private final Queue<Consumer<AbstractGame>> queue;
+
+    /**
+     * 缓冲区的代数，每次 {@link #reset()} 都会使其增加，由之前的代数创建的通道记录的命令将被丢弃。
+     * <p>
+     * The generation of the buffer, increased by every {@link #reset()},
+     * commands recorded by lanes created in previous generations are dropped.
+     */
+    private final AtomicInteger generation = new AtomicInteger();
+
+    public CommandBuffer() {
+        this(new ConcurrentLinkedQueue<>());
+    }
+
+    private CommandBuffer(@NotNull Queue<Consumer<AbstractGame>> queue) {
+        this.queue = queue;
+    }
+
+    /**
+     * 记录一条将在主线程中执行的命令。
+     * <br/>
+     * 该方法可在任意线程中调用。
+     * <p>
+     * Record a command to be applied on the main thread.
+     * <br/>
+     * This method can be called from any thread.
+     *
+     * @param command the command
+     */
+    public void record(@NotNull Consumer<AbstractGame> command) {
+        queue.offer(command);
+    }
+
+    /**
+     * 记录一条将在主线程中执行的命令。
+     * <br/>
+     * 该方法可在任意线程中调用。
+     * <p>
+     * Record a command to be applied on the main thread.
+     * <br/>
+     * This method can be called from any thread.
+     *
+     * @param command the command
+     */
+    public void record(@NotNull Runnable command) {
+        record(game -> command.run());
+    }
+
+    /**
+     * 创建一个记录到该缓冲区的通道，供一次工作线程 tick 使用。
+     * <br/>
+     * 在该缓冲区被 {@link #reset()} 后，通道记录的命令将被直接丢弃，因此在游戏实例被销毁后仍在运行的工作线程无法将命令留到下一轮游戏中。
+     * <p>
+     * Create a lane recording into this buffer, used by a single worker tick.
+     * <br/>
+     * Once this buffer is {@link #reset()}, the commands recorded by the lane are dropped right away,
+     * so workers still running after the game instance is destroyed cannot leave commands for the next round of the game.
+     *
+     * @return the lane
+     */
+    @NotNull
+    public CommandBuffer lane() {
+        return new Lane(this, generation.get());
+    }
+
+    /**
+     * 丢弃所有已记录的命令，以及之前创建的通道之后记录的所有命令。
+     * <p>
+     * Drop all recorded commands, and all commands recorded later by the lanes created before.
+     */
+    public void reset() {
+        // the generation is increased first, so a lane offering concurrently either sees it or is cleared
+        generation.incrementAndGet();
+        queue.clear();
+    }
+
+    @NotNull
+    @Override
+    public Queue<Consumer<AbstractGame>> getQueue() {
+        return queue;
+    }
+
+    private static class Lane extends CommandBuffer {
+
+        @NotNull
+        private final CommandBuffer buffer;
+
+        private final int generation;
+
+        private Lane(@NotNull CommandBuffer buffer, int generation) {
+            super(buffer.queue);
+            this.buffer = buffer;
+            this.generation = generation;
+        }
+
+        @Override
+        public void record(@NotNull Consumer<AbstractGame> command) {
+            if (buffer.generation.get() != generation) return;
+            getQueue().offer(command);
+            // the buffer may be reset between the check and the offer
+            if (buffer.generation.get() != generation) getQueue().remove(command);
+        }
+
+        @NotNull
+        @Override
+        public CommandBuffer lane() {
+            return buffer.lane();
+        }
+
+        @Override
+        public void reset() {
+            buffer.reset();
+        }
+    }
+}
@@ -0,0 +1,316 @@
+package io.hikarilan.gamesenselib.commands;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerPreQuitGameEvent;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.GameRegistry;
+import io.hikarilan.gamesenselib.modules.extra.JoinAdmissionModule;
+import io.hikarilan.gamesenselib.players.extra.DefaultGamePlayer;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import net.md_5.bungee.api.ChatMessageType;
+import net.md_5.bungee.api.chat.TextComponent;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerCommandPreprocessEvent;
+import org.bukkit.event.server.TabCompleteEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 共享的游戏加入及退出命令分发器。
+ * <br/>
+ * 每个插件仅会注册一个 {@link PlayerCommandPreprocessEvent} 监听器，所有游戏实例的命令都保存在以小写命令为键的哈希表中，
+ * 因此无论存在多少游戏实例，每条命令最多只需两次哈希查找（完整命令及首个单词）即可确定目标，
+ * 只有分发器处理了的命令才会被取消，其余命令（包括其他插件的同名命令）将照常执行：
+ * <ul>
+ *     <li>{@code /<join>}：依次尝试使用该命令的游戏实例，直到玩家被某个游戏实例接受；</li>
+ *     <li>{@code /<join> <name>}：仅尝试指定名称（{@link AbstractGame#getName()}）的游戏实例；</li>
+ *     <li>{@code /<quit>}：退出玩家所在的所有使用该命令的游戏实例，玩家不在任何这样的游戏实例中时命令将照常执行。</li>
+ * </ul>
+ * 分发器同时通过 {@link TabCompleteEvent} 为这些命令提供 Tab 补全，游戏实例名称的补全来自 {@link GameRegistry#findJoinableGames(String)} 的前缀索引，
+ * 仅包含可加入且有空余名额的游戏实例，空余名额最多的游戏实例及其空余名额会显示在玩家的动作栏中。
+ * <br/>
+ * 该类的所有方法都应在主线程中调用。
+ * <p>
+ * Shared game join and quit command dispatcher.
+ * <br/>
+ * Only one {@link PlayerCommandPreprocessEvent} listener is registered per plugin,
+ * and the commands of all game instances are stored in hash maps keyed by the lower-case command,
+ * so every command takes at most two hash lookups (the whole command and its first word) to resolve its target,
+ * regardless of the number of game instances,
+ * and only the commands handled by the dispatcher are cancelled, the others (including same-named commands of other plugins) run as usual:
+ * <ul>
+ *     <li>{@code /<join>}: tries the game instances using the command in order, until the player is accepted by one of them;</li>
+ *     <li>{@code /<join> <name>}: only tries the game instance with the specified name ({@link AbstractGame#getName()});</li>
+ *     <li>{@code /<quit>}: quits all game instances the player is in which use the command,
+ *     the command runs as usual if the player is in no such game instance.</li>
+ * </ul>
+ * The dispatcher also provides tab completion for these commands through {@link TabCompleteEvent},
+ * the completion of game instance names is served from the prefix index of {@link GameRegistry#findJoinableGames(String)},
+ * including only the joinable game instances with open slots,
+ * and the game instances with the most open slots are shown with their open slots in the action bar of the player.
+ * <br/>
+ * All methods of this class should be called on the main thread.
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class GameCommandDispatcher implements Listener {
+
+    private static final Map<Plugin, GameCommandDispatcher> DISPATCHERS = Maps.newHashMap();
+
+    private static final int MAX_COMPLETIONS = 64;
+
+    private static final int MAX_SHOWN_GAMES = 5;
+
+    @NotNull
+    private final Plugin plugin;
+
+    private final Map<String, Set<AbstractGame>> joinCommands = Maps.newHashMap();
+
+    private final Map<String, Set<AbstractGame>> quitCommands = Maps.newHashMap();
+
+    /**
+     * 为指定游戏实例注册加入命令。
+     * <p>
+     * Register a join command for the specified game instance.
+     *
+     * @param plugin  the plugin registering the listener
+     * @param command the command without prefix
+     * @param game    the game instance
+     */
+    public static void registerJoinCommand(@NotNull Plugin plugin, @NotNull String command, @NotNull AbstractGame game) {
+        register(of(plugin).joinCommands, command, game);
+    }
+
+    /**
+     * 为指定游戏实例注册退出命令。
+     * <p>
+     * Register a quit command for the specified game instance.
+     *
+     * @param plugin  the plugin registering the listener
+     * @param command the command without prefix
+     * @param game    the game instance
+     */
+    public static void registerQuitCommand(@NotNull Plugin plugin, @NotNull String command, @NotNull AbstractGame game) {
+        register(of(plugin).quitCommands, command, game);
+    }
+
+    /**
+     * 注销指定游戏实例的加入命令。
+     * <p>
+     * Unregister a join command of the specified game instance.
+     *
+     * @param plugin  the plugin registering the listener
+     * @param command the command without prefix
+     * @param game    the game instance
+     */
+    public static void unregisterJoinCommand(@NotNull Plugin plugin, @NotNull String command, @NotNull AbstractGame game) {
+        val dispatcher = DISPATCHERS.get(plugin);
+        if (dispatcher == null) return;
+        unregister(dispatcher.joinCommands, command, game);
+        dispatcher.releaseIfEmpty();
+    }
+
+    /**
+     * 注销指定游戏实例的退出命令。
+     * <p>
+     * Unregister a quit command of the specified game instance.
+     *
+     * @param plugin  the plugin registering the listener
+     * @param command the command without prefix
+     * @param game    the game instance
+     */
+    public static void unregisterQuitCommand(@NotNull Plugin plugin, @NotNull String command, @NotNull AbstractGame game) {
+        val dispatcher = DISPATCHERS.get(plugin);
+        if (dispatcher == null) return;
+        unregister(dispatcher.quitCommands, command, game);
+        dispatcher.releaseIfEmpty();
+    }
+
+    @EventHandler
+    public void onCommand(PlayerCommandPreprocessEvent e) {
+        val message = e.getMessage();
+        if (message.length() < 2) return;
+        val player = e.getPlayer();
+        val command = message.substring(1).toLowerCase(Locale.ROOT);
+
+        // the whole command first, then the first word with a game instance name
+        val joining = joinCommands.get(command);
+        if (joining != null) {
+            e.setCancelled(true);
+            joinAny(player, joining);
+            return;
+        }
+        val quitting = quitCommands.get(command);
+        if (quitting != null) {
+            if (quit(player, quitting)) e.setCancelled(true);
+            return;
+        }
+        val space = command.indexOf(' ');
+        if (space < 0) return;
+        val named = joinCommands.get(command.substring(0, space));
+        if (named == null) return;
+        e.setCancelled(true);
+        // the original message keeps the case of the game instance name
+        val name = message.substring(space + 2).trim();
+        val game = GameRegistry.findGame(name);
+        if (game == null || !named.contains(game)) {
+            player.sendMessage("No such game: " + name);
+            sendOpenGames(player, named, "");
+            return;
+        }
+        if (!join(player, game)) player.sendMessage("Game has been started or the game is full.");
+    }
+
+    @EventHandler(ignoreCancelled = true)
+    public void onTabComplete(TabCompleteEvent e) {
+        if (!(e.getSender() instanceof Player)) return;
+        val buffer = e.getBuffer();
+        if (buffer.length() < 1 || buffer.charAt(0) != '/') return;
+        val command = buffer.substring(1).toLowerCase(Locale.ROOT);
+        val completions = Lists.newArrayList(e.getCompletions());
+        val last = command.lastIndexOf(' ');
+        if (last < 0) {
+            // complete the first words of the commands themselves
+            completeWords(completions, joinCommands.keySet(), "", command, "/");
+            completeWords(completions, quitCommands.keySet(), "", command, "/");
+        } else {
+            val before = command.substring(0, last);
+            val typed = command.substring(last + 1);
+            // the next word of the multi-word commands
+            completeWords(completions, joinCommands.keySet(), before + " ", typed, "");
+            completeWords(completions, quitCommands.keySet(), before + " ", typed, "");
+
+            // the names of the game instances with open slots
+            val games = before.indexOf(' ') < 0 ? joinCommands.get(before) : null;
+            if (games != null) {
+                for (AbstractGame game : GameRegistry.findJoinableGames(typed)) {
+                    if (completions.size() >= MAX_COMPLETIONS) break;
+                    if (games.contains(game)) completions.add(game.getName());
+                }
+                sendOpenGames((Player) e.getSender(), games, typed);
+            }
+        }
+        e.setCompletions(completions);
+    }
+
+    private static void completeWords(@NotNull List<String> completions, @NotNull Set<String> commands,
+                                      @NotNull String prefix, @NotNull String typed, @NotNull String completionPrefix) {
+        for (String command : commands) {
+            if (completions.size() >= MAX_COMPLETIONS) return;
+            if (!command.startsWith(prefix)) continue;
+            val rest = command.substring(prefix.length());
+            val space = rest.indexOf(' ');
+            val word = space < 0 ? rest : rest.substring(0, space);
+            if (word.startsWith(typed) && !completions.contains(completionPrefix + word)) completions.add(completionPrefix + word);
+        }
+    }
+
+    /**
+     * 以动作栏向玩家展示匹配前缀的游戏实例及其空余名额，按空余名额从多到少排列。
+     * 1.13 的命令补全不支持提示信息，因此空余名额无法直接附加在补全项上。
+     * <p>
+     * Show the player the game instances matching the prefix with their open slots in the action bar,
+     * ordered by open slots from most to least.
+     * Command completions of 1.13 do not support tooltips, so the open slots cannot be attached to the completions directly.
+     */
+    private static void sendOpenGames(@NotNull Player player, @NotNull Set<AbstractGame> games, @NotNull String prefix) {
+        val open = Lists.<AbstractGame>newArrayList();
+        for (AbstractGame game : GameRegistry.findJoinableGames(prefix)) {
+            if (open.size() >= MAX_COMPLETIONS) break;
+            if (games.contains(game)) open.add(game);
+        }
+        if (open.isEmpty()) return;
+        open.sort(Comparator.comparingInt(AbstractGame::getOpenSlots).reversed());
+        val message = new StringBuilder();
+        for (int i = 0; i < Math.min(open.size(), MAX_SHOWN_GAMES); i++) {
+            if (i > 0) message.append(", ");
+            val slots = open.get(i).getOpenSlots();
+            message.append(open.get(i).getName()).append(" (").append(slots == Integer.MAX_VALUE ? "∞" : String.valueOf(slots)).append(" open)");
+        }
+        if (open.size() > MAX_SHOWN_GAMES) message.append(", ...");
+        player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message.toString()));
+    }
+
+    private static void joinAny(@NotNull Player player, @NotNull Set<AbstractGame> games) {
+        for (AbstractGame game : Lists.newArrayList(games)) {
+            if (join(player, game)) return;
+        }
+        player.sendMessage("Game has been started or the game is full.");
+    }
+
+    /**
+     * 退出玩家所在的所有使用该命令的游戏实例，仍在准入控制队列中的玩家将离开队列。
+     * <p>
+     * Quit all game instances the player is in which use the command, players still queued by the admission control leave the queue instead.
+     *
+     * @return {@code false} if the player is in no such game instance, in which case the command is not handled
+     */
+    private static boolean quit(@NotNull Player player, @NotNull Set<AbstractGame> games) {
+        for (AbstractGame queued : games) {
+            if (JoinAdmissionModule.leave(queued, player.getUniqueId())) return true;
+        }
+        boolean quit = false;
+        // the player may be in several game instances
+        for (AbstractGame game : GameRegistry.findGames(player.getUniqueId())) {
+            if (!games.contains(game)) continue;
+            val gamePlayer = game.findPlayer(player);
+            if (gamePlayer == null) continue;
+            game.postEvent(new PlayerPreQuitGameEvent(game, gamePlayer));
+            quit = true;
+        }
+        return quit;
+    }
+
+    private static boolean join(@NotNull Player player, @NotNull AbstractGame game) {
+        val event = game.postEvent(new PlayerAttemptToJoinGameEvent(game, player));
+        if (event.isCancelled()) return false;
+        JoinAdmissionModule.preJoin(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, player) : event.getGamePlayer());
+        return true;
+    }
+
+    @NotNull
+    private static GameCommandDispatcher of(@NotNull Plugin plugin) {
+        return DISPATCHERS.computeIfAbsent(plugin, it -> {
+            val created = new GameCommandDispatcher(it);
+            it.getServer().getPluginManager().registerEvents(created, it);
+            return created;
+        });
+    }
+
+    private static void register(@NotNull Map<String, Set<AbstractGame>> commands, @NotNull String command, @NotNull AbstractGame game) {
+        commands.computeIfAbsent(normalize(command), it -> Sets.newLinkedHashSet()).add(game);
+    }
+
+    private static void unregister(@NotNull Map<String, Set<AbstractGame>> commands, @NotNull String command, @NotNull AbstractGame game) {
+        val key = normalize(command);
+        val games = commands.get(key);
+        if (games == null) return;
+        games.remove(game);
+        if (games.isEmpty()) commands.remove(key);
+    }
+
+    @NotNull
+    private static String normalize(@NotNull String command) {
+        return (command.startsWith("/") ? command.substring(1) : command).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private void releaseIfEmpty() {
+        if (!joinCommands.isEmpty() || !quitCommands.isEmpty()) return;
+        HandlerList.unregisterAll(this);
+        DISPATCHERS.remove(plugin);
+    }
+}
@@ -0,0 +1,516 @@
+package io.hikarilan.gamesenselib.debug;
+
+import com.google.common.collect.Lists;
+import io.hikarilan.gamesenselib.commands.GameCommandDispatcher;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.GameRegistry;
+import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import io.hikarilan.gamesenselib.schedulers.ITickScheduler;
+import io.hikarilan.gamesenselib.schedulers.ITickTask;
+import io.hikarilan.gamesenselib.worlds.RegionMembershipTracker;
+import io.hikarilan.gamesenselib.worlds.WorldMembershipTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.Bukkit;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.world.WorldUnloadEvent;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.RegisteredListener;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 已销毁的玩家实例、游戏实例及已卸载世界的泄漏检测器，仅用于调试。
+ * <br/>
+ * 检测默认关闭。开启后，每个被 {@link AbstractPlayer#destroy()} 或 {@link AbstractGame#destroy()} 销毁的实例，
+ * 以及每个被卸载的世界都将被一个弱引用追踪，被垃圾回收的实例会通过引用队列自动移除；
+ * 游戏实例被重新初始化（{@link AbstractGame#init()}，例如 {@link io.hikarilan.gamesenselib.artifacts.IReusable#reload()}）时将停止追踪。
+ * 超过阈值后仍可达的实例将被视为泄漏，并被报告一次，报告中包含实例的销毁位置，
+ * 以及从根对象（本库的静态索引、所有插件实例及所有已注册的 Bukkit 监听器）出发到达该实例的引用路径，即真正的持有者；
+ * 根对象在服务端主线程中收集，对象图则在一个后台线程中遍历，且最多遍历 {@value #MAX_WALKED} 个对象。
+ * <br/>
+ * 泄漏只意味着实例在阈值内未被回收，内存充足时垃圾回收可能推迟，因此阈值不宜过短。
+ * 检测会在每次销毁时采集一次调用栈，并在报告时遍历对象图，不应在生产环境中长期开启。
+ * <p>
+ * Leak detector of destroyed player instances, game instances and unloaded worlds, for debugging only.
+ * <br/>
+ * The detection is disabled by default. Once enabled, every instance destroyed by {@link AbstractPlayer#destroy()}
+ * or {@link AbstractGame#destroy()}, as well as every unloaded world, is tracked by a weak reference,
+ * instances garbage collected are removed automatically through a reference queue;
+ * game instances initialized again ({@link AbstractGame#init()}, e.g. by {@link io.hikarilan.gamesenselib.artifacts.IReusable#reload()})
+ * are no longer tracked.
+ * Instances still reachable after the threshold are considered leaked and reported once,
+ * the report includes where the instance was destroyed, and the reference path reaching the instance from the roots
+ * (static indexes of this library, all plugin instances and all registered Bukkit listeners), i.e. the actual holder;
+ * the roots are collected on the server main thread, while the object graph is walked on a background thread,
+ * walking at most {@value #MAX_WALKED} objects.
+ * <br/>
+ * A leak only means the instance has not been collected within the threshold,
+ * garbage collection may be deferred while memory is sufficient, so the threshold should not be too short.
+ * The detection captures a stack trace on every destruction and walks the object graph when reporting,
+ * and should not be left enabled in production.
+ */
+@SuppressWarnings("unused")
+public final class LeakDetector {
+
+    /**
+     * 报告时最多遍历的对象数。
+     * <p>
+     * The maximum number of objects walked when reporting.
+     */
+    private static final int MAX_WALKED = 100_000;
+
+    /**
+     * 这些包中的类不会被展开字段（集合、映射及数组除外），以避免遍历服务端及第三方库的内部状态。
+     * <p>
+     * Fields of classes in these packages are not expanded (except collections, maps and arrays),
+     * to avoid walking the internal state of the server and third-party libraries.
+     */
+    private static final String[] OPAQUE_PACKAGES = {
+            "java.", "javax.", "jdk.", "sun.", "com.sun.", "org.bukkit.", "net.minecraft.", "org.spigotmc.",
+            "io.papermc.", "co.aikar.", "org.greenrobot.", "com.google.", "io.netty.", "org.apache.", "org.slf4j.", "kotlin."
+    };
+
+    private static final Class<?>[] ROOT_CLASSES = {
+            GameRegistry.class, WorldMembershipTracker.class, RegionMembershipTracker.class, GameCommandDispatcher.class
+    };
+
+    private static final ReferenceQueue<Object> QUEUE = new ReferenceQueue<>();
+
+    private static final Set<Tracked> TRACKED = ConcurrentHashMap.newKeySet();
+
+    private static volatile boolean enabled;
+
+    private static volatile long thresholdNanos;
+
+    @Nullable
+    private static Plugin plugin;
+
+    @Nullable
+    private static ITickTask task;
+
+    @Nullable
+    private static ExecutorService walker;
+
+    @Nullable
+    private static WorldListener worldListener;
+
+    private LeakDetector() {
+    }
+
+    /**
+     * 检查泄漏检测是否已开启。
+     * <p>
+     * Check whether the leak detection is enabled.
+     *
+     * @return {@code true} if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启泄漏检测，已开启时将更新其阈值，应在主线程中调用。
+     * <p>
+     * Enable the leak detection, updating its threshold if already enabled, should be called on the main thread.
+     *
+     * @param plugin    the plugin to report leaks with
+     * @param threshold how long a destroyed instance may stay reachable before being reported
+     */
+    public static synchronized void enable(@NotNull Plugin plugin, @NotNull Duration threshold) {
+        if (threshold.isNegative() || threshold.isZero())
+            throw new IllegalArgumentException("Threshold must be positive");
+        if (LeakDetector.plugin != null && LeakDetector.plugin != plugin) disable();
+        thresholdNanos = threshold.toNanos();
+        enabled = true;
+        if (task != null) return;
+        LeakDetector.plugin = plugin;
+        worldListener = new WorldListener();
+        plugin.getServer().getPluginManager().registerEvents(worldListener, plugin);
+        walker = Executors.newSingleThreadExecutor(runnable -> {
+            val thread = new Thread(runnable, "GameSenseLib Leak Detector");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+        val period = 20 * Math.max(1, Math.min(TimeUnit.NANOSECONDS.toSeconds(thresholdNanos), 60));
+        task = ITickScheduler.global(plugin).runTimer(LeakDetector::report, period, period);
+    }
+
+    /**
+     * 关闭泄漏检测，并丢弃所有追踪中的实例。
+     * <p>
+     * Disable the leak detection, and discard all instances being tracked.
+     */
+    public static synchronized void disable() {
+        enabled = false;
+        if (task != null) {
+            task.cancel();
+            task = null;
+        }
+        if (walker != null) {
+            walker.shutdownNow();
+            walker = null;
+        }
+        if (worldListener != null) {
+            HandlerList.unregisterAll(worldListener);
+            worldListener = null;
+        }
+        TRACKED.clear();
+        while (QUEUE.poll() != null) ;
+        plugin = null;
+    }
+
+    /**
+     * 获取仍在追踪中（即已销毁但尚未被回收）的实例数。
+     * <p>
+     * Get the number of instances still being tracked (i.e. destroyed but not collected yet).
+     *
+     * @return the number of instances
+     */
+    public static int getTrackedCount() {
+        drain();
+        return TRACKED.size();
+    }
+
+    /**
+     * 获取所有超过阈值仍可达的实例的描述及其持有者，无论其是否已被报告，应在主线程中调用。
+     * <br/>
+     * 与定期报告不同，该方法将在调用线程中遍历对象图。
+     * <p>
+     * Get the descriptions and holders of all instances still reachable after the threshold, whether reported or not,
+     * should be called on the main thread.
+     * <br/>
+     * Unlike the periodic report, this method walks the object graph on the calling thread.
+     *
+     * @return the descriptions of leaked instances
+     */
+    @NotNull
+    public static List<String> getLeaks() {
+        val now = System.nanoTime();
+        val leaked = findLeaked(now, false);
+        val holders = findHolders(leaked.keySet(), collectRoots());
+        val leaks = Lists.<String>newArrayList();
+        leaked.forEach((instance, tracked) -> leaks.add(describe(tracked, holders.get(instance), now)));
+        return leaks;
+    }
+
+    /**
+     * 开始追踪一个已销毁的实例，仅在检测开启时生效。
+     * <p>
+     * Start tracking a destroyed instance, only takes effect while the detection is enabled.
+     *
+     * @param instance    the destroyed instance
+     * @param description the description of the instance
+     */
+    @ApiStatus.Internal
+    public static void track(@NotNull Object instance, @NotNull String description) {
+        if (!enabled) return;
+        TRACKED.add(new Tracked(instance, description, new Throwable("Destroyed at")));
+    }
+
+    /**
+     * 停止追踪一个被重新使用的实例。
+     * <p>
+     * Stop tracking an instance being reused.
+     *
+     * @param instance the instance
+     */
+    @ApiStatus.Internal
+    public static void untrack(@NotNull Object instance) {
+        if (!enabled || TRACKED.isEmpty()) return;
+        TRACKED.removeIf(tracked -> tracked.get() == instance);
+    }
+
+    private static void report() {
+        val plugin = LeakDetector.plugin;
+        val walker = LeakDetector.walker;
+        if (plugin == null || walker == null) return;
+        val now = System.nanoTime();
+        val leaked = findLeaked(now, true);
+        if (leaked.isEmpty()) return;
+        // mark before walking, so the next report does not walk for the same instances again
+        leaked.values().forEach(tracked -> tracked.reported = true);
+        // the roots are read from the server, the walk only reads fields and may run on any thread
+        val roots = collectRoots();
+        walker.execute(() -> {
+            val holders = findHolders(leaked.keySet(), roots);
+            leaked.forEach((instance, tracked) ->
+                    plugin.getLogger().warning("Possible leak: " + describe(tracked, holders.get(instance), now) + format(tracked.site.getStackTrace())));
+        });
+    }
+
+    @NotNull
+    private static Map<Object, Tracked> findLeaked(long now, boolean unreportedOnly) {
+        drain();
+        val leaked = new IdentityHashMap<Object, Tracked>();
+        for (Tracked tracked : TRACKED) {
+            if ((unreportedOnly && tracked.reported) || now - tracked.destroyedAt < thresholdNanos) continue;
+            val instance = tracked.get();
+            if (instance != null) leaked.put(instance, tracked);
+        }
+        return leaked;
+    }
+
+    private static void drain() {
+        Reference<?> reference;
+        while ((reference = QUEUE.poll()) != null) TRACKED.remove(reference);
+    }
+
+    @NotNull
+    private static String describe(@NotNull Tracked tracked, @Nullable String holder, long now) {
+        return tracked.description + " is still reachable "
+                + TimeUnit.NANOSECONDS.toSeconds(now - tracked.destroyedAt) + " seconds after being destroyed, "
+                + (holder == null ? "no holder found from the roots (e.g. held by a local variable or a static field of another plugin)" : "held by " + holder);
+    }
+
+    /**
+     * 收集遍历对象图的根对象，应在主线程中调用。
+     * <p>
+     * Collect the roots of walking the object graph, should be called on the main thread.
+     *
+     * @return the root nodes
+     */
+    @NotNull
+    private static List<Node> collectRoots() {
+        val roots = Lists.<Node>newArrayList();
+        for (Class<?> root : ROOT_CLASSES) {
+            for (Field field : root.getDeclaredFields()) {
+                if (!Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) continue;
+                val value = read(field, null);
+                if (value != null) roots.add(Node.root(value, root.getSimpleName() + "." + field.getName()));
+            }
+        }
+        for (Plugin plugin : Bukkit.getPluginManager().getPlugins()) roots.add(Node.root(plugin, "plugin " + plugin.getName()));
+        for (Plugin plugin : Bukkit.getPluginManager().getPlugins()) {
+            for (RegisteredListener listener : HandlerList.getRegisteredListeners(plugin)) {
+                roots.add(Node.root(listener.getListener(), "listener " + listener.getListener().getClass().getName()));
+            }
+        }
+        return roots;
+    }
+
+    /**
+     * 从根对象出发广度优先地遍历对象图，找出到达每个目标实例的最短引用路径。
+     * <br/>
+     * 路径仅在找到目标实例时才会被构建，遍历期间不会调用被遍历对象的任何方法（集合及映射的迭代除外）。
+     * <p>
+     * Walk the object graph breadth-first from the roots, finding the shortest reference path reaching every target instance.
+     * <br/>
+     * Paths are only built once a target instance is found,
+     * no method of the walked objects is called while walking (except iterating collections and maps).
+     *
+     * @return the reference paths by target instance
+     */
+    @NotNull
+    private static Map<Object, String> findHolders(@NotNull Set<Object> targets, @NotNull List<Node> roots) {
+        val paths = new IdentityHashMap<Object, String>();
+        if (targets.isEmpty()) return paths;
+        val visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        val queue = new ArrayDeque<Node>(roots);
+
+        while (!queue.isEmpty() && visited.size() < MAX_WALKED && paths.size() < targets.size()) {
+            val node = queue.poll();
+            if (!visited.add(node.value)) continue;
+            if (targets.contains(node.value)) paths.put(node.value, node.path());
+            try {
+                expand(node, queue);
+            } catch (RuntimeException ignored) {
+                // e.g. inaccessible fields or collections modified concurrently
+            }
+        }
+        return paths;
+    }
+
+    private static void expand(@NotNull Node node, @NotNull ArrayDeque<Node> queue) {
+        val value = node.value;
+        val type = value.getClass();
+        if (type.isArray()) {
+            if (type.getComponentType().isPrimitive()) return;
+            val array = (Object[]) value;
+            for (int i = 0; i < array.length; i++) {
+                if (array[i] != null) queue.add(new Node(array[i], node, Segment.ELEMENT, null, i));
+            }
+        } else if (value instanceof Map) {
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                if (entry.getKey() != null) queue.add(new Node(entry.getKey(), node, Segment.KEY, entry.getKey(), 0));
+                if (entry.getValue() != null) queue.add(new Node(entry.getValue(), node, Segment.VALUE, entry.getKey(), 0));
+            }
+        } else if (value instanceof Collection) {
+            int i = 0;
+            for (Object element : (Collection<?>) value) {
+                if (element != null) queue.add(new Node(element, node, Segment.ELEMENT, null, i));
+                i++;
+            }
+        } else {
+            for (Class<?> declaring = type; declaring != null && !isOpaque(declaring); declaring = declaring.getSuperclass()) {
+                for (Field field : declaring.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers()) || field.getType().isPrimitive()) continue;
+                    val child = read(field, value);
+                    if (child != null) queue.add(new Node(child, node, Segment.FIELD, field, 0));
+                }
+            }
+        }
+    }
+
+    @Nullable
+    private static Object read(@NotNull Field field, @Nullable Object owner) {
+        try {
+            field.setAccessible(true);
+            return field.get(owner);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static boolean isOpaque(@NotNull Class<?> type) {
+        if (type == LeakDetector.class || type.getEnclosingClass() == LeakDetector.class) return true;
+        val name = type.getName();
+        for (String prefix : OPAQUE_PACKAGES) {
+            if (name.startsWith(prefix)) return true;
+        }
+        return false;
+    }
+
+    @NotNull
+    private static String format(@NotNull StackTraceElement[] stack) {
+        val builder = new StringBuilder(", destroyed at:");
+        // skip the frame of track()
+        for (int i = 1; i < stack.length; i++) builder.append("\n\tat ").append(stack[i]);
+        return builder.toString();
+    }
+
+    /**
+     * 引用路径中一段的种类。
+     * <p>
+     * The kind of a segment in the reference path.
+     */
+    private enum Segment {
+        ROOT, FIELD, ELEMENT, KEY, VALUE
+    }
+
+    /**
+     * 对象图中的一个节点，通过父节点链接构成引用路径。
+     * <br/>
+     * 节点仅保存构成路径片段所需的引用（字段、下标或映射的键），路径文本仅在 {@link #path()} 中构建。
+     * <p>
+     * A node in the object graph, forming the reference path by linking to its parent.
+     * <br/>
+     * A node only keeps what its path segment is made of (the field, the index or the key of the map),
+     * the text of the path is only built in {@link #path()}.
+     */
+    @RequiredArgsConstructor
+    private static class Node {
+        @NotNull
+        private final Object value;
+        @Nullable
+        private final Node parent;
+        @NotNull
+        private final Segment segment;
+        @Nullable
+        private final Object label;
+        private final int index;
+
+        @NotNull
+        private static Node root(@NotNull Object value, @NotNull String name) {
+            return new Node(value, null, Segment.ROOT, name, 0);
+        }
+
+        @NotNull
+        private String path() {
+            val nodes = Lists.<Node>newArrayList();
+            for (Node node = this; node != null; node = node.parent) nodes.add(node);
+            Collections.reverse(nodes);
+            val builder = new StringBuilder();
+            for (Node node : nodes) node.appendSegment(builder);
+            return builder.toString();
+        }
+
+        private void appendSegment(@NotNull StringBuilder builder) {
+            switch (segment) {
+                case ROOT:
+                    builder.append(label);
+                    break;
+                case FIELD:
+                    builder.append('.').append(((Field) label).getName());
+                    break;
+                case ELEMENT:
+                    builder.append('[').append(index).append(']');
+                    break;
+                case KEY:
+                    builder.append(".keys[").append(describeKey(label)).append(']');
+                    break;
+                case VALUE:
+                    builder.append('[').append(describeKey(label)).append(']');
+                    break;
+            }
+        }
+
+        @NotNull
+        private static String describeKey(@Nullable Object key) {
+            try {
+                return String.valueOf(key);
+            } catch (RuntimeException e) {
+                return key.getClass().getName();
+            }
+        }
+    }
+
+    /**
+     * 对一个已销毁实例的弱引用。
+     * <p>
+     * Weak reference to a destroyed instance.
+     */
+    private static class Tracked extends WeakReference<Object> {
+
+        @NotNull
+        private final String description;
+
+        @NotNull
+        private final Throwable site;
+
+        private final long destroyedAt = System.nanoTime();
+
+        private volatile boolean reported;
+
+        private Tracked(@NotNull Object instance, @NotNull String description, @NotNull Throwable site) {
+            super(instance, QUEUE);
+            this.description = description;
+            this.site = site;
+        }
+    }
+
+    /**
+     * 追踪被卸载的世界。
+     * <p>
+     * Tracks unloaded worlds.
+     */
+    private static class WorldListener implements Listener {
+        @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+        public void onWorldUnload(WorldUnloadEvent e) {
+            track(e.getWorld(), "World " + e.getWorld().getName() + " (" + e.getWorld().getUID() + ")");
+        }
+    }
+}
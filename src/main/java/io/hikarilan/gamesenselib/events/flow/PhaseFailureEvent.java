@@ -0,0 +1,54 @@
+package io.hikarilan.gamesenselib.events.flow;
+
+import io.hikarilan.gamesenselib.events.AbstractGameEvent;
+import io.hikarilan.gamesenselib.flows.Phase;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.TimeoutException;
+
+/**
+ * 阶段失败事件。
+ * <br/>
+ * 当一个阶段（例如 {@link io.hikarilan.gamesenselib.flows.AsyncPhase}）等待的异步操作失败或超时时，
+ * {@link io.hikarilan.gamesenselib.flows.FlowManager} 将发布此事件。
+ * <br/>
+ * 发布此事件后，该阶段将被视为已结束，以免流程被永久阻塞；
+ * 您可以选择监听此事件并在随后的 {@link FlowPointerTransferEvent} 中重定向下一个 Flow。
+ * <p>
+ * Phase failure event.
+ * <br/>
+ * The {@link io.hikarilan.gamesenselib.flows.FlowManager} will publish this event when the asynchronous operation
+ * a phase (such as {@link io.hikarilan.gamesenselib.flows.AsyncPhase}) is waiting for fails or times out.
+ * <br/>
+ * After this event, the phase will be considered ended to avoid blocking the flow forever;
+ * You can choose to listen to this event and redirect the next Flow in the following {@link FlowPointerTransferEvent}.
+ */
+public class PhaseFailureEvent extends AbstractGameEvent {
+
+    @Getter
+    @NotNull
+    private final Phase phase;
+
+    @Getter
+    @NotNull
+    private final Throwable cause;
+
+    public PhaseFailureEvent(AbstractGame game, @NotNull Phase phase, @NotNull Throwable cause) {
+        super(game);
+        this.phase = phase;
+        this.cause = cause;
+    }
+
+    /**
+     * 检查失败是否由超时导致。
+     * <p>
+     * Check whether the failure is caused by a timeout.
+     *
+     * @return {@code true} if the phase timed out
+     */
+    public boolean isTimeout() {
+        return cause instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,30 @@
+package io.hikarilan.gamesenselib.events.game;
+
+import io.hikarilan.gamesenselib.events.AbstractGameEvent;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import lombok.Getter;
+
+/**
+ * 玩家重新加入游戏的保留期已过事件。
+ * <br/>
+ * 此事件的发布意味着退出游戏的玩家未能在宽限期内重新加入游戏，其将无法再重新加入，
+ * 事件分发完毕后其玩家实例将被销毁。
+ * <p>
+ * Player rejoin reservation expired event.
+ * <br/>
+ * The publication of this event means that the player who quit the game has not rejoined within the grace period,
+ * and can no longer rejoin, its player instance will be destroyed after the event is dispatched.
+ *
+ * @see io.hikarilan.gamesenselib.modules.extra.IngamePlayerRejoinGameModule
+ */
+public class PlayerRejoinReservationExpiredEvent extends AbstractGameEvent {
+
+    @Getter
+    private final AbstractPlayer player;
+
+    public PlayerRejoinReservationExpiredEvent(AbstractGame game, AbstractPlayer player) {
+        super(game);
+        this.player = player;
+    }
+}
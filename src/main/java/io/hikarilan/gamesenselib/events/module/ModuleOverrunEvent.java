@@ -0,0 +1,89 @@
+package io.hikarilan.gamesenselib.events.module;
+
+import io.hikarilan.gamesenselib.events.AbstractCancellableGameEvent;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.modules.IModule;
+import io.hikarilan.gamesenselib.modules.ModuleWatchdog;
+import lombok.Getter;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * 模块超时事件。
+ * <br/>
+ * 当一个模块多次 tick 超出 {@link ModuleWatchdog} 的预算，看门狗即将降低其 tick 频率或将其隔离时，将发布此事件。
+ * 通过调用 {@link #setCancelled(boolean)} 方法可以阻止此次处理。
+ * <p>
+ * Module overrun event.
+ * <br/>
+ * Published when a module repeatedly exceeds the tick budget of the {@link ModuleWatchdog},
+ * and the watchdog is about to reduce its tick frequency or quarantine it.
+ * By calling the {@link #setCancelled(boolean)} method, the action can be prevented.
+ *
+ * @see ModuleWatchdog
+ */
+@Getter
+public class ModuleOverrunEvent extends AbstractCancellableGameEvent {
+
+    /**
+     * 看门狗即将对模块进行的处理。
+     * <p>
+     * The action the watchdog is about to take on the module.
+     */
+    public enum Action {
+        /**
+         * 降低模块的 tick 频率。
+         * <p>
+         * Reduce the tick frequency of the module.
+         */
+        THROTTLE,
+        /**
+         * 隔离模块，被隔离的模块将不再被 tick。
+         * <p>
+         * Quarantine the module, a quarantined module will not be ticked anymore.
+         */
+        QUARANTINE
+    }
+
+    @NotNull
+    private final IModule module;
+
+    @NotNull
+    private final Action action;
+
+    /**
+     * 最近一次 tick 的耗时（纳秒）。
+     * <p>
+     * The cost of the last tick in nanoseconds.
+     */
+    private final long tickNanos;
+
+    /**
+     * 模块当前累计的超时次数。
+     * <p>
+     * The number of overruns the module currently accumulated.
+     */
+    private final int strikes;
+
+    /**
+     * 模块超时期间采集的调用栈，如果未能采集则为 {@code null}。
+     * <p>
+     * The stack sampled while the module overran, or {@code null} if not sampled.
+     */
+    @Nullable
+    private final StackTraceElement[] stackSample;
+
+    public ModuleOverrunEvent(AbstractGame game,
+                              @NotNull IModule module,
+                              @NotNull Action action,
+                              long tickNanos,
+                              int strikes,
+                              @Nullable StackTraceElement[] stackSample) {
+        super(game);
+        this.module = module;
+        this.action = action;
+        this.tickNanos = tickNanos;
+        this.strikes = strikes;
+        this.stackSample = stackSample;
+    }
+}
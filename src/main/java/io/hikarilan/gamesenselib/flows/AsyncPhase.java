@@ -0,0 +1,165 @@
+package io.hikarilan.gamesenselib.flows;
+
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.schedulers.ITickTask;
+import io.hikarilan.gamesenselib.utils.Durations;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * 代表一个等待异步操作完成的阶段。
+ * <br/>
+ * 当该阶段开始时，{@link #onStartAsync} 将被调用并返回一个 {@link CompletableFuture}，
+ * 该阶段将在此 {@link CompletableFuture} 完成时结束，可用于诸如加载地图、读取玩家资料或写入排行榜等 I/O 操作。
+ * <br/>
+ * 在等待期间，主线程不会轮询该阶段；如果当前流程中的所有阶段均在等待，则流程管理器将进入休眠，直到任意一个阶段被唤醒。
+ * <br/>
+ * 如果 {@link CompletableFuture} 异常完成或等待超时，
+ * {@link FlowManager} 将发布 {@link io.hikarilan.gamesenselib.events.flow.PhaseFailureEvent} 事件，然后该阶段将被视为已结束。
+ * <p>
+ * Represents a phase waiting for an asynchronous operation.
+ * <br/>
+ * When the phase starts, {@link #onStartAsync} will be invoked and return a {@link CompletableFuture},
+ * the phase will end when the {@link CompletableFuture} completes,
+ * can be used for I/O operations such as loading a map, player profiles or a leaderboard write.
+ * <br/>
+ * The main thread does not poll the phase while waiting; If all phases of the current flow are waiting,
+ * the flow manager will sleep until any of them is woken up.
+ * <br/>
+ * If the {@link CompletableFuture} completes exceptionally or the waiting times out,
+ * the {@link FlowManager} will publish the {@link io.hikarilan.gamesenselib.events.flow.PhaseFailureEvent} event,
+ * then the phase will be considered ended.
+ * <p>
+ * Here's an example to load a map as a phase.
+ * <pre><code>
+ *     AsyncPhase.asyncBuilder()
+ *     .onStartAsync(game -> CompletableFuture.runAsync(() -> loadMap()))
+ *     .timeout(Duration.ofSeconds(30))
+ *     .build();
+ * </code></pre>
+ */
+@SuppressWarnings("unused")
+public class AsyncPhase extends Phase {
+
+    /**
+     * 当阶段开始时被调用，返回该阶段所等待的 {@link CompletableFuture}。
+     * <p>
+     * Invoked when phase first run, returns the {@link CompletableFuture} the phase waits for.
+     */
+    @NotNull
+    private final Function<AbstractGame, CompletableFuture<?>> onStartAsync;
+
+    /**
+     * 等待超时时间，{@code null} 表示永不超时。
+     * <p>
+     * The waiting timeout, {@code null} for never.
+     */
+    @Nullable
+    private final Duration timeout;
+
+    /**
+     * 等待的异步操作是否已完成（无论成功与否）。
+     * <p>
+     * Whether the asynchronous operation waited for is completed (successfully or not).
+     */
+    private boolean completed;
+
+    /**
+     * 等待的异步操作失败的原因，如果成功或尚未完成则为 {@code null}。
+     * <p>
+     * The cause of failure of the asynchronous operation waited for, {@code null} if succeeded or not completed yet.
+     */
+    @Getter
+    @Nullable
+    private Throwable failure;
+
+    /**
+     * 当前阶段的代数，每次 {@link #init()} 时递增，用于丢弃上一轮游戏的回调。
+     * <p>
+     * Generation of this phase, increased every {@link #init()}, used to drop the callbacks of the previous round.
+     */
+    private int generation;
+
+    private boolean waiting;
+
+    @Nullable
+    private ITickTask timeoutTask;
+
+    @Builder(builderMethodName = "asyncBuilder")
+    public AsyncPhase(@NotNull Function<AbstractGame, CompletableFuture<?>> onStartAsync,
+                      @Nullable Duration timeout,
+                      @Nullable Consumer<AbstractGame> onEnd) {
+        super(null, null, onEnd);
+        this.onStartAsync = onStartAsync;
+        this.timeout = timeout;
+        this.onStart = this::start;
+        this.onTick = (_ignored) -> completed;
+    }
+
+    private void start(@NotNull AbstractGame game) {
+        val currentGeneration = generation;
+        waiting = true;
+
+        CompletableFuture<?> future;
+        try {
+            future = onStartAsync.apply(game);
+        } catch (Throwable throwable) {
+            future = new CompletableFuture<>();
+            future.completeExceptionally(throwable);
+        }
+
+        if (timeout != null) {
+            timeoutTask = game.getTickScheduler().runLater(
+                    () -> complete(game, currentGeneration, new TimeoutException("Phase timed out after " + timeout)),
+                    Math.max(1, Durations.toTick(timeout)));
+        }
+
+        future.whenComplete((_ignored, throwable) -> game.getTickScheduler().execute(() -> complete(game, currentGeneration, throwable)));
+    }
+
+    private void complete(@NotNull AbstractGame game, int completedGeneration, @Nullable Throwable throwable) {
+        // already completed, or completed by the previous round
+        if (completed || completedGeneration != generation) return;
+        completed = true;
+        waiting = false;
+        if (timeoutTask != null) timeoutTask.cancel();
+        timeoutTask = null;
+
+        if (throwable instanceof CompletionException && throwable.getCause() != null) throwable = throwable.getCause();
+        failure = throwable;
+        if (throwable != null) game.getFlowManager().onPhaseFailure(this, throwable);
+
+        game.getFlowManager().wake();
+    }
+
+    @Override
+    boolean isParked() {
+        return waiting;
+    }
+
+    @Override
+    public void init() {
+        super.init();
+        generation++;
+        completed = false;
+        waiting = false;
+        failure = null;
+    }
+
+    @Override
+    public void destroy() {
+        super.destroy();
+        if (timeoutTask != null) timeoutTask.cancel();
+        timeoutTask = null;
+    }
+}
@@ -4,7 +4,12 @@ import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import io.hikarilan.gamesenselib.artifacts.IReusable;
 import io.hikarilan.gamesenselib.events.flow.FlowPointerTransferEvent;
+import io.hikarilan.gamesenselib.events.flow.PhaseFailureEvent;
 import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.TickRate;
+import io.hikarilan.gamesenselib.timings.FlightRecorderEvents;
+import io.hikarilan.gamesenselib.timings.TickTimings;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.ToString;
 import lombok.val;
@@ -12,6 +17,7 @@ import lombok.var;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
@@ -52,6 +58,19 @@ public class FlowManager implements IReusable {
 
     private int pointer;
 
+    /**
+     * 流程管理器是否正在休眠。
+     * <br/>
+     * 当当前流程中的所有阶段均在等待被唤醒时，流程管理器将进入休眠，休眠期间 {@link #tick()} 不会 tick 任何阶段。
+     * <p>
+     * Whether the flow manager is sleeping.
+     * <br/>
+     * The flow manager sleeps when all phases of the current flow are waiting to be woken up,
+     * {@link #tick()} will not tick any phase while sleeping.
+     */
+    @Getter
+    private volatile boolean sleeping;
+
     /**
      * 尝试进入下一个流程。
      * <br/>
@@ -99,7 +118,12 @@ public class FlowManager implements IReusable {
      * @see FlowManager
      */
     public boolean tick() {
+        // all phases are waiting, nothing to do until woken up
+        if (sleeping) return false;
+
         AtomicBoolean isFinish = new AtomicBoolean(true);
+        AtomicBoolean isAllParked = new AtomicBoolean(true);
+        val timed = TickTimings.isEnabled();
 
         // get current flow
         var flow = flows.get(pointer);
@@ -107,24 +131,142 @@ public class FlowManager implements IReusable {
         // if flow exists, tick all phases
         if (flow != null) {
             flow.forEach(it -> {
+                // a waiting phase is not ticked, and the flow will be considered unfinished.
+                if (it.isParked()) {
+                    isFinish.set(false);
+                    return;
+                }
                 // if any phase return false, the flow will be considered unfinished.
-                if (!it.tick(game)) isFinish.set(false);
+                if (!tickPhase(it, timed)) isFinish.set(false);
+                if (!it.isParked()) isAllParked.set(false);
             });
+
+            // if all phases are waiting, sleep until woken up.
+            if (!flow.isEmpty() && isAllParked.get()) {
+                sleeping = true;
+                // a signal may have fired before sleeping, recheck to avoid missing the wake-up.
+                if (!flow.stream().allMatch(Phase::isParked)) sleeping = false;
+            }
         }
 
         // if the flow finished (all phases return true), enter next flow.
         if (isFinish.get()) {
-            return next();
+            val from = pointer;
+            val entered = next();
+            if (entered) {
+                FlightRecorderEvents.flowTransition(game, from, pointer);
+                updateTickRate();
+            }
+            return entered;
         }
 
         // or, continue this flow.
         return false;
     }
 
+    private boolean tickPhase(@NotNull Phase phase, boolean timed) {
+        if (!timed) return phase.tick(game);
+        val start = System.nanoTime();
+        try {
+            return phase.tick(game);
+        } finally {
+            game.getTimings().recordPhase(phase, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * 唤醒流程管理器，使其在下一次 {@link #tick()} 时重新检查当前流程中的所有阶段。
+     * <br/>
+     * 该方法可在任意线程中调用。
+     * <p>
+     * Wake up the flow manager, so that it rechecks all phases of the current flow at the next {@link #tick()}.
+     * <br/>
+     * This method can be called from any thread.
+     */
+    public void wake() {
+        sleeping = false;
+    }
+
+    /**
+     * 报告一个阶段失败，这将发布 {@link PhaseFailureEvent} 事件。
+     * <p>
+     * Report a phase failure, this will publish the {@link PhaseFailureEvent} event.
+     *
+     * @param phase the failed phase
+     * @param cause the cause of the failure
+     */
+    public void onPhaseFailure(@NotNull Phase phase, @NotNull Throwable cause) {
+        game.postEvent(new PhaseFailureEvent(game, phase, cause));
+    }
+
+    /**
+     * 获取当前流程的优先级。
+     * <p>
+     * Get the priority of the current flow.
+     *
+     * @return the flow pointer
+     */
+    public int getPointer() {
+        return pointer;
+    }
+
+    /**
+     * 检查当前流程是否允许游戏实例进入休眠，即当前流程中的所有阶段均允许休眠。
+     * <p>
+     * Check whether the current flow allows the game instance to hibernate, i.e. all phases of the current flow allow it.
+     *
+     * @return {@code true} if allowed
+     * @see Phase#isHibernatable()
+     */
+    public boolean isHibernatable() {
+        val flow = flows.get(pointer);
+        if (flow == null || flow.isEmpty()) return false;
+        for (Phase phase : flow) {
+            if (!phase.isHibernatable()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 根据当前流程中各阶段所需的 tick 频率更新游戏实例的 tick 频率。
+     * <br/>
+     * 将使用当前流程中最快的阶段频率，如果没有阶段指定频率，则使用游戏实例的默认频率。
+     * <p>
+     * Update the tick rate of the game instance according to the tick rates required by phases of the current flow.
+     * <br/>
+     * The fastest rate of the phases of the current flow will be used,
+     * or the default rate of the game instance if no phase specifies one.
+     *
+     * @see Phase#getTickRate()
+     */
+    public void updateTickRate() {
+        TickRate rate = null;
+        for (Phase phase : getCurrentPhases()) {
+            val required = phase.getTickRate();
+            if (required != null) rate = rate == null ? required : TickRate.faster(rate, required);
+        }
+        game.setTickRate(rate == null ? game.getDefaultTickRate() : rate);
+    }
+
+    /**
+     * 获取当前正在运行的流程中的所有阶段。
+     * <p>
+     * Get all phases of the flow currently running.
+     *
+     * @return phases of the current flow, or an empty list if the current flow does not exist
+     */
+    @NotNull
+    public List<Phase> getCurrentPhases() {
+        val flow = flows.get(pointer);
+        return flow == null ? Collections.emptyList() : flow;
+    }
+
     @Override
     public void init() {
         flows.values().stream().flatMap(List::stream).forEach(Phase::init);
         pointer = 0;
+        sleeping = false;
+        updateTickRate();
     }
 
     @Override
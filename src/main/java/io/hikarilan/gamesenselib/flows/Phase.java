@@ -1,7 +1,10 @@
 package io.hikarilan.gamesenselib.flows;
 
+import io.hikarilan.gamesenselib.artifacts.CommandBuffer;
 import io.hikarilan.gamesenselib.artifacts.IReusable;
 import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.TickRate;
+import io.hikarilan.gamesenselib.timings.FlightRecorderEvents;
 import lombok.Builder;
 import lombok.val;
 import org.jetbrains.annotations.NotNull;
@@ -9,9 +12,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.time.Duration;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiPredicate;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.Predicate;
-import java.util.function.Supplier;
 
 import static io.hikarilan.gamesenselib.utils.Durations.isZeroOrNegative;
 import static io.hikarilan.gamesenselib.utils.Durations.ofTick;
@@ -68,12 +72,79 @@ public class Phase implements IReusable {
      * Invoked when phase ended it run.
      */
     Consumer<AbstractGame> onEnd;
+    /**
+     * 当阶段持续运行时在工作线程中被调用，用于代替 {@link #onTick}，直到其返回 <code>true</code>。
+     * <br/>
+     * 该函数中<b>不应</b>调用任何 Bukkit API，所有副作用都应被记录到给定的 {@link CommandBuffer} 中。
+     * <p>
+     * Invoked on a worker thread when phase running in place of {@link #onTick}, until it returns <code>true</code>.
+     * <br/>
+     * The Bukkit API <b>should not</b> be called in this function,
+     * all side effects should be recorded into the given {@link CommandBuffer} instead.
+     *
+     * @see io.hikarilan.gamesenselib.modules.IAsyncModule
+     */
+    @Nullable
+    BiPredicate<AbstractGame, CommandBuffer> onAsyncTick;
+
+    /**
+     * 当阶段进入运行部分时被调用，返回该阶段所等待的信号。
+     * <br/>
+     * 如果设置了该值，{@link #onTick} 将仅在进入运行部分时以及每次信号触发后被调用，而不是每刻被调用。
+     * <p>
+     * Invoked when phase enters the running part, returns the signal the phase waits for.
+     * <br/>
+     * If set, {@link #onTick} will only be invoked when entering the running part and every time the signal fires,
+     * instead of every tick.
+     *
+     * @see PhaseSignal
+     */
+    @Nullable
+    Function<AbstractGame, PhaseSignal> awaiting;
+
+    /**
+     * 当游戏实例中没有玩家时，是否允许游戏实例在该阶段运行期间进入休眠（默认：不允许）。
+     * <p>
+     * Whether the game instance is allowed to hibernate while this phase running when there's no player in it (default: not allowed).
+     *
+     * @see AbstractGame#hibernate()
+     */
+    boolean hibernatable;
+
+    /**
+     * 该阶段运行期间游戏实例所需的 tick 频率，如果为 {@code null} 则使用游戏实例的默认频率。
+     * <br/>
+     * 当同一流程中的多个阶段要求不同的频率时，将使用其中最快的一个；未指定频率的阶段不会影响该流程的频率。
+     * <p>
+     * The tick rate the game instance needs while this phase running, or {@code null} to use the default rate of the game instance.
+     * <br/>
+     * When several phases of the same flow require different rates, the fastest one will be used;
+     * phases without a specified rate do not affect the rate of the flow.
+     *
+     * @see AbstractGame#getDefaultTickRate()
+     */
+    @Nullable
+    TickRate tickRate;
 
-    @Builder
     public Phase(@Nullable Consumer<AbstractGame> onStart, @Nullable Predicate<AbstractGame> onTick, @Nullable Consumer<AbstractGame> onEnd) {
+        this(onStart, onTick, onEnd, null, null, false, null);
+    }
+
+    @Builder
+    public Phase(@Nullable Consumer<AbstractGame> onStart,
+                 @Nullable Predicate<AbstractGame> onTick,
+                 @Nullable Consumer<AbstractGame> onEnd,
+                 @Nullable BiPredicate<AbstractGame, CommandBuffer> onAsyncTick,
+                 @Nullable Function<AbstractGame, PhaseSignal> awaiting,
+                 boolean hibernatable,
+                 @Nullable TickRate tickRate) {
         this.onStart = onStart;
         this.onTick = onTick;
         this.onEnd = onEnd;
+        this.onAsyncTick = onAsyncTick;
+        this.awaiting = awaiting;
+        this.hibernatable = hibernatable;
+        this.tickRate = tickRate;
         if (onStart == null) {
             this.onStart = (_ignored) -> {
             };
@@ -89,8 +160,12 @@ public class Phase implements IReusable {
 
     /**
      * 在游戏的一个阶段中延迟指定时间
+     * <br/>
+     * 每次调用所经过的时间将根据游戏实例当前的 tick 频率计算。
      * <p>
      * Delay specify duration in the game
+     * <br/>
+     * The time elapsed by every invocation is calculated according to the current tick rate of the game instance.
      * <p>
      * Here's an example to delay 100 tick as a phase.
      * <pre><code>
@@ -101,11 +176,12 @@ public class Phase implements IReusable {
      *
      * @param duration delay duration
      * @return onTick function
+     * @see AbstractGame#getTickRate()
      */
     @NotNull
-    public static Supplier<Boolean> delay(@NotNull Duration duration) {
+    public static Predicate<AbstractGame> delay(@NotNull Duration duration) {
         val remain = new AtomicReference<>(duration);
-        return () -> isZeroOrNegative(remain.updateAndGet(it -> it.minus(ofTick(1))));
+        return game -> isZeroOrNegative(remain.updateAndGet(it -> it.minus(ofTick(game.getTickRate().getPeriod()))));
     }
 
     /**
@@ -127,6 +203,27 @@ public class Phase implements IReusable {
      * Is {@link #onEnd} invoked;
      */
     private boolean isEndFinish;
+    /**
+     * onAsyncTick 是否返回 true。
+     * <p>
+     * Is {@link #onAsyncTick} return true.
+     */
+    private volatile boolean isAsyncTickFinish;
+
+    /**
+     * 当前等待的信号。
+     * <p>
+     * The signal currently waiting for.
+     */
+    @Nullable
+    private PhaseSignal signal;
+
+    /**
+     * 已处理的信号触发次数。
+     * <p>
+     * The number of signal fires handled.
+     */
+    private long signalCount;
 
     /**
      * 进行一次 tick。
@@ -140,17 +237,31 @@ public class Phase implements IReusable {
         if (!isStartFinish) {
             onStart.accept(game);
             isStartFinish = true;
+            FlightRecorderEvents.phaseStart(game, this);
             return false;
         }
 
         if (!isTickFinish) {
+            if (onAsyncTick != null) {
+                isTickFinish = isAsyncTickFinish;
+                return false;
+            }
+            if (awaiting != null) {
+                if (signal == null) {
+                    signal = awaiting.apply(game);
+                    signal.bind(game.getFlowManager());
+                }
+                signalCount = signal.getCount();
+            }
             isTickFinish = onTick.test(game);
+            if (isTickFinish) releaseSignal();
             return false;
         }
 
         if (!isEndFinish) {
             onEnd.accept(game);
             isEndFinish = true;
+            FlightRecorderEvents.phaseEnd(game, this);
             return false;
         }
         return true;
@@ -161,9 +272,82 @@ public class Phase implements IReusable {
         isStartFinish = false;
         isTickFinish = false;
         isEndFinish = false;
+        isAsyncTickFinish = false;
+        releaseSignal();
+    }
+
+    /**
+     * 检查该阶段当前是否正在等待被唤醒。
+     * <br/>
+     * 一个正在等待的阶段不会被 {@link FlowManager} 进行 tick，
+     * 如果当前流程中的所有阶段均在等待，则流程管理器将进入休眠，直到 {@link FlowManager#wake()} 被调用。
+     * <p>
+     * Check whether this phase is waiting to be woken up currently.
+     * <br/>
+     * A waiting phase will not be ticked by the {@link FlowManager},
+     * if all phases of the current flow are waiting, the flow manager will sleep until {@link FlowManager#wake()} is called.
+     *
+     * @return {@code true} if this phase is waiting
+     */
+    boolean isParked() {
+        return signal != null && !isTickFinish && signal.getCount() == signalCount;
+    }
+
+    /**
+     * 检查游戏实例是否允许在该阶段运行期间进入休眠。
+     * <p>
+     * Check whether the game instance is allowed to hibernate while this phase running.
+     *
+     * @return {@code true} if allowed
+     */
+    public boolean isHibernatable() {
+        return hibernatable;
+    }
+
+    /**
+     * 获取该阶段运行期间游戏实例所需的 tick 频率。
+     * <p>
+     * Get the tick rate the game instance needs while this phase running.
+     *
+     * @return the tick rate, or {@code null} to use the default rate of the game instance
+     */
+    @Nullable
+    public TickRate getTickRate() {
+        return tickRate;
+    }
+
+    private void releaseSignal() {
+        if (signal != null) signal.close();
+        signal = null;
+    }
+
+    /**
+     * 检查该阶段当前是否需要在工作线程中进行 tick。
+     * <p>
+     * Check whether this phase needs to be ticked on a worker thread currently.
+     *
+     * @return {@code true} if this phase needs to be ticked on a worker thread
+     */
+    public boolean isAsyncTicking() {
+        return onAsyncTick != null && isStartFinish && !isAsyncTickFinish;
+    }
+
+    /**
+     * 在工作线程中进行一次 tick。
+     * <p>
+     * tick once on a worker thread.
+     *
+     * @param game   the game instance
+     * @param buffer the command buffer to record side effects into
+     * @see #onAsyncTick
+     */
+    public void asyncTick(@NotNull AbstractGame game, @NotNull CommandBuffer buffer) {
+        if (onAsyncTick == null || isAsyncTickFinish) return;
+        isAsyncTickFinish = onAsyncTick.test(game, buffer);
     }
 
     @Override
     public void destroy() {
+        releaseSignal();
     }
 }
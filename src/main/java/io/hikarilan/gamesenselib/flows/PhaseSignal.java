@@ -0,0 +1,176 @@
+package io.hikarilan.gamesenselib.flows;
+
+import io.hikarilan.gamesenselib.events.AbstractGameEvent;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.utils.Durations;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 代表一个阶段唤醒信号。
+ * <br/>
+ * 一个声明了等待信号（{@link Phase#awaiting}）的阶段，其 {@link Phase#onTick} 仅会在进入运行部分时以及每次信号触发后被调用，
+ * 其余时间该阶段将处于等待状态，不会被 {@link FlowManager} 进行 tick；
+ * 如果当前流程中的所有阶段均处于等待状态，流程管理器将进入休眠，直到任意信号被触发。
+ * <br/>
+ * 信号可以被多个阶段同时等待，也可以被多次触发，每个阶段会独立记录其已处理的触发次数。
+ * <p>
+ * Represents a phase wake-up signal.
+ * <br/>
+ * For a phase declaring a signal to wait for ({@link Phase#awaiting}), its {@link Phase#onTick}
+ * will only be invoked when entering the running part and every time the signal fires,
+ * the phase will be waiting and will not be ticked by the {@link FlowManager} at other times;
+ * If all phases of the current flow are waiting, the flow manager will sleep until any signal fires.
+ * <br/>
+ * A signal can be waited for by multiple phases at the same time, and can be fired multiple times,
+ * every phase records the number of fires it has handled independently.
+ *
+ * @see Phase
+ */
+@SuppressWarnings("unused")
+public class PhaseSignal {
+
+    /**
+     * 信号被触发的次数。
+     * <p>
+     * The number of times the signal fired.
+     */
+    private final AtomicLong count = new AtomicLong();
+
+    /**
+     * 信号触发时需要唤醒的流程管理器。
+     * <p>
+     * The flow manager to wake up when the signal fires.
+     */
+    @Nullable
+    private volatile FlowManager target;
+
+    /**
+     * 信号被关闭时需要执行的清理操作。
+     * <p>
+     * The cleanup to run when the signal is closed.
+     */
+    @Nullable
+    private Runnable onClose;
+
+    /**
+     * 创建一个仅能被手动触发的信号。
+     * <p>
+     * Create a signal which can only be fired manually.
+     *
+     * @return the signal
+     * @see #fire()
+     */
+    @NotNull
+    public static PhaseSignal create() {
+        return new PhaseSignal();
+    }
+
+    /**
+     * 创建一个在指定游戏实例发布指定类型的事件后触发的信号。
+     * <p>
+     * Create a signal which fires after the specified type of event is published by the specified game instance.
+     *
+     * @param game the game instance
+     * @param type the type of the event
+     * @return the signal
+     */
+    @NotNull
+    public static PhaseSignal onEvent(@NotNull AbstractGame game, @NotNull Class<? extends AbstractGameEvent> type) {
+        val signal = new PhaseSignal();
+        game.registerEventSignal(type, signal);
+        signal.onClose = () -> game.unregisterEventSignal(type, signal);
+        return signal;
+    }
+
+    /**
+     * 创建一个在指定时间后触发一次的信号。
+     * <p>
+     * Create a signal which fires once after the specified duration.
+     *
+     * @param game     the game instance
+     * @param duration the duration
+     * @return the signal
+     */
+    @NotNull
+    public static PhaseSignal after(@NotNull AbstractGame game, @NotNull Duration duration) {
+        val signal = new PhaseSignal();
+        val task = game.getTickScheduler().runLater(signal::fire, Math.max(1, Durations.toTick(duration)));
+        signal.onClose = task::cancel;
+        return signal;
+    }
+
+    /**
+     * 创建一个每隔指定时间触发一次的信号。
+     * <p>
+     * Create a signal which fires every specified period.
+     *
+     * @param game   the game instance
+     * @param period the period
+     * @return the signal
+     */
+    @NotNull
+    public static PhaseSignal every(@NotNull AbstractGame game, @NotNull Duration period) {
+        val signal = new PhaseSignal();
+        val ticks = Math.max(1, Durations.toTick(period));
+        val task = game.getTickScheduler().runTimer(signal::fire, ticks, ticks);
+        signal.onClose = task::cancel;
+        return signal;
+    }
+
+    /**
+     * 触发该信号，唤醒所有正在等待该信号的阶段。
+     * <br/>
+     * 该方法可在任意线程中调用。
+     * <p>
+     * Fire this signal, wake up all phases waiting for this signal.
+     * <br/>
+     * This method can be called from any thread.
+     */
+    public void fire() {
+        count.incrementAndGet();
+        val flowManager = target;
+        if (flowManager != null) flowManager.wake();
+    }
+
+    /**
+     * 获取该信号被触发的次数。
+     * <p>
+     * Get the number of times this signal fired.
+     *
+     * @return the number of fires
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * 将该信号绑定到指定的流程管理器，信号触发时将唤醒该流程管理器。
+     * <p>
+     * Bind this signal to the specified flow manager, the flow manager will be woken up when the signal fires.
+     *
+     * @param flowManager the flow manager
+     */
+    void bind(@NotNull FlowManager flowManager) {
+        target = flowManager;
+    }
+
+    /**
+     * 关闭该信号，释放其占用的资源（例如取消计时器或注销事件监听）。
+     * <br/>
+     * 关闭后的信号仍可被手动触发。
+     * <p>
+     * Close this signal, release the resources it holds (such as cancelling the timer or unregistering the event listening).
+     * <br/>
+     * A closed signal can still be fired manually.
+     */
+    public void close() {
+        val cleanup = onClose;
+        onClose = null;
+        if (cleanup != null) cleanup.run();
+    }
+}
@@ -3,6 +3,7 @@ package io.hikarilan.gamesenselib.flows.extra;
 import com.google.common.collect.Sets;
 import io.hikarilan.gamesenselib.artifacts.PhaseAndModule;
 import io.hikarilan.gamesenselib.flows.Phase;
+import io.hikarilan.gamesenselib.games.TickRate;
 import io.hikarilan.gamesenselib.modules.extra.BossBarWaitingRoomModule;
 import io.hikarilan.gamesenselib.modules.extra.PhaseBlockingModule;
 import io.hikarilan.gamesenselib.players.AbstractPlayer;
@@ -31,6 +32,8 @@ public class ExtraPhases {
      * 该阶段所在优先级将会被持续阻塞，直到同优先级的其他阶段（或某个模块）调用 {@link PhaseBlockingModule#unlock()} 解除阻塞。
      * <br/>
      * 可被用于诸如等待玩家加入游戏的场景。
+     * <br/>
+     * 阻塞期间该阶段处于等待状态，不会被每刻轮询。
      * <p>
      * Create a blocking phase.
      * <br/>
@@ -40,15 +43,32 @@ public class ExtraPhases {
      * (or a module) call {@link PhaseBlockingModule#unlock()} to unblock.
      * <br/>
      * Can be used for scenarios such as waiting for players to join the game.
+     * <br/>
+     * The phase is waiting while blocked, and will not be polled every tick.
      *
      * @return phase and module for blocking.
      */
     public static PhaseAndModule<PhaseBlockingModule> blockingPhase() {
+        return blockingPhase(false);
+    }
+
+    /**
+     * 创建一个阻塞 Phase。
+     * <p>
+     * Create a blocking phase.
+     *
+     * @param hibernatable whether the game instance is allowed to hibernate while blocked without players
+     * @return phase and module for blocking.
+     * @see #blockingPhase()
+     */
+    public static PhaseAndModule<PhaseBlockingModule> blockingPhase(boolean hibernatable) {
         val module = new PhaseBlockingModule();
         return PhaseAndModule.of(Phase.builder()
                 .onStart(game -> game.installModule(module))
                 .onTick(game -> module.block())
+                .awaiting(game -> module.getUnlockSignal())
                 .onEnd(game -> game.uninstallModule(module))
+                .hibernatable(hibernatable)
                 .build(), module);
     }
 
@@ -86,6 +106,8 @@ public class ExtraPhases {
      * 该 Flow 将会自动安装和卸载 {@link BossBarWaitingRoomModule} 和 {@link PhaseBlockingModule}。
      * <br/>
      * 该阶段所在优先级将会被持续阻塞，玩家人数满足条件后自动解除阻塞。
+     * <br/>
+     * 该流程中没有玩家时允许游戏实例进入休眠，等待期间游戏实例将以 {@link TickRate#HZ_4} 的频率进行 tick。
      * <p>
      * Create a flow containing a waiting room and a blocking phase.
      * <br/>
@@ -93,6 +115,9 @@ public class ExtraPhases {
      * <br/>
      * The priority of the phase will be blocked continuously,
      * and the blocking will be automatically released after the number of players meets the conditions.
+     * <br/>
+     * The game instance is allowed to hibernate in this flow while there's no player,
+     * and ticks at {@link TickRate#HZ_4} while waiting.
      *
      * @return phase for waiting for game start.
      * @see #waitingForPlayersPhase(int, int, Duration, Location, Runnable)
@@ -105,7 +130,7 @@ public class ExtraPhases {
                                                            @Nullable Location lobbyLocation,
                                                            @Nullable Runnable onFinish,
                                                            @NotNull Class<? extends AbstractPlayer> ingamePlayerClass) {
-        val blockingPhaseAndModule = blockingPhase();
+        val blockingPhaseAndModule = blockingPhase(true);
         AtomicReference<BossBarWaitingRoomModule> waitingRoomModule = new AtomicReference<>();
         return Sets.newHashSet(blockingPhaseAndModule.getPhase(), Phase.builder()
                 .onStart(game -> {
@@ -114,7 +139,10 @@ public class ExtraPhases {
                         }
                 )
                 .onTick(game -> blockingPhaseAndModule.getModule().block())
+                .awaiting(game -> blockingPhaseAndModule.getModule().getUnlockSignal())
                 .onEnd(game -> game.uninstallModule(waitingRoomModule.get()))
+                .hibernatable(true)
+                .tickRate(TickRate.HZ_4)
                 .build());
     }
 
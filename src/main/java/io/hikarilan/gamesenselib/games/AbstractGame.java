@@ -1,30 +1,60 @@
 package io.hikarilan.gamesenselib.games;
 
+import com.google.common.collect.Lists;
 import com.google.common.collect.Maps;
 import com.google.common.collect.Sets;
+import io.hikarilan.gamesenselib.artifacts.CommandBuffer;
 import io.hikarilan.gamesenselib.artifacts.IReusable;
+import io.hikarilan.gamesenselib.debug.LeakDetector;
+import io.hikarilan.gamesenselib.events.AbstractGameEvent;
 import io.hikarilan.gamesenselib.events.IGameEventBus;
 import io.hikarilan.gamesenselib.events.IGameListener;
+import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
 import io.hikarilan.gamesenselib.flows.FlowManager;
+import io.hikarilan.gamesenselib.flows.Phase;
+import io.hikarilan.gamesenselib.flows.PhaseSignal;
+import io.hikarilan.gamesenselib.modules.IAsyncModule;
 import io.hikarilan.gamesenselib.modules.IModule;
 import io.hikarilan.gamesenselib.modules.IModuleHolder;
+import io.hikarilan.gamesenselib.modules.ModuleWatchdog;
 import io.hikarilan.gamesenselib.modules.bundled.BukkitEventMapperModule;
 import io.hikarilan.gamesenselib.modules.bundled.FlowTickModule;
 import io.hikarilan.gamesenselib.modules.bundled.ModuleTickModule;
 import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import io.hikarilan.gamesenselib.players.PlayerSlot;
+import io.hikarilan.gamesenselib.protections.ProtectionListener;
+import io.hikarilan.gamesenselib.protections.ProtectionRule;
+import io.hikarilan.gamesenselib.schedulers.BukkitTickScheduler;
+import io.hikarilan.gamesenselib.schedulers.ExecutorTickScheduler;
+import io.hikarilan.gamesenselib.schedulers.ITickScheduler;
+import io.hikarilan.gamesenselib.schedulers.RegionTickScheduler;
+import io.hikarilan.gamesenselib.timings.EventBusMetrics;
+import io.hikarilan.gamesenselib.timings.FlightRecorderEvents;
+import io.hikarilan.gamesenselib.timings.GameTimings;
+import io.hikarilan.gamesenselib.timings.LifecycleTracer;
+import io.hikarilan.gamesenselib.timings.TickTimings;
 import lombok.Getter;
+import lombok.val;
 import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.MeasuredEventBus;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.stream.Collectors;
 
 /**
@@ -35,8 +65,27 @@ import java.util.stream.Collectors;
 @SuppressWarnings("unused")
 public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEventBus {
 
+    private static final AtomicInteger NEXT_ID = new AtomicInteger();
+
+    /**
+     * 该游戏实例在当前服务端中的唯一 ID。
+     * <p>
+     * The unique id of this game instance in the current server.
+     */
+    @Getter
+    private final int id = NEXT_ID.incrementAndGet();
+
     private final Plugin plugin;
 
+    /**
+     * 该游戏实例的 tick 调度器，游戏实例的所有 tick 及玩家相关操作都将通过它进行调度。
+     * <p>
+     * The tick scheduler of this game instance, all ticks and player related operations of the game instance are scheduled by it.
+     */
+    @Getter
+    @NotNull
+    private final ITickScheduler tickScheduler;
+
     /**
      * 该游戏实例的流程管理器。
      * <p>
@@ -56,16 +105,171 @@ public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEve
     @Getter
     private final Set<IGameListener> handlerList = Sets.newHashSet();
 
+    /**
+     * 该游戏实例的事件总线统计，仅在 {@link EventBusMetrics#isEnabled()} 时进行记录。
+     * <p>
+     * The event bus statistics of this game instance, only recorded when {@link EventBusMetrics#isEnabled()}.
+     */
+    @Getter
+    private final EventBusMetrics eventMetrics = new EventBusMetrics();
+
     @Getter
-    private final EventBus eventBus = EventBus.builder()
+    private final EventBus eventBus = new MeasuredEventBus(EventBus.builder()
             .eventInheritance(false)
             .logNoSubscriberMessages(false)
-            .sendNoSubscriberEvent(false)
-            .build();
+            .sendNoSubscriberEvent(false), eventMetrics);
 
     @Getter
     private final Map<Class<? extends IModule>, IModule> installedModules = Maps.newHashMap();
 
+    /**
+     * 该游戏实例单次 tick 的平均耗时（纳秒，指数移动平均）。
+     * <p>
+     * Average cost of a single tick of this game instance in nanoseconds (exponential moving average).
+     */
+    @Getter
+    private long averageTickNanos;
+
+    /**
+     * 该游戏实例的 tick 耗时统计，仅在 {@link TickTimings#isEnabled()} 时进行记录。
+     * <p>
+     * The tick cost statistics of this game instance, only recorded when {@link TickTimings#isEnabled()}.
+     */
+    @Getter
+    private final GameTimings timings = new GameTimings();
+
+    /**
+     * 该游戏实例的模块 tick 看门狗（默认关闭）。
+     * <p>
+     * The module tick watchdog of this game instance (disabled by default).
+     */
+    @Getter
+    @NotNull
+    private final ModuleWatchdog watchdog;
+
+    /**
+     * 该游戏实例的玩家生命周期追踪（仅在 {@link LifecycleTracer#isEnabled()} 时记录）。
+     * <p>
+     * The player lifecycle tracing of this game instance (only recorded when {@link LifecycleTracer#isEnabled()}).
+     */
+    @Getter
+    @NotNull
+    private final LifecycleTracer lifecycleTracer;
+
+    /**
+     * 该游戏实例的玩家统计数据，每次初始化时将被清空。
+     * <p>
+     * The player statistics of this game instance, cleared on every initialization.
+     */
+    @Getter
+    @NotNull
+    private final StatStore stats = new StatStore();
+
+    /**
+     * 该游戏实例的类型，用于统计（默认：{@code custom}）。
+     * <p>
+     * The type of this game instance, used for statistics (default: {@code custom}).
+     *
+     * @see GameRegistry#getTypeCounts()
+     */
+    @Getter
+    @NotNull
+    private String type = "custom";
+
+    /**
+     * 该游戏实例的名称，在所有存活的游戏实例中唯一（不区分大小写），例如用于 {@code /join <name>}（默认：{@code game-<id>}）。
+     * <p>
+     * The name of this game instance, unique among all live game instances (case-insensitive),
+     * e.g. used by {@code /join <name>} (default: {@code game-<id>}).
+     *
+     * @see GameRegistry#findGame(String)
+     */
+    @Getter
+    @NotNull
+    private String name = "game-" + id;
+
+    /**
+     * 该游戏实例当前是否接受新玩家加入，例如处于等待大厅阶段（默认：否）。
+     * <p>
+     * Whether this game instance currently accepts new players, e.g. in the waiting room phase (default: no).
+     *
+     * @see GameRegistry#findJoinableGames(String)
+     */
+    @Getter
+    private boolean joinable;
+
+    /**
+     * 该游戏实例的最大玩家数，{@code 0} 表示不限制（默认：不限制）。
+     * <p>
+     * The maximum number of players of this game instance, {@code 0} for unlimited (default: unlimited).
+     */
+    @Getter
+    private int maxPlayers;
+
+    /**
+     * 该游戏实例启用的保护规则位掩码。
+     * <p>
+     * The bitmask of the protection rules enabled in this game instance.
+     */
+    private int protections;
+
+    /**
+     * 工作线程 tick 记录副作用所用的命令缓冲区。
+     * <p>
+     * The command buffer which the worker ticks record side effects into.
+     *
+     * @see IAsyncModule
+     */
+    @Getter
+    private final CommandBuffer commandBuffer = new CommandBuffer();
+
+    /**
+     * 正在进行的工作线程 tick，如果没有则为 {@code null}。
+     * <p>
+     * The worker tick in flight, or {@code null} if none.
+     */
+    @Nullable
+    private CompletableFuture<Void> asyncLane;
+
+    /**
+     * 等待指定类型事件的阶段唤醒信号。
+     * <p>
+     * Phase wake-up signals waiting for the specified type of events.
+     *
+     * @see PhaseSignal#onEvent(AbstractGame, Class)
+     */
+    private final Map<Class<? extends AbstractGameEvent>, Set<PhaseSignal>> eventSignals = Maps.newHashMap();
+
+    /**
+     * 该游戏实例是否正在休眠。
+     * <p>
+     * Whether this game instance is hibernating.
+     *
+     * @see #hibernate()
+     */
+    @Getter
+    private boolean hibernating;
+
+    /**
+     * 该游戏实例的默认 tick 频率，当当前流程中没有阶段指定频率时使用。
+     * <p>
+     * The default tick rate of this game instance, used when no phase of the current flow specifies one.
+     *
+     * @see Phase#getTickRate()
+     */
+    @Getter
+    @NotNull
+    private TickRate defaultTickRate = TickRate.HZ_20;
+
+    /**
+     * 该游戏实例当前的 tick 频率。
+     * <p>
+     * The current tick rate of this game instance.
+     */
+    @Getter
+    @NotNull
+    private TickRate tickRate = TickRate.HZ_20;
+
     /**
      * 生成一个游戏实例，并使用 {@link #generateFlowManager()} 方法的返回值生成流程管理器。
      * <br/>
@@ -78,7 +282,22 @@ public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEve
      * When used, you need to override the {@link #generateFlowManager()} method.
      */
     protected AbstractGame(@NotNull Plugin plugin) {
+        this(plugin, new BukkitTickScheduler(plugin));
+    }
+
+    /**
+     * 生成一个使用指定 tick 调度器的游戏实例，并使用 {@link #generateFlowManager()} 方法的返回值生成流程管理器。
+     * <p>
+     * Generate a game instance using the specified tick scheduler,
+     * and use the return value of the {@link #generateFlowManager()} method to generate the flow manager.
+     *
+     * @see #AbstractGame(Plugin)
+     */
+    protected AbstractGame(@NotNull Plugin plugin, @NotNull ITickScheduler tickScheduler) {
         this.plugin = plugin;
+        this.tickScheduler = tickScheduler;
+        this.watchdog = new ModuleWatchdog(this, plugin.getLogger());
+        this.lifecycleTracer = new LifecycleTracer(plugin.getLogger());
         this.flowManager = Objects.requireNonNull(generateFlowManager()).$game(this).build();
 
         init();
@@ -96,7 +315,22 @@ public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEve
      * you may use {@link io.hikarilan.gamesenselib.games.extra.DefaultGame} as the default implementation.
      */
     public AbstractGame(@NotNull Plugin plugin, @NotNull FlowManager.FlowManagerBuilder flowManagerBuilder) {
+        this(plugin, flowManagerBuilder, new BukkitTickScheduler(plugin));
+    }
+
+    /**
+     * 生成一个使用指定 tick 调度器的游戏实例，并使用给定的 {@link FlowManager.FlowManagerBuilder} 生成流程管理器。
+     * <p>
+     * Generate a game instance using the specified tick scheduler,
+     * and use the given {@link FlowManager.FlowManagerBuilder} to generate the flow manager.
+     *
+     * @see #AbstractGame(Plugin, FlowManager.FlowManagerBuilder)
+     */
+    public AbstractGame(@NotNull Plugin plugin, @NotNull FlowManager.FlowManagerBuilder flowManagerBuilder, @NotNull ITickScheduler tickScheduler) {
         this.plugin = plugin;
+        this.tickScheduler = tickScheduler;
+        this.watchdog = new ModuleWatchdog(this, plugin.getLogger());
+        this.lifecycleTracer = new LifecycleTracer(plugin.getLogger());
         this.flowManager = flowManagerBuilder.$game(this).build();
 
         init();
@@ -131,6 +365,31 @@ public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEve
                 .collect(Collectors.toSet());
     }
 
+    /**
+     * 获取该实例内的玩家实例数（包括离线玩家）。
+     * <p>
+     * Get the number of player instances in this instance (including offline players).
+     *
+     * @return the number of player instances in this instance
+     */
+    public int getPlayerCount() {
+        return players.size();
+    }
+
+    /**
+     * 获取该实例内所有玩家实例等待上线后执行的操作总数。
+     * <p>
+     * Get the total number of operations waiting for the players of this instance to be online.
+     *
+     * @return the offline queue depth
+     * @see AbstractPlayer#runWhenOnline(java.util.function.Consumer)
+     */
+    public int getOfflineQueueDepth() {
+        int depth = 0;
+        for (AbstractPlayer player : players) depth += player.getQueue().size();
+        return depth;
+    }
+
     /**
      * 获取该实例内的所有符合类条件的玩家实例的副本。
      * <p>
@@ -236,7 +495,10 @@ public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEve
      */
     public void removeAllPlayers() {
         Sets.newHashSet(players).forEach(AbstractPlayer::destroy);
+        players.forEach(player -> GameRegistry.unbindPlayer(this, player.getUniqueId()));
+        GameRegistry.countPlayers(this, -players.size());
         players.clear();
+        GameRegistry.updateJoinable(this);
     }
 
     /**
@@ -253,7 +515,10 @@ public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEve
     public void addPlayer(AbstractPlayer player) {
         if (!player.isWrapper(this))
             throw new IllegalArgumentException("The player is not belongs to this game instance.");
-        players.add(player);
+        if (hibernating) wakeUp();
+        if (players.add(player)) GameRegistry.countPlayers(this, 1);
+        GameRegistry.bindPlayer(this, player.getUniqueId());
+        if (LifecycleTracer.isEnabled()) lifecycleTracer.markAdded(player);
     }
 
     /**
@@ -270,7 +535,9 @@ public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEve
     public void removePlayer(AbstractPlayer player) {
         if (!player.isWrapper(this))
             throw new IllegalArgumentException("The player is not belongs to this game instance.");
-        players.remove(player);
+        if (players.remove(player)) GameRegistry.countPlayers(this, -1);
+        GameRegistry.unbindPlayer(this, player.getUniqueId());
+        if (LifecycleTracer.isEnabled()) lifecycleTracer.markRemoved(player);
     }
 
     /**
@@ -288,20 +555,494 @@ public abstract class AbstractGame implements IReusable, IModuleHolder, IGameEve
         installModule(new BukkitEventMapperModule(plugin, this));
     }
 
+    /**
+     * 安装一个模块。
+     * <br/>
+     * 模块仅在 tick 调度器所拥有的线程中被 tick，因此在其他线程中（例如在构造使用 {@link ExecutorTickScheduler} 或 {@link RegionTickScheduler} 的游戏实例时）
+     * 安装的模块将被转交给该线程安装，本方法返回时模块可能尚未被安装。
+     * <p>
+     * Install a module.
+     * <br/>
+     * Modules are only ticked on the thread owned by the tick scheduler,
+     * so a module installed on another thread (e.g. while constructing a game instance using {@link ExecutorTickScheduler} or {@link RegionTickScheduler})
+     * is handed over to that thread to be installed, and may not be installed yet when this method returns.
+     *
+     * @param module the module to be installed.
+     * @throws IllegalStateException if specify module already installed on the thread owned by the tick scheduler.
+     */
+    @Override
+    public void installModule(@NotNull IModule module) {
+        if (!tickScheduler.isOwnedByCurrentThread()) {
+            tickScheduler.execute(owned(() -> installModule(module)));
+            return;
+        }
+        IModuleHolder.super.installModule(module);
+        FlightRecorderEvents.moduleInstall(this, module);
+    }
+
+    /**
+     * 卸载一个模块。
+     * <br/>
+     * 与 {@link #installModule(IModule)} 相同，在其他线程中卸载的模块将被转交给 tick 调度器所拥有的线程卸载。
+     * <p>
+     * Uninstall a module.
+     * <br/>
+     * Like {@link #installModule(IModule)}, a module uninstalled on another thread is handed over to the thread owned by the tick scheduler to be uninstalled.
+     *
+     * @param module the module to be uninstalled.
+     * @throws IllegalStateException if specify module not installed yet on the thread owned by the tick scheduler.
+     */
+    @Override
+    public void uninstallModule(@NotNull Class<? extends IModule> module) {
+        if (!tickScheduler.isOwnedByCurrentThread()) {
+            tickScheduler.execute(owned(() -> uninstallModule(module)));
+            return;
+        }
+        val uninstalling = getModule(module);
+        IModuleHolder.super.uninstallModule(module);
+        if (uninstalling == null) return;
+        if (PlayerSlot.hasSlots(module)) {
+            for (AbstractPlayer player : players) player.clearData(module);
+        }
+        FlightRecorderEvents.moduleUninstall(this, uninstalling);
+    }
+
+    /**
+     * 包装一个被转交给 tick 调度器所拥有线程的任务，以便其异常不会被调度器吞掉。
+     * <p>
+     * Wrap a task handed over to the thread owned by the tick scheduler, so that its exceptions are not swallowed by the scheduler.
+     */
+    @NotNull
+    private Runnable owned(@NotNull Runnable task) {
+        return () -> {
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                plugin.getLogger().log(Level.SEVERE, "Exception occurred while changing the modules of game " + this, e);
+            }
+        };
+    }
+
+    @Override
+    public void uninstallAllModule() {
+        val uninstalling = Lists.newArrayList(installedModules.values());
+        IModuleHolder.super.uninstallAllModule();
+        for (IModule module : uninstalling) {
+            if (PlayerSlot.hasSlots(module.getClass())) {
+                for (AbstractPlayer player : players) player.clearData(module.getClass());
+            }
+            FlightRecorderEvents.moduleUninstall(this, module);
+        }
+    }
+
+    /**
+     * 发布一个事件，并触发所有等待该类型事件的阶段唤醒信号。
+     * <br/>
+     * 如果该游戏实例正在休眠，发布 {@link PlayerAttemptToJoinGameEvent} 将在事件分发前唤醒该游戏实例。
+     * <p>
+     * Calls an event with the given details, and fire all phase wake-up signals waiting for the type of the event.
+     * <br/>
+     * If this game instance is hibernating,
+     * posting a {@link PlayerAttemptToJoinGameEvent} will wake it up before the event is dispatched.
+     *
+     * @param event the event
+     * @return the event after the call
+     */
+    @Override
+    public <T extends AbstractGameEvent> T postEvent(T event) {
+        if (hibernating && event instanceof PlayerAttemptToJoinGameEvent) wakeUp();
+        val tracing = LifecycleTracer.isEnabled();
+        if (tracing) lifecycleTracer.beforePost(event);
+        val recording = FlightRecorderEvents.beginEventPost();
+        if (EventBusMetrics.isEnabled()) {
+            eventMetrics.post(this, event);
+        } else {
+            IGameEventBus.super.postEvent(event);
+        }
+        FlightRecorderEvents.endEventPost(recording, this, event);
+        if (tracing) lifecycleTracer.afterPost(event);
+        if (!eventSignals.isEmpty()) {
+            val signals = eventSignals.get(event.getClass());
+            if (signals != null) Lists.newArrayList(signals).forEach(PhaseSignal::fire);
+        }
+        return event;
+    }
+
+    /**
+     * 注册一个在发布指定类型事件后触发的阶段唤醒信号。
+     * <p>
+     * Register a phase wake-up signal to be fired after the specified type of event is published.
+     *
+     * @param type   the type of the event
+     * @param signal the signal
+     * @see PhaseSignal#onEvent(AbstractGame, Class)
+     */
+    @ApiStatus.Internal
+    public void registerEventSignal(@NotNull Class<? extends AbstractGameEvent> type, @NotNull PhaseSignal signal) {
+        eventSignals.computeIfAbsent(type, it -> Sets.newHashSet()).add(signal);
+    }
+
+    /**
+     * 注销一个阶段唤醒信号。
+     * <p>
+     * Unregister a phase wake-up signal.
+     *
+     * @param type   the type of the event
+     * @param signal the signal
+     */
+    @ApiStatus.Internal
+    public void unregisterEventSignal(@NotNull Class<? extends AbstractGameEvent> type, @NotNull PhaseSignal signal) {
+        val signals = eventSignals.get(type);
+        if (signals == null) return;
+        signals.remove(signal);
+        if (signals.isEmpty()) eventSignals.remove(type);
+    }
+
+    /**
+     * 设置该游戏实例的类型，用于统计。
+     * <p>
+     * Set the type of this game instance, used for statistics.
+     *
+     * @param type the type
+     * @see GameRegistry#getTypeCounts()
+     */
+    public void setType(@NotNull String type) {
+        val previous = this.type;
+        this.type = type;
+        GameRegistry.changeType(this, previous, type);
+    }
+
+    /**
+     * 设置该游戏实例的名称。
+     * <p>
+     * Set the name of this game instance.
+     *
+     * @param name the name
+     * @throws IllegalArgumentException if the name is already used by another live game instance
+     * @see #getName()
+     */
+    public void setName(@NotNull String name) {
+        val previous = this.name;
+        GameRegistry.changeName(this, previous, name);
+        this.name = name;
+        GameRegistry.updateJoinable(this);
+    }
+
+    /**
+     * 设置该游戏实例当前是否接受新玩家加入。
+     * <p>
+     * Set whether this game instance currently accepts new players.
+     *
+     * @param joinable whether joinable
+     * @see #isJoinable()
+     */
+    public void setJoinable(boolean joinable) {
+        this.joinable = joinable;
+        GameRegistry.updateJoinable(this);
+    }
+
+    /**
+     * 设置该游戏实例的最大玩家数。
+     * <p>
+     * Set the maximum number of players of this game instance.
+     *
+     * @param maxPlayers the maximum number of players, or {@code 0} for unlimited
+     * @throws IllegalArgumentException if {@code maxPlayers} is negative
+     */
+    public void setMaxPlayers(int maxPlayers) {
+        if (maxPlayers < 0) throw new IllegalArgumentException("The maximum number of players cannot be negative.");
+        this.maxPlayers = maxPlayers;
+        GameRegistry.updateJoinable(this);
+    }
+
+    /**
+     * 获取该游戏实例的空余名额数。
+     * <p>
+     * Get the number of open slots of this game instance.
+     *
+     * @return the number of open slots, or {@link Integer#MAX_VALUE} if unlimited
+     */
+    public int getOpenSlots() {
+        return maxPlayers == 0 ? Integer.MAX_VALUE : Math.max(0, maxPlayers - players.size());
+    }
+
+    /**
+     * 为该游戏实例中的玩家启用指定的保护规则。
+     * <br/>
+     * 规则由共享的 {@link ProtectionListener} 执行，游戏实例无需注册任何监听器。
+     * <p>
+     * Enable the specified protection rules for the players in this game instance.
+     * <br/>
+     * The rules are enforced by the shared {@link ProtectionListener}, the game instance need not register any listener.
+     *
+     * @param rules the rules
+     */
+    public void protect(@NotNull ProtectionRule... rules) {
+        protections |= ProtectionRule.toMask(Arrays.asList(rules));
+        if (protections != 0) ProtectionListener.register(plugin);
+    }
+
+    /**
+     * 为该游戏实例中的玩家禁用指定的保护规则。
+     * <p>
+     * Disable the specified protection rules for the players in this game instance.
+     *
+     * @param rules the rules
+     */
+    public void unprotect(@NotNull ProtectionRule... rules) {
+        protections &= ~ProtectionRule.toMask(Arrays.asList(rules));
+    }
+
+    /**
+     * 查询该游戏实例是否启用了指定的保护规则。
+     * <p>
+     * Check whether the specified protection rule is enabled in this game instance.
+     *
+     * @param rule the rule
+     * @return {@code true} if enabled
+     */
+    public boolean isProtected(@NotNull ProtectionRule rule) {
+        return (protections & rule.getMask()) != 0;
+    }
+
+    /**
+     * 获取该游戏实例启用的所有保护规则。
+     * <p>
+     * Get all protection rules enabled in this game instance.
+     *
+     * @return the rules
+     */
+    @NotNull
+    public Set<ProtectionRule> getProtections() {
+        val rules = EnumSet.noneOf(ProtectionRule.class);
+        for (ProtectionRule rule : ProtectionRule.values()) {
+            if (isProtected(rule)) rules.add(rule);
+        }
+        return rules;
+    }
+
+    /**
+     * 设置该游戏实例的默认 tick 频率，当前流程中没有阶段指定频率时将立即生效。
+     * <p>
+     * Set the default tick rate of this game instance,
+     * it takes effect immediately if no phase of the current flow specifies one.
+     *
+     * @param defaultTickRate the default tick rate
+     */
+    public void setDefaultTickRate(@NotNull TickRate defaultTickRate) {
+        this.defaultTickRate = defaultTickRate;
+        flowManager.updateTickRate();
+    }
+
+    /**
+     * 设置该游戏实例当前的 tick 频率，新的频率将在下一次 tick 后生效。
+     * <br/>
+     * 通常情况下，tick 频率会在流程切换时根据阶段自动设置，因此无需手动调用该方法。
+     * <p>
+     * Set the current tick rate of this game instance, the new rate takes effect after the next tick.
+     * <br/>
+     * Usually the tick rate is set automatically according to the phases when the flow changes,
+     * so there's no need to call this method manually.
+     *
+     * @param tickRate the tick rate
+     * @see FlowManager#updateTickRate()
+     */
+    public void setTickRate(@NotNull TickRate tickRate) {
+        this.tickRate = tickRate;
+    }
+
+    /**
+     * 检查该游戏实例当前是否可以进入休眠。
+     * <br/>
+     * 默认情况下，当游戏实例中没有玩家、当前流程中的所有阶段及所有已安装模块均允许休眠且没有正在进行的工作线程 tick 时，游戏实例可以进入休眠。
+     * <p>
+     * Check whether this game instance can hibernate now.
+     * <br/>
+     * By default, the game instance can hibernate when there's no player in it,
+     * all phases of the current flow and all installed modules allow it and there's no worker tick in flight.
+     *
+     * @return {@code true} if the game instance can hibernate
+     * @see Phase#isHibernatable()
+     * @see IModule#isHibernatable()
+     */
+    protected boolean canHibernate() {
+        if (!players.isEmpty()
+                || (asyncLane != null && !asyncLane.isDone())
+                || !commandBuffer.getQueue().isEmpty()
+                || !flowManager.isHibernatable()) return false;
+        for (IModule module : installedModules.values()) {
+            if (!module.isHibernatable()) return false;
+        }
+        return true;
+    }
+
+    /**
+     * 使该游戏实例进入休眠。
+     * <br/>
+     * 休眠中的游戏实例不会被 tick，所有模块将通过 {@link IModule#onHibernate()} 暂停其周期性任务或注销监听器，
+     * 流程及计时器等状态将被原样保留，直到游戏实例被 {@link #wakeUp()} 唤醒。
+     * <br/>
+     * 当游戏实例满足 {@link #canHibernate()} 时，将在 tick 结束后自动进入休眠，
+     * 并在下一次发布 {@link PlayerAttemptToJoinGameEvent} 或添加玩家时自动唤醒。
+     * <p>
+     * Make this game instance hibernate.
+     * <br/>
+     * A hibernating game instance will not be ticked,
+     * all modules will pause their periodic tasks or unregister their listeners through {@link IModule#onHibernate()},
+     * the states such as the flow and timers are kept as is until the game instance is woken up by {@link #wakeUp()}.
+     * <br/>
+     * The game instance hibernates automatically after a tick when it meets {@link #canHibernate()},
+     * and wakes up automatically on the next {@link PlayerAttemptToJoinGameEvent} posted or the next player added.
+     */
+    public void hibernate() {
+        if (hibernating) return;
+        hibernating = true;
+        Lists.newArrayList(installedModules.values()).forEach(IModule::onHibernate);
+    }
+
+    /**
+     * 唤醒正在休眠的游戏实例。
+     * <p>
+     * Wake up this game instance if it's hibernating.
+     *
+     * @see #hibernate()
+     */
+    public void wakeUp() {
+        if (!hibernating) return;
+        hibernating = false;
+        Lists.newArrayList(installedModules.values()).forEach(IModule::onWake);
+    }
+
+    /**
+     * 获取用于执行工作线程 tick 的线程池（默认：{@link ForkJoinPool#commonPool()}）。
+     * <p>
+     * Get the executor used to run worker ticks (default: {@link ForkJoinPool#commonPool()}).
+     *
+     * @return the executor
+     * @see IAsyncModule
+     * @see io.hikarilan.gamesenselib.flows.Phase#onAsyncTick
+     */
+    @NotNull
+    protected Executor getAsyncExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+
+    /**
+     * tick 所有已安装模块一次。
+     * <br/>
+     * 在此之前，上一 tick 中工作线程记录的所有命令将被执行；
+     * 在此之后，所有 {@link IAsyncModule} 及当前流程中的异步阶段将被提交至工作线程执行。
+     * <p>
+     * tick all installed module at once.
+     * <br/>
+     * Before that, all commands recorded by the worker threads in the previous tick will be applied;
+     * After that, all {@link IAsyncModule}s and async phases of the current flow will be submitted to the worker threads.
+     */
+    @Override
+    public void tick() {
+        val start = System.nanoTime();
+        val timed = TickTimings.isEnabled();
+
+        // wait for the worker lane instead of overlapping it
+        val laneIdle = asyncLane == null || asyncLane.isDone();
+        if (laneIdle) commandBuffer.consumeAllQueue(this);
+
+        if (timed || watchdog.isEnabled() || FlightRecorderEvents.isModuleTickEnabled()) {
+            tickModulesTimed(timed);
+        } else {
+            IModuleHolder.super.tick();
+        }
+
+        if (laneIdle) submitAsyncTick();
+
+        val cost = System.nanoTime() - start;
+        averageTickNanos += (cost - averageTickNanos) >> 4;
+        GameRegistry.countTick(cost);
+        if (timed) timings.recordGame(cost);
+
+        if (canHibernate()) hibernate();
+    }
+
+    private void tickModulesTimed(boolean timed) {
+        val watched = watchdog.isEnabled();
+        for (IModule module : Lists.newArrayList(installedModules.values())) {
+            if (watched && !watchdog.shouldTick(module)) continue;
+            val recording = FlightRecorderEvents.beginModuleTick();
+            val start = System.nanoTime();
+            if (watched) watchdog.begin();
+            try {
+                module.onTick();
+            } finally {
+                if (watched) watchdog.end(module);
+            }
+            if (timed) timings.recordModule(module.getClass(), System.nanoTime() - start);
+            FlightRecorderEvents.endModuleTick(recording, this, module);
+        }
+    }
+
+    private void submitAsyncTick() {
+        // a lane drops what the workers record once this instance is destroyed
+        val lane = commandBuffer.lane();
+        val tasks = Lists.<Runnable>newArrayList();
+        for (IModule module : installedModules.values()) {
+            if (module instanceof IAsyncModule) tasks.add(() -> ((IAsyncModule) module).onAsyncTick(lane));
+        }
+        for (Phase phase : flowManager.getCurrentPhases()) {
+            if (phase.isAsyncTicking()) tasks.add(() -> phase.asyncTick(this, lane));
+        }
+        if (tasks.isEmpty()) {
+            asyncLane = null;
+            return;
+        }
+
+        val executor = getAsyncExecutor();
+        val futures = new CompletableFuture<?>[tasks.size()];
+        for (int i = 0; i < futures.length; i++) {
+            futures[i] = CompletableFuture.runAsync(tasks.get(i), executor)
+                    .exceptionally(throwable -> {
+                        lane.record(() -> plugin.getLogger().log(Level.SEVERE, "Exception occurred while worker ticking game " + this, throwable));
+                        return null;
+                    });
+        }
+        asyncLane = CompletableFuture.allOf(futures);
+    }
+
     @Override
     public void init() {
+        // reused by reload(), no longer a destroyed instance
+        LeakDetector.untrack(this);
+        hibernating = false;
+        timings.reset();
+        eventMetrics.reset();
+        lifecycleTracer.reset();
+        stats.init();
+        watchdog.init();
         flowManager.init();
         IModuleHolder.super.init();
 
         installBundledModules();
+
+        GameRegistry.register(this);
     }
 
     @Override
     public void destroy() {
+        GameRegistry.unregister(this);
+
         flowManager.destroy();
         IModuleHolder.super.destroy();
 
         unregisterAllListeners();
         removeAllPlayers();
+
+        // drop the side effects which will never be applied, including those of workers still running
+        commandBuffer.reset();
+        asyncLane = null;
+        hibernating = false;
+        watchdog.destroy();
+        lifecycleTracer.reset();
+        stats.destroy();
+
+        LeakDetector.track(this, "Game #" + id + " (" + name + ")");
     }
 }
@@ -0,0 +1,241 @@
+package io.hikarilan.gamesenselib.games;
+
+import lombok.Getter;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 代表一个游戏实例容量的线程安全快照，用于在主线程之外（例如 {@link org.bukkit.event.player.AsyncPlayerPreLoginEvent}）进行准入判断。
+ * <br/>
+ * 已占用的名额及游戏实例是否接受新玩家加入由主线程通过 {@link #setOccupied(int)} 及 {@link #setAccepting(boolean)} 发布，
+ * 而准入时通过 {@link #reserve(UUID)} 原子地预留一个名额，
+ * 保证并发的预留不会超过最大玩家数；预留的名额将在玩家真正加入时通过 {@link #claim(UUID)} 转为已占用，
+ * 或在登录失败时通过 {@link #cancel(UUID)} 释放，超过有效期仍未被认领的预留将由 {@link #expire()} 释放。
+ * <br/>
+ * 已占用及已预留的名额被合计在同一个原子计数中，认领时名额从预留直接转为已占用，不会在中途短暂释放。
+ * <p>
+ * Represents a thread-safe snapshot of the capacity of a game instance,
+ * used to decide admission off the main thread (e.g. in {@link org.bukkit.event.player.AsyncPlayerPreLoginEvent}).
+ * <br/>
+ * The occupied slots and whether the game instance accepts new players are published by the main thread
+ * through {@link #setOccupied(int)} and {@link #setAccepting(boolean)},
+ * while admission reserves a slot atomically through {@link #reserve(UUID)},
+ * guaranteeing that concurrent reservations never exceed the maximum number of players;
+ * a reserved slot is turned into an occupied one through {@link #claim(UUID)} when the player actually joins,
+ * or released through {@link #cancel(UUID)} when the login fails,
+ * and reservations not claimed within their lifetime are released by {@link #expire()}.
+ * <br/>
+ * The occupied and reserved slots are summed up in the same atomic counter,
+ * claiming moves a slot from reserved to occupied directly without releasing it in between.
+ */
+@SuppressWarnings("unused")
+public class GameCapacity {
+
+    /**
+     * 最大玩家数。
+     * <p>
+     * The maximum number of players.
+     */
+    @Getter
+    private final int maxPlayers;
+
+    private final long reservationNanos;
+
+    /**
+     * 游戏实例是否接受新玩家加入（默认：是）。
+     * <p>
+     * Whether the game instance accepts new players (default: yes).
+     */
+    @Getter
+    private volatile boolean accepting = true;
+
+    private final AtomicInteger occupied = new AtomicInteger();
+
+    private final AtomicInteger reserved = new AtomicInteger();
+
+    /**
+     * 已占用及已预留的名额总数，预留时以此判断是否已满。
+     * <p>
+     * The total number of occupied and reserved slots, used to decide whether full when reserving.
+     */
+    private final AtomicInteger taken = new AtomicInteger();
+
+    /**
+     * 所有预留及其过期时间，按玩家的唯一标识符索引。
+     * <p>
+     * All reservations and their expiry time, indexed by the unique identifier of the player.
+     */
+    private final Map<UUID, Long> reservations = new ConcurrentHashMap<>();
+
+    /**
+     * 创建一个游戏实例容量。
+     * <p>
+     * Create a capacity of a game instance.
+     *
+     * @param maxPlayers  the maximum number of players
+     * @param reservation the lifetime of a reservation
+     * @throws IllegalArgumentException if {@code maxPlayers} is less than 1 or {@code reservation} is not positive
+     */
+    public GameCapacity(int maxPlayers, @NotNull Duration reservation) {
+        if (maxPlayers < 1) throw new IllegalArgumentException("The maximum number of players must be at least 1.");
+        if (reservation.isNegative() || reservation.isZero())
+            throw new IllegalArgumentException("The lifetime of a reservation must be positive.");
+        this.maxPlayers = maxPlayers;
+        this.reservationNanos = reservation.toNanos();
+    }
+
+    /**
+     * 创建一个游戏实例容量，预留的有效期为 30 秒。
+     * <p>
+     * Create a capacity of a game instance, with reservations lasting 30 seconds.
+     *
+     * @param maxPlayers the maximum number of players
+     */
+    public GameCapacity(int maxPlayers) {
+        this(maxPlayers, Duration.ofSeconds(30));
+    }
+
+    /**
+     * 发布已占用的名额数，应在主线程中玩家加入或退出后调用。
+     * <p>
+     * Publish the number of occupied slots, should be called on the main thread after players join or quit.
+     *
+     * @param occupied the number of occupied slots
+     */
+    public void setOccupied(int occupied) {
+        taken.addAndGet(occupied - this.occupied.getAndSet(occupied));
+    }
+
+    /**
+     * 发布游戏实例是否接受新玩家加入，不接受时 {@link #reserve(UUID)} 将拒绝所有新的预留，应在主线程中调用。
+     * <p>
+     * Publish whether the game instance accepts new players, {@link #reserve(UUID)} refuses every new reservation if not,
+     * should be called on the main thread.
+     *
+     * @param accepting whether the game instance accepts new players
+     */
+    public void setAccepting(boolean accepting) {
+        this.accepting = accepting;
+    }
+
+    /**
+     * 获取剩余可预留的名额数。
+     * <p>
+     * Get the number of slots available for reservation.
+     *
+     * @return the number of available slots
+     */
+    public int getAvailable() {
+        return Math.max(0, maxPlayers - taken.get());
+    }
+
+    /**
+     * 获取尚未被认领的预留数。
+     * <p>
+     * Get the number of reservations not claimed yet.
+     *
+     * @return the number of reservations
+     */
+    public int getReserved() {
+        return reserved.get();
+    }
+
+    /**
+     * 为指定玩家原子地预留一个名额，可在任意线程调用。
+     * <br/>
+     * 游戏实例不接受新玩家加入时，已有的预留仍会被续期，但不会创建新的预留。
+     * <p>
+     * Reserve a slot for the specified player atomically, can be called on any thread.
+     * <br/>
+     * While the game instance does not accept new players, existing reservations are still renewed, but no new reservation is made.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return {@code true} if reserved, or the player has reserved already
+     */
+    public boolean reserve(@NotNull UUID uniqueId) {
+        val expiry = System.nanoTime() + reservationNanos;
+        if (reservations.computeIfPresent(uniqueId, (it, old) -> expiry) != null) return true;
+        if (!accepting) return false;
+        while (true) {
+            val current = taken.get();
+            if (current >= maxPlayers) return false;
+            if (taken.compareAndSet(current, current + 1)) break;
+        }
+        if (reservations.putIfAbsent(uniqueId, expiry) != null) {
+            // reserved concurrently by the same player
+            taken.decrementAndGet();
+            return true;
+        }
+        reserved.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * 认领指定玩家的预留，其名额将直接转为已占用，之后通过 {@link #setOccupied(int)} 发布的数量应已包含该玩家。
+     * <p>
+     * Claim the reservation of the specified player, whose slot is turned into an occupied one directly,
+     * the number published through {@link #setOccupied(int)} afterwards should include the player.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return {@code true} if the player has a reservation
+     */
+    public boolean claim(@NotNull UUID uniqueId) {
+        if (reservations.remove(uniqueId) == null) return false;
+        // the slot stays taken while moving from reserved to occupied
+        occupied.incrementAndGet();
+        reserved.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * 取消指定玩家的预留并释放其名额。
+     * <p>
+     * Cancel the reservation of the specified player and release its slot.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return {@code true} if the player has a reservation
+     */
+    public boolean cancel(@NotNull UUID uniqueId) {
+        if (reservations.remove(uniqueId) == null) return false;
+        reserved.decrementAndGet();
+        taken.decrementAndGet();
+        return true;
+    }
+
+    /**
+     * 释放所有已过期的预留。
+     * <p>
+     * Release all expired reservations.
+     *
+     * @return the number of reservations released
+     */
+    public int expire() {
+        if (reservations.isEmpty()) return 0;
+        val now = System.nanoTime();
+        int expired = 0;
+        for (Map.Entry<UUID, Long> entry : reservations.entrySet()) {
+            if (now - entry.getValue() < 0) continue;
+            if (reservations.remove(entry.getKey(), entry.getValue())) {
+                reserved.decrementAndGet();
+                taken.decrementAndGet();
+                expired++;
+            }
+        }
+        return expired;
+    }
+
+    /**
+     * 释放所有预留。
+     * <p>
+     * Release all reservations.
+     */
+    public void clear() {
+        reservations.keySet().forEach(this::cancel);
+    }
+}
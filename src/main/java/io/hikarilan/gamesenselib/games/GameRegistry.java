@@ -0,0 +1,299 @@
+package io.hikarilan.gamesenselib.games;
+
+import com.google.common.collect.ImmutableList;
+import io.hikarilan.gamesenselib.timings.LogLinearHistogram;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 代表当前服务端中所有存活游戏实例的注册表。
+ * <br/>
+ * 游戏实例会在初始化时自动注册，在销毁时自动注销；
+ * 注册表会在游戏实例及玩家发生变化时增量维护计数，因此查询计数无需遍历所有游戏实例。
+ * <p>
+ * Represents the registry of all live game instances in the current server.
+ * <br/>
+ * Game instances are registered automatically when initialized, and unregistered automatically when destroyed;
+ * The registry maintains its counters incrementally as game instances and players change,
+ * so querying the counters does not need to scan all game instances.
+ */
+@SuppressWarnings("unused")
+public class GameRegistry {
+
+    private static final Map<Integer, AbstractGame> GAMES = new ConcurrentHashMap<>();
+
+    /**
+     * 所有存活的游戏实例，按小写的游戏实例名称索引。
+     * <p>
+     * All live game instances, indexed by the lower-case name of the game instance.
+     */
+    private static final Map<String, AbstractGame> NAMES = new ConcurrentHashMap<>();
+
+    /**
+     * 所有可加入且有空余名额的游戏实例，按小写的游戏实例名称排序，用于前缀查询。
+     * <p>
+     * All joinable game instances with open slots, sorted by the lower-case name of the game instance, used for prefix queries.
+     */
+    private static final NavigableMap<String, AbstractGame> JOINABLE = new ConcurrentSkipListMap<>();
+
+    private static final AtomicInteger PLAYERS = new AtomicInteger();
+
+    /**
+     * 每个玩家所在的所有游戏实例（按加入顺序排列的不可变列表），按玩家的唯一标识符索引。
+     * <br/>
+     * 列表在玩家加入或退出游戏实例时整体替换，因此读取时无需加锁或复制。
+     * <p>
+     * All game instances every player is in (immutable lists in joining order), indexed by the unique identifier of the player.
+     * <br/>
+     * The lists are replaced as a whole when players join or quit game instances, so reads need no lock or copy.
+     */
+    private static final Map<UUID, ImmutableList<AbstractGame>> PLAYER_GAMES = new ConcurrentHashMap<>();
+
+    private static final Map<String, AtomicInteger> TYPES = new ConcurrentHashMap<>();
+
+    private static final LogLinearHistogram TICK_HISTOGRAM = new LogLinearHistogram();
+
+    /**
+     * 获取所有存活的游戏实例。
+     * <p>
+     * Get all live game instances.
+     *
+     * @return unmodifiable view of live game instances
+     */
+    @NotNull
+    public static Collection<AbstractGame> getGames() {
+        return Collections.unmodifiableCollection(GAMES.values());
+    }
+
+    /**
+     * 按名称查找存活的游戏实例，名称不区分大小写。
+     * <p>
+     * Find a live game instance by name, the name is case-insensitive.
+     *
+     * @param name the name of the game instance
+     * @return the game instance, or {@code null} if not found
+     * @see AbstractGame#getName()
+     */
+    @Nullable
+    public static AbstractGame findGame(@NotNull String name) {
+        return NAMES.get(name.toLowerCase(Locale.ROOT));
+    }
+
+    /**
+     * 获取名称以指定前缀开头（不区分大小写）、可加入且有空余名额的游戏实例，按名称排序。
+     * <br/>
+     * 该索引随游戏实例的状态及人数变化增量维护，查询无需遍历所有游戏实例。
+     * <p>
+     * Get the joinable game instances with open slots whose name starts with the specified prefix (case-insensitive), sorted by name.
+     * <br/>
+     * The index is maintained incrementally as the state and the number of players of game instances change,
+     * so querying does not need to scan all game instances.
+     *
+     * @param prefix the prefix of the name
+     * @return unmodifiable view of the game instances
+     * @see AbstractGame#isJoinable()
+     * @see AbstractGame#getOpenSlots()
+     */
+    @NotNull
+    public static Collection<AbstractGame> findJoinableGames(@NotNull String prefix) {
+        val from = prefix.toLowerCase(Locale.ROOT);
+        return Collections.unmodifiableCollection(JOINABLE.subMap(from, true, from + Character.MAX_VALUE, false).values());
+    }
+
+    /**
+     * 获取存活的游戏实例数。
+     * <p>
+     * Get the number of live game instances.
+     *
+     * @return the number of game instances
+     */
+    public static int getGameCount() {
+        return GAMES.size();
+    }
+
+    /**
+     * 获取所有存活游戏实例中的玩家实例数（包括离线玩家）。
+     * <p>
+     * Get the number of player instances in all live game instances (including offline players).
+     *
+     * @return the number of player instances
+     */
+    public static int getPlayerCount() {
+        return PLAYERS.get();
+    }
+
+    /**
+     * 查找指定玩家所在的游戏实例。
+     * <br/>
+     * 该查询只需一次哈希查找，可以在高频事件中使用；如果玩家同时位于多个游戏实例中，返回最后加入的游戏实例，
+     * 需要所有游戏实例时请使用 {@link #findGames(UUID)}。
+     * <p>
+     * Find the game instance the specified player is in.
+     * <br/>
+     * The lookup only takes a single hash lookup and can be used in high-frequency events;
+     * if the player is in multiple game instances at once, the one joined last is returned,
+     * use {@link #findGames(UUID)} when all of them are needed.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return the game instance, or {@code null} if the player is not in any game instance
+     */
+    @Nullable
+    public static AbstractGame findGame(@NotNull UUID uniqueId) {
+        val games = PLAYER_GAMES.get(uniqueId);
+        return games == null ? null : games.get(games.size() - 1);
+    }
+
+    /**
+     * 查找指定玩家所在的所有游戏实例，按加入顺序排列。
+     * <br/>
+     * 该查询只需一次哈希查找且不分配内存，可以在高频事件中使用。
+     * <p>
+     * Find all game instances the specified player is in, in joining order.
+     * <br/>
+     * The lookup only takes a single hash lookup and allocates nothing, so it can be used in high-frequency events.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return immutable list of the game instances, empty if the player is not in any game instance
+     */
+    @NotNull
+    public static List<AbstractGame> findGames(@NotNull UUID uniqueId) {
+        return PLAYER_GAMES.getOrDefault(uniqueId, ImmutableList.of());
+    }
+
+    /**
+     * 获取每种类型的存活游戏实例数。
+     * <p>
+     * Get the number of live game instances of every type.
+     *
+     * @return the number of game instances by type
+     * @see AbstractGame#getType()
+     */
+    @NotNull
+    public static Map<String, Integer> getTypeCounts() {
+        val counts = new HashMap<String, Integer>();
+        TYPES.forEach((type, count) -> {
+            if (count.get() > 0) counts.put(type, count.get());
+        });
+        return counts;
+    }
+
+    /**
+     * 获取所有游戏实例单次 tick 的平均耗时（纳秒），读取不会重置统计。
+     * <br/>
+     * 如需某段时间内的平均耗时，可比较两次读取 {@link #getTickHistogram()} 的总和与数量之差。
+     * <p>
+     * Get the average cost of a single tick of all game instances in nanoseconds, reading never resets the counting.
+     * <br/>
+     * For the average cost within a period, compare the differences of the sum and the count of two reads of {@link #getTickHistogram()}.
+     *
+     * @return the average cost, or {@code 0} if no tick yet
+     */
+    public static long getAverageTickNanos() {
+        return TICK_HISTOGRAM.getMean();
+    }
+
+    /**
+     * 获取所有游戏实例单次 tick 耗时的累计直方图。
+     * <p>
+     * Get the cumulative histogram of the cost of a single tick of all game instances.
+     *
+     * @return the histogram
+     */
+    @NotNull
+    public static LogLinearHistogram getTickHistogram() {
+        return TICK_HISTOGRAM;
+    }
+
+    static void register(@NotNull AbstractGame game) {
+        if (GAMES.putIfAbsent(game.getId(), game) != null) return;
+        val existing = NAMES.putIfAbsent(game.getName().toLowerCase(Locale.ROOT), game);
+        if (existing != null && existing != game) {
+            GAMES.remove(game.getId(), game);
+            throw new IllegalArgumentException("The name " + game.getName() + " is already used by another game instance.");
+        }
+        updateJoinable(game);
+        PLAYERS.addAndGet(game.getPlayerCount());
+        countType(game.getType(), 1);
+    }
+
+    static void unregister(@NotNull AbstractGame game) {
+        if (GAMES.remove(game.getId()) == null) return;
+        NAMES.remove(game.getName().toLowerCase(Locale.ROOT), game);
+        JOINABLE.remove(game.getName().toLowerCase(Locale.ROOT), game);
+        PLAYERS.addAndGet(-game.getPlayerCount());
+        countType(game.getType(), -1);
+    }
+
+    static void changeType(@NotNull AbstractGame game, @NotNull String from, @NotNull String to) {
+        if (!GAMES.containsKey(game.getId())) return;
+        countType(from, -1);
+        countType(to, 1);
+    }
+
+    static void changeName(@NotNull AbstractGame game, @NotNull String from, @NotNull String to) {
+        // checked even while unregistered, so that the game instance can be registered again
+        val existing = NAMES.get(to.toLowerCase(Locale.ROOT));
+        if (existing != null && existing != game)
+            throw new IllegalArgumentException("The name " + to + " is already used by another game instance.");
+        if (!GAMES.containsKey(game.getId())) return;
+        NAMES.remove(from.toLowerCase(Locale.ROOT), game);
+        NAMES.put(to.toLowerCase(Locale.ROOT), game);
+        JOINABLE.remove(from.toLowerCase(Locale.ROOT), game);
+    }
+
+    static void countPlayers(@NotNull AbstractGame game, int delta) {
+        if (!GAMES.containsKey(game.getId())) return;
+        PLAYERS.addAndGet(delta);
+        updateJoinable(game);
+    }
+
+    static void updateJoinable(@NotNull AbstractGame game) {
+        val key = game.getName().toLowerCase(Locale.ROOT);
+        if (GAMES.containsKey(game.getId()) && game.isJoinable() && game.getOpenSlots() > 0) {
+            JOINABLE.put(key, game);
+        } else {
+            JOINABLE.remove(key, game);
+        }
+    }
+
+    static void bindPlayer(@NotNull AbstractGame game, @NotNull UUID uniqueId) {
+        PLAYER_GAMES.compute(uniqueId, (it, games) -> {
+            if (games == null) return ImmutableList.of(game);
+            if (games.contains(game)) return games;
+            return ImmutableList.<AbstractGame>builder().addAll(games).add(game).build();
+        });
+    }
+
+    static void unbindPlayer(@NotNull AbstractGame game, @NotNull UUID uniqueId) {
+        PLAYER_GAMES.computeIfPresent(uniqueId, (it, games) -> {
+            if (!games.contains(game)) return games;
+            if (games.size() == 1) return null;
+            val remaining = ImmutableList.<AbstractGame>builder();
+            for (AbstractGame other : games) {
+                if (other != game) remaining.add(other);
+            }
+            return remaining.build();
+        });
+    }
+
+    static void countTick(long nanos) {
+        TICK_HISTOGRAM.record(nanos);
+    }
+
+    private static void countType(@NotNull String type, int delta) {
+        TYPES.computeIfAbsent(type, it -> new AtomicInteger()).addAndGet(delta);
+    }
+}
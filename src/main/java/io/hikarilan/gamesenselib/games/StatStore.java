@@ -0,0 +1,566 @@
+package io.hikarilan.gamesenselib.games;
+
+import com.google.common.collect.Maps;
+import io.hikarilan.gamesenselib.artifacts.IReusable;
+import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 以列存储的玩家统计数据（例如击杀数、死亡数、分数、连杀数）。
+ * <br/>
+ * 每个玩家在首次写入时会被分配一个紧凑的行索引（按玩家的唯一标识符索引，因此重新加入的玩家沿用原有数据），
+ * 每一列统计数据都保存在一个以行索引访问的 {@code int[]} 或 {@code long[]} 中。
+ * 读写统计数据仅需一次哈希查找及一次数组访问，不会产生任何内存分配；
+ * 求和、求最大值及按列排序等批量查询则直接遍历连续的基本类型数组，无需遍历玩家对象。
+ * <br/>
+ * 列应在游戏实例创建时通过 {@link #intColumn(String)} 或 {@link #longColumn(String)} 定义，并保存为常量使用。
+ * 每次初始化（{@link #init()}）时所有行及数据都将被清空，但列的定义会被保留。
+ * <br/>
+ * 该类不是线程安全的，所有方法都应在主线程中调用。
+ * <p>
+ * Column-oriented store of player statistics (e.g. kills, deaths, score, streaks).
+ * <br/>
+ * Every player is assigned a dense row index on the first write
+ * (indexed by the unique identifier of the player, so players rejoining keep their data),
+ * and every column of statistics is stored in an {@code int[]} or {@code long[]} accessed by the row index.
+ * Reading and writing a statistic only takes a single hash lookup and a single array access without any allocation;
+ * bulk queries such as sum, max and sorting by column scan contiguous primitive arrays instead of player objects.
+ * <br/>
+ * Columns should be defined through {@link #intColumn(String)} or {@link #longColumn(String)}
+ * when the game instance is created, and kept as constants.
+ * All rows and data are cleared on every initialization ({@link #init()}), but the definitions of columns are kept.
+ * <br/>
+ * This class is not thread-safe, all methods should be called on the main thread.
+ *
+ * @see AbstractGame#getStats()
+ */
+@SuppressWarnings("unused")
+public class StatStore implements IReusable {
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final Map<UUID, Integer> rows = Maps.newHashMap();
+
+    private final Map<String, Object> columns = Maps.newHashMap();
+
+    private UUID[] owners = new UUID[INITIAL_CAPACITY];
+
+    private int[][] ints = new int[0][];
+
+    private long[][] longs = new long[0][];
+
+    private int size;
+
+    /**
+     * 定义一个 {@code int} 列，如果同名的 {@code int} 列已存在则返回该列。
+     * <p>
+     * Define an {@code int} column, or return the existing {@code int} column with the same name.
+     *
+     * @param name the name of the column
+     * @return the column
+     * @throws IllegalArgumentException if a {@code long} column with the same name exists
+     */
+    @NotNull
+    public IntColumn intColumn(@NotNull String name) {
+        val existing = columns.get(name);
+        if (existing instanceof IntColumn) return (IntColumn) existing;
+        if (existing != null) throw new IllegalArgumentException("Column " + name + " is not an int column");
+        val index = ints.length;
+        val column = new IntColumn(this, name, index);
+        ints = Arrays.copyOf(ints, index + 1);
+        ints[index] = new int[owners.length];
+        columns.put(name, column);
+        return column;
+    }
+
+    /**
+     * 定义一个 {@code long} 列，如果同名的 {@code long} 列已存在则返回该列。
+     * <p>
+     * Define a {@code long} column, or return the existing {@code long} column with the same name.
+     *
+     * @param name the name of the column
+     * @return the column
+     * @throws IllegalArgumentException if an {@code int} column with the same name exists
+     */
+    @NotNull
+    public LongColumn longColumn(@NotNull String name) {
+        val existing = columns.get(name);
+        if (existing instanceof LongColumn) return (LongColumn) existing;
+        if (existing != null) throw new IllegalArgumentException("Column " + name + " is not a long column");
+        val index = longs.length;
+        val column = new LongColumn(this, name, index);
+        longs = Arrays.copyOf(longs, index + 1);
+        longs[index] = new long[owners.length];
+        columns.put(name, column);
+        return column;
+    }
+
+    /**
+     * 获取指定玩家的行索引，如果玩家尚无行则为其分配一行。
+     * <p>
+     * Get the row index of the specified player, allocating a row if the player has none yet.
+     *
+     * @param player the player
+     * @return the row index
+     */
+    public int row(@NotNull AbstractPlayer player) {
+        return row(player.getUniqueId());
+    }
+
+    /**
+     * 获取指定玩家的行索引，如果玩家尚无行则为其分配一行。
+     * <p>
+     * Get the row index of the specified player, allocating a row if the player has none yet.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return the row index
+     */
+    public int row(@NotNull UUID uniqueId) {
+        val row = rows.get(uniqueId);
+        if (row != null) return row;
+        if (size == owners.length) grow();
+        owners[size] = uniqueId;
+        rows.put(uniqueId, size);
+        return size++;
+    }
+
+    /**
+     * 查找指定玩家的行索引。
+     * <p>
+     * Find the row index of the specified player.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return the row index, or {@code -1} if the player has no row
+     */
+    public int findRow(@NotNull UUID uniqueId) {
+        val row = rows.get(uniqueId);
+        return row == null ? -1 : row;
+    }
+
+    /**
+     * 获取指定行所属玩家的唯一标识符。
+     * <p>
+     * Get the unique identifier of the player owning the specified row.
+     *
+     * @param row the row index
+     * @return the unique identifier of the player
+     */
+    @NotNull
+    public UUID getOwner(int row) {
+        checkRow(row);
+        return owners[row];
+    }
+
+    /**
+     * 获取行数。
+     * <p>
+     * Get the number of rows.
+     *
+     * @return the number of rows
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 获取指定玩家的统计数据。
+     * <p>
+     * Get the statistic of the specified player.
+     *
+     * @param column the column
+     * @param player the player
+     * @return the value, or {@code 0} if the player has no row
+     */
+    public int get(@NotNull IntColumn column, @NotNull AbstractPlayer player) {
+        val row = findRow(player.getUniqueId());
+        return row < 0 ? 0 : ints[checkColumn(column)][row];
+    }
+
+    /**
+     * 获取指定行的统计数据。
+     * <p>
+     * Get the statistic of the specified row.
+     *
+     * @param column the column
+     * @param row    the row index
+     * @return the value
+     */
+    public int get(@NotNull IntColumn column, int row) {
+        checkRow(row);
+        return ints[checkColumn(column)][row];
+    }
+
+    /**
+     * 设置指定玩家的统计数据。
+     * <p>
+     * Set the statistic of the specified player.
+     *
+     * @param column the column
+     * @param player the player
+     * @param value  the value
+     */
+    public void set(@NotNull IntColumn column, @NotNull AbstractPlayer player, int value) {
+        ints[checkColumn(column)][row(player)] = value;
+    }
+
+    /**
+     * 设置指定行的统计数据。
+     * <p>
+     * Set the statistic of the specified row.
+     *
+     * @param column the column
+     * @param row    the row index
+     * @param value  the value
+     */
+    public void set(@NotNull IntColumn column, int row, int value) {
+        checkRow(row);
+        ints[checkColumn(column)][row] = value;
+    }
+
+    /**
+     * 为指定玩家的统计数据增加指定值。
+     * <p>
+     * Add the specified value to the statistic of the specified player.
+     *
+     * @param column the column
+     * @param player the player
+     * @param delta  the value to add
+     * @return the new value
+     */
+    public int add(@NotNull IntColumn column, @NotNull AbstractPlayer player, int delta) {
+        return ints[checkColumn(column)][row(player)] += delta;
+    }
+
+    /**
+     * 为指定行的统计数据增加指定值。
+     * <p>
+     * Add the specified value to the statistic of the specified row.
+     *
+     * @param column the column
+     * @param row    the row index
+     * @param delta  the value to add
+     * @return the new value
+     */
+    public int add(@NotNull IntColumn column, int row, int delta) {
+        checkRow(row);
+        return ints[checkColumn(column)][row] += delta;
+    }
+
+    /**
+     * 获取指定玩家的统计数据。
+     * <p>
+     * Get the statistic of the specified player.
+     *
+     * @param column the column
+     * @param player the player
+     * @return the value, or {@code 0} if the player has no row
+     */
+    public long get(@NotNull LongColumn column, @NotNull AbstractPlayer player) {
+        val row = findRow(player.getUniqueId());
+        return row < 0 ? 0 : longs[checkColumn(column)][row];
+    }
+
+    /**
+     * 获取指定行的统计数据。
+     * <p>
+     * Get the statistic of the specified row.
+     *
+     * @param column the column
+     * @param row    the row index
+     * @return the value
+     */
+    public long get(@NotNull LongColumn column, int row) {
+        checkRow(row);
+        return longs[checkColumn(column)][row];
+    }
+
+    /**
+     * 设置指定玩家的统计数据。
+     * <p>
+     * Set the statistic of the specified player.
+     *
+     * @param column the column
+     * @param player the player
+     * @param value  the value
+     */
+    public void set(@NotNull LongColumn column, @NotNull AbstractPlayer player, long value) {
+        longs[checkColumn(column)][row(player)] = value;
+    }
+
+    /**
+     * 设置指定行的统计数据。
+     * <p>
+     * Set the statistic of the specified row.
+     *
+     * @param column the column
+     * @param row    the row index
+     * @param value  the value
+     */
+    public void set(@NotNull LongColumn column, int row, long value) {
+        checkRow(row);
+        longs[checkColumn(column)][row] = value;
+    }
+
+    /**
+     * 为指定玩家的统计数据增加指定值。
+     * <p>
+     * Add the specified value to the statistic of the specified player.
+     *
+     * @param column the column
+     * @param player the player
+     * @param delta  the value to add
+     * @return the new value
+     */
+    public long add(@NotNull LongColumn column, @NotNull AbstractPlayer player, long delta) {
+        return longs[checkColumn(column)][row(player)] += delta;
+    }
+
+    /**
+     * 为指定行的统计数据增加指定值。
+     * <p>
+     * Add the specified value to the statistic of the specified row.
+     *
+     * @param column the column
+     * @param row    the row index
+     * @param delta  the value to add
+     * @return the new value
+     */
+    public long add(@NotNull LongColumn column, int row, long delta) {
+        checkRow(row);
+        return longs[checkColumn(column)][row] += delta;
+    }
+
+    /**
+     * 计算指定列所有行的总和。
+     * <p>
+     * Compute the sum of all rows of the specified column.
+     *
+     * @param column the column
+     * @return the sum
+     */
+    public long sum(@NotNull IntColumn column) {
+        val values = ints[checkColumn(column)];
+        long sum = 0;
+        for (int i = 0; i < size; i++) sum += values[i];
+        return sum;
+    }
+
+    /**
+     * 计算指定列所有行的总和。
+     * <p>
+     * Compute the sum of all rows of the specified column.
+     *
+     * @param column the column
+     * @return the sum
+     */
+    public long sum(@NotNull LongColumn column) {
+        val values = longs[checkColumn(column)];
+        long sum = 0;
+        for (int i = 0; i < size; i++) sum += values[i];
+        return sum;
+    }
+
+    /**
+     * 查找指定列的值最大的行。
+     * <p>
+     * Find the row with the maximum value of the specified column.
+     *
+     * @param column the column
+     * @return the row index (the first one if tied), or {@code -1} if there is no row
+     */
+    public int maxRow(@NotNull IntColumn column) {
+        val values = ints[checkColumn(column)];
+        int max = -1;
+        for (int i = 0; i < size; i++) {
+            if (max < 0 || values[i] > values[max]) max = i;
+        }
+        return max;
+    }
+
+    /**
+     * 查找指定列的值最大的行。
+     * <p>
+     * Find the row with the maximum value of the specified column.
+     *
+     * @param column the column
+     * @return the row index (the first one if tied), or {@code -1} if there is no row
+     */
+    public int maxRow(@NotNull LongColumn column) {
+        val values = longs[checkColumn(column)];
+        int max = -1;
+        for (int i = 0; i < size; i++) {
+            if (max < 0 || values[i] > values[max]) max = i;
+        }
+        return max;
+    }
+
+    /**
+     * 获取指定列的最大值。
+     * <p>
+     * Get the maximum value of the specified column.
+     *
+     * @param column the column
+     * @return the maximum value, or {@code 0} if there is no row
+     */
+    public int max(@NotNull IntColumn column) {
+        val row = maxRow(column);
+        return row < 0 ? 0 : ints[checkColumn(column)][row];
+    }
+
+    /**
+     * 获取指定列的最大值。
+     * <p>
+     * Get the maximum value of the specified column.
+     *
+     * @param column the column
+     * @return the maximum value, or {@code 0} if there is no row
+     */
+    public long max(@NotNull LongColumn column) {
+        val row = maxRow(column);
+        return row < 0 ? 0 : longs[checkColumn(column)][row];
+    }
+
+    /**
+     * 按指定列的值对所有行排序，值相同的行按分配顺序排列。
+     * <p>
+     * Sort all rows by the values of the specified column, rows with the same value are ordered by allocation.
+     *
+     * @param column     the column
+     * @param descending whether to sort in descending order (e.g. for leaderboards)
+     * @return the sorted row indexes
+     */
+    @NotNull
+    public int[] sortedRows(@NotNull IntColumn column, boolean descending) {
+        val values = ints[checkColumn(column)];
+        // pack the value and the row into a long, so that a primitive sort is enough
+        val keys = new long[size];
+        for (int i = 0; i < size; i++) keys[i] = ((long) (descending ? ~values[i] : values[i]) << 32) | i;
+        Arrays.sort(keys);
+        val sorted = new int[size];
+        for (int i = 0; i < size; i++) sorted[i] = (int) keys[i];
+        return sorted;
+    }
+
+    /**
+     * 按指定列的值对所有行排序，值相同的行按分配顺序排列。
+     * <p>
+     * Sort all rows by the values of the specified column, rows with the same value are ordered by allocation.
+     *
+     * @param column     the column
+     * @param descending whether to sort in descending order (e.g. for leaderboards)
+     * @return the sorted row indexes
+     */
+    @NotNull
+    public int[] sortedRows(@NotNull LongColumn column, boolean descending) {
+        val values = longs[checkColumn(column)];
+        val sorted = new int[size];
+        for (int i = 0; i < size; i++) sorted[i] = i;
+        mergeSort(sorted, new int[size], 0, size, values, descending);
+        return sorted;
+    }
+
+    /**
+     * 清空所有行及数据，列的定义将被保留。
+     * <p>
+     * Clear all rows and data, the definitions of columns are kept.
+     */
+    public void clear() {
+        for (int[] values : ints) Arrays.fill(values, 0, size, 0);
+        for (long[] values : longs) Arrays.fill(values, 0, size, 0);
+        Arrays.fill(owners, 0, size, null);
+        rows.clear();
+        size = 0;
+    }
+
+    @Override
+    public void init() {
+        clear();
+    }
+
+    @Override
+    public void destroy() {
+        clear();
+    }
+
+    private void grow() {
+        val capacity = owners.length * 2;
+        owners = Arrays.copyOf(owners, capacity);
+        for (int i = 0; i < ints.length; i++) ints[i] = Arrays.copyOf(ints[i], capacity);
+        for (int i = 0; i < longs.length; i++) longs[i] = Arrays.copyOf(longs[i], capacity);
+    }
+
+    private void checkRow(int row) {
+        if (row < 0 || row >= size) throw new IllegalArgumentException("Row " + row + " out of bounds (size " + size + ")");
+    }
+
+    private int checkColumn(@NotNull Column column) {
+        if (column.store != this) throw new IllegalArgumentException("Column " + column.name + " does not belong to this store");
+        return column.index;
+    }
+
+    /**
+     * 稳定的间接归并排序，按 {@code values} 中的值排列行索引。
+     * <p>
+     * Stable indirect merge sort, ordering row indexes by the values in {@code values}.
+     */
+    private static void mergeSort(int[] rows, int[] buffer, int from, int to, long[] values, boolean descending) {
+        if (to - from < 2) return;
+        val middle = (from + to) >>> 1;
+        mergeSort(rows, buffer, from, middle, values, descending);
+        mergeSort(rows, buffer, middle, to, values, descending);
+        System.arraycopy(rows, from, buffer, from, to - from);
+        int left = from, right = middle, out = from;
+        while (left < middle && right < to) {
+            val a = values[buffer[left]];
+            val b = values[buffer[right]];
+            rows[out++] = (descending ? b > a : b < a) ? buffer[right++] : buffer[left++];
+        }
+        while (left < middle) rows[out++] = buffer[left++];
+        while (right < to) rows[out++] = buffer[right++];
+    }
+
+    /**
+     * 代表统计数据的一列。
+     * <p>
+     * Represents a column of statistics.
+     */
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public abstract static class Column {
+        @NotNull
+        private final StatStore store;
+        @Getter
+        @NotNull
+        private final String name;
+        private final int index;
+    }
+
+    /**
+     * 代表 {@code int} 类型的一列。
+     * <p>
+     * Represents a column of type {@code int}.
+     */
+    public static final class IntColumn extends Column {
+        private IntColumn(@NotNull StatStore store, @NotNull String name, int index) {
+            super(store, name, index);
+        }
+    }
+
+    /**
+     * 代表 {@code long} 类型的一列。
+     * <p>
+     * Represents a column of type {@code long}.
+     */
+    public static final class LongColumn extends Column {
+        private LongColumn(@NotNull StatStore store, @NotNull String name, int index) {
+            super(store, name, index);
+        }
+    }
+}
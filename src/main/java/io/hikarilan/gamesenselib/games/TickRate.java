@@ -0,0 +1,78 @@
+package io.hikarilan.gamesenselib.games;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * 代表一个游戏实例的 tick 频率。
+ * <br/>
+ * 以较低频率运行的游戏实例每隔若干服务端 tick 才会被 tick 一次，适用于大厅倒计时、结算等无需实时响应的阶段。
+ * <p>
+ * Represents the tick rate of a game instance.
+ * <br/>
+ * A game instance running at a lower rate is ticked only once every several server ticks,
+ * suitable for phases that do not need to respond in real time, such as lobby countdowns and post-game.
+ *
+ * @see AbstractGame#getTickRate()
+ * @see io.hikarilan.gamesenselib.flows.Phase#tickRate
+ */
+@RequiredArgsConstructor
+public enum TickRate {
+
+    /**
+     * 每秒 20 次，即每个服务端 tick 一次。
+     * <p>
+     * 20 times per second, i.e. every server tick.
+     */
+    HZ_20(1),
+    /**
+     * 每秒 10 次。
+     * <p>
+     * 10 times per second.
+     */
+    HZ_10(2),
+    /**
+     * 每秒 4 次。
+     * <p>
+     * 4 times per second.
+     */
+    HZ_4(5),
+    /**
+     * 每秒 1 次。
+     * <p>
+     * Once per second.
+     */
+    HZ_1(20);
+
+    /**
+     * 两次 tick 之间间隔的服务端 tick 数。
+     * <p>
+     * The number of server ticks between two ticks.
+     */
+    @Getter
+    private final int period;
+
+    /**
+     * 获取每秒的 tick 次数。
+     * <p>
+     * Get the number of ticks per second.
+     *
+     * @return ticks per second
+     */
+    public int getHertz() {
+        return 20 / period;
+    }
+
+    /**
+     * 获取两个频率中较快的一个。
+     * <p>
+     * Get the faster one of two rates.
+     *
+     * @param a a rate
+     * @param b another rate
+     * @return the faster rate
+     */
+    public static TickRate faster(TickRate a, TickRate b) {
+        return a.period <= b.period ? a : b;
+    }
+}
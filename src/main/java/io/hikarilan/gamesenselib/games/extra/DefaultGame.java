@@ -2,6 +2,7 @@ package io.hikarilan.gamesenselib.games.extra;
 
 import io.hikarilan.gamesenselib.flows.FlowManager;
 import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.schedulers.ITickScheduler;
 import org.bukkit.plugin.Plugin;
 
 /**
@@ -18,6 +19,10 @@ public class DefaultGame extends AbstractGame {
         super(plugin, flowManagerBuilder);
     }
 
+    public DefaultGame(Plugin plugin, FlowManager.FlowManagerBuilder flowManagerBuilder, ITickScheduler tickScheduler) {
+        super(plugin, flowManagerBuilder, tickScheduler);
+    }
+
     @Override
     protected FlowManager.FlowManagerBuilder generateFlowManager() {
         return null;
@@ -0,0 +1,438 @@
+package io.hikarilan.gamesenselib.games.extra;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Sets;
+import io.hikarilan.gamesenselib.artifacts.IReusable;
+import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.modules.extra.JoinAdmissionModule;
+import io.hikarilan.gamesenselib.players.extra.DefaultGamePlayer;
+import io.hikarilan.gamesenselib.schedulers.ITickScheduler;
+import io.hikarilan.gamesenselib.schedulers.ITickTask;
+import io.hikarilan.gamesenselib.utils.Durations;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+/**
+ * 游戏实例弹性伸缩器。
+ * <br/>
+ * 伸缩器管理一组由同一工厂（例如 {@link GameTemplate}）创建的共享游戏实例，并根据需求自动创建或销毁游戏实例：
+ * <br/>
+ * 玩家通过 {@link #join(Player)} 加入时，伸缩器会优先将其分配到人数最多且仍接受加入的游戏实例；
+ * 如果所有游戏实例均拒绝了该玩家，则该玩家将进入等待队列，伸缩器会在下次评估时创建新的游戏实例；
+ * <br/>
+ * 没有玩家的游戏实例在超过冷却时间后会被销毁（至少保留 {@link #setMinIdleGames(int)} 个空闲实例）；
+ * 游戏实例的总数受 {@link #setMaxGames(int)} 与 {@link #setTickBudget(Duration)} 共同限制。
+ * <p>
+ * Elastic autoscaler of game instances.
+ * <br/>
+ * The autoscaler manages a set of shared game instances created by the same factory (such as a {@link GameTemplate}),
+ * and creates or destroys game instances automatically according to the demand:
+ * <br/>
+ * When a player joins through {@link #join(Player)}, the autoscaler prefers the fullest game instance that still accepts the player;
+ * If all game instances reject the player, the player will be queued, and the autoscaler will create new game instances at the next evaluation;
+ * <br/>
+ * A game instance without players will be destroyed after the cool-down (at least {@link #setMinIdleGames(int)} idle instances are kept);
+ * The total number of game instances is bounded by both {@link #setMaxGames(int)} and {@link #setTickBudget(Duration)}.
+ * <p>
+ * Here's an example to scale shared games built from a template.
+ * <pre><code>
+ *     GameAutoscaler.of(plugin, () -> GameTemplate.of(plugin)
+ *             .withWaitingRoom(2, 8, Duration.ofSeconds(10), lobby)
+ *             .shared()
+ *             .build())
+ *     .setPlayersPerGame(8)
+ *     .setMaxGames(16)
+ *     .init();
+ * </code></pre>
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor(staticName = "of")
+public class GameAutoscaler implements IReusable {
+
+    @NotNull
+    private final Plugin plugin;
+
+    /**
+     * 游戏实例工厂，每次调用都应返回一个全新的游戏实例。
+     * <p>
+     * Game instance factory, should return a brand-new game instance every time it is called.
+     */
+    @NotNull
+    private final Supplier<@NotNull AbstractGame> gameFactory;
+
+    /**
+     * @see #setPlayersPerGame(int)
+     */
+    private int playersPerGame = 1;
+
+    /**
+     * @see #setMinIdleGames(int)
+     */
+    private int minIdleGames = 0;
+
+    /**
+     * @see #setMaxGames(int)
+     */
+    private int maxGames = Integer.MAX_VALUE;
+
+    /**
+     * @see #setTickBudget(Duration)
+     */
+    private long tickBudgetNanos = Long.MAX_VALUE;
+
+    /**
+     * @see #setIdleCooldown(Duration)
+     */
+    private long idleCooldownTicks = Durations.toTick(Duration.ofSeconds(30));
+
+    /**
+     * @see #setEvaluatePeriod(Duration)
+     */
+    private long evaluatePeriodTicks = Durations.toTick(Duration.ofSeconds(1));
+
+    /**
+     * 当前被管理的游戏实例。
+     * <p>
+     * Game instances currently managed.
+     */
+    private final List<ManagedGame> games = Lists.newArrayList();
+
+    /**
+     * 等待分配游戏实例的玩家队列（按加入顺序）。
+     * <p>
+     * Queue of players waiting for a game instance (in joining order).
+     */
+    private final Set<UUID> waitingPlayers = Sets.newLinkedHashSet();
+
+    private ITickTask evaluator;
+
+    /**
+     * 伸缩器内部计时，单位为 tick。
+     * <p>
+     * Internal clock of the autoscaler in ticks.
+     */
+    private long clock;
+
+    /**
+     * 设置单个游戏实例可容纳的玩家数，用于估算需要创建的游戏实例数量（默认：1）。
+     * <p>
+     * Set the number of players a single game instance can hold,
+     * used to estimate how many game instances should be created (default: 1).
+     *
+     * @param playersPerGame players per game instance
+     */
+    public GameAutoscaler setPlayersPerGame(int playersPerGame) {
+        if (playersPerGame <= 0) throw new IllegalArgumentException("Players per game should be positive.");
+        this.playersPerGame = playersPerGame;
+        return this;
+    }
+
+    /**
+     * 设置应当保持预热的最小空闲（无玩家）游戏实例数（默认：0）。
+     * <p>
+     * Set the minimum number of idle (no player) game instances to be kept warm (default: 0).
+     *
+     * @param minIdleGames minimum idle game instances
+     */
+    public GameAutoscaler setMinIdleGames(int minIdleGames) {
+        if (minIdleGames < 0) throw new IllegalArgumentException("Min idle games should not be negative.");
+        this.minIdleGames = minIdleGames;
+        return this;
+    }
+
+    /**
+     * 设置游戏实例数量上限（默认：无限制）。
+     * <p>
+     * Set the upper bound of game instances (default: unlimited).
+     *
+     * @param maxGames maximum game instances
+     */
+    public GameAutoscaler setMaxGames(int maxGames) {
+        if (maxGames <= 0) throw new IllegalArgumentException("Max games should be positive.");
+        this.maxGames = maxGames;
+        return this;
+    }
+
+    /**
+     * 设置所有被管理游戏实例单次 tick 的总耗时预算（默认：无限制）。
+     * <br/>
+     * 当已有游戏实例的平均 tick 耗时之和加上一个新实例的预估耗时超过该预算时，将不再创建新的游戏实例。
+     * <p>
+     * Set the budget of the total cost of a single tick of all managed game instances (default: unlimited).
+     * <br/>
+     * No more game instance will be created when the sum of the average tick cost of existing game instances
+     * plus the estimated cost of a new one exceeds the budget.
+     *
+     * @param tickBudget tick budget
+     */
+    public GameAutoscaler setTickBudget(@NotNull Duration tickBudget) {
+        this.tickBudgetNanos = tickBudget.toNanos();
+        return this;
+    }
+
+    /**
+     * 设置空闲游戏实例被销毁前的冷却时间（默认：30 秒）。
+     * <p>
+     * Set the cool-down before an idle game instance is destroyed (default: 30 seconds).
+     *
+     * @param idleCooldown idle cool-down
+     */
+    public GameAutoscaler setIdleCooldown(@NotNull Duration idleCooldown) {
+        this.idleCooldownTicks = Durations.toTick(idleCooldown);
+        return this;
+    }
+
+    /**
+     * 设置伸缩器的评估周期（默认：1 秒）。
+     * <p>
+     * Set the evaluation period of the autoscaler (default: 1 second).
+     *
+     * @param evaluatePeriod evaluation period
+     */
+    public GameAutoscaler setEvaluatePeriod(@NotNull Duration evaluatePeriod) {
+        this.evaluatePeriodTicks = Math.max(1, Durations.toTick(evaluatePeriod));
+        return this;
+    }
+
+    /**
+     * 获取当前被管理的所有游戏实例的副本。
+     * <p>
+     * Get a copy of all game instances currently managed.
+     *
+     * @return copy of managed game instances
+     */
+    @NotNull
+    public List<AbstractGame> getGames() {
+        val result = Lists.<AbstractGame>newArrayListWithCapacity(games.size());
+        games.forEach(it -> result.add(it.game));
+        return result;
+    }
+
+    /**
+     * 获取当前被管理的游戏实例数。
+     * <p>
+     * Get the number of game instances currently managed.
+     *
+     * @return managed game count
+     */
+    public int getGameCount() {
+        return games.size();
+    }
+
+    /**
+     * 获取被管理的游戏实例数上限。
+     * <p>
+     * Get the maximum number of managed game instances.
+     *
+     * @return maximum game instances
+     */
+    public int getMaxGames() {
+        return maxGames;
+    }
+
+    /**
+     * 获取等待分配游戏实例的玩家数。
+     * <p>
+     * Get the number of players waiting for a game instance.
+     *
+     * @return queued player count
+     */
+    public int getQueuedPlayerCount() {
+        return waitingPlayers.size();
+    }
+
+    /**
+     * 为玩家分配一个游戏实例。
+     * <br/>
+     * 如果当前没有游戏实例接受该玩家，则该玩家将进入等待队列，并在有可用游戏实例时自动加入。
+     * <p>
+     * Assign a game instance to the player.
+     * <br/>
+     * If no game instance accepts the player currently, the player will be queued,
+     * and will join automatically when a game instance becomes available.
+     *
+     * @param player the player
+     * @return {@code true} if the player joined a game instance immediately, {@code false} if the player was queued
+     */
+    public boolean join(@NotNull Player player) {
+        if (tryJoinAny(player)) {
+            waitingPlayers.remove(player.getUniqueId());
+            return true;
+        }
+        waitingPlayers.add(player.getUniqueId());
+        return false;
+    }
+
+    /**
+     * 将玩家移出等待队列。
+     * <p>
+     * Remove the player from the waiting queue.
+     *
+     * @param player the player
+     */
+    public void leaveQueue(@NotNull Player player) {
+        waitingPlayers.remove(player.getUniqueId());
+    }
+
+    private boolean tryJoinAny(@NotNull Player player) {
+        // fill the fullest game first, so that the others can become idle and be scaled down
+        games.sort(Comparator.comparingInt(ManagedGame::playerCount).reversed());
+        for (ManagedGame managed : games) {
+            if (tryJoin(managed, player)) return true;
+        }
+        return false;
+    }
+
+    private boolean tryJoin(@NotNull ManagedGame managed, @NotNull Player player) {
+        val game = managed.game;
+        val event = game.postEvent(new PlayerAttemptToJoinGameEvent(game, player));
+        if (event.isCancelled()) {
+            // an idle game which rejects players will never be useful again
+            if (managed.playerCount() == 0) managed.stale = true;
+            return false;
+        }
+        JoinAdmissionModule.preJoin(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, player) : event.getGamePlayer());
+        return true;
+    }
+
+    private void drainQueue() {
+        val iter = waitingPlayers.iterator();
+        while (iter.hasNext()) {
+            val player = Bukkit.getPlayer(iter.next());
+            if (player == null || !player.isOnline() || tryJoinAny(player)) iter.remove();
+        }
+    }
+
+    private boolean withinBudget() {
+        if (tickBudgetNanos == Long.MAX_VALUE) return true;
+        long total = 0;
+        for (ManagedGame managed : games) {
+            // hibernating games do not tick
+            if (!managed.game.isHibernating()) total += managed.game.getAverageTickNanos() / managed.game.getTickRate().getPeriod();
+        }
+        val estimate = games.isEmpty() ? 0 : total / games.size();
+        return total + estimate <= tickBudgetNanos;
+    }
+
+    /**
+     * 评估一次需求，并据此创建或销毁游戏实例。
+     * <p>
+     * Evaluate the demand once, and create or destroy game instances accordingly.
+     */
+    public void evaluate() {
+        clock += evaluatePeriodTicks;
+
+        drainQueue();
+
+        int idle = 0;
+        Iterator<ManagedGame> iter = games.iterator();
+        while (iter.hasNext()) {
+            val managed = iter.next();
+            if (managed.playerCount() > 0) {
+                managed.idleSince = -1;
+                continue;
+            }
+            if (managed.idleSince < 0) managed.idleSince = clock;
+            // recycle idle games which no longer accept players
+            if (managed.stale) {
+                managed.game.destroy();
+                iter.remove();
+                continue;
+            }
+            idle++;
+        }
+
+        // scale down, keep at least minIdleGames idle games warm
+        iter = games.iterator();
+        while (iter.hasNext() && idle > minIdleGames) {
+            val managed = iter.next();
+            if (managed.idleSince < 0 || clock - managed.idleSince < idleCooldownTicks) continue;
+            managed.game.destroy();
+            iter.remove();
+            idle--;
+        }
+
+        // scale up
+        val needed = (waitingPlayers.size() + playersPerGame - 1) / playersPerGame + Math.max(0, minIdleGames - idle);
+        for (int i = 0; i < needed && games.size() < maxGames && withinBudget(); i++) {
+            games.add(new ManagedGame(gameFactory.get()));
+        }
+
+        drainQueue();
+    }
+
+    @Override
+    public void init() {
+        clock = 0;
+        // a server-wide task, so it also runs on regionized servers without a main thread
+        evaluator = ITickScheduler.global(plugin).runTimer(this::evaluate, 0, evaluatePeriodTicks);
+    }
+
+    @Override
+    public void destroy() {
+        if (evaluator != null) evaluator.cancel();
+        evaluator = null;
+        games.forEach(it -> it.game.destroy());
+        games.clear();
+        waitingPlayers.clear();
+    }
+
+    @Nullable
+    private ManagedGame find(@NotNull AbstractGame game) {
+        for (ManagedGame managed : games) {
+            if (managed.game == game) return managed;
+        }
+        return null;
+    }
+
+    /**
+     * 检查指定游戏实例是否由该伸缩器管理。
+     * <p>
+     * Check whether the specified game instance is managed by this autoscaler.
+     *
+     * @param game the game instance
+     * @return {@code true} if the game instance is managed by this autoscaler
+     */
+    public boolean isManaged(@NotNull AbstractGame game) {
+        return find(game) != null;
+    }
+
+    @RequiredArgsConstructor
+    private static class ManagedGame {
+
+        @NotNull
+        private final AbstractGame game;
+
+        /**
+         * 游戏实例开始空闲的时刻，-1 表示未空闲。
+         * <p>
+         * The moment when the game instance became idle, -1 if not idle.
+         */
+        private long idleSince = -1;
+
+        /**
+         * 空闲时是否曾拒绝玩家加入。
+         * <p>
+         * Whether the game instance rejected a player while idle.
+         */
+        private boolean stale;
+
+        private int playerCount() {
+            return game.getPlayerCount();
+        }
+    }
+}
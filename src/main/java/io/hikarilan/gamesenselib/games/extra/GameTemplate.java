@@ -5,8 +5,14 @@ import io.hikarilan.gamesenselib.flows.FlowManager;
 import io.hikarilan.gamesenselib.flows.Phase;
 import io.hikarilan.gamesenselib.flows.extra.ExtraPhases;
 import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.GameCapacity;
+import io.hikarilan.gamesenselib.games.TickRate;
 import io.hikarilan.gamesenselib.modules.extra.*;
 import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import io.hikarilan.gamesenselib.protections.ProtectionRule;
+import io.hikarilan.gamesenselib.schedulers.ITickScheduler;
+import io.hikarilan.gamesenselib.utils.Durations;
+import io.hikarilan.gamesenselib.worlds.Region;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
 import org.bukkit.Location;
@@ -55,6 +61,12 @@ public class GameTemplate {
      */
     private boolean teleportPlayerOnQuit = true;
 
+    /**
+     * @see #setRejoinGracePeriod(Duration)
+     */
+    @NotNull
+    private Duration rejoinGracePeriod = Duration.ofMinutes(5);
+
     /**
      * @see #setJoinCommand(String)
      */
@@ -67,6 +79,24 @@ public class GameTemplate {
     @Nullable
     private String quitCommand = "quit";
 
+    /**
+     * @see #setTickScheduler(Supplier)
+     */
+    @Nullable
+    private Supplier<@NotNull ITickScheduler> tickScheduler;
+
+    /**
+     * @see #setDefaultTickRate(TickRate)
+     */
+    @NotNull
+    private TickRate defaultTickRate = TickRate.HZ_20;
+
+    /**
+     * @see #setProtections(ProtectionRule...)
+     */
+    @NotNull
+    private ProtectionRule[] protections = new ProtectionRule[0];
+
     /**
      * 为指定优先级的游戏流程添加游戏阶段，优先级应大于等于 0。
      * <br/>
@@ -190,6 +220,26 @@ public class GameTemplate {
         return this;
     }
 
+    /**
+     * 设置允许玩家重新加入游戏时，退出游戏的玩家可重新加入的宽限期（默认 5 分钟）
+     * <br/>
+     * 宽限期结束后，玩家将无法再重新加入，其玩家实例将被销毁。
+     * 仅在 {@link #setAllowRejoinPlayer(boolean)} 启用时生效。
+     * <p>
+     * Set the grace period within which a player who quit the game may rejoin,
+     * when rejoining is allowed (default 5 minutes)
+     * <br/>
+     * After the grace period, the player can no longer rejoin, and its player instance will be destroyed.
+     * Only takes effect when {@link #setAllowRejoinPlayer(boolean)} is enabled.
+     *
+     * @see IngamePlayerRejoinGameModule
+     */
+    public GameTemplate setRejoinGracePeriod(@NotNull Duration rejoinGracePeriod) {
+        if (Durations.isZeroOrNegative(rejoinGracePeriod)) throw new IllegalArgumentException("Grace period must be positive");
+        this.rejoinGracePeriod = rejoinGracePeriod;
+        return this;
+    }
+
     /**
      * 将退出游戏的玩家踢出服务器或传送到其加入游戏前的位置（默认启用）
      * <br/>
@@ -247,6 +297,52 @@ public class GameTemplate {
         return this;
     }
 
+    /**
+     * 设置游戏实例所使用的 tick 调度器（默认使用 {@link io.hikarilan.gamesenselib.schedulers.BukkitTickScheduler}）。
+     * <br/>
+     * 每次构建游戏实例时都将调用一次该函数。
+     * 设置为 {@code null} 以使用默认调度器。
+     * <p>
+     * Set the tick scheduler used by the game instance (use {@link io.hikarilan.gamesenselib.schedulers.BukkitTickScheduler} by default).
+     * <br/>
+     * The function will be called once every time a game instance is built.
+     * Set to {@code null} to use the default scheduler.
+     *
+     * @param tickScheduler tick scheduler function
+     * @see io.hikarilan.gamesenselib.schedulers.RegionTickScheduler
+     */
+    public GameTemplate setTickScheduler(@Nullable Supplier<@NotNull ITickScheduler> tickScheduler) {
+        this.tickScheduler = tickScheduler;
+        return this;
+    }
+
+    /**
+     * 设置游戏实例的默认 tick 频率（默认：{@link TickRate#HZ_20}），当当前流程中没有阶段指定频率时使用。
+     * <p>
+     * Set the default tick rate of the game instance (default: {@link TickRate#HZ_20}),
+     * used when no phase of the current flow specifies one.
+     *
+     * @param defaultTickRate the default tick rate
+     * @see io.hikarilan.gamesenselib.flows.Phase#getTickRate()
+     */
+    public GameTemplate setDefaultTickRate(@NotNull TickRate defaultTickRate) {
+        this.defaultTickRate = defaultTickRate;
+        return this;
+    }
+
+    /**
+     * 设置游戏实例启用的保护规则（默认：无）。
+     * <p>
+     * Set the protection rules enabled in the game instance (default: none).
+     *
+     * @param protections the protection rules
+     * @see AbstractGame#protect(ProtectionRule...)
+     */
+    public GameTemplate setProtections(@NotNull ProtectionRule... protections) {
+        this.protections = protections.clone();
+        return this;
+    }
+
     /**
      * 创建一个共享游戏实例
      * <br/>
@@ -283,6 +379,26 @@ public class GameTemplate {
         return new WorldGameTemplate(this, world);
     }
 
+    /**
+     * 创建一个区域游戏实例
+     * <br/>
+     * 一个区域游戏实例以世界中的一个区域为边界，同一世界中可以存在多个互不重叠的区域游戏实例。
+     * 当玩家进入该区域时即自动加入游戏，离开该区域时即退出游戏。
+     * <p>
+     * Create a region game instance
+     * <br/>
+     * A region game instance is bounded by a region in a world,
+     * multiple non-overlapping region game instances can exist in the same world.
+     * When the player enters the region, they automatically join the game, and quit the game when leaving the region.
+     *
+     * @param region the region, such as {@link io.hikarilan.gamesenselib.worlds.Cuboid} or {@link io.hikarilan.gamesenselib.worlds.Polygon}
+     * @return region game template
+     */
+    public RegionGameTemplate region(@NotNull Region region) {
+        applySettings(1);
+        return new RegionGameTemplate(this, region);
+    }
+
     /**
      * 创建一个独立游戏实例
      * <br/>
@@ -301,14 +417,14 @@ public class GameTemplate {
         return new IndependentGameTemplate(this);
     }
 
-    private void applySettings(int instanceType /* 0 for shared, 1 for world, 2 for independent */) {
+    private void applySettings(int instanceType /* 0 for shared, 1 for world or region, 2 for independent */) {
         if (removePlayerOnQuit) {
             // make sure the module is added after the game starts
             addPhase(0, () -> Phase.builder().onStart(it -> it.installModule(new IngamePlayerImmediatelyQuitGameModule(it, !allowRejoinPlayer))).build());
         }
         if (allowRejoinPlayer) {
             // make sure the module is added after the game starts
-            addPhase(0, () -> Phase.builder().onStart(it -> it.installModule(new IngamePlayerRejoinGameModule(it))).build());
+            addPhase(0, () -> Phase.builder().onStart(it -> it.installModule(new IngamePlayerRejoinGameModule(it, rejoinGracePeriod))).build());
         }
         if (teleportPlayerOnQuit) {
             if (instanceType == 0 || instanceType == 1) {
@@ -333,6 +449,22 @@ public class GameTemplate {
         gameConfigurators.forEach(configurator -> configurator.configure(plugin, game));
     }
 
+    /**
+     * 使用当前设置创建一个 {@link DefaultGame} 实例。
+     * <p>
+     * Create a {@link DefaultGame} instance with current settings.
+     *
+     * @return game instance
+     */
+    private AbstractGame newGame() {
+        val game = tickScheduler == null
+                ? new DefaultGame(plugin, flowManagerBuilder)
+                : new DefaultGame(plugin, flowManagerBuilder, tickScheduler.get());
+        game.setDefaultTickRate(defaultTickRate);
+        game.protect(protections);
+        return game;
+    }
+
     @RequiredArgsConstructor
     public static class SharedGameTemplate {
 
@@ -340,7 +472,8 @@ public class GameTemplate {
         private final GameTemplate gameTemplate;
 
         public AbstractGame build() {
-            val game = new DefaultGame(gameTemplate.plugin, gameTemplate.flowManagerBuilder);
+            val game = gameTemplate.newGame();
+            game.setType("shared");
             gameTemplate.applyConfigurators(game);
             return game;
         }
@@ -354,22 +487,60 @@ public class GameTemplate {
         private final World world;
 
         public AbstractGame build() {
-            val game = new DefaultGame(gameTemplate.plugin, gameTemplate.flowManagerBuilder);
+            val game = gameTemplate.newGame();
+            game.setType("world");
             gameTemplate.applyConfigurators(game);
             game.installModule(new WorldPlayerJoinGameModule(gameTemplate.plugin, game, world));
             return game;
         }
     }
 
+    @RequiredArgsConstructor
+    public static class RegionGameTemplate {
+        @NotNull
+        private final GameTemplate gameTemplate;
+        @NotNull
+        private final Region region;
+
+        public AbstractGame build() {
+            val game = gameTemplate.newGame();
+            game.setType("region");
+            gameTemplate.applyConfigurators(game);
+            game.installModule(new RegionPlayerJoinGameModule(gameTemplate.plugin, game, region));
+            return game;
+        }
+    }
+
     @RequiredArgsConstructor
     public static class IndependentGameTemplate {
         @NotNull
         private final GameTemplate gameTemplate;
 
+        private int preLoginCapacity;
+
+        /**
+         * 在 {@link org.bukkit.event.player.AsyncPlayerPreLoginEvent} 中按指定的最大玩家数进行准入判断，
+         * 仅在游戏实例接受新玩家加入（{@link AbstractGame#isJoinable()}，例如处于等待大厅阶段）时允许登录。
+         * <p>
+         * Decide admission during {@link org.bukkit.event.player.AsyncPlayerPreLoginEvent} with the specified maximum number of players,
+         * logins are only allowed while the game instance accepts new players ({@link AbstractGame#isJoinable()}, e.g. in the waiting room phase).
+         *
+         * @param maxPlayers the maximum number of players
+         * @return this template
+         * @see GameCapacity
+         */
+        public IndependentGameTemplate setPreLoginCapacity(int maxPlayers) {
+            if (maxPlayers < 1) throw new IllegalArgumentException("The maximum number of players must be at least 1.");
+            this.preLoginCapacity = maxPlayers;
+            return this;
+        }
+
         public AbstractGame build() {
-            val game = new DefaultGame(gameTemplate.plugin, gameTemplate.flowManagerBuilder);
+            val game = gameTemplate.newGame();
+            game.setType("independent");
             gameTemplate.applyConfigurators(game);
-            game.installModule(new IndependentPlayerJoinGameModule(gameTemplate.plugin, game));
+            game.installModule(new IndependentPlayerJoinGameModule(gameTemplate.plugin, game,
+                    preLoginCapacity > 0 ? new GameCapacity(preLoginCapacity) : null));
             return game;
         }
     }
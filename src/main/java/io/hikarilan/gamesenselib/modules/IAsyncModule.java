@@ -0,0 +1,37 @@
+package io.hikarilan.gamesenselib.modules;
+
+import io.hikarilan.gamesenselib.artifacts.CommandBuffer;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 代表一个线程安全的模块，除 {@link #onTick()} 外，其还会在工作线程中被 tick。
+ * <br/>
+ * 已安装模块的 {@link #onAsyncTick(CommandBuffer)} 方法将在主线程完成本 tick 后被提交至游戏实例的工作线程池执行，
+ * 该方法中<b>不应</b>调用任何 Bukkit API，所有副作用都应被记录到给定的 {@link CommandBuffer} 中，
+ * 它们将在下一 tick 开始时于主线程中被批量执行。
+ * <br/>
+ * 如果上一次的工作线程 tick 尚未完成，则本 tick 不会提交新的工作线程 tick。
+ * <p>
+ * Represent a thread-safe module, which will also be ticked on worker threads besides {@link #onTick()}.
+ * <br/>
+ * The {@link #onAsyncTick(CommandBuffer)} method of an installed module will be submitted to the worker pool of the game instance
+ * after the main thread finished this tick. The Bukkit API <b>should not</b> be called in this method,
+ * all side effects should be recorded into the given {@link CommandBuffer} instead,
+ * they will be applied in one batch on the main thread at the beginning of the next tick.
+ * <br/>
+ * If the previous worker tick is not finished yet, no new worker tick will be submitted this tick.
+ *
+ * @see io.hikarilan.gamesenselib.games.AbstractGame#getAsyncExecutor()
+ */
+public interface IAsyncModule extends IModule {
+
+    /**
+     * 如果该模块已被安装，则该方法将被每刻在工作线程中调用。
+     * <p>
+     * Called every tick on a worker thread if the module has been installed.
+     *
+     * @param buffer the command buffer to record side effects into
+     */
+    void onAsyncTick(@NotNull CommandBuffer buffer);
+
+}
@@ -57,6 +57,44 @@ public interface IModule extends IReusable {
      */
     void onUninstall();
 
+    /**
+     * 当该模块所在的游戏实例进入休眠时此方法将被调用。
+     * <br/>
+     * 模块应当在此时暂停其周期性任务或注销其不再需要的监听器，以使休眠中的游戏实例几乎不占用资源。
+     * <p>
+     * Called when the game instance the module installed in hibernates.
+     * <br/>
+     * The module should pause its periodic tasks or unregister its listeners which are no longer needed at this time,
+     * so that a hibernating game instance costs close to nothing.
+     *
+     * @see io.hikarilan.gamesenselib.games.AbstractGame#hibernate()
+     */
+    default void onHibernate() {
+    }
+
+    /**
+     * 当该模块所在的游戏实例从休眠中被唤醒时此方法将被调用。
+     * <p>
+     * Called when the game instance the module installed in wakes up from hibernation.
+     *
+     * @see io.hikarilan.gamesenselib.games.AbstractGame#wakeUp()
+     */
+    default void onWake() {
+    }
+
+    /**
+     * 查询该模块当前是否允许其所在的游戏实例进入休眠，例如模块中没有等待处理的工作。
+     * <p>
+     * Check whether this module currently allows the game instance it installed in to hibernate,
+     * e.g. the module has no pending work.
+     *
+     * @return {@code true} if allowed (default)
+     * @see io.hikarilan.gamesenselib.games.AbstractGame#canHibernate()
+     */
+    default boolean isHibernatable() {
+        return true;
+    }
+
     @Override
     default void init() {
         onInstall();
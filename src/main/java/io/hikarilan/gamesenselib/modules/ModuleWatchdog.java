@@ -0,0 +1,421 @@
+package io.hikarilan.gamesenselib.modules;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import io.hikarilan.gamesenselib.artifacts.IReusable;
+import io.hikarilan.gamesenselib.events.module.ModuleOverrunEvent;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.modules.bundled.BukkitEventMapperModule;
+import io.hikarilan.gamesenselib.modules.bundled.FlowTickModule;
+import io.hikarilan.gamesenselib.modules.bundled.ModuleTickModule;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * 代表一个模块 tick 看门狗，通常被一个游戏实例所持有。
+ * <br/>
+ * 开启后，看门狗将记录每个模块单次 tick 的耗时，超出预算的模块将被记录一次超时；
+ * 为避免持续缓慢的模块刷屏，仅模块的首次超时（自上次清零以来）、降频及隔离会以警告级别输出日志（包括超时期间采集的调用栈），其余超时仅以 {@link Level#FINE} 级别输出；
+ * 累计超时达到 {@link #setThrottleAfter(int)} 次后，该模块的 tick 间隔将被加倍（最多每秒一次），
+ * 累计超时达到 {@link #setQuarantineAfter(int)} 次后，该模块将被隔离并不再被 tick，直到被 {@link #release(Class)} 释放。
+ * 每次降频或隔离前都将发布 {@link ModuleOverrunEvent}，取消该事件可以阻止此次处理。
+ * 模块连续 {@link #setForgiveAfter(int)} 次 tick 未超时后，其累计超时次数将被清零。
+ * <br/>
+ * 已捆绑模块（{@link ModuleTickModule}、{@link FlowTickModule}、{@link BukkitEventMapperModule}）不会被降频或隔离。
+ * <br/>
+ * 调用栈由一个共享的守护线程采集，其采样间隔与所有开启的看门狗中最小的预算相同，且仅在有看门狗开启时运行。
+ * <p>
+ * Represents a module tick watchdog, usually held by a game instance.
+ * <br/>
+ * Once enabled, the watchdog records the cost of every single module tick, a module exceeding the budget records an overrun;
+ * to keep a consistently slow module from flooding the log, only the first overrun of a module (since its overruns were last cleared),
+ * throttling and quarantine are logged as warnings (including the stack sampled during the overrun),
+ * other overruns are only logged at {@link Level#FINE};
+ * After {@link #setThrottleAfter(int)} overruns, the tick interval of the module will be doubled (at most once per second),
+ * after {@link #setQuarantineAfter(int)} overruns, the module will be quarantined and not ticked anymore until released by {@link #release(Class)}.
+ * A {@link ModuleOverrunEvent} is published before every throttling or quarantine, cancelling it prevents the action.
+ * The overruns of a module are cleared after {@link #setForgiveAfter(int)} consecutive ticks within the budget.
+ * <br/>
+ * Bundled modules ({@link ModuleTickModule}, {@link FlowTickModule}, {@link BukkitEventMapperModule}) are never throttled or quarantined.
+ * <br/>
+ * Stacks are sampled by a shared daemon thread, whose sampling interval equals the smallest budget of all enabled watchdogs,
+ * and which only runs while any watchdog is enabled.
+ *
+ * @see AbstractGame#getWatchdog()
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor
+public class ModuleWatchdog implements IReusable {
+
+    /**
+     * 被降频模块的最大 tick 间隔。
+     * <p>
+     * The max tick interval of a throttled module.
+     */
+    private static final int MAX_INTERVAL = 20;
+
+    private static final Set<Class<? extends IModule>> EXEMPT = Sets.newHashSet(ModuleTickModule.class, FlowTickModule.class, BukkitEventMapperModule.class);
+
+    @NotNull
+    private final AbstractGame game;
+
+    @NotNull
+    private final Logger logger;
+
+    @Getter
+    private volatile boolean enabled;
+
+    @Getter
+    private volatile long budgetNanos = TimeUnit.MILLISECONDS.toNanos(5);
+
+    @Getter
+    private int throttleAfter = 3;
+
+    @Getter
+    private int quarantineAfter = 10;
+
+    @Getter
+    private int forgiveAfter = 200;
+
+    private final Map<Class<? extends IModule>, State> states = Maps.newHashMap();
+
+    // the module tick in flight, read by the sampler thread
+    @Nullable
+    private volatile Thread runningThread;
+    private volatile long runningSince;
+    private volatile long runningSequence;
+    @Nullable
+    private volatile StackTraceElement[] sample;
+    private volatile long sampleSequence = -1;
+
+    /**
+     * 开启或关闭看门狗（默认：关闭）。
+     * <p>
+     * Enable or disable the watchdog (default: disabled).
+     *
+     * @param enabled whether to enable
+     * @return this watchdog
+     */
+    public ModuleWatchdog setEnabled(boolean enabled) {
+        this.enabled = enabled;
+        if (enabled) Sampler.watch(this);
+        else Sampler.unwatch(this);
+        return this;
+    }
+
+    /**
+     * 设置模块单次 tick 的预算（默认：5 毫秒）。
+     * <p>
+     * Set the budget of a single module tick (default: 5 milliseconds).
+     *
+     * @param budget the budget
+     * @return this watchdog
+     * @throws IllegalArgumentException if the budget is not positive
+     */
+    public ModuleWatchdog setBudget(@NotNull Duration budget) {
+        if (budget.isZero() || budget.isNegative()) throw new IllegalArgumentException("The budget should be positive.");
+        this.budgetNanos = budget.toNanos();
+        if (enabled) Sampler.reschedule();
+        return this;
+    }
+
+    /**
+     * 设置模块被降频所需的累计超时次数（默认：3），每多超时一次，其 tick 间隔将再次加倍。
+     * <p>
+     * Set the number of overruns after which a module is throttled (default: 3),
+     * its tick interval is doubled again on every further overrun.
+     *
+     * @param throttleAfter the number of overruns
+     * @return this watchdog
+     */
+    public ModuleWatchdog setThrottleAfter(int throttleAfter) {
+        if (throttleAfter <= 0) throw new IllegalArgumentException("The number of overruns should be positive.");
+        this.throttleAfter = throttleAfter;
+        return this;
+    }
+
+    /**
+     * 设置模块被隔离所需的累计超时次数（默认：10），设置为 {@link Integer#MAX_VALUE} 以禁用隔离。
+     * <p>
+     * Set the number of overruns after which a module is quarantined (default: 10),
+     * set to {@link Integer#MAX_VALUE} to disable quarantine.
+     *
+     * @param quarantineAfter the number of overruns
+     * @return this watchdog
+     */
+    public ModuleWatchdog setQuarantineAfter(int quarantineAfter) {
+        if (quarantineAfter <= 0) throw new IllegalArgumentException("The number of overruns should be positive.");
+        this.quarantineAfter = quarantineAfter;
+        return this;
+    }
+
+    /**
+     * 设置清零模块累计超时次数所需的连续未超时 tick 次数（默认：200）。
+     * <p>
+     * Set the number of consecutive ticks within the budget after which the overruns of a module are cleared (default: 200).
+     *
+     * @param forgiveAfter the number of ticks
+     * @return this watchdog
+     */
+    public ModuleWatchdog setForgiveAfter(int forgiveAfter) {
+        if (forgiveAfter <= 0) throw new IllegalArgumentException("The number of ticks should be positive.");
+        this.forgiveAfter = forgiveAfter;
+        return this;
+    }
+
+    /**
+     * 检查指定模块是否已被隔离。
+     * <p>
+     * Check whether the specified module is quarantined.
+     *
+     * @param module the module class
+     * @return {@code true} if quarantined
+     */
+    public boolean isQuarantined(@NotNull Class<? extends IModule> module) {
+        val state = states.get(module);
+        return state != null && state.quarantined;
+    }
+
+    /**
+     * 获取指定模块当前的 tick 间隔（以游戏实例的 tick 计）。
+     * <p>
+     * Get the current tick interval of the specified module (in ticks of the game instance).
+     *
+     * @param module the module class
+     * @return the interval, {@code 1} if not throttled
+     */
+    public int getInterval(@NotNull Class<? extends IModule> module) {
+        val state = states.get(module);
+        return state == null ? 1 : state.interval;
+    }
+
+    /**
+     * 释放指定模块，恢复其 tick 频率并清零其累计超时次数。
+     * <p>
+     * Release the specified module, restore its tick frequency and clear its overruns.
+     *
+     * @param module the module class
+     */
+    public void release(@NotNull Class<? extends IModule> module) {
+        states.remove(module);
+    }
+
+    /**
+     * 释放所有模块。
+     * <p>
+     * Release all modules.
+     */
+    public void releaseAll() {
+        states.clear();
+    }
+
+    /**
+     * 检查本次 tick 中是否应当 tick 指定模块。
+     * <p>
+     * Check whether the specified module should be ticked in this tick.
+     *
+     * @param module the module
+     * @return {@code true} if the module should be ticked
+     */
+    @ApiStatus.Internal
+    public boolean shouldTick(@NotNull IModule module) {
+        val state = states.get(module.getClass());
+        if (state == null) return true;
+        if (state.quarantined) return false;
+        if (++state.skipped < state.interval) return false;
+        state.skipped = 0;
+        return true;
+    }
+
+    /**
+     * 标记指定模块开始 tick。
+     * <p>
+     * Mark the specified module starts ticking.
+     */
+    @ApiStatus.Internal
+    public void begin() {
+        runningSequence++;
+        runningSince = System.nanoTime();
+        runningThread = Thread.currentThread();
+    }
+
+    /**
+     * 标记指定模块结束 tick，并检查其是否超出预算。
+     * <p>
+     * Mark the specified module ends ticking, and check whether it exceeded the budget.
+     *
+     * @param module the module
+     */
+    @ApiStatus.Internal
+    public void end(@NotNull IModule module) {
+        runningThread = null;
+        val cost = System.nanoTime() - runningSince;
+        val state = states.get(module.getClass());
+
+        if (cost <= budgetNanos) {
+            if (state != null && state.strikes > 0 && ++state.clean >= forgiveAfter) {
+                state.strikes = 0;
+                state.clean = 0;
+            }
+            return;
+        }
+
+        val stack = sampleSequence == runningSequence ? sample : null;
+        val current = state != null ? state : new State();
+        if (state == null) states.put(module.getClass(), current);
+        current.clean = 0;
+        current.strikes++;
+
+        // only the first overrun is a warning, the following ones are reported by throttling and quarantine
+        val level = current.strikes == 1 ? Level.WARNING : Level.FINE;
+        if (logger.isLoggable(level)) {
+            logger.log(level, "Module " + module.getClass().getName() + " of game " + game.getId() + " took "
+                    + TimeUnit.NANOSECONDS.toMicros(cost) / 1000.0 + "ms to tick (budget " + TimeUnit.NANOSECONDS.toMicros(budgetNanos) / 1000.0
+                    + "ms, " + current.strikes + " overruns)" + format(stack));
+        }
+
+        if (EXEMPT.contains(module.getClass())) return;
+        if (current.strikes >= quarantineAfter) {
+            if (game.postEvent(new ModuleOverrunEvent(game, module, ModuleOverrunEvent.Action.QUARANTINE, cost, current.strikes, stack)).isCancelled()) return;
+            current.quarantined = true;
+            logger.warning("Module " + module.getClass().getName() + " of game " + game.getId() + " has been quarantined" + format(stack));
+        } else if (current.strikes >= throttleAfter && current.interval < MAX_INTERVAL) {
+            if (game.postEvent(new ModuleOverrunEvent(game, module, ModuleOverrunEvent.Action.THROTTLE, cost, current.strikes, stack)).isCancelled()) return;
+            current.interval = Math.min(MAX_INTERVAL, current.interval * 2);
+            logger.warning("Module " + module.getClass().getName() + " of game " + game.getId() + " will tick every " + current.interval + " ticks" + format(stack));
+        }
+    }
+
+    @Override
+    public void init() {
+        releaseAll();
+        if (enabled) Sampler.watch(this);
+    }
+
+    @Override
+    public void destroy() {
+        runningThread = null;
+        Sampler.unwatch(this);
+    }
+
+    /**
+     * 由采样线程调用，如果当前正在 tick 的模块已超出预算，则采集其调用栈。
+     * <p>
+     * Called by the sampler thread, sample the stack of the module ticking if it has exceeded the budget.
+     */
+    private void sample() {
+        val thread = runningThread;
+        if (thread == null) return;
+        val sequence = runningSequence;
+        if (sampleSequence == sequence || System.nanoTime() - runningSince <= budgetNanos) return;
+        val stack = thread.getStackTrace();
+        // the module may have finished while sampling
+        if (runningThread != thread || runningSequence != sequence) return;
+        sample = stack;
+        sampleSequence = sequence;
+    }
+
+    @NotNull
+    private static String format(@Nullable StackTraceElement[] stack) {
+        if (stack == null) return "";
+        val builder = new StringBuilder(", stack sample:");
+        for (StackTraceElement element : stack) builder.append("\n\tat ").append(element);
+        return builder.toString();
+    }
+
+    /**
+     * 模块的看门狗状态。
+     * <p>
+     * Watchdog state of a module.
+     */
+    private static class State {
+        private int strikes;
+        private int clean;
+        private int interval = 1;
+        private int skipped;
+        private boolean quarantined;
+    }
+
+    /**
+     * 为所有开启的看门狗采集超时模块调用栈的共享守护线程。
+     * <p>
+     * The shared daemon thread sampling the stack of overrunning modules for all enabled watchdogs.
+     */
+    private static class Sampler {
+
+        private static final long MIN_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+        private static final Set<ModuleWatchdog> WATCHED = ConcurrentHashMap.newKeySet();
+
+        @Nullable
+        private static ScheduledExecutorService executor;
+
+        @Nullable
+        private static ScheduledFuture<?> task;
+
+        private static long intervalNanos;
+
+        private static synchronized void watch(@NotNull ModuleWatchdog watchdog) {
+            WATCHED.add(watchdog);
+            if (executor == null) {
+                executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    val thread = new Thread(runnable, "GameSenseLib Module Watchdog");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+            }
+            reschedule();
+        }
+
+        private static synchronized void unwatch(@NotNull ModuleWatchdog watchdog) {
+            WATCHED.remove(watchdog);
+            if (executor == null) return;
+            if (!WATCHED.isEmpty()) {
+                reschedule();
+                return;
+            }
+            executor.shutdown();
+            executor = null;
+            task = null;
+            intervalNanos = 0;
+        }
+
+        /**
+         * 以所有开启的看门狗中最小的预算作为采样间隔重新调度采样任务，超时的模块将在超出预算后的一个间隔内被采样。
+         * <p>
+         * Reschedule the sampling task with the smallest budget of all enabled watchdogs as the interval,
+         * an overrunning module is sampled within one interval after exceeding the budget.
+         */
+        private static synchronized void reschedule() {
+            if (executor == null) return;
+            long interval = Long.MAX_VALUE;
+            for (ModuleWatchdog watchdog : WATCHED) interval = Math.min(interval, watchdog.budgetNanos);
+            interval = Math.max(MIN_INTERVAL_NANOS, interval);
+            if (task != null && interval == intervalNanos) return;
+            if (task != null) task.cancel(false);
+            intervalNanos = interval;
+            task = executor.scheduleAtFixedRate(() -> WATCHED.forEach(watchdog -> {
+                // an exception would cancel the sampling of all watchdogs
+                try {
+                    watchdog.sample();
+                } catch (RuntimeException ignored) {
+                }
+            }), interval, interval, TimeUnit.NANOSECONDS);
+        }
+    }
+}
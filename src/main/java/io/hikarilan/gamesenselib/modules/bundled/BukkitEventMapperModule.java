@@ -46,6 +46,17 @@ public class BukkitEventMapperModule implements IModule, Listener {
         HandlerList.unregisterAll(this);
     }
 
+    @Override
+    public void onHibernate() {
+        // there's no player to map events for while hibernating
+        HandlerList.unregisterAll(this);
+    }
+
+    @Override
+    public void onWake() {
+        plugin.getServer().getPluginManager().registerEvents(this, plugin);
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent e) {
         // Find the player in the game.
@@ -58,6 +69,8 @@ public class BukkitEventMapperModule implements IModule, Listener {
 
     @EventHandler
     public void onPlayerQuit(PlayerQuitEvent e) {
+        // A join in progress never completes.
+        game.getLifecycleTracer().discardJoin(e.getPlayer().getUniqueId());
         // Find the player in the game.
         val player = game.findPlayer(e.getPlayer());
         if (player == null) return;
@@ -1,21 +1,29 @@
 package io.hikarilan.gamesenselib.modules.bundled;
 
 import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.TickRate;
 import io.hikarilan.gamesenselib.modules.IModule;
+import io.hikarilan.gamesenselib.schedulers.ITickTask;
 import lombok.RequiredArgsConstructor;
-import org.bukkit.Bukkit;
 import org.bukkit.plugin.Plugin;
-import org.bukkit.scheduler.BukkitTask;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * <b>已捆绑模块（会在游戏实例创建时自动加载）。</b>
  * <br/>
- * 用于每刻对所有模块进行 tick。
+ * 用于按游戏实例的 tick 频率对所有模块进行 tick，tick 将由游戏实例的 tick 调度器进行调度。
+ * <br/>
+ * 游戏实例休眠期间 tick 将被暂停。
  * <p>
  * <b>Bundled module (automatically loaded when the game instance is created).</b>
  * <br/>
- * Used to tick all modules every tick.
+ * Used to tick all modules at the tick rate of the game instance, the ticks are scheduled by the tick scheduler of the game instance.
+ * <br/>
+ * The ticking is paused while the game instance hibernating.
+ *
+ * @see AbstractGame#getTickScheduler()
+ * @see AbstractGame#getTickRate()
  */
 @RequiredArgsConstructor
 public class ModuleTickModule implements IModule {
@@ -25,19 +33,55 @@ public class ModuleTickModule implements IModule {
     @NotNull
     private final AbstractGame game;
 
-    private BukkitTask ticker;
+    @Nullable
+    private ITickTask ticker;
+
+    /**
+     * 当前计时器所使用的 tick 频率。
+     * <p>
+     * The tick rate the current ticker uses.
+     */
+    @Nullable
+    private TickRate tickerRate;
 
     @Override
     public void onInstall() {
-        ticker = Bukkit.getScheduler().runTaskTimer(plugin, game::tick, 0, 1);
+        if (!game.isHibernating()) startTicking(0);
     }
 
     @Override
     public void onTick() {
+        // reschedule when the rate changed during this tick
+        if (ticker != null && tickerRate != game.getTickRate()) {
+            stopTicking();
+            startTicking(game.getTickRate().getPeriod());
+        }
     }
 
     @Override
     public void onUninstall() {
+        stopTicking();
+    }
+
+    @Override
+    public void onHibernate() {
+        stopTicking();
+    }
+
+    @Override
+    public void onWake() {
+        startTicking(0);
+    }
+
+    private void startTicking(long delay) {
+        if (ticker != null) return;
+        tickerRate = game.getTickRate();
+        ticker = game.getTickScheduler().runTimer(game::tick, delay, tickerRate.getPeriod());
+    }
+
+    private void stopTicking() {
+        if (ticker == null) return;
         ticker.cancel();
+        ticker = null;
     }
 }
@@ -222,10 +222,11 @@ public class BossBarWaitingRoomModule extends AbstractListenerModule {
                 }
                 timerBossbar.setTitle("Game will start in " + Durations.ofTick(timer).getSeconds() + "s");
                 timerBossbar.setColor(BarColor.GREEN);
-                timer--;
+                // a tick of the game may span several server ticks at a lower tick rate
+                timer -= getGame().getTickRate().getPeriod();
                 if (timer > 0) {
                     timerBossbar.setProgress(timer / (double) Durations.toTick(countdown));
-                } else if (timer == 0L) {
+                } else {
                     onFinish();
                     return;
                 }
@@ -241,6 +242,9 @@ public class BossBarWaitingRoomModule extends AbstractListenerModule {
         status = Status.INITIALING;
         timer = Durations.toTick(countdown);
         timerBossbar = Bukkit.createBossBar(null, BarColor.WHITE, BarStyle.SOLID);
+
+        getGame().setMaxPlayers(maxPlayerCount);
+        getGame().setJoinable(true);
     }
 
     @Override
@@ -248,13 +252,19 @@ public class BossBarWaitingRoomModule extends AbstractListenerModule {
         super.onUninstall();
 
         timerBossbar.removeAll();
+
+        getGame().setJoinable(false);
     }
 
     @Subscribe
     public void onAttemptToJoin(PlayerAttemptToJoinGameEvent e) {
-        val playerCount = getGame().getPlayers(true, ingamePlayerClass).size();
+        // players queued by the admission control will join later, count them in advance
+        val admission = getGame().getModule(JoinAdmissionModule.class);
+        val pendingCount = admission == null ? 0 : admission.getPendingCount();
+        val playerCount = getGame().getPlayers(true, ingamePlayerClass).size() + pendingCount;
         if (playerCount >= maxPlayerCount) return;
         if (getGame().findPlayer(e.getPlayer()) != null) return;
+        if (admission != null && admission.isPending(e.getPlayer().getUniqueId())) return;
         e.setCancelled(false);
     }
 
@@ -1,19 +1,23 @@
 package io.hikarilan.gamesenselib.modules.extra;
 
 import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
-import io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent;
 import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.GameCapacity;
 import io.hikarilan.gamesenselib.modules.IModule;
 import io.hikarilan.gamesenselib.players.extra.DefaultGamePlayer;
-import lombok.RequiredArgsConstructor;
+import lombok.Getter;
 import lombok.val;
 import org.bukkit.Bukkit;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.HandlerList;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerLoginEvent;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 /**
  * 独立游戏实例玩家加入模块。
@@ -27,8 +31,19 @@ import org.jetbrains.annotations.NotNull;
  * This module is used to handle player join game instance request.
  * <br/>
  * When the player joins the server, it is considered that the player joins the game instance.
+ * <p>
+ * 如果指定了 {@link GameCapacity}，准入将提前在 {@link AsyncPlayerPreLoginEvent} 中进行：
+ * 玩家将在异步线程中原子地预留一个名额，游戏实例已满或不接受新玩家加入（{@link AbstractGame#isJoinable()}）时，
+ * 玩家将在加载任何世界或区块之前被拒绝登录，而主线程中仅需认领预留并完成加入。
+ * 安装了 {@link IngamePlayerRejoinGameModule} 时，可重新加入的玩家无法在登录前被区分，因此仅按名额进行准入判断。
+ * <br/>
+ * If a {@link GameCapacity} is specified, admission is decided in advance during {@link AsyncPlayerPreLoginEvent}:
+ * the player reserves a slot atomically on the async thread,
+ * and is rejected before any world or chunk is loaded when the game instance is full or does not accept new players ({@link AbstractGame#isJoinable()}),
+ * while only claiming the reservation and completing the join remain on the main thread.
+ * With {@link IngamePlayerRejoinGameModule} installed, players who may rejoin cannot be told apart before login,
+ * so admission is decided by the slots only.
  */
-@RequiredArgsConstructor
 public class IndependentPlayerJoinGameModule implements IModule, Listener {
 
     @NotNull
@@ -36,27 +51,103 @@ public class IndependentPlayerJoinGameModule implements IModule, Listener {
     @NotNull
     private final AbstractGame game;
 
+    /**
+     * 用于在登录前进行准入判断的游戏实例容量，为 {@code null} 时仅在玩家加入服务器后进行准入判断。
+     * <p>
+     * The capacity of the game instance used to decide admission before login,
+     * or {@code null} to decide admission only after the player joins the server.
+     */
+    @Getter
+    @Nullable
+    private final GameCapacity capacity;
+
+    /**
+     * 创建一个独立游戏实例玩家加入模块。
+     * <p>
+     * Create an independent game instance player join module.
+     *
+     * @param plugin plugin instance
+     * @param game   game instance
+     */
+    public IndependentPlayerJoinGameModule(@NotNull Plugin plugin, @NotNull AbstractGame game) {
+        this(plugin, game, null);
+    }
+
+    /**
+     * 创建一个在登录前进行准入判断的独立游戏实例玩家加入模块。
+     * <p>
+     * Create an independent game instance player join module deciding admission before login.
+     *
+     * @param plugin   plugin instance
+     * @param game     game instance
+     * @param capacity capacity of the game instance, or {@code null} to decide admission only after the player joins the server
+     */
+    public IndependentPlayerJoinGameModule(@NotNull Plugin plugin, @NotNull AbstractGame game, @Nullable GameCapacity capacity) {
+        this.plugin = plugin;
+        this.game = game;
+        this.capacity = capacity;
+    }
+
     @Override
     public void onInstall() {
         Bukkit.getPluginManager().registerEvents(this, plugin);
+        publishCapacity();
     }
 
     @Override
     public void onTick() {
+        if (capacity == null) return;
+        capacity.expire();
+        publishCapacity();
     }
 
     @Override
     public void onUninstall() {
         HandlerList.unregisterAll(this);
+        if (capacity != null) capacity.clear();
+    }
+
+    @Override
+    public boolean isHibernatable() {
+        // reservations must be expired, and changes of whether accepting must be published by ticks
+        return capacity == null || (capacity.getReserved() == 0 && capacity.isAccepting() == isAccepting());
+    }
+
+    @EventHandler(priority = EventPriority.HIGH)
+    public void onPlayerPreLogin(AsyncPlayerPreLoginEvent e) {
+        if (capacity == null || e.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED) return;
+        if (!capacity.reserve(e.getUniqueId())) {
+            e.disallow(AsyncPlayerPreLoginEvent.Result.KICK_FULL, "Game has been started or the game is full.");
+        }
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerLogin(PlayerLoginEvent e) {
+        // the reservation will never be claimed if the login is denied by others
+        if (capacity != null && e.getResult() != PlayerLoginEvent.Result.ALLOWED) capacity.cancel(e.getPlayer().getUniqueId());
     }
 
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent e) {
+        if (capacity != null) capacity.claim(e.getPlayer().getUniqueId());
         val event = new PlayerAttemptToJoinGameEvent(game, e.getPlayer());
         if (game.postEvent(event).isCancelled()) {
             e.getPlayer().kickPlayer("Game has been started or the game is full.");
         } else {
-            game.postEvent(new PlayerPreJoinGameEvent(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, e.getPlayer()) : event.getGamePlayer()));
+            JoinAdmissionModule.preJoin(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, e.getPlayer()) : event.getGamePlayer());
         }
+        publishCapacity();
+    }
+
+    private void publishCapacity() {
+        if (capacity == null) return;
+        // players queued by the admission control have been admitted already
+        val admission = game.getModule(JoinAdmissionModule.class);
+        capacity.setOccupied(game.getPlayerCount() + (admission == null ? 0 : admission.getPendingCount()));
+        capacity.setAccepting(isAccepting());
+    }
+
+    private boolean isAccepting() {
+        return game.isJoinable() || game.getModule(IngamePlayerRejoinGameModule.class) != null;
     }
 }
@@ -1,15 +1,25 @@
 package io.hikarilan.gamesenselib.modules.extra;
 
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
 import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
 import io.hikarilan.gamesenselib.events.game.PlayerPostJoinGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerPostQuitGameEvent;
 import io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerRejoinReservationExpiredEvent;
 import io.hikarilan.gamesenselib.games.AbstractGame;
 import io.hikarilan.gamesenselib.modules.AbstractListenerModule;
 import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import io.hikarilan.gamesenselib.utils.Durations;
+import lombok.Getter;
 import lombok.val;
 import org.greenrobot.eventbus.Subscribe;
+import org.jetbrains.annotations.NotNull;
 
-import java.util.Set;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 /**
  * 此模块允许玩家在游戏已开始的情况下重新加入游戏。
@@ -18,6 +28,11 @@ import java.util.Set;
  * 然后允许已加入过游戏的玩家加入游戏。
  * <br/>
  * 要实现此功能，玩家实例不应被在退出游戏时销毁，而是应当仅将玩家实例从游戏列表中移除。
+ * <br/>
+ * 安装模块时游戏中的玩家退出游戏后，模块将为其保留一段宽限期：宽限期内重新加入将沿用原玩家实例，
+ * 宽限期结束后将发布 {@link PlayerRejoinReservationExpiredEvent} 事件，然后销毁其玩家实例。
+ * 保留按玩家的唯一标识符索引，到期时间按 tick 分桶，因此查找及过期处理的开销均与保留数量无关。
+ * 宽限期以服务端 tick 计算，不受游戏实例 tick 频率（{@link AbstractGame#getTickRate()}）的影响；存在保留时游戏实例不会休眠。
  * <p>
  * This module allows players to rejoin the game while the game has started.
  * <br/>
@@ -26,40 +41,194 @@ import java.util.Set;
  * <br/>
  * To achieve this, the player instance should not be destroyed when the player exits the game,
  * but the player instance should only be removed from the game list.
+ * <br/>
+ * Once a player in the game when the module is installed quits the game, the module reserves a grace period for them:
+ * rejoining within the grace period keeps the original player instance,
+ * after the grace period a {@link PlayerRejoinReservationExpiredEvent} event is posted, then the player instance is destroyed.
+ * Reservations are indexed by the unique identifier of the player, and their expiry is bucketed by tick,
+ * so both lookups and expiry cost regardless of the number of reservations.
+ * The grace period is counted in server ticks regardless of the tick rate of the game instance ({@link AbstractGame#getTickRate()}),
+ * and the game instance never hibernates while reservations exist.
  */
 @SuppressWarnings("unused")
 public class IngamePlayerRejoinGameModule extends AbstractListenerModule {
 
-    private Set<AbstractPlayer> gamingPlayers;
+    /**
+     * 安装模块时游戏中的玩家，按玩家的唯一标识符索引，模块卸载时将被清空。
+     * <p>
+     * Players in the game when the module is installed, indexed by the unique identifier of the player,
+     * cleared when the module is uninstalled.
+     */
+    private final Map<UUID, AbstractPlayer> gamingPlayers = Maps.newHashMap();
+
+    /**
+     * 所有保留的到期 tick，按玩家的唯一标识符索引。
+     * <p>
+     * The expiry tick of all reservations, indexed by the unique identifier of the player.
+     */
+    private final Map<UUID, Long> reservations = Maps.newHashMap();
+
+    /**
+     * 在每个服务端 tick 到期的保留，按到期 tick 分桶；被重新加入或续期的保留会被惰性跳过。
+     * <p>
+     * Reservations expiring at every server tick, bucketed by the expiry tick;
+     * reservations rejoined or renewed are skipped lazily.
+     */
+    private final Map<Long, List<UUID>> buckets = Maps.newHashMap();
 
+    /**
+     * 宽限期（服务端 tick）。
+     * <p>
+     * The grace period (in server ticks).
+     */
+    @Getter
+    private final long gracePeriod;
+
+    /**
+     * 模块安装后经过的服务端 tick 数。
+     * <p>
+     * The number of server ticks elapsed since the module was installed.
+     */
+    private long tick;
+
+    /**
+     * 创建一个宽限期为 5 分钟的重新加入模块。
+     * <p>
+     * Create a rejoin module with a grace period of 5 minutes.
+     *
+     * @param game the game instance
+     */
     public IngamePlayerRejoinGameModule(AbstractGame game) {
+        this(game, Duration.ofMinutes(5));
+    }
+
+    /**
+     * 创建一个重新加入模块。
+     * <p>
+     * Create a rejoin module.
+     *
+     * @param game        the game instance
+     * @param gracePeriod how long a player who quit the game may rejoin
+     */
+    public IngamePlayerRejoinGameModule(AbstractGame game, @NotNull Duration gracePeriod) {
         super(game);
+        if (Durations.isZeroOrNegative(gracePeriod)) throw new IllegalArgumentException("Grace period must be positive");
+        this.gracePeriod = Math.max(1, Durations.toTick(gracePeriod));
     }
 
     @Override
     public void onInstall() {
         super.onInstall();
 
-        gamingPlayers = getGame().getPlayers(false);
+        gamingPlayers.clear();
+        for (AbstractPlayer player : getGame().getPlayers(false)) gamingPlayers.put(player.getUniqueId(), player);
+    }
+
+    @Override
+    public void onUninstall() {
+        super.onUninstall();
+
+        gamingPlayers.clear();
+        reservations.clear();
+        buckets.clear();
     }
 
     @Override
     public void onTick() {
+        // a tick of the game may span several server ticks at a lower tick rate
+        val until = tick + getGame().getTickRate().getPeriod();
+        while (tick < until) {
+            tick++;
+            if (!buckets.isEmpty()) expire(tick);
+        }
+    }
 
+    private void expire(long tick) {
+        val expiring = buckets.remove(tick);
+        if (expiring == null) return;
+        for (UUID uniqueId : expiring) {
+            val expiry = reservations.get(uniqueId);
+            if (expiry == null || expiry != tick) continue;
+            reservations.remove(uniqueId);
+            val player = gamingPlayers.remove(uniqueId);
+            if (player == null || player.isDestroyed()) continue;
+            getGame().postEvent(new PlayerRejoinReservationExpiredEvent(getGame(), player));
+            player.destroy();
+        }
+    }
+
+    @Override
+    public boolean isHibernatable() {
+        // reservations must be expired by ticks
+        return reservations.isEmpty();
+    }
+
+    /**
+     * 查询指定玩家是否持有重新加入的保留。
+     * <p>
+     * Check whether the specified player holds a rejoin reservation.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return {@code true} if reserved
+     */
+    public boolean isReserved(@NotNull UUID uniqueId) {
+        return reservations.containsKey(uniqueId);
+    }
+
+    /**
+     * 获取当前的保留数。
+     * <p>
+     * Get the number of current reservations.
+     *
+     * @return the number of reservations
+     */
+    public int getReservationCount() {
+        return reservations.size();
+    }
+
+    /**
+     * 获取指定玩家的保留剩余的服务端 tick 数。
+     * <p>
+     * Get the remaining server ticks of the reservation of the specified player.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return the remaining ticks, or {@code 0} if not reserved
+     */
+    public long getRemainingTicks(@NotNull UUID uniqueId) {
+        val expiry = reservations.get(uniqueId);
+        return expiry == null ? 0 : expiry - tick;
     }
 
     @Subscribe
     public void onPlayerAttemptToJoinGame(PlayerAttemptToJoinGameEvent e) {
-        val player = gamingPlayers.stream().filter(it -> it.isWrapper(e.getPlayer())).findFirst();
-        if (!player.isPresent()) return;
-        e.setGamePlayer(player.get());
+        val player = gamingPlayers.get(e.getPlayer().getUniqueId());
+        if (player == null) return;
+        // a destroyed player instance can never rejoin
+        if (player.isDestroyed()) {
+            gamingPlayers.remove(player.getUniqueId());
+            reservations.remove(player.getUniqueId());
+            return;
+        }
+        e.setGamePlayer(player);
         e.setCancelled(false);
     }
 
     @Subscribe
     public void onPlayerJoinGame(PlayerPreJoinGameEvent e) {
+        // the reservation is claimed, its bucket entry will be skipped
+        reservations.remove(e.getPlayer().getUniqueId());
+
         getGame().addPlayer(e.getPlayer());
 
         getGame().postEvent(new PlayerPostJoinGameEvent(e.getGame(), e.getPlayer()));
     }
+
+    @Subscribe
+    public void onPlayerQuitGame(PlayerPostQuitGameEvent e) {
+        val uniqueId = e.getPlayer().getUniqueId();
+        if (gamingPlayers.get(uniqueId) != e.getPlayer()) return;
+        val expiry = tick + gracePeriod;
+        reservations.put(uniqueId, expiry);
+        buckets.computeIfAbsent(expiry, it -> Lists.newArrayListWithCapacity(1)).add(uniqueId);
+    }
 }
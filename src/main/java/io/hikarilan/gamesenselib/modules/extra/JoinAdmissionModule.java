@@ -0,0 +1,394 @@
+package io.hikarilan.gamesenselib.modules.extra;
+
+import com.google.common.collect.Queues;
+import com.google.common.collect.Sets;
+import io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.modules.AbstractListenerModule;
+import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Deque;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * 玩家加入准入控制模块。
+ * <br/>
+ * 该模块用于在大量玩家同时加入时（例如服务端重启后）平滑加入游戏的开销：
+ * 加入请求（{@link io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent}）仍会被立即接受，
+ * 但发布 {@link PlayerPreJoinGameEvent} 事件及其后的传送、BossBar 等开销较大的操作将受到令牌桶的限制，
+ * 每个服务端 tick 补充 {@code joinsPerTick} 个令牌，最多积攒 {@code burst} 个。
+ * 没有令牌时，玩家将按先进先出的顺序排队，并每秒在动作栏收到其当前排队位置。
+ * <br/>
+ * 默认情况下，所有游戏实例共用服务端范围的令牌桶（{@link TokenBucket#shared()}），因此无论存在多少游戏实例，
+ * 整个服务端每 tick 的加入数都受同一限制；使用 {@link #JoinAdmissionModule(AbstractGame, double, int)} 创建的模块则使用该游戏实例独占的令牌桶。
+ * <br/>
+ * 所有内置的玩家加入模块都会通过 {@link #preJoin(AbstractGame, AbstractPlayer)} 完成加入，因此只需安装该模块即可生效；
+ * 排队中的玩家会被计入 {@link BossBarWaitingRoomModule} 的人数上限。
+ * <br/>
+ * 排队中的玩家离线、退出（{@link #leave(AbstractGame, UUID)}）或不再满足加入条件后将被移出队列；该模块被卸载时，队列中的玩家将被丢弃。
+ * <p>
+ * Player join admission control module.
+ * <br/>
+ * This module is used to smooth the cost of joining games when a large number of players join at once (e.g. after a server restart):
+ * join attempts ({@link io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent}) are still accepted immediately,
+ * but posting the {@link PlayerPreJoinGameEvent} event and the expensive operations following it, such as teleports and boss bars,
+ * are limited by a token bucket, which is refilled with {@code joinsPerTick} tokens every server tick and holds at most {@code burst} tokens.
+ * When no token is available, players queue up in first-in-first-out order,
+ * and receive their current position in the queue on the action bar every second.
+ * <br/>
+ * By default, all game instances share the server-wide token bucket ({@link TokenBucket#shared()}),
+ * so the joins of the whole server every tick are limited together regardless of the number of game instances;
+ * modules created with {@link #JoinAdmissionModule(AbstractGame, double, int)} use a token bucket exclusive to their game instance.
+ * <br/>
+ * All built-in player join modules complete joins through {@link #preJoin(AbstractGame, AbstractPlayer)},
+ * so installing this module is all it takes;
+ * queued players are counted towards the player limit of {@link BossBarWaitingRoomModule}.
+ * <br/>
+ * Queued players are removed from the queue once offline, quitting ({@link #leave(AbstractGame, UUID)}) or no longer eligible to join;
+ * players in the queue are discarded when this module is uninstalled.
+ */
+@SuppressWarnings("unused")
+public class JoinAdmissionModule extends AbstractListenerModule {
+
+    private static final int FEEDBACK_PERIOD = 20;
+
+    /**
+     * 该模块使用的令牌桶。
+     * <p>
+     * The token bucket used by this module.
+     */
+    @Getter
+    @NotNull
+    private final TokenBucket bucket;
+
+    private final Deque<Pending> queue = Queues.newArrayDeque();
+
+    private final Set<UUID> queued = Sets.newHashSet();
+
+    private int feedbackTimer;
+
+    /**
+     * 创建一个使用指定令牌桶的玩家加入准入控制模块，令牌桶可以在多个游戏实例之间共享。
+     * <p>
+     * Create a player join admission control module using the specified token bucket,
+     * the token bucket may be shared between several game instances.
+     *
+     * @param game   game instance
+     * @param bucket the token bucket
+     */
+    public JoinAdmissionModule(@NotNull AbstractGame game, @NotNull TokenBucket bucket) {
+        super(game);
+        this.bucket = bucket;
+    }
+
+    /**
+     * 创建一个使用该游戏实例独占的令牌桶的玩家加入准入控制模块。
+     * <p>
+     * Create a player join admission control module using a token bucket exclusive to the game instance.
+     *
+     * @param game         game instance
+     * @param joinsPerTick the number of joins allowed every server tick, may be fractional
+     * @param burst        the maximum number of joins allowed at once
+     * @throws IllegalArgumentException if {@code joinsPerTick} is not positive or {@code burst} is less than 1
+     */
+    public JoinAdmissionModule(@NotNull AbstractGame game, double joinsPerTick, int burst) {
+        this(game, new TokenBucket(joinsPerTick, burst));
+    }
+
+    /**
+     * 创建一个使用服务端范围令牌桶（{@link TokenBucket#shared()}）的玩家加入准入控制模块。
+     * <p>
+     * Create a player join admission control module using the server-wide token bucket ({@link TokenBucket#shared()}).
+     *
+     * @param game game instance
+     */
+    public JoinAdmissionModule(@NotNull AbstractGame game) {
+        this(game, TokenBucket.shared());
+    }
+
+    /**
+     * 完成一个已通过加入请求的玩家的加入。
+     * <br/>
+     * 如果指定游戏实例安装了该模块，则由该模块进行准入控制；否则立即发布 {@link PlayerPreJoinGameEvent} 事件。
+     * <p>
+     * Complete the join of a player whose join attempt has passed.
+     * <br/>
+     * If the specified game instance has this module installed, the join is admitted by this module;
+     * otherwise the {@link PlayerPreJoinGameEvent} event is posted immediately.
+     *
+     * @param game   game instance
+     * @param player the player joining the game
+     */
+    public static void preJoin(@NotNull AbstractGame game, @NotNull AbstractPlayer player) {
+        preJoin(game, player, it -> true);
+    }
+
+    /**
+     * 完成一个已通过加入请求的玩家的加入，排队的玩家在出队时必须仍满足指定条件才会加入。
+     * <p>
+     * Complete the join of a player whose join attempt has passed,
+     * a queued player only joins if it still meets the specified condition when dequeued.
+     *
+     * @param game        game instance
+     * @param player      the player joining the game
+     * @param eligibility whether the online player is still eligible to join, e.g. still in the world of the game
+     */
+    public static void preJoin(@NotNull AbstractGame game, @NotNull AbstractPlayer player, @NotNull Predicate<Player> eligibility) {
+        val module = game.getModule(JoinAdmissionModule.class);
+        if (module == null) {
+            game.postEvent(new PlayerPreJoinGameEvent(game, player));
+        } else {
+            module.admit(player, eligibility);
+        }
+    }
+
+    /**
+     * 将指定玩家移出指定游戏实例的队列，未安装该模块时不做任何事。
+     * <p>
+     * Remove the specified player from the queue of the specified game instance, does nothing if this module is not installed.
+     *
+     * @param game     game instance
+     * @param uniqueId the unique identifier of the player
+     * @return {@code true} if the player was queued
+     */
+    public static boolean leave(@NotNull AbstractGame game, @NotNull UUID uniqueId) {
+        val module = game.getModule(JoinAdmissionModule.class);
+        return module != null && module.leave(uniqueId);
+    }
+
+    /**
+     * 准入一个玩家，如果有可用令牌且队列为空则立即加入，否则进入队列。
+     * <p>
+     * Admit a player, joining immediately if a token is available and the queue is empty, otherwise queueing up.
+     *
+     * @param player the player joining the game
+     */
+    public void admit(@NotNull AbstractPlayer player) {
+        admit(player, it -> true);
+    }
+
+    /**
+     * 准入一个玩家，如果有可用令牌且队列为空则立即加入，否则进入队列。
+     * <p>
+     * Admit a player, joining immediately if a token is available and the queue is empty, otherwise queueing up.
+     *
+     * @param player      the player joining the game
+     * @param eligibility whether the online player is still eligible to join when dequeued
+     */
+    public void admit(@NotNull AbstractPlayer player, @NotNull Predicate<Player> eligibility) {
+        if (queued.contains(player.getUniqueId())) return;
+        if (queue.isEmpty() && bucket.tryAcquire()) {
+            getGame().postEvent(new PlayerPreJoinGameEvent(getGame(), player));
+            return;
+        }
+        queue.addLast(new Pending(player, eligibility));
+        queued.add(player.getUniqueId());
+        player.sendActionBar("You are #" + queue.size() + " in the join queue.");
+    }
+
+    /**
+     * 将指定玩家移出队列。
+     * <p>
+     * Remove the specified player from the queue.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return {@code true} if the player was queued
+     */
+    public boolean leave(@NotNull UUID uniqueId) {
+        if (!queued.remove(uniqueId)) return false;
+        queue.removeIf(pending -> pending.player.getUniqueId().equals(uniqueId));
+        getGame().getLifecycleTracer().discardJoin(uniqueId);
+        return true;
+    }
+
+    /**
+     * 查询指定玩家是否正在排队。
+     * <p>
+     * Check whether the specified player is queued.
+     *
+     * @param uniqueId the unique identifier of the player
+     * @return {@code true} if queued
+     */
+    public boolean isPending(@NotNull UUID uniqueId) {
+        return queued.contains(uniqueId);
+    }
+
+    /**
+     * 获取正在排队的玩家数。
+     * <p>
+     * Get the number of queued players.
+     *
+     * @return the number of queued players
+     */
+    public int getPendingCount() {
+        return queue.size();
+    }
+
+    @Override
+    public void onTick() {
+        while (!queue.isEmpty()) {
+            val pending = queue.peekFirst();
+            if (!pending.isEligible()) {
+                // players no longer eligible never take a token
+                queue.pollFirst();
+                drop(pending);
+                continue;
+            }
+            if (!bucket.tryAcquire()) break;
+            queue.pollFirst();
+            queued.remove(pending.player.getUniqueId());
+            getGame().postEvent(new PlayerPreJoinGameEvent(getGame(), pending.player));
+        }
+
+        feedbackTimer -= getGame().getTickRate().getPeriod();
+        if (feedbackTimer > 0) return;
+        feedbackTimer = FEEDBACK_PERIOD;
+        int position = 0;
+        val iter = queue.iterator();
+        while (iter.hasNext()) {
+            val pending = iter.next();
+            if (!pending.isEligible()) {
+                iter.remove();
+                drop(pending);
+                continue;
+            }
+            pending.player.sendActionBar("You are #" + ++position + " in the join queue.");
+        }
+    }
+
+    @Override
+    public boolean isHibernatable() {
+        return queue.isEmpty();
+    }
+
+    @Override
+    public void onInstall() {
+        super.onInstall();
+
+        feedbackTimer = FEEDBACK_PERIOD;
+    }
+
+    @Override
+    public void onUninstall() {
+        super.onUninstall();
+
+        for (Pending pending : queue) getGame().getLifecycleTracer().discardJoin(pending.player.getUniqueId());
+        queue.clear();
+        queued.clear();
+    }
+
+    private void drop(@NotNull Pending pending) {
+        queued.remove(pending.player.getUniqueId());
+        getGame().getLifecycleTracer().discardJoin(pending.player.getUniqueId());
+    }
+
+    @RequiredArgsConstructor
+    private static class Pending {
+        @NotNull
+        private final AbstractPlayer player;
+        @NotNull
+        private final Predicate<Player> eligibility;
+
+        private boolean isEligible() {
+            val online = Bukkit.getPlayer(player.getUniqueId());
+            return online != null && eligibility.test(online);
+        }
+    }
+
+    /**
+     * 加入准入的令牌桶。
+     * <br/>
+     * 令牌按经过的时间惰性补充，每 50 毫秒（一个服务端 tick）补充 {@code joinsPerTick} 个，最多积攒 {@code burst} 个，
+     * 因此同一令牌桶可以被任意数量、任意 tick 频率的游戏实例共享，而不会被重复补充。
+     * <br/>
+     * 该类是线程安全的，因此可以被在不同线程中 tick 的游戏实例（例如使用 {@link io.hikarilan.gamesenselib.schedulers.RegionTickScheduler} 时）共享。
+     * <p>
+     * Token bucket of join admission.
+     * <br/>
+     * Tokens are refilled lazily by the elapsed time, {@code joinsPerTick} tokens every 50 milliseconds (a server tick)
+     * and at most {@code burst} tokens are held,
+     * so the same token bucket may be shared by any number of game instances at any tick rate without being refilled repeatedly.
+     * <br/>
+     * This class is thread-safe, so it may be shared by game instances ticking on different threads
+     * (e.g. using {@link io.hikarilan.gamesenselib.schedulers.RegionTickScheduler}).
+     */
+    public static class TokenBucket {
+
+        private static final long NANOS_PER_TICK = 50_000_000L;
+
+        private static final TokenBucket SHARED = new TokenBucket(1, 4);
+
+        /**
+         * 每个服务端 tick 补充的令牌数。
+         * <p>
+         * The number of tokens refilled every server tick.
+         */
+        @Getter
+        private final double joinsPerTick;
+
+        /**
+         * 最多积攒的令牌数。
+         * <p>
+         * The maximum number of tokens held.
+         */
+        @Getter
+        private final int burst;
+
+        private double tokens;
+
+        private long refilledAt = System.nanoTime();
+
+        /**
+         * 创建一个令牌桶，初始时积满令牌。
+         * <p>
+         * Create a token bucket, full of tokens initially.
+         *
+         * @param joinsPerTick the number of joins allowed every server tick, may be fractional
+         * @param burst        the maximum number of joins allowed at once
+         * @throws IllegalArgumentException if {@code joinsPerTick} is not positive or {@code burst} is less than 1
+         */
+        public TokenBucket(double joinsPerTick, int burst) {
+            if (!(joinsPerTick > 0)) throw new IllegalArgumentException("The joins per tick must be positive.");
+            if (burst < 1) throw new IllegalArgumentException("The burst must be at least 1.");
+            this.joinsPerTick = joinsPerTick;
+            this.burst = burst;
+            this.tokens = burst;
+        }
+
+        /**
+         * 获取服务端范围共享的令牌桶，每个服务端 tick 允许 1 个玩家加入，最多同时允许 4 个。
+         * <p>
+         * Get the token bucket shared server-wide, allowing 1 join every server tick and at most 4 at once.
+         *
+         * @return the shared token bucket
+         */
+        @NotNull
+        public static TokenBucket shared() {
+            return SHARED;
+        }
+
+        /**
+         * 尝试获取一个令牌。
+         * <p>
+         * Try to acquire a token.
+         *
+         * @return {@code true} if acquired
+         */
+        public synchronized boolean tryAcquire() {
+            val now = System.nanoTime();
+            tokens = Math.min(burst, tokens + joinsPerTick * (now - refilledAt) / NANOS_PER_TICK);
+            refilledAt = now;
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+    }
+}
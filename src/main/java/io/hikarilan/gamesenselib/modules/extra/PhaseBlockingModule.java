@@ -1,5 +1,6 @@
 package io.hikarilan.gamesenselib.modules.extra;
 
+import io.hikarilan.gamesenselib.flows.PhaseSignal;
 import io.hikarilan.gamesenselib.flows.extra.ExtraPhases;
 import io.hikarilan.gamesenselib.modules.IModule;
 import lombok.Getter;
@@ -18,6 +19,16 @@ public class PhaseBlockingModule implements IModule {
     @Getter
     private boolean blocking;
 
+    /**
+     * 解除阻塞时触发的信号。
+     * <p>
+     * The signal fired when unlocked.
+     *
+     * @see io.hikarilan.gamesenselib.flows.Phase#awaiting
+     */
+    @Getter
+    private final PhaseSignal unlockSignal = PhaseSignal.create();
+
     @Override
     public void onInstall() {
         blocking = true;
@@ -52,5 +63,6 @@ public class PhaseBlockingModule implements IModule {
      */
     public void unlock() {
         blocking = false;
+        unlockSignal.fire();
     }
 }
@@ -1,18 +1,9 @@
 package io.hikarilan.gamesenselib.modules.extra;
 
-import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
-import io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent;
-import io.hikarilan.gamesenselib.events.game.PlayerPreQuitGameEvent;
+import io.hikarilan.gamesenselib.commands.GameCommandDispatcher;
 import io.hikarilan.gamesenselib.games.AbstractGame;
 import io.hikarilan.gamesenselib.modules.IModule;
-import io.hikarilan.gamesenselib.players.extra.DefaultGamePlayer;
 import lombok.RequiredArgsConstructor;
-import lombok.val;
-import org.bukkit.Bukkit;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerCommandPreprocessEvent;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -21,13 +12,19 @@ import org.jetbrains.annotations.Nullable;
  * 玩家加入和退出游戏的命令模块。
  * <br/>
  * 此模块允许玩家通过设定的命令加入和退出游戏。
+ * <br/>
+ * 命令由共享的 {@link GameCommandDispatcher} 分发，多个游戏实例可以使用相同的命令，
+ * 玩家也可以通过 {@code /<加入命令> <游戏实例名称>} 加入指定的游戏实例。
  * <p>
  * Player join and quit game with command module.
  * <br/>
  * This module allows players to join and quit the game by setting the command.
+ * <br/>
+ * Commands are dispatched by the shared {@link GameCommandDispatcher}, multiple game instances may use the same command,
+ * and players may join a specific game instance by {@code /<join command> <game instance name>}.
  */
 @RequiredArgsConstructor
-public class PlayerJoinAndQuitGameWithCommandModule implements IModule, Listener {
+public class PlayerJoinAndQuitGameWithCommandModule implements IModule {
 
     @NotNull
     private final Plugin plugin;
@@ -53,7 +50,8 @@ public class PlayerJoinAndQuitGameWithCommandModule implements IModule, Listener
 
     @Override
     public void onInstall() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        if (joinCommand != null) GameCommandDispatcher.registerJoinCommand(plugin, joinCommand, game);
+        if (quitCommand != null) GameCommandDispatcher.registerQuitCommand(plugin, quitCommand, game);
     }
 
     @Override
@@ -63,24 +61,7 @@ public class PlayerJoinAndQuitGameWithCommandModule implements IModule, Listener
 
     @Override
     public void onUninstall() {
-        HandlerList.unregisterAll(this);
-    }
-
-    @EventHandler
-    public void onCommand(PlayerCommandPreprocessEvent e) {
-        if (joinCommand != null && e.getMessage().substring(1).equals(joinCommand)) {
-            val event = new PlayerAttemptToJoinGameEvent(game, e.getPlayer());
-            game.postEvent(event);
-            if (event.isCancelled()) return;
-            game.postEvent(new PlayerPreJoinGameEvent(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, e.getPlayer()) : event.getGamePlayer()));
-            e.setCancelled(true);
-            return;
-        }
-        if (quitCommand != null && e.getMessage().substring(1).equals(quitCommand)) {
-            val player = game.findPlayer(e.getPlayer());
-            if (player == null) return;
-            game.postEvent(new PlayerPreQuitGameEvent(game, player));
-            e.setCancelled(true);
-        }
+        if (joinCommand != null) GameCommandDispatcher.unregisterJoinCommand(plugin, joinCommand, game);
+        if (quitCommand != null) GameCommandDispatcher.unregisterQuitCommand(plugin, quitCommand, game);
     }
 }
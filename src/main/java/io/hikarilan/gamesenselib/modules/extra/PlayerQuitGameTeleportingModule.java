@@ -1,15 +1,18 @@
 package io.hikarilan.gamesenselib.modules.extra;
 
-import com.google.common.collect.Maps;
 import io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent;
 import io.hikarilan.gamesenselib.events.game.PlayerPreQuitGameEvent;
 import io.hikarilan.gamesenselib.games.AbstractGame;
 import io.hikarilan.gamesenselib.modules.AbstractListenerModule;
-import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import io.hikarilan.gamesenselib.players.PlayerSlot;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.greenrobot.eventbus.Subscribe;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.Map;
+import java.util.UUID;
 
 /**
  * 玩家退出游戏后处理模块。
@@ -24,26 +27,20 @@ import java.util.Map;
 @SuppressWarnings("unused")
 public class PlayerQuitGameTeleportingModule extends AbstractListenerModule {
 
-    private final boolean kickPlayer;
-
     /**
      * 玩家加入大厅前所在的位置
      * <p>
      * The location where the player was before joining the lobby
      */
-    private final Map<AbstractPlayer, Location> pastLocations = Maps.newHashMap();
+    private static final PlayerSlot<PastLocation> PAST_LOCATION = PlayerSlot.of(PlayerQuitGameTeleportingModule.class);
+
+    private final boolean kickPlayer;
 
     public PlayerQuitGameTeleportingModule(AbstractGame game, boolean kickPlayer) {
         super(game);
         this.kickPlayer = kickPlayer;
     }
 
-    @Override
-    public void onInstall() {
-        super.onInstall();
-        pastLocations.clear();
-    }
-
     @Override
     public void onTick() {
     }
@@ -51,7 +48,7 @@ public class PlayerQuitGameTeleportingModule extends AbstractListenerModule {
     @Subscribe
     public void onPlayerJoinGame(PlayerPreJoinGameEvent e) {
         if (kickPlayer) return;
-        pastLocations.put(e.getPlayer(), e.getPlayer().getLocation());
+        e.getPlayer().setData(PAST_LOCATION, PastLocation.of(e.getPlayer().getLocation()));
     }
 
     @Subscribe
@@ -61,8 +58,39 @@ public class PlayerQuitGameTeleportingModule extends AbstractListenerModule {
             return;
         }
 
-        if (!pastLocations.containsKey(e.getPlayer())) return;
+        val past = e.getPlayer().getData(PAST_LOCATION);
+        if (past == null) return;
+
+        e.getPlayer().setData(PAST_LOCATION, null);
+        val location = past.toLocation();
+        if (location != null) e.getPlayer().teleport(location);
+    }
+
+    /**
+     * 玩家加入前的位置，仅以唯一标识符引用世界，因此不会阻止世界卸载后被回收。
+     * <p>
+     * The location of a player before joining, referencing the world by its unique identifier only,
+     * so that it never keeps a world from being collected after unloading.
+     */
+    @RequiredArgsConstructor
+    private static class PastLocation {
+        private final UUID world;
+        private final double x, y, z;
+        private final float yaw, pitch;
+
+        @Nullable
+        private static PastLocation of(@Nullable Location location) {
+            if (location == null || location.getWorld() == null) return null;
+            return new PastLocation(location.getWorld().getUID(), location.getX(), location.getY(), location.getZ(), location.getYaw(), location.getPitch());
+        }
 
-        e.getPlayer().teleport(pastLocations.get(e.getPlayer()));
+        /**
+         * @return the location, or {@code null} if the world has been unloaded
+         */
+        @Nullable
+        private Location toLocation() {
+            val loaded = Bukkit.getWorld(world);
+            return loaded == null ? null : new Location(loaded, x, y, z, yaw, pitch);
+        }
     }
 }
@@ -0,0 +1,91 @@
+package io.hikarilan.gamesenselib.modules.extra;
+
+import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerPreQuitGameEvent;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.modules.IModule;
+import io.hikarilan.gamesenselib.players.extra.DefaultGamePlayer;
+import io.hikarilan.gamesenselib.worlds.IRegionMember;
+import io.hikarilan.gamesenselib.worlds.Region;
+import io.hikarilan.gamesenselib.worlds.RegionMembershipTracker;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 区域游戏实例玩家加入模块。
+ * <br/>
+ * 该可模块用于处理玩家加入游戏实例请求。
+ * <br/>
+ * 当玩家进入指定区域时即视为玩家加入游戏实例，离开该区域时即视为退出游戏实例；
+ * 区域的进出由共享的 {@link RegionMembershipTracker} 追踪，因此同一世界中可以存在多个互不重叠的区域游戏实例。
+ * <p>
+ * Region game instance player join module.
+ * <br/>
+ * This module is used to handle player join game instance request.
+ * <br/>
+ * When the player enters the specified region, it is considered that the player joins the game instance,
+ * and leaving the region is considered quitting the game instance;
+ * Entering and leaving regions are tracked by the shared {@link RegionMembershipTracker},
+ * so multiple non-overlapping region game instances can exist in the same world.
+ */
+@RequiredArgsConstructor
+public class RegionPlayerJoinGameModule implements IModule, IRegionMember {
+
+    @NotNull
+    private final Plugin plugin;
+    @NotNull
+    private final AbstractGame game;
+    @NotNull
+    private final Region region;
+
+    @Override
+    public void onInstall() {
+        RegionMembershipTracker.bind(plugin, region, this);
+    }
+
+    @Override
+    public void onTick() {
+    }
+
+    @Override
+    public void onUninstall() {
+        RegionMembershipTracker.unbind(plugin, region, this);
+    }
+
+    @Override
+    public boolean canEnterRegion(@NotNull Player player, @NotNull Region region) {
+        // players of the game instance (e.g. teleported into the arena) always pass, whether joins are accepted is left to the join attempt
+        if (game.findPlayer(player) != null || game.getOpenSlots() > 0) return true;
+        player.sendMessage("The game is full.");
+        return false;
+    }
+
+    @Override
+    public boolean onEnterRegion(@NotNull Player player, @NotNull Region region, boolean login) {
+        if (game.findPlayer(player) != null) return true;
+        val event = game.postEvent(new PlayerAttemptToJoinGameEvent(game, player));
+        if (event.isCancelled()) {
+            player.sendMessage("Game has been started or the game is full.");
+            return false;
+        }
+        // a queued player must still be in the region when admitted
+        JoinAdmissionModule.preJoin(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, player) : event.getGamePlayer(),
+                it -> {
+                    val location = it.getLocation();
+                    return region.getWorld().equals(location.getWorld())
+                            && region.contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+                });
+        return true;
+    }
+
+    @Override
+    public void onLeaveRegion(@NotNull Player player, @NotNull Region region) {
+        if (JoinAdmissionModule.leave(game, player.getUniqueId())) return;
+        val gamePlayer = game.findPlayer(player);
+        if (gamePlayer == null) return;
+        game.postEvent(new PlayerPreQuitGameEvent(game, gamePlayer));
+    }
+}
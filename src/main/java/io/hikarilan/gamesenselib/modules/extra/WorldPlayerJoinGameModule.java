@@ -1,21 +1,16 @@
 package io.hikarilan.gamesenselib.modules.extra;
 
 import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
-import io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent;
 import io.hikarilan.gamesenselib.events.game.PlayerPreQuitGameEvent;
 import io.hikarilan.gamesenselib.games.AbstractGame;
 import io.hikarilan.gamesenselib.modules.IModule;
 import io.hikarilan.gamesenselib.players.extra.DefaultGamePlayer;
+import io.hikarilan.gamesenselib.worlds.IWorldMember;
+import io.hikarilan.gamesenselib.worlds.WorldMembershipTracker;
 import lombok.RequiredArgsConstructor;
 import lombok.val;
-import org.bukkit.Bukkit;
 import org.bukkit.World;
-import org.bukkit.event.EventHandler;
-import org.bukkit.event.HandlerList;
-import org.bukkit.event.Listener;
-import org.bukkit.event.player.PlayerChangedWorldEvent;
-import org.bukkit.event.player.PlayerJoinEvent;
-import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.entity.Player;
 import org.bukkit.plugin.Plugin;
 import org.jetbrains.annotations.NotNull;
 
@@ -25,15 +20,20 @@ import org.jetbrains.annotations.NotNull;
  * 该可模块用于处理玩家加入游戏实例请求。
  * <br/>
  * 当玩家加入指定世界时即视为玩家加入游戏实例。
+ * <br/>
+ * 世界的进入与离开由共享的 {@link WorldMembershipTracker} 追踪，同一世界内的传送不会产生加入请求。
  * <p>
  * Single world game instance player join module.
  * <br/>
  * This module is used to handle player join game instance request.
  * <br/>
  * When the player joins specify world, it is considered that the player joins the game instance.
+ * <br/>
+ * Entering and leaving the world are tracked by the shared {@link WorldMembershipTracker},
+ * teleports within the same world produce no join attempt.
  */
 @RequiredArgsConstructor
-public class WorldPlayerJoinGameModule implements IModule, Listener {
+public class WorldPlayerJoinGameModule implements IModule, IWorldMember {
 
     @NotNull
     private final Plugin plugin;
@@ -44,7 +44,7 @@ public class WorldPlayerJoinGameModule implements IModule, Listener {
 
     @Override
     public void onInstall() {
-        Bukkit.getPluginManager().registerEvents(this, plugin);
+        WorldMembershipTracker.bind(plugin, world, this);
     }
 
     @Override
@@ -53,38 +53,36 @@ public class WorldPlayerJoinGameModule implements IModule, Listener {
 
     @Override
     public void onUninstall() {
-        HandlerList.unregisterAll(this);
-    }
-
-    @EventHandler
-    public void onPlayerEnterWorld(PlayerTeleportEvent e) {
-        if (e.getTo().getWorld() != world) return;
-        val event = game.postEvent(new PlayerAttemptToJoinGameEvent(game, e.getPlayer()));
-        if (event.isCancelled()) {
-            e.setCancelled(true);
-            e.getPlayer().sendMessage("Game has been started or the game is full.");
-        } else {
-            game.postEvent(new PlayerPreJoinGameEvent(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, e.getPlayer()) : event.getGamePlayer()));
-        }
+        WorldMembershipTracker.unbind(plugin, world, this);
     }
 
-    @EventHandler
-    public void onPlayerLeaveWorld(PlayerChangedWorldEvent e) {
-        if (e.getFrom() != world) return;
-        val player = game.findPlayer(e.getPlayer());
-        if (player == null) return;
-        game.postEvent(new PlayerPreQuitGameEvent(game, player));
+    @Override
+    public boolean canEnterWorld(@NotNull Player player, @NotNull World world) {
+        // players of the game instance (e.g. teleported into the arena) always pass, whether joins are accepted is left to the join attempt
+        if (game.findPlayer(player) != null || game.getOpenSlots() > 0) return true;
+        player.sendMessage("The game is full.");
+        return false;
     }
 
-    @EventHandler
-    public void onPlayerJoin(PlayerJoinEvent e) {
-        if (e.getPlayer().getWorld() != world) return;
-        val event = game.postEvent(new PlayerAttemptToJoinGameEvent(game, e.getPlayer()));
+    @Override
+    public boolean onEnterWorld(@NotNull Player player, @NotNull World world, boolean login) {
+        if (game.findPlayer(player) != null) return true;
+        val event = game.postEvent(new PlayerAttemptToJoinGameEvent(game, player));
         if (event.isCancelled()) {
-            e.getPlayer().sendMessage("Game has been started or the game is full.");
-        } else {
-            game.postEvent(new PlayerPreJoinGameEvent(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, e.getPlayer()) : event.getGamePlayer()));
+            player.sendMessage("Game has been started or the game is full.");
+            return false;
         }
+        // a queued player must still be in the world when admitted
+        JoinAdmissionModule.preJoin(game, event.getGamePlayer() == null ? new DefaultGamePlayer(game, player) : event.getGamePlayer(),
+                it -> it.getWorld().equals(this.world));
+        return true;
     }
 
+    @Override
+    public void onLeaveWorld(@NotNull Player player, @NotNull World world) {
+        if (JoinAdmissionModule.leave(game, player.getUniqueId())) return;
+        val gamePlayer = game.findPlayer(player);
+        if (gamePlayer == null) return;
+        game.postEvent(new PlayerPreQuitGameEvent(game, gamePlayer));
+    }
 }
@@ -4,7 +4,9 @@ import com.google.common.collect.Queues;
 import io.hikarilan.gamesenselib.annotations.OfflineCached;
 import io.hikarilan.gamesenselib.annotations.OfflineQueued;
 import io.hikarilan.gamesenselib.artifacts.IConsumerQueueHolder;
+import io.hikarilan.gamesenselib.debug.LeakDetector;
 import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.modules.IModule;
 import lombok.Getter;
 import lombok.ToString;
 import lombok.val;
@@ -15,7 +17,9 @@ import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.jetbrains.annotations.ApiStatus;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
+import java.util.Arrays;
 import java.util.Queue;
 import java.util.UUID;
 import java.util.function.Consumer;
@@ -47,6 +51,8 @@ import java.util.function.Consumer;
 @ToString
 public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
 
+    private static final Object[] EMPTY_DATA = new Object[0];
+
     /**
      * 玩家所在的游戏实例
      * <p>
@@ -59,6 +65,7 @@ public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
      * <p>
      * The unique identifier of the player (same as {@link Player#getUniqueId()})
      */
+    @Getter
     private final UUID uniqueId;
 
     /**
@@ -112,10 +119,24 @@ public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
 
     /**
      * 延迟执行队列，用于在玩家离线时缓存操作。
+     * <br/>
+     * 玩家离线期间排队的操作（如 {@link OfflineQueued} 标注的方法）会在玩家重新上线时按顺序执行，
+     * 玩家实例被销毁时队列将被清空。
      * <p>
      * Delayed execution queue, used to cache operations when the player is offline.
+     * <br/>
+     * Operations queued while the player is offline (such as the methods annotated with {@link OfflineQueued})
+     * run in order when the player comes online again, and the queue is cleared when the player instance is destroyed.
+     */
+    private final Queue<Consumer<Player>> consumerQueue = Queues.newConcurrentLinkedQueue();
+
+    /**
+     * 模块在该玩家实例上的数据，按 {@link PlayerSlot} 的槽位索引存储。
+     * <p>
+     * The data of modules on this player instance, stored by the slot index of {@link PlayerSlot}.
      */
-    private final Queue<Consumer<Player>> consumerQueue = Queues.newSynchronousQueue();
+    @ToString.Exclude
+    private Object[] moduleData = EMPTY_DATA;
 
     protected AbstractPlayer(@NotNull AbstractGame game, @NotNull Player player) {
         this.game = game;
@@ -227,7 +248,7 @@ public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
      */
     @OfflineQueued
     public void teleport(Location location) {
-        runWhenOnline(player -> player.teleport(location));
+        runWhenOnline(player -> game.getTickScheduler().teleport(player, location));
     }
 
     /**
@@ -240,7 +261,8 @@ public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
      */
     public void sendMessage(String message) {
         if (!isOnline()) return;
-        getRawPlayer().sendMessage(message);
+        val player = getRawPlayer();
+        game.getTickScheduler().executeForPlayer(player, () -> player.sendMessage(message));
     }
 
     /**
@@ -252,7 +274,8 @@ public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
      */
     public void sendActionBar(String message) {
         if (!isOnline()) return;
-        getRawPlayer().spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message));
+        val player = getRawPlayer();
+        game.getTickScheduler().executeForPlayer(player, () -> player.spigot().sendMessage(ChatMessageType.ACTION_BAR, TextComponent.fromLegacyText(message)));
     }
 
     /**
@@ -279,7 +302,8 @@ public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
      */
     public void sendTitle(String title, String subtitle, int fadeIn, int stay, int fadeOut) {
         if (!isOnline()) return;
-        getRawPlayer().sendTitle(title, subtitle, fadeIn, stay, fadeOut);
+        val player = getRawPlayer();
+        game.getTickScheduler().executeForPlayer(player, () -> player.sendTitle(title, subtitle, fadeIn, stay, fadeOut));
     }
 
     /**
@@ -309,9 +333,60 @@ public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
         destroyed = true;
 
         consumerQueue.clear();
+        moduleData = EMPTY_DATA;
 
         // rollback player information (use consumer queue when player offline)
         setDisplayName(_displayName);
+
+        LeakDetector.track(this, "Player " + name + " (" + uniqueId + ")");
+    }
+
+    /**
+     * 获取模块在该玩家实例上的数据。
+     * <p>
+     * Get the data of a module on this player instance.
+     *
+     * @param slot the slot of the module
+     * @param <T>  the type of the data
+     * @return the data, or {@code null} if not set
+     */
+    @Nullable
+    @SuppressWarnings("unchecked")
+    public <T> T getData(@NotNull PlayerSlot<T> slot) {
+        val index = slot.getIndex();
+        return index < moduleData.length ? (T) moduleData[index] : null;
+    }
+
+    /**
+     * 设置模块在该玩家实例上的数据。
+     * <p>
+     * Set the data of a module on this player instance.
+     *
+     * @param slot the slot of the module
+     * @param data the data, or {@code null} to remove
+     * @param <T>  the type of the data
+     */
+    public <T> void setData(@NotNull PlayerSlot<T> slot, @Nullable T data) {
+        val index = slot.getIndex();
+        if (index >= moduleData.length) {
+            if (data == null) return;
+            moduleData = Arrays.copyOf(moduleData, Math.max(index + 1, moduleData.length * 2));
+        }
+        moduleData[index] = data;
+    }
+
+    /**
+     * 清除指定模块类的所有槽位在该玩家实例上的数据。
+     * <p>
+     * Clear the data of all slots of the specified module class on this player instance.
+     *
+     * @param module the module class
+     */
+    @ApiStatus.Internal
+    public void clearData(@NotNull Class<? extends IModule> module) {
+        for (int index : PlayerSlot.indicesOf(module)) {
+            if (index < moduleData.length) moduleData[index] = null;
+        }
     }
 
     /**
@@ -343,9 +418,19 @@ public abstract class AbstractPlayer implements IConsumerQueueHolder<Player> {
         return consumerQueue;
     }
 
+    /**
+     * 当玩家在线时，在拥有该玩家的线程中执行指定操作；否则，将该操作加入延迟执行队列，在玩家下次上线时执行。
+     * <p>
+     * When the player is online, run the specified operation on the thread owning the player;
+     * Otherwise, the operation will be added to the delayed execution queue, and will be run when the player logs in next time.
+     *
+     * @param onOnline the operation
+     * @see io.hikarilan.gamesenselib.schedulers.ITickScheduler#executeForPlayer(Player, Runnable)
+     */
     public void runWhenOnline(Consumer<Player> onOnline) {
         if (isOnline()) {
-            onOnline.accept(getRawPlayer());
+            val player = getRawPlayer();
+            game.getTickScheduler().executeForPlayer(player, () -> onOnline.accept(player));
         } else {
             consumerQueue.offer(onOnline);
         }
@@ -0,0 +1,118 @@
+package io.hikarilan.gamesenselib.players;
+
+import io.hikarilan.gamesenselib.modules.IModule;
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 代表一个模块在 {@link AbstractPlayer} 上的数据槽位。
+ * <br/>
+ * 每个槽位在创建时会被分配一个独立的紧凑索引，之后对玩家数据的读写仅需一次数组访问，
+ * 从而代替模块中以玩家为键的哈希表。一个模块类可以拥有多个不同数据类型的槽位，它们互不影响；
+ * 槽位应保存在模块的静态常量中，每次调用 {@link #of(Class)} 都会分配一个新的索引。
+ * 槽位中的数据会在玩家实例被销毁，或槽位所属的模块被从玩家所在的游戏实例中卸载时自动清除。
+ * <p>
+ * Represents the data slot of a module on {@link AbstractPlayer}s.
+ * <br/>
+ * Every slot is assigned its own dense index when created,
+ * after which reading and writing the player data only takes a single array access,
+ * replacing hash maps keyed by players in modules.
+ * A module class may own several slots of different data types, which never affect each other;
+ * slots should be kept in static constants of the module, as every call to {@link #of(Class)} allocates a new index.
+ * The data in the slot is cleared automatically when the player instance is destroyed,
+ * or the module owning the slot is uninstalled from the game instance the player is in.
+ *
+ * @param <T> the type of the data
+ * @see AbstractPlayer#getData(PlayerSlot)
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+@ToString
+public final class PlayerSlot<T> {
+
+    private static final AtomicInteger NEXT_INDEX = new AtomicInteger();
+
+    private static final int[] NO_INDICES = new int[0];
+
+    /**
+     * 每个模块类拥有的槽位索引，从未创建槽位的模块类不会被分配任何索引。
+     * <p>
+     * The slot indices owned by every module class, module classes never creating slots are assigned no index.
+     */
+    private static final ClassValue<AtomicReference<int[]>> OWNED = new ClassValue<AtomicReference<int[]>>() {
+        @Override
+        protected AtomicReference<int[]> computeValue(@NotNull Class<?> type) {
+            return new AtomicReference<>(NO_INDICES);
+        }
+    };
+
+    /**
+     * 槽位所属的模块类。
+     * <p>
+     * The module class the slot belongs to.
+     */
+    @Getter
+    @NotNull
+    private final Class<? extends IModule> module;
+
+    /**
+     * 槽位索引。
+     * <p>
+     * The index of the slot.
+     */
+    @Getter
+    private final int index;
+
+    /**
+     * 为指定模块类创建一个新的数据槽位。
+     * <p>
+     * Create a new data slot for the specified module class.
+     *
+     * @param module the module class owning the slot
+     * @param <T>    the type of the data
+     * @return the slot
+     */
+    @NotNull
+    public static <T> PlayerSlot<T> of(@NotNull Class<? extends IModule> module) {
+        val index = NEXT_INDEX.getAndIncrement();
+        OWNED.get(module).updateAndGet(it -> {
+            val indices = Arrays.copyOf(it, it.length + 1);
+            indices[it.length] = index;
+            return indices;
+        });
+        return new PlayerSlot<>(module, index);
+    }
+
+    /**
+     * 获取指定模块类拥有的所有槽位索引。
+     * <p>
+     * Get all slot indices owned by the specified module class.
+     *
+     * @param module the module class
+     * @return the slot indices, empty if the module class owns no slot
+     */
+    @NotNull
+    static int[] indicesOf(@NotNull Class<? extends IModule> module) {
+        return OWNED.get(module).get();
+    }
+
+    /**
+     * 判断指定模块类是否拥有槽位。
+     * <p>
+     * Check whether the specified module class owns any slot.
+     *
+     * @param module the module class
+     * @return whether the module class owns any slot
+     */
+    public static boolean hasSlots(@NotNull Class<? extends IModule> module) {
+        return indicesOf(module).length > 0;
+    }
+}
@@ -0,0 +1,126 @@
+package io.hikarilan.gamesenselib.protections;
+
+import com.google.common.collect.Sets;
+import io.hikarilan.gamesenselib.games.GameRegistry;
+import lombok.val;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.entity.Projectile;
+import org.bukkit.event.Cancellable;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.entity.EntityDamageByEntityEvent;
+import org.bukkit.event.entity.EntityDamageEvent;
+import org.bukkit.event.entity.EntityPickupItemEvent;
+import org.bukkit.event.entity.FoodLevelChangeEvent;
+import org.bukkit.event.player.PlayerDropItemEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Set;
+
+/**
+ * 共享的游戏保护规则监听器。
+ * <br/>
+ * 所有游戏实例共用一组 Bukkit 监听器：对于每个事件，通过 {@link GameRegistry#findGames(java.util.UUID)} 以一次哈希查找确定玩家所在的所有游戏实例，
+ * 再以这些游戏实例预先编译的规则位掩码判断是否取消事件（任一游戏实例启用规则即取消），游戏实例无需自行注册任何监听器。
+ * <br/>
+ * 监听器会在首次有游戏实例启用保护规则时为其插件注册。
+ * <p>
+ * Shared game protection rule listener.
+ * <br/>
+ * All game instances share a single set of Bukkit listeners: for every event,
+ * the game instances the player is in are resolved by a single hash lookup through {@link GameRegistry#findGames(java.util.UUID)},
+ * and whether to cancel the event is decided by the precompiled rule bitmasks of those game instances
+ * (cancelled if any of them enables the rule),
+ * game instances need not register any listener by themselves.
+ * <br/>
+ * The listeners are registered for the plugin the first time a game instance of it enables protection rules.
+ */
+public class ProtectionListener implements Listener {
+
+    private static final Set<Plugin> REGISTERED = Sets.newHashSet();
+
+    private ProtectionListener() {
+    }
+
+    /**
+     * 确保共享监听器已为指定插件注册。
+     * <p>
+     * Make sure the shared listeners are registered for the specified plugin.
+     *
+     * @param plugin the plugin
+     */
+    public static void register(@NotNull Plugin plugin) {
+        if (!plugin.isEnabled() || !REGISTERED.add(plugin)) return;
+        plugin.getServer().getPluginManager().registerEvents(new ProtectionListener(), plugin);
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onBlockBreak(BlockBreakEvent e) {
+        check(e.getPlayer(), ProtectionRule.BLOCK_BREAK, e);
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onBlockPlace(BlockPlaceEvent e) {
+        check(e.getPlayer(), ProtectionRule.BLOCK_PLACE, e);
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onEntityDamage(EntityDamageEvent e) {
+        if (!(e.getEntity() instanceof Player)) return;
+        if (check((Player) e.getEntity(), ProtectionRule.DAMAGE, e)) return;
+        if (!(e instanceof EntityDamageByEntityEvent)) return;
+        val attacker = attacker(((EntityDamageByEntityEvent) e).getDamager());
+        if (attacker != null && attacker != e.getEntity()) {
+            // either side being protected is enough
+            if (!check((Player) e.getEntity(), ProtectionRule.PVP, e)) check(attacker, ProtectionRule.PVP, e);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onPlayerDropItem(PlayerDropItemEvent e) {
+        check(e.getPlayer(), ProtectionRule.ITEM_DROP, e);
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onEntityPickupItem(EntityPickupItemEvent e) {
+        if (e.getEntity() instanceof Player) check((Player) e.getEntity(), ProtectionRule.ITEM_PICKUP, e);
+    }
+
+    @EventHandler(priority = EventPriority.LOW, ignoreCancelled = true)
+    public void onFoodLevelChange(FoodLevelChangeEvent e) {
+        if (!(e.getEntity() instanceof Player)) return;
+        if (e.getFoodLevel() < e.getEntity().getFoodLevel()) check((Player) e.getEntity(), ProtectionRule.HUNGER, e);
+    }
+
+    /**
+     * 如果玩家所在的任一游戏实例启用了指定规则，则取消事件。
+     * <p>
+     * Cancel the event if any game instance the player is in enables the specified rule.
+     *
+     * @return {@code true} if cancelled
+     */
+    private static boolean check(@NotNull Player player, @NotNull ProtectionRule rule, @NotNull Cancellable event) {
+        val games = GameRegistry.findGames(player.getUniqueId());
+        // indexed to avoid an iterator in high-frequency events
+        for (int i = 0; i < games.size(); i++) {
+            if (!games.get(i).isProtected(rule)) continue;
+            event.setCancelled(true);
+            return true;
+        }
+        return false;
+    }
+
+    @Nullable
+    private static Player attacker(@NotNull Entity damager) {
+        if (damager instanceof Player) return (Player) damager;
+        if (damager instanceof Projectile && ((Projectile) damager).getShooter() instanceof Player)
+            return (Player) ((Projectile) damager).getShooter();
+        return null;
+    }
+}
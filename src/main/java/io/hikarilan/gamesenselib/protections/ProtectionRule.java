@@ -0,0 +1,88 @@
+package io.hikarilan.gamesenselib.protections;
+
+import lombok.Getter;
+
+import java.util.Collection;
+
+/**
+ * 代表一条游戏内的保护规则，启用后将阻止游戏实例中的玩家进行对应的行为。
+ * <p>
+ * Represents an in-game protection rule, which prevents the players in the game instance from the corresponding behavior once enabled.
+ *
+ * @see io.hikarilan.gamesenselib.games.AbstractGame#protect(ProtectionRule...)
+ * @see ProtectionListener
+ */
+@SuppressWarnings("unused")
+public enum ProtectionRule {
+
+    /**
+     * 禁止破坏方块。
+     * <p>
+     * Prevent breaking blocks.
+     */
+    BLOCK_BREAK,
+
+    /**
+     * 禁止放置方块。
+     * <p>
+     * Prevent placing blocks.
+     */
+    BLOCK_PLACE,
+
+    /**
+     * 禁止玩家受到任何伤害。
+     * <p>
+     * Prevent players from taking any damage.
+     */
+    DAMAGE,
+
+    /**
+     * 禁止玩家之间互相伤害，包括弹射物造成的伤害。
+     * <p>
+     * Prevent players from damaging each other, including damage from projectiles.
+     */
+    PVP,
+
+    /**
+     * 禁止丢弃物品。
+     * <p>
+     * Prevent dropping items.
+     */
+    ITEM_DROP,
+
+    /**
+     * 禁止拾取物品。
+     * <p>
+     * Prevent picking up items.
+     */
+    ITEM_PICKUP,
+
+    /**
+     * 禁止饥饿值下降。
+     * <p>
+     * Prevent the food level from decreasing.
+     */
+    HUNGER;
+
+    /**
+     * 该规则在规则位掩码中对应的位。
+     * <p>
+     * The bit of this rule in a rule bitmask.
+     */
+    @Getter
+    private final int mask = 1 << ordinal();
+
+    /**
+     * 将多条规则编译为规则位掩码。
+     * <p>
+     * Compile rules into a rule bitmask.
+     *
+     * @param rules the rules
+     * @return the bitmask
+     */
+    public static int toMask(Collection<ProtectionRule> rules) {
+        int mask = 0;
+        for (ProtectionRule rule : rules) mask |= rule.mask;
+        return mask;
+    }
+}
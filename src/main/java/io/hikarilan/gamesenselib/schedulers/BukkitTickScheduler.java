@@ -0,0 +1,70 @@
+package io.hikarilan.gamesenselib.schedulers;
+
+import lombok.RequiredArgsConstructor;
+import org.bukkit.Bukkit;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 使用经典 Bukkit 调度器的 {@link ITickScheduler} 实现，所有任务均运行在 Bukkit 主线程中。
+ * <br/>
+ * 这是游戏实例的默认 tick 调度器。
+ * <p>
+ * An {@link ITickScheduler} implementation using the classic Bukkit scheduler, all tasks run on the Bukkit main thread.
+ * <br/>
+ * This is the default tick scheduler of game instances.
+ */
+@RequiredArgsConstructor
+public class BukkitTickScheduler implements ITickScheduler {
+
+    @NotNull
+    private final Plugin plugin;
+
+    @NotNull
+    @Override
+    public ITickTask runTimer(@NotNull Runnable task, long delay, long period) {
+        return wrap(Bukkit.getScheduler().runTaskTimer(plugin, task, delay, period));
+    }
+
+    @NotNull
+    @Override
+    public ITickTask runLater(@NotNull Runnable task, long delay) {
+        return wrap(Bukkit.getScheduler().runTaskLater(plugin, task, delay));
+    }
+
+    @Override
+    public void execute(@NotNull Runnable task) {
+        if (Bukkit.isPrimaryThread()) {
+            task.run();
+        } else {
+            Bukkit.getScheduler().runTask(plugin, task);
+        }
+    }
+
+    @Override
+    public void executeForPlayer(@NotNull Player player, @NotNull Runnable task) {
+        execute(task);
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread() {
+        return Bukkit.isPrimaryThread();
+    }
+
+    @NotNull
+    private static ITickTask wrap(@NotNull BukkitTask task) {
+        return new ITickTask() {
+            @Override
+            public void cancel() {
+                task.cancel();
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return task.isCancelled();
+            }
+        };
+    }
+}
@@ -0,0 +1,128 @@
+package io.hikarilan.gamesenselib.schedulers;
+
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 使用 {@link ScheduledExecutorService} 的 {@link ITickScheduler} 实现，一个 tick 被视为 50 毫秒。
+ * <br/>
+ * 该实现不依赖任何服务端线程模型，可用作测试中的替身调度器，
+ * 例如为每个游戏实例分配一个独立的单线程调度器，以在不同线程中同时运行多个游戏实例。
+ * <br/>
+ * 注意：该实现不会将玩家操作切换到服务端线程，请勿在真实服务端中将其与会调用 Bukkit API 的模块共同使用。
+ * <p>
+ * An {@link ITickScheduler} implementation using a {@link ScheduledExecutorService}, a tick is considered as 50 milliseconds.
+ * <br/>
+ * This implementation does not depend on any server threading model, and can be used as a stand-in scheduler in tests,
+ * such as allocating an independent single thread scheduler for each game instance to run several games on separate threads.
+ * <br/>
+ * Note: this implementation does not switch player operations to the server thread,
+ * do not use it together with modules calling the Bukkit API on a real server.
+ */
+@RequiredArgsConstructor
+public class ExecutorTickScheduler implements ITickScheduler {
+
+    private static final long MILLIS_PER_TICK = 50;
+
+    /**
+     * 当前线程正在运行的调度器。
+     * <p>
+     * The scheduler running on the current thread.
+     */
+    private static final ThreadLocal<ExecutorTickScheduler> CURRENT = new ThreadLocal<>();
+
+    @NotNull
+    private final ScheduledExecutorService executor;
+
+    /**
+     * 创建一个拥有独立线程的调度器。
+     * <p>
+     * Create a scheduler owning an independent thread.
+     *
+     * @param threadName name of the thread
+     * @return the scheduler
+     */
+    @NotNull
+    public static ExecutorTickScheduler newSingleThread(@NotNull String threadName) {
+        return new ExecutorTickScheduler(Executors.newSingleThreadScheduledExecutor(runnable -> {
+            val thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    @NotNull
+    private Runnable owned(@NotNull Runnable task) {
+        return () -> {
+            val previous = CURRENT.get();
+            CURRENT.set(this);
+            try {
+                task.run();
+            } finally {
+                CURRENT.set(previous);
+            }
+        };
+    }
+
+    @NotNull
+    @Override
+    public ITickTask runTimer(@NotNull Runnable task, long delay, long period) {
+        return wrap(executor.scheduleAtFixedRate(owned(task), delay * MILLIS_PER_TICK, Math.max(1, period) * MILLIS_PER_TICK, TimeUnit.MILLISECONDS));
+    }
+
+    @NotNull
+    @Override
+    public ITickTask runLater(@NotNull Runnable task, long delay) {
+        return wrap(executor.schedule(owned(task), delay * MILLIS_PER_TICK, TimeUnit.MILLISECONDS));
+    }
+
+    @Override
+    public void execute(@NotNull Runnable task) {
+        if (isOwnedByCurrentThread()) {
+            task.run();
+        } else {
+            executor.execute(owned(task));
+        }
+    }
+
+    @Override
+    public void executeForPlayer(@NotNull Player player, @NotNull Runnable task) {
+        execute(task);
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread() {
+        return CURRENT.get() == this;
+    }
+
+    /**
+     * 关闭底层的 {@link ScheduledExecutorService}。
+     * <p>
+     * Shutdown the underlying {@link ScheduledExecutorService}.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    @NotNull
+    private static ITickTask wrap(@NotNull ScheduledFuture<?> future) {
+        return new ITickTask() {
+            @Override
+            public void cancel() {
+                future.cancel(false);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return future.isCancelled();
+            }
+        };
+    }
+}
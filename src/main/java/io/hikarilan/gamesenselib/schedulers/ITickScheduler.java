@@ -0,0 +1,120 @@
+package io.hikarilan.gamesenselib.schedulers;
+
+import org.bukkit.Location;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 代表一个 tick 调度器，游戏实例通过它来调度自身的 tick 及玩家相关操作。
+ * <br/>
+ * 每个游戏实例持有一个 tick 调度器，游戏实例的所有 tick 都将在该调度器所拥有的线程中运行。
+ * 默认实现 {@link BukkitTickScheduler} 使用 Bukkit 主线程；
+ * {@link RegionTickScheduler} 将游戏实例固定在一个区域线程中，以便在区域化线程的服务端上并行 tick 多个游戏实例。
+ * <br/>
+ * 所有时间单位均为 tick。
+ * <p>
+ * Represent a tick scheduler, which a game instance uses to schedule its ticks and player related operations.
+ * <br/>
+ * Every game instance holds a tick scheduler, all ticks of the game instance will run on the thread owned by the scheduler.
+ * The default implementation {@link BukkitTickScheduler} uses the Bukkit main thread;
+ * {@link RegionTickScheduler} pins a game instance to a region thread, so that game instances tick in parallel on regionized servers.
+ * <br/>
+ * All time units are in ticks.
+ *
+ * @see io.hikarilan.gamesenselib.games.AbstractGame#getTickScheduler()
+ */
+public interface ITickScheduler {
+
+    /**
+     * 获取用于服务端范围任务（不属于任何游戏实例，例如统计与定时检查）的调度器。
+     * <br/>
+     * 在区域化线程的服务端上返回使用全局区域调度器的 {@link RegionTickScheduler#global(Plugin)}，否则返回 {@link BukkitTickScheduler}。
+     * <p>
+     * Get the scheduler for server-wide tasks (belonging to no game instance, such as statistics and periodic checks).
+     * <br/>
+     * Returns {@link RegionTickScheduler#global(Plugin)} using the global region scheduler on regionized servers,
+     * otherwise a {@link BukkitTickScheduler}.
+     *
+     * @param plugin the plugin scheduling the tasks
+     * @return the scheduler
+     */
+    @NotNull
+    static ITickScheduler global(@NotNull Plugin plugin) {
+        return RegionTickScheduler.isSupported() ? RegionTickScheduler.global(plugin) : new BukkitTickScheduler(plugin);
+    }
+
+    /**
+     * 调度一个重复执行的任务。
+     * <p>
+     * Schedule a repeating task.
+     *
+     * @param task   the task
+     * @param delay  ticks to wait before the first run
+     * @param period ticks between two runs
+     * @return the scheduled task
+     */
+    @NotNull
+    ITickTask runTimer(@NotNull Runnable task, long delay, long period);
+
+    /**
+     * 调度一个延迟执行的任务。
+     * <p>
+     * Schedule a delayed task.
+     *
+     * @param task  the task
+     * @param delay ticks to wait before the run
+     * @return the scheduled task
+     */
+    @NotNull
+    ITickTask runLater(@NotNull Runnable task, long delay);
+
+    /**
+     * 在该调度器所拥有的线程中执行一个任务。
+     * <br/>
+     * 如果当前线程即为该调度器所拥有的线程，则任务将被立即执行。
+     * <p>
+     * Run a task on the thread owned by this scheduler.
+     * <br/>
+     * If the current thread is the thread owned by this scheduler, the task will be run immediately.
+     *
+     * @param task the task
+     */
+    void execute(@NotNull Runnable task);
+
+    /**
+     * 在拥有指定玩家的线程中执行一个任务。
+     * <br/>
+     * 如果当前线程即为拥有该玩家的线程，则任务将被立即执行。
+     * <p>
+     * Run a task on the thread owning the specified player.
+     * <br/>
+     * If the current thread is the thread owning the player, the task will be run immediately.
+     *
+     * @param player the player
+     * @param task   the task
+     */
+    void executeForPlayer(@NotNull Player player, @NotNull Runnable task);
+
+    /**
+     * 将玩家传送到指定位置。
+     * <p>
+     * Teleport the player to the specified location.
+     *
+     * @param player   the player
+     * @param location the location to teleport
+     */
+    default void teleport(@NotNull Player player, @NotNull Location location) {
+        executeForPlayer(player, () -> player.teleport(location));
+    }
+
+    /**
+     * 检查当前线程是否为该调度器所拥有的线程。
+     * <p>
+     * Check whether the current thread is the thread owned by this scheduler.
+     *
+     * @return {@code true} if the current thread is owned by this scheduler
+     */
+    boolean isOwnedByCurrentThread();
+
+}
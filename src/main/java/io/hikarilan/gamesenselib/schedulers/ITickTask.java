@@ -0,0 +1,26 @@
+package io.hikarilan.gamesenselib.schedulers;
+
+/**
+ * 代表一个由 {@link ITickScheduler} 调度的任务。
+ * <p>
+ * Represent a task scheduled by an {@link ITickScheduler}.
+ */
+public interface ITickTask {
+
+    /**
+     * 取消该任务。
+     * <p>
+     * Cancel this task.
+     */
+    void cancel();
+
+    /**
+     * 检查该任务是否已被取消。
+     * <p>
+     * Check whether this task has been cancelled.
+     *
+     * @return {@code true} if this task has been cancelled
+     */
+    boolean isCancelled();
+
+}
@@ -0,0 +1,250 @@
+package io.hikarilan.gamesenselib.schedulers;
+
+import lombok.val;
+import org.bukkit.Bukkit;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.function.Consumer;
+
+/**
+ * 使用区域调度器与实体调度器的 {@link ITickScheduler} 实现，适用于区域化线程的服务端（例如 Folia）。
+ * <br/>
+ * 游戏实例将被固定在其锚点位置所在的区域线程中进行 tick，
+ * 玩家相关操作将在拥有该玩家的实体调度器中执行，不同区域的游戏实例可以并行 tick。
+ * <br/>
+ * 由于编译期并不依赖区域化线程的服务端 API，该实现通过反射调用相关 API，
+ * 请在使用前通过 {@link #isSupported()} 检查当前服务端是否支持；在不支持的服务端上构造该调度器将直接失败。
+ * <br/>
+ * {@link #global(Plugin)} 返回的调度器使用全局区域调度器，用于不属于任何游戏实例的服务端范围任务。
+ * <p>
+ * An {@link ITickScheduler} implementation using the region and entity schedulers, for regionized servers (such as Folia).
+ * <br/>
+ * The game instance will be pinned to the region thread owning its anchor location,
+ * player related operations will be run on the entity scheduler of the player,
+ * game instances of different regions can tick in parallel.
+ * <br/>
+ * Since the API of regionized servers is not a compile-time dependency, this implementation calls them reflectively,
+ * please check whether the server is supported by {@link #isSupported()} before using it;
+ * constructing this scheduler on an unsupported server fails right away.
+ * <br/>
+ * The scheduler returned by {@link #global(Plugin)} uses the global region scheduler, for server-wide tasks belonging to no game instance.
+ */
+public class RegionTickScheduler implements ITickScheduler {
+
+    @NotNull
+    private final Plugin plugin;
+
+    /**
+     * 锚点位置，游戏实例将在拥有该位置的区域线程中进行 tick；为 {@code null} 时使用全局区域调度器。
+     * <p>
+     * The anchor location, the game instance will tick on the region thread owning this location;
+     * the global region scheduler is used if {@code null}.
+     */
+    @Nullable
+    private final Location anchor;
+
+    /**
+     * 创建一个将游戏实例固定在拥有指定锚点位置的区域线程中的调度器。
+     * <p>
+     * Create a scheduler pinning the game instance to the region thread owning the specified anchor location.
+     *
+     * @param plugin the plugin scheduling the tasks
+     * @param anchor the anchor location
+     * @throws UnsupportedOperationException if the current server does not support the region scheduler
+     * @see #isSupported()
+     */
+    public RegionTickScheduler(@NotNull Plugin plugin, @NotNull Location anchor) {
+        if (!Api.SUPPORTED) throw new UnsupportedOperationException("The region scheduler is not supported by this server.");
+        this.plugin = plugin;
+        this.anchor = anchor;
+    }
+
+    private RegionTickScheduler(@NotNull Plugin plugin) {
+        if (!Api.SUPPORTED) throw new UnsupportedOperationException("The region scheduler is not supported by this server.");
+        this.plugin = plugin;
+        this.anchor = null;
+    }
+
+    /**
+     * 创建一个使用全局区域调度器的调度器，其任务运行在全局 tick 线程中。
+     * <p>
+     * Create a scheduler using the global region scheduler, whose tasks run on the global tick thread.
+     *
+     * @param plugin the plugin scheduling the tasks
+     * @return the scheduler
+     * @throws UnsupportedOperationException if the current server does not support the region scheduler
+     * @see ITickScheduler#global(Plugin)
+     */
+    @NotNull
+    public static RegionTickScheduler global(@NotNull Plugin plugin) {
+        return new RegionTickScheduler(plugin);
+    }
+
+    /**
+     * 检查当前服务端是否支持区域调度器。
+     * <p>
+     * Check whether the current server supports the region scheduler.
+     *
+     * @return {@code true} if supported
+     */
+    public static boolean isSupported() {
+        return Api.SUPPORTED;
+    }
+
+    @NotNull
+    @Override
+    public ITickTask runTimer(@NotNull Runnable task, long delay, long period) {
+        // region schedulers do not accept a zero delay
+        if (anchor == null) {
+            return wrap(Api.invoke(Api.GLOBAL_RUN_AT_FIXED_RATE, Api.globalRegionScheduler(), plugin, consumer(task), Math.max(1, delay), Math.max(1, period)));
+        }
+        return wrap(Api.invoke(Api.RUN_AT_FIXED_RATE, Api.regionScheduler(), plugin, anchor, consumer(task), Math.max(1, delay), Math.max(1, period)));
+    }
+
+    @NotNull
+    @Override
+    public ITickTask runLater(@NotNull Runnable task, long delay) {
+        if (anchor == null) return wrap(Api.invoke(Api.GLOBAL_RUN_DELAYED, Api.globalRegionScheduler(), plugin, consumer(task), Math.max(1, delay)));
+        return wrap(Api.invoke(Api.RUN_DELAYED, Api.regionScheduler(), plugin, anchor, consumer(task), Math.max(1, delay)));
+    }
+
+    @Override
+    public void execute(@NotNull Runnable task) {
+        if (isOwnedByCurrentThread()) {
+            task.run();
+        } else if (anchor == null) {
+            Api.invoke(Api.GLOBAL_EXECUTE, Api.globalRegionScheduler(), plugin, task);
+        } else {
+            Api.invoke(Api.REGION_EXECUTE, Api.regionScheduler(), plugin, anchor, task);
+        }
+    }
+
+    @Override
+    public void executeForPlayer(@NotNull Player player, @NotNull Runnable task) {
+        if ((boolean) Api.invoke(Api.IS_OWNED_BY_CURRENT_REGION_ENTITY, null, player)) {
+            task.run();
+        } else {
+            // the task is dropped if the player is removed before it runs
+            Api.invoke(Api.ENTITY_RUN, Api.invoke(Api.GET_ENTITY_SCHEDULER, player), plugin, consumer(task), null);
+        }
+    }
+
+    @Override
+    public void teleport(@NotNull Player player, @NotNull Location location) {
+        Api.invoke(Api.TELEPORT_ASYNC, player, location);
+    }
+
+    @Override
+    public boolean isOwnedByCurrentThread() {
+        if (anchor == null) return (boolean) Api.invoke(Api.IS_GLOBAL_TICK_THREAD, null);
+        return (boolean) Api.invoke(Api.IS_OWNED_BY_CURRENT_REGION_LOCATION, null, anchor);
+    }
+
+    @NotNull
+    private static Consumer<Object> consumer(@NotNull Runnable task) {
+        return (_ignored) -> task.run();
+    }
+
+    @NotNull
+    private static ITickTask wrap(@NotNull Object scheduledTask) {
+        return new ITickTask() {
+            @Override
+            public void cancel() {
+                Api.invoke(Api.CANCEL, scheduledTask);
+            }
+
+            @Override
+            public boolean isCancelled() {
+                return (boolean) Api.invoke(Api.IS_CANCELLED, scheduledTask);
+            }
+        };
+    }
+
+    /**
+     * 反射得到的区域化线程服务端 API。
+     * <p>
+     * Reflected API of regionized servers.
+     */
+    private static class Api {
+
+        private static final boolean SUPPORTED;
+
+        private static Method GET_REGION_SCHEDULER;
+        private static Method RUN_AT_FIXED_RATE;
+        private static Method RUN_DELAYED;
+        private static Method REGION_EXECUTE;
+        private static Method GET_ENTITY_SCHEDULER;
+        private static Method ENTITY_RUN;
+        private static Method CANCEL;
+        private static Method IS_CANCELLED;
+        private static Method IS_OWNED_BY_CURRENT_REGION_LOCATION;
+        private static Method IS_OWNED_BY_CURRENT_REGION_ENTITY;
+        private static Method TELEPORT_ASYNC;
+        private static Method GET_GLOBAL_REGION_SCHEDULER;
+        private static Method GLOBAL_RUN_AT_FIXED_RATE;
+        private static Method GLOBAL_RUN_DELAYED;
+        private static Method GLOBAL_EXECUTE;
+        private static Method IS_GLOBAL_TICK_THREAD;
+
+        static {
+            boolean supported;
+            try {
+                val regionScheduler = Class.forName("io.papermc.paper.threadedregions.scheduler.RegionScheduler");
+                val entityScheduler = Class.forName("io.papermc.paper.threadedregions.scheduler.EntityScheduler");
+                val scheduledTask = Class.forName("io.papermc.paper.threadedregions.scheduler.ScheduledTask");
+                val globalRegionScheduler = Class.forName("io.papermc.paper.threadedregions.scheduler.GlobalRegionScheduler");
+
+                GET_REGION_SCHEDULER = Bukkit.class.getMethod("getRegionScheduler");
+                RUN_AT_FIXED_RATE = regionScheduler.getMethod("runAtFixedRate", Plugin.class, Location.class, Consumer.class, long.class, long.class);
+                RUN_DELAYED = regionScheduler.getMethod("runDelayed", Plugin.class, Location.class, Consumer.class, long.class);
+                REGION_EXECUTE = regionScheduler.getMethod("execute", Plugin.class, Location.class, Runnable.class);
+                GET_ENTITY_SCHEDULER = Entity.class.getMethod("getScheduler");
+                ENTITY_RUN = entityScheduler.getMethod("run", Plugin.class, Consumer.class, Runnable.class);
+                CANCEL = scheduledTask.getMethod("cancel");
+                IS_CANCELLED = scheduledTask.getMethod("isCancelled");
+                IS_OWNED_BY_CURRENT_REGION_LOCATION = Bukkit.class.getMethod("isOwnedByCurrentRegion", Location.class);
+                IS_OWNED_BY_CURRENT_REGION_ENTITY = Bukkit.class.getMethod("isOwnedByCurrentRegion", Entity.class);
+                TELEPORT_ASYNC = Entity.class.getMethod("teleportAsync", Location.class);
+                GET_GLOBAL_REGION_SCHEDULER = Bukkit.class.getMethod("getGlobalRegionScheduler");
+                GLOBAL_RUN_AT_FIXED_RATE = globalRegionScheduler.getMethod("runAtFixedRate", Plugin.class, Consumer.class, long.class, long.class);
+                GLOBAL_RUN_DELAYED = globalRegionScheduler.getMethod("runDelayed", Plugin.class, Consumer.class, long.class);
+                GLOBAL_EXECUTE = globalRegionScheduler.getMethod("execute", Plugin.class, Runnable.class);
+                IS_GLOBAL_TICK_THREAD = Bukkit.class.getMethod("isGlobalTickThread");
+                supported = true;
+            } catch (ClassNotFoundException | NoSuchMethodException e) {
+                supported = false;
+            }
+            SUPPORTED = supported;
+        }
+
+        @NotNull
+        private static Object regionScheduler() {
+            return invoke(GET_REGION_SCHEDULER, null);
+        }
+
+        @NotNull
+        private static Object globalRegionScheduler() {
+            return invoke(GET_GLOBAL_REGION_SCHEDULER, null);
+        }
+
+        private static Object invoke(Method method, Object target, Object... args) {
+            try {
+                return method.invoke(target, args);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                val cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package io.hikarilan.gamesenselib.timings;
+
+import io.hikarilan.gamesenselib.games.GameRegistry;
+import lombok.val;
+import org.bstats.bukkit.Metrics;
+import org.bstats.charts.AdvancedPie;
+import org.bstats.charts.SimplePie;
+import org.bstats.charts.SingleLineChart;
+import org.bukkit.plugin.java.JavaPlugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 向 bStats 报告 GameSenseLib 的游戏统计。
+ * <br/>
+ * 作为独立插件运行时，GameSenseLib 将在启用时以自己的服务 ID 添加以下图表；
+ * 将其打包进自身的插件也可在启用时以自己在 bStats 上注册的服务 ID 调用 {@link #enable(JavaPlugin, int)}，
+ * 以在其统计页面中添加这些图表。所有图表均直接读取 {@link GameRegistry} 中的计数，且不会重置任何计数：
+ * <ul>
+ *     <li>{@code active_games}：存活的游戏实例数；</li>
+ *     <li>{@code players_in_games}：游戏实例中的玩家数；</li>
+ *     <li>{@code average_tick_cost}：自上次提交以来游戏实例单次 tick 的平均耗时区间；</li>
+ *     <li>{@code game_types}：各类型游戏实例的分布。</li>
+ * </ul>
+ * <p>
+ * Report the game statistics of GameSenseLib to bStats.
+ * <br/>
+ * When running as a standalone plugin, GameSenseLib adds the following charts with its own service id when enabled;
+ * plugins shading it may also call {@link #enable(JavaPlugin, int)} with the service id they registered on bStats when enabled,
+ * to add these charts to their statistics page. All charts read the counters in {@link GameRegistry} directly and never reset any counter:
+ * <ul>
+ *     <li>{@code active_games}: the number of live game instances;</li>
+ *     <li>{@code players_in_games}: the number of players in game instances;</li>
+ *     <li>{@code average_tick_cost}: the range of the average cost of a single tick of game instances since the last submission;</li>
+ *     <li>{@code game_types}: the distribution of game instance types.</li>
+ * </ul>
+ */
+@SuppressWarnings("unused")
+public class BStatsMetrics {
+
+    private BStatsMetrics() {
+    }
+
+    /**
+     * 以指定插件及其 bStats 服务 ID 启用 bStats 统计，并添加 GameSenseLib 的图表。
+     * <p>
+     * Enable bStats metrics with the specified plugin and its bStats service id, and add the charts of GameSenseLib.
+     *
+     * @param plugin    the plugin using GameSenseLib
+     * @param serviceId the service id of the plugin on bStats (https://bstats.org)
+     * @throws IllegalArgumentException if {@code serviceId} is not positive
+     */
+    public static void enable(@NotNull JavaPlugin plugin, int serviceId) {
+        if (serviceId <= 0) throw new IllegalArgumentException("The bStats service id should be positive.");
+
+        val metrics = new Metrics(plugin, serviceId);
+        metrics.addCustomChart(new SingleLineChart("active_games", GameRegistry::getGameCount));
+        metrics.addCustomChart(new SingleLineChart("players_in_games", GameRegistry::getPlayerCount));
+        metrics.addCustomChart(new SimplePie("average_tick_cost", new TickCost()));
+        metrics.addCustomChart(new AdvancedPie("game_types", GameRegistry::getTypeCounts));
+    }
+
+    @NotNull
+    private static String tickCostRange(long nanos) {
+        val micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+        if (micros < 100) return "< 0.1ms";
+        if (micros < 500) return "0.1ms - 0.5ms";
+        if (micros < 1000) return "0.5ms - 1ms";
+        if (micros < 5000) return "1ms - 5ms";
+        return ">= 5ms";
+    }
+
+    /**
+     * 自上次提交以来单次 tick 的平均耗时区间，通过比较 {@link GameRegistry#getTickHistogram()} 的总和与数量之差得出，
+     * 因此不会影响其他读取者。
+     * <p>
+     * The range of the average cost of a single tick since the last submission,
+     * derived from the differences of the sum and the count of {@link GameRegistry#getTickHistogram()},
+     * so other readers are never affected.
+     */
+    private static class TickCost implements Callable<String> {
+
+        private long lastCount;
+
+        private long lastSum;
+
+        @Override
+        public synchronized String call() {
+            val histogram = GameRegistry.getTickHistogram();
+            val count = histogram.getCount();
+            val sum = histogram.getSum();
+            val ticks = count - lastCount;
+            val nanos = sum - lastSum;
+            lastCount = count;
+            lastSum = sum;
+            return tickCostRange(ticks <= 0 ? 0 : nanos / ticks);
+        }
+    }
+}
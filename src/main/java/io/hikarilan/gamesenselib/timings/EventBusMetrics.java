@@ -0,0 +1,179 @@
+package io.hikarilan.gamesenselib.timings;
+
+import io.hikarilan.gamesenselib.events.AbstractGameEvent;
+import io.hikarilan.gamesenselib.events.IGameEventBus;
+import lombok.val;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 代表游戏事件总线的吞吐量与延迟统计。
+ * <br/>
+ * 统计默认关闭。开启后，每次发布事件都将按事件类型记录分发的总耗时（其数量即为发布次数），
+ * 并按事件类型及订阅者类记录每个订阅者的耗时；所有记录均使用固定内存的 {@link LogLinearHistogram}。
+ * 每个游戏实例拥有独立的统计（{@link io.hikarilan.gamesenselib.games.AbstractGame#getEventMetrics()}），
+ * 同时所有记录也会被汇总到服务端范围的统计（{@link #global()}）中。
+ * <br/>
+ * 统计不会改变事件的分发：事件总是由 {@link org.greenrobot.eventbus.EventBus} 分发，
+ * 订阅者的耗时由游戏实例的 {@link org.greenrobot.eventbus.MeasuredEventBus} 在调用每个订阅方法时自动记录，订阅者无需进行任何修改，
+ * 因此取消分发、订阅者异常事件及优先级等行为都与关闭统计时相同。
+ * <p>
+ * Represents the throughput and latency statistics of the game event bus.
+ * <br/>
+ * The statistics are disabled by default. Once enabled, every post records the total dispatch cost by event type
+ * (whose count is the number of posts),
+ * and the cost of every subscriber by event type and subscriber class; all records use fixed-memory {@link LogLinearHistogram}s.
+ * Every game instance has its own statistics ({@link io.hikarilan.gamesenselib.games.AbstractGame#getEventMetrics()}),
+ * and all records are also aggregated into the server-wide statistics ({@link #global()}).
+ * <br/>
+ * The statistics never change how events are dispatched: events are always dispatched by {@link org.greenrobot.eventbus.EventBus},
+ * the cost of subscribers is recorded automatically by the {@link org.greenrobot.eventbus.MeasuredEventBus} of the game instance
+ * around every subscriber method invocation, without any change to the subscribers,
+ * so cancelling the delivery, subscriber exception events, priorities and so on behave the same as with the statistics disabled.
+ */
+@SuppressWarnings("unused")
+public class EventBusMetrics {
+
+    private static final EventBusMetrics GLOBAL = new EventBusMetrics();
+
+    private static volatile boolean enabled;
+
+    private final Map<Class<?>, LogLinearHistogram> events = new ConcurrentHashMap<>();
+
+    private final Map<Class<?>, Map<Class<?>, LogLinearHistogram>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * 检查事件总线统计是否已开启。
+     * <p>
+     * Check whether the event bus statistics are enabled.
+     *
+     * @return {@code true} if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启或关闭事件总线统计。
+     * <p>
+     * Enable or disable the event bus statistics.
+     *
+     * @param enabled whether to enable
+     */
+    public static void setEnabled(boolean enabled) {
+        EventBusMetrics.enabled = enabled;
+    }
+
+    /**
+     * 获取服务端范围的事件总线统计，其中汇总了所有游戏实例的记录。
+     * <p>
+     * Get the server-wide event bus statistics, aggregating the records of all game instances.
+     *
+     * @return the server-wide statistics
+     */
+    @NotNull
+    public static EventBusMetrics global() {
+        return GLOBAL;
+    }
+
+    /**
+     * 获取每个事件类型分发总耗时的直方图，直方图的数量即为发布次数。
+     * <p>
+     * Get the histogram of the total dispatch cost of every event type, the count of a histogram is the number of posts.
+     *
+     * @return histograms by event type
+     */
+    @NotNull
+    public Map<Class<?>, LogLinearHistogram> getEventHistograms() {
+        return Collections.unmodifiableMap(events);
+    }
+
+    /**
+     * 获取指定事件类型中每个订阅者类耗时的直方图。
+     * <p>
+     * Get the histogram of the cost of every subscriber class for the specified event type.
+     *
+     * @param type the event type
+     * @return histograms by subscriber class
+     */
+    @NotNull
+    public Map<Class<?>, LogLinearHistogram> getSubscriberHistograms(@NotNull Class<? extends AbstractGameEvent> type) {
+        val histograms = subscribers.get(type);
+        return histograms == null ? Collections.emptyMap() : Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * 获取每个订阅者类在所有事件类型中耗时的汇总直方图。
+     * <p>
+     * Get the histogram of the cost of every subscriber class aggregated over all event types.
+     *
+     * @return merged histograms by subscriber class
+     */
+    @NotNull
+    public Map<Class<?>, LogLinearHistogram> getSubscriberHistograms() {
+        val merged = new HashMap<Class<?>, LogLinearHistogram>();
+        subscribers.values().forEach(bySubscriber -> bySubscriber.forEach((subscriber, histogram) ->
+                histogram.addTo(merged.computeIfAbsent(subscriber, it -> new LogLinearHistogram()))));
+        return merged;
+    }
+
+    /**
+     * 清空所有统计。
+     * <p>
+     * Clear all statistics.
+     */
+    public void reset() {
+        events.clear();
+        subscribers.clear();
+    }
+
+    /**
+     * 发布一个事件并记录其总耗时，所有记录将同时被汇总到服务端范围的统计中。
+     * <p>
+     * Post an event and record its total cost, all records are also aggregated into the server-wide statistics.
+     *
+     * @param bus   the event bus to post to
+     * @param event the event
+     * @return the event after the call
+     */
+    @ApiStatus.Internal
+    @NotNull
+    public <T extends AbstractGameEvent> T post(@NotNull IGameEventBus bus, @NotNull T event) {
+        val start = System.nanoTime();
+        bus.getEventBus().post(event);
+        recordEvent(event.getClass(), System.nanoTime() - start);
+        return event;
+    }
+
+    private void recordEvent(@NotNull Class<?> type, long nanos) {
+        histogramOf(events, type).record(nanos);
+        if (this != GLOBAL) GLOBAL.recordEvent(type, nanos);
+    }
+
+    /**
+     * 记录一个订阅者处理一个事件的耗时，所有记录将同时被汇总到服务端范围的统计中。
+     * <p>
+     * Record the cost of a subscriber handling an event, all records are also aggregated into the server-wide statistics.
+     *
+     * @param type       the event type
+     * @param subscriber the subscriber class
+     * @param nanos      the cost in nanoseconds
+     */
+    @ApiStatus.Internal
+    public void recordSubscriber(@NotNull Class<?> type, @NotNull Class<?> subscriber, long nanos) {
+        val bySubscriber = subscribers.computeIfAbsent(type, it -> new ConcurrentHashMap<>());
+        histogramOf(bySubscriber, subscriber).record(nanos);
+        if (this != GLOBAL) GLOBAL.recordSubscriber(type, subscriber, nanos);
+    }
+
+    @NotNull
+    private static LogLinearHistogram histogramOf(@NotNull Map<Class<?>, LogLinearHistogram> histograms, @NotNull Class<?> key) {
+        val histogram = histograms.get(key);
+        return histogram != null ? histogram : histograms.computeIfAbsent(key, it -> new LogLinearHistogram());
+    }
+}
@@ -0,0 +1,378 @@
+package io.hikarilan.gamesenselib.timings;
+
+import com.google.common.collect.Lists;
+import io.hikarilan.gamesenselib.events.AbstractGameEvent;
+import io.hikarilan.gamesenselib.flows.Phase;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.modules.IModule;
+import lombok.val;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 用于发出 Java Flight Recorder（JFR）事件。
+ * <br/>
+ * GameSenseLib 将在流程切换、阶段开始与结束、模块安装与卸载时发出 JFR 事件，
+ * 并在游戏事件发布或模块 tick 超过阈值时发出带有耗时的 JFR 事件，所有事件都携带游戏实例的 ID 及相关类名，
+ * 阶段事件还携带阶段所在流程的优先级及阶段在该流程中的下标，以区分同一类的不同阶段，
+ * 位于 JFR 的 “GameSenseLib” 分类下，其阈值可通过 JFR 配置进行调整。
+ * <br/>
+ * 由于编译期并不依赖 JFR API，该类通过反射定义并发出事件；
+ * 每种事件是否开启会在记录状态改变时被缓存，因此在没有正在进行的记录时，发出事件仅需读取一次字段。
+ * 在不支持 JFR API 的运行时上，所有方法均不会产生任何效果。
+ * <p>
+ * Used to emit Java Flight Recorder (JFR) events.
+ * <br/>
+ * GameSenseLib emits JFR events on flow transitions, phase starts and ends, module installations and uninstallations,
+ * and emits timed JFR events when a game event post or a module tick exceeds a threshold,
+ * all events carry the id of the game instance and related class names,
+ * phase events also carry the priority of the flow of the phase and the index of the phase in that flow,
+ * telling apart different phases of the same class,
+ * under the "GameSenseLib" category of JFR, whose thresholds can be adjusted by the JFR configuration.
+ * <br/>
+ * Since the JFR API is not a compile-time dependency, this class defines and emits the events reflectively;
+ * whether every event is enabled is cached when the recording state changes,
+ * so emitting an event only takes a field read while there's no recording running.
+ * On runtimes without the JFR API, all methods have no effect.
+ */
+@SuppressWarnings("unused")
+public class FlightRecorderEvents {
+
+    private static final String CATEGORY = "GameSenseLib";
+
+    private static final EventType FLOW_TRANSITION = new EventType("gamesenselib.FlowTransition", "Flow Transition", null,
+            "gameId", long.class, "gameClass", String.class, "fromPointer", int.class, "toPointer", int.class);
+
+    private static final EventType PHASE_START = new EventType("gamesenselib.PhaseStart", "Phase Start", null,
+            "gameId", long.class, "gameClass", String.class, "phaseClass", String.class, "flowPriority", int.class, "phaseIndex", int.class);
+
+    private static final EventType PHASE_END = new EventType("gamesenselib.PhaseEnd", "Phase End", null,
+            "gameId", long.class, "gameClass", String.class, "phaseClass", String.class, "flowPriority", int.class, "phaseIndex", int.class);
+
+    private static final EventType MODULE_INSTALL = new EventType("gamesenselib.ModuleInstall", "Module Install", null,
+            "gameId", long.class, "gameClass", String.class, "moduleClass", String.class);
+
+    private static final EventType MODULE_UNINSTALL = new EventType("gamesenselib.ModuleUninstall", "Module Uninstall", null,
+            "gameId", long.class, "gameClass", String.class, "moduleClass", String.class);
+
+    private static final EventType SLOW_EVENT_POST = new EventType("gamesenselib.SlowEventPost", "Slow Game Event Post", "10 ms",
+            "gameId", long.class, "gameClass", String.class, "eventClass", String.class);
+
+    private static final EventType SLOW_MODULE_TICK = new EventType("gamesenselib.SlowModuleTick", "Slow Module Tick", "5 ms",
+            "gameId", long.class, "gameClass", String.class, "moduleClass", String.class);
+
+    static {
+        Jfr.listenRecordingState();
+    }
+
+    /**
+     * 检查当前运行时是否支持 JFR API。
+     * <p>
+     * Check whether the current runtime supports the JFR API.
+     *
+     * @return {@code true} if supported
+     */
+    public static boolean isAvailable() {
+        return Jfr.SUPPORTED;
+    }
+
+    @ApiStatus.Internal
+    public static void flowTransition(@NotNull AbstractGame game, int fromPointer, int toPointer) {
+        if (FLOW_TRANSITION.enabled) FLOW_TRANSITION.emit((long) game.getId(), game.getClass().getName(), fromPointer, toPointer);
+    }
+
+    @ApiStatus.Internal
+    public static void phaseStart(@NotNull AbstractGame game, @NotNull Phase phase) {
+        if (PHASE_START.enabled) emitPhase(PHASE_START, game, phase);
+    }
+
+    @ApiStatus.Internal
+    public static void phaseEnd(@NotNull AbstractGame game, @NotNull Phase phase) {
+        if (PHASE_END.enabled) emitPhase(PHASE_END, game, phase);
+    }
+
+    private static void emitPhase(@NotNull EventType type, @NotNull AbstractGame game, @NotNull Phase phase) {
+        // phases are only ticked in the current flow
+        val flowManager = game.getFlowManager();
+        val phases = flowManager.getCurrentPhases();
+        int index = -1;
+        for (int i = 0; i < phases.size(); i++) {
+            if (phases.get(i) == phase) {
+                index = i;
+                break;
+            }
+        }
+        type.emit((long) game.getId(), game.getClass().getName(), phase.getClass().getName(), flowManager.getPointer(), index);
+    }
+
+    @ApiStatus.Internal
+    public static void moduleInstall(@NotNull AbstractGame game, @NotNull IModule module) {
+        if (MODULE_INSTALL.enabled) MODULE_INSTALL.emit((long) game.getId(), game.getClass().getName(), module.getClass().getName());
+    }
+
+    @ApiStatus.Internal
+    public static void moduleUninstall(@NotNull AbstractGame game, @NotNull IModule module) {
+        if (MODULE_UNINSTALL.enabled) MODULE_UNINSTALL.emit((long) game.getId(), game.getClass().getName(), module.getClass().getName());
+    }
+
+    /**
+     * 开始计时一次游戏事件发布。
+     * <p>
+     * Begin timing a game event post.
+     *
+     * @return a handle to pass to {@link #endEventPost(Object, AbstractGame, AbstractGameEvent)}, or {@code null} if disabled
+     */
+    @ApiStatus.Internal
+    @Nullable
+    public static Object beginEventPost() {
+        return SLOW_EVENT_POST.enabled ? SLOW_EVENT_POST.begin() : null;
+    }
+
+    @ApiStatus.Internal
+    public static void endEventPost(@Nullable Object handle, @NotNull AbstractGame game, @NotNull AbstractGameEvent event) {
+        if (handle != null) SLOW_EVENT_POST.commit(handle, (long) game.getId(), game.getClass().getName(), event.getClass().getName());
+    }
+
+    /**
+     * 检查模块 tick 是否需要被计时。
+     * <p>
+     * Check whether module ticks need to be timed.
+     *
+     * @return {@code true} if needed
+     */
+    @ApiStatus.Internal
+    public static boolean isModuleTickEnabled() {
+        return SLOW_MODULE_TICK.enabled;
+    }
+
+    /**
+     * 开始计时一次模块 tick。
+     * <p>
+     * Begin timing a module tick.
+     *
+     * @return a handle to pass to {@link #endModuleTick(Object, AbstractGame, IModule)}, or {@code null} if disabled
+     */
+    @ApiStatus.Internal
+    @Nullable
+    public static Object beginModuleTick() {
+        return SLOW_MODULE_TICK.enabled ? SLOW_MODULE_TICK.begin() : null;
+    }
+
+    @ApiStatus.Internal
+    public static void endModuleTick(@Nullable Object handle, @NotNull AbstractGame game, @NotNull IModule module) {
+        if (handle != null) SLOW_MODULE_TICK.commit(handle, (long) game.getId(), game.getClass().getName(), module.getClass().getName());
+    }
+
+    /**
+     * 代表一种通过 {@code jdk.jfr.EventFactory} 定义的 JFR 事件。
+     * <p>
+     * Represents a kind of JFR event defined by {@code jdk.jfr.EventFactory}.
+     */
+    private static class EventType {
+
+        private static final List<EventType> ALL = Lists.newCopyOnWriteArrayList();
+
+        /**
+         * {@code jdk.jfr.EventFactory}, or {@code null} if not supported.
+         */
+        @Nullable
+        private final Object factory;
+
+        /**
+         * 该事件在当前的记录中是否开启。
+         * <p>
+         * Whether this event is enabled in the current recordings.
+         */
+        private volatile boolean enabled;
+
+        /**
+         * @param threshold the default threshold of a timed event, or {@code null} for an instant event
+         * @param fields    pairs of field names and types
+         */
+        private EventType(@NotNull String name, @NotNull String label, @Nullable String threshold, Object... fields) {
+            this.factory = Jfr.SUPPORTED ? Jfr.createFactory(name, label, threshold, fields) : null;
+            if (factory != null) ALL.add(this);
+        }
+
+        private void refresh() {
+            enabled = factory != null && (boolean) Jfr.invoke(Jfr.IS_ENABLED, Jfr.invoke(Jfr.NEW_EVENT, factory));
+        }
+
+        private void emit(Object... values) {
+            val event = Jfr.invoke(Jfr.NEW_EVENT, factory);
+            set(event, values);
+            Jfr.invoke(Jfr.COMMIT, event);
+        }
+
+        @NotNull
+        private Object begin() {
+            val event = Jfr.invoke(Jfr.NEW_EVENT, factory);
+            Jfr.invoke(Jfr.BEGIN, event);
+            return event;
+        }
+
+        private void commit(@NotNull Object event, Object... values) {
+            Jfr.invoke(Jfr.END, event);
+            // the recorder drops the event if it is below the threshold
+            if (!(boolean) Jfr.invoke(Jfr.SHOULD_COMMIT, event)) return;
+            set(event, values);
+            Jfr.invoke(Jfr.COMMIT, event);
+        }
+
+        private static void set(@NotNull Object event, Object... values) {
+            for (int i = 0; i < values.length; i++) {
+                Jfr.invoke(Jfr.SET, event, i, values[i]);
+            }
+        }
+    }
+
+    /**
+     * 反射得到的 JFR API。
+     * <p>
+     * Reflected JFR API.
+     */
+    @SuppressWarnings("unchecked")
+    private static class Jfr {
+
+        private static final boolean SUPPORTED;
+
+        private static Class<?> ANNOTATION_ELEMENT;
+        private static Class<? extends Annotation> NAME;
+        private static Class<? extends Annotation> LABEL;
+        private static Class<? extends Annotation> CATEGORY;
+        private static Class<? extends Annotation> THRESHOLD;
+        private static Class<? extends Annotation> STACK_TRACE;
+        private static Class<?> LISTENER;
+        private static Constructor<?> NEW_ANNOTATION_ELEMENT;
+        private static Constructor<?> NEW_VALUE_DESCRIPTOR;
+        private static Method CREATE;
+        private static Method NEW_EVENT;
+        private static Method BEGIN;
+        private static Method END;
+        private static Method SHOULD_COMMIT;
+        private static Method COMMIT;
+        private static Method IS_ENABLED;
+        private static Method SET;
+        private static Method ADD_LISTENER;
+
+        static {
+            boolean supported;
+            try {
+                ANNOTATION_ELEMENT = Class.forName("jdk.jfr.AnnotationElement");
+                NAME = (Class<? extends Annotation>) Class.forName("jdk.jfr.Name");
+                LABEL = (Class<? extends Annotation>) Class.forName("jdk.jfr.Label");
+                CATEGORY = (Class<? extends Annotation>) Class.forName("jdk.jfr.Category");
+                THRESHOLD = (Class<? extends Annotation>) Class.forName("jdk.jfr.Threshold");
+                STACK_TRACE = (Class<? extends Annotation>) Class.forName("jdk.jfr.StackTrace");
+                LISTENER = Class.forName("jdk.jfr.FlightRecorderListener");
+                val valueDescriptor = Class.forName("jdk.jfr.ValueDescriptor");
+                val eventFactory = Class.forName("jdk.jfr.EventFactory");
+                val event = Class.forName("jdk.jfr.Event");
+
+                NEW_ANNOTATION_ELEMENT = ANNOTATION_ELEMENT.getConstructor(Class.class, Object.class);
+                NEW_VALUE_DESCRIPTOR = valueDescriptor.getConstructor(Class.class, String.class, List.class);
+                CREATE = eventFactory.getMethod("create", List.class, List.class);
+                NEW_EVENT = eventFactory.getMethod("newEvent");
+                BEGIN = event.getMethod("begin");
+                END = event.getMethod("end");
+                SHOULD_COMMIT = event.getMethod("shouldCommit");
+                COMMIT = event.getMethod("commit");
+                IS_ENABLED = event.getMethod("isEnabled");
+                SET = event.getMethod("set", int.class, Object.class);
+                ADD_LISTENER = Class.forName("jdk.jfr.FlightRecorder").getMethod("addListener", LISTENER);
+                supported = true;
+            } catch (ClassNotFoundException | NoSuchMethodException | LinkageError e) {
+                supported = false;
+            }
+            SUPPORTED = supported;
+        }
+
+        @Nullable
+        private static Object createFactory(@NotNull String name, @NotNull String label, @Nullable String threshold, Object... fields) {
+            try {
+                val annotations = Lists.newArrayList(
+                        annotation(NAME, name),
+                        annotation(LABEL, label),
+                        annotation(CATEGORY, new String[]{FlightRecorderEvents.CATEGORY}),
+                        annotation(STACK_TRACE, threshold != null));
+                if (threshold != null) annotations.add(annotation(THRESHOLD, threshold));
+
+                val values = Lists.newArrayList();
+                for (int i = 0; i < fields.length; i += 2) {
+                    values.add(NEW_VALUE_DESCRIPTOR.newInstance(fields[i + 1], fields[i], Collections.emptyList()));
+                }
+                return CREATE.invoke(null, annotations, values);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // unable to define the event, leave it disabled
+                return null;
+            }
+        }
+
+        @NotNull
+        private static Object annotation(@NotNull Class<? extends Annotation> type, @NotNull Object value) throws ReflectiveOperationException {
+            return NEW_ANNOTATION_ELEMENT.newInstance(type, value);
+        }
+
+        /**
+         * 监听记录状态的改变以刷新每种事件是否开启。
+         * <p>
+         * Listen to the changes of the recording state to refresh whether every event is enabled.
+         */
+        private static void listenRecordingState() {
+            if (!SUPPORTED) return;
+            try {
+                val listener = Proxy.newProxyInstance(LISTENER.getClassLoader(), new Class<?>[]{LISTENER}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "recordingStateChanged":
+                            refreshAll();
+                            return null;
+                        case "hashCode":
+                            return System.identityHashCode(proxy);
+                        case "equals":
+                            return proxy == args[0];
+                        case "toString":
+                            return "GameSenseLib recording state listener";
+                        default:
+                            return null;
+                    }
+                });
+                ADD_LISTENER.invoke(null, listener);
+            } catch (ReflectiveOperationException | RuntimeException e) {
+                // without the listener, events stay as they are now
+            }
+            refreshAll();
+        }
+
+        private static void refreshAll() {
+            for (EventType type : EventType.ALL) {
+                try {
+                    type.refresh();
+                } catch (RuntimeException e) {
+                    type.enabled = false;
+                }
+            }
+        }
+
+        private static Object invoke(Method method, Object target, Object... args) {
+            try {
+                return method.invoke(target, args);
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException(e);
+            } catch (InvocationTargetException e) {
+                val cause = e.getCause();
+                if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+                if (cause instanceof Error) throw (Error) cause;
+                throw new IllegalStateException(cause);
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package io.hikarilan.gamesenselib.timings;
+
+import io.hikarilan.gamesenselib.flows.Phase;
+import io.hikarilan.gamesenselib.modules.IModule;
+import lombok.val;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 代表一个游戏实例的 tick 耗时统计。
+ * <br/>
+ * 仅在 {@link TickTimings#isEnabled()} 时进行记录。
+ * 模块的耗时按模块类统计，{@link io.hikarilan.gamesenselib.modules.bundled.FlowTickModule} 的耗时包含当前所有阶段的耗时。
+ * <p>
+ * Represents the tick cost statistics of a game instance.
+ * <br/>
+ * Only recorded when {@link TickTimings#isEnabled()}.
+ * The cost of modules is counted by module class,
+ * the cost of {@link io.hikarilan.gamesenselib.modules.bundled.FlowTickModule} includes the cost of all current phases.
+ *
+ * @see io.hikarilan.gamesenselib.games.AbstractGame#getTimings()
+ */
+@SuppressWarnings("unused")
+public class GameTimings {
+
+    private final TimingWindow game = new TimingWindow(TickTimings.WINDOW_SIZE);
+
+    private final Map<Class<? extends IModule>, TimingWindow> modules = new ConcurrentHashMap<>();
+
+    private final Map<Phase, TimingWindow> phases = new ConcurrentHashMap<>();
+
+    /**
+     * 记录游戏实例单次 tick的耗时。
+     * <p>
+     * Record the cost of a single tick of the game instance.
+     */
+    @ApiStatus.Internal
+    public void recordGame(long nanos) {
+        game.record(nanos);
+    }
+
+    /**
+     * 记录模块单次 tick的耗时。
+     * <p>
+     * Record the cost of a single tick of a module.
+     */
+    @ApiStatus.Internal
+    public void recordModule(@NotNull Class<? extends IModule> module, long nanos) {
+        windowOf(modules, module).record(nanos);
+    }
+
+    /**
+     * 记录阶段单次 tick的耗时。
+     * <p>
+     * Record the cost of a single tick of a phase.
+     */
+    @ApiStatus.Internal
+    public void recordPhase(@NotNull Phase phase, long nanos) {
+        windowOf(phases, phase).record(nanos);
+    }
+
+    /**
+     * 获取游戏实例单次 tick 的耗时统计。
+     * <p>
+     * Get the cost statistics of a single tick of the game instance.
+     *
+     * @return the snapshot
+     */
+    @NotNull
+    public TimingSnapshot getGameTimings() {
+        return game.snapshot();
+    }
+
+    /**
+     * 获取每个模块类单次 tick 的耗时统计，包括已卸载但曾被记录的模块。
+     * <p>
+     * Get the cost statistics of a single tick of every module class, including uninstalled modules which have been recorded.
+     *
+     * @return snapshots by module class
+     */
+    @NotNull
+    public Map<Class<? extends IModule>, TimingSnapshot> getModuleTimings() {
+        return snapshot(modules);
+    }
+
+    /**
+     * 获取每个阶段单次 tick 的耗时统计。
+     * <p>
+     * Get the cost statistics of a single tick of every phase.
+     *
+     * @return snapshots by phase
+     */
+    @NotNull
+    public Map<Phase, TimingSnapshot> getPhaseTimings() {
+        return snapshot(phases);
+    }
+
+    /**
+     * 清空所有统计。
+     * <p>
+     * Clear all statistics.
+     */
+    public void reset() {
+        game.reset();
+        modules.clear();
+        phases.clear();
+    }
+
+    @NotNull
+    private static <K> TimingWindow windowOf(@NotNull Map<K, TimingWindow> windows, @NotNull K key) {
+        val window = windows.get(key);
+        return window != null ? window : windows.computeIfAbsent(key, it -> new TimingWindow(TickTimings.WINDOW_SIZE));
+    }
+
+    @NotNull
+    private static <K> Map<K, TimingSnapshot> snapshot(@NotNull Map<K, TimingWindow> windows) {
+        val snapshots = new LinkedHashMap<K, TimingSnapshot>();
+        windows.forEach((key, window) -> snapshots.put(key, window.snapshot()));
+        return Collections.unmodifiableMap(snapshots);
+    }
+}
@@ -0,0 +1,100 @@
+package io.hikarilan.gamesenselib.timings;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 代表玩家加入或退出游戏过程中的一个阶段。
+ * <p>
+ * Represents a stage of a player joining or quitting a game.
+ *
+ * @see LifecycleTracer
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor
+public enum LifecycleStage {
+
+    /**
+     * 分发 {@link io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent} 事件的耗时。
+     * <p>
+     * The cost of dispatching the {@link io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent} event.
+     */
+    JOIN_ATTEMPT("join_attempt"),
+
+    /**
+     * 从加入请求通过到发布 {@link io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent} 事件的等待时间。
+     * <p>
+     * The wait from the join attempt passing to the {@link io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent} event posted.
+     */
+    JOIN_ADMISSION("join_admission"),
+
+    /**
+     * 从发布 {@link io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent} 事件到玩家实例被添加到游戏实例的耗时。
+     * <p>
+     * The cost from the {@link io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent} event posted
+     * to the player instance added to the game instance.
+     */
+    JOIN_PRE("join_pre"),
+
+    /**
+     * 从玩家实例被添加到游戏实例到发布 {@link io.hikarilan.gamesenselib.events.game.PlayerPostJoinGameEvent} 事件的耗时。
+     * <p>
+     * The cost from the player instance added to the game instance
+     * to the {@link io.hikarilan.gamesenselib.events.game.PlayerPostJoinGameEvent} event posted.
+     */
+    JOIN_ADD("join_add"),
+
+    /**
+     * 分发 {@link io.hikarilan.gamesenselib.events.game.PlayerPostJoinGameEvent} 事件的耗时。
+     * <p>
+     * The cost of dispatching the {@link io.hikarilan.gamesenselib.events.game.PlayerPostJoinGameEvent} event.
+     */
+    JOIN_POST("join_post"),
+
+    /**
+     * 玩家加入游戏的总耗时。
+     * <p>
+     * The total cost of a player joining the game.
+     */
+    JOIN_TOTAL("join_total"),
+
+    /**
+     * 从发布 {@link io.hikarilan.gamesenselib.events.game.PlayerPreQuitGameEvent} 事件到玩家实例被从游戏实例中移除的耗时。
+     * <p>
+     * The cost from the {@link io.hikarilan.gamesenselib.events.game.PlayerPreQuitGameEvent} event posted
+     * to the player instance removed from the game instance.
+     */
+    QUIT_PRE("quit_pre"),
+
+    /**
+     * 从玩家实例被从游戏实例中移除到发布 {@link io.hikarilan.gamesenselib.events.game.PlayerPostQuitGameEvent} 事件的耗时。
+     * <p>
+     * The cost from the player instance removed from the game instance
+     * to the {@link io.hikarilan.gamesenselib.events.game.PlayerPostQuitGameEvent} event posted.
+     */
+    QUIT_REMOVE("quit_remove"),
+
+    /**
+     * 分发 {@link io.hikarilan.gamesenselib.events.game.PlayerPostQuitGameEvent} 事件的耗时。
+     * <p>
+     * The cost of dispatching the {@link io.hikarilan.gamesenselib.events.game.PlayerPostQuitGameEvent} event.
+     */
+    QUIT_POST("quit_post"),
+
+    /**
+     * 玩家退出游戏的总耗时。
+     * <p>
+     * The total cost of a player quitting the game.
+     */
+    QUIT_TOTAL("quit_total");
+
+    /**
+     * 阶段的键，用于导出指标。
+     * <p>
+     * The key of the stage, used for exporting metrics.
+     */
+    @Getter
+    @NotNull
+    private final String key;
+}
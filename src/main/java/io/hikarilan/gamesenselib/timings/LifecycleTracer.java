@@ -0,0 +1,361 @@
+package io.hikarilan.gamesenselib.timings;
+
+import io.hikarilan.gamesenselib.events.AbstractCancellableGameEvent;
+import io.hikarilan.gamesenselib.events.AbstractGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerAttemptToJoinGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerPostJoinGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerPostQuitGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerPreJoinGameEvent;
+import io.hikarilan.gamesenselib.events.game.PlayerPreQuitGameEvent;
+import io.hikarilan.gamesenselib.players.AbstractPlayer;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * 代表玩家加入及退出游戏过程的分阶段耗时追踪。
+ * <br/>
+ * 追踪默认关闭。开启后，每个玩家的加入过程将从发布 {@link PlayerAttemptToJoinGameEvent} 事件开始，
+ * 经过 {@link PlayerPreJoinGameEvent} 事件及 {@link io.hikarilan.gamesenselib.games.AbstractGame#addPlayer(AbstractPlayer)}，
+ * 到 {@link PlayerPostJoinGameEvent} 事件分发完毕为止；退出过程则从 {@link PlayerPreQuitGameEvent} 事件开始，
+ * 经过 {@link io.hikarilan.gamesenselib.games.AbstractGame#removePlayer(AbstractPlayer)}，到 {@link PlayerPostQuitGameEvent} 事件分发完毕为止。
+ * 每个阶段（{@link LifecycleStage}）的耗时将被记录到固定内存的 {@link LogLinearHistogram} 中，
+ * 并同时汇总到服务端范围的追踪（{@link #global()}）中；未经过的阶段（例如直接发布的 {@link PlayerPreJoinGameEvent} 事件）不会被记录。
+ * <br/>
+ * 未完成的追踪会在玩家被移出准入队列或离开服务器时被丢弃，其余未完成的追踪最多保留 10 分钟。
+ * <br/>
+ * 开启追踪日志（{@link #setTraceLogging(boolean)}）后，每次完成加入或退出时都将输出一行包含所有阶段耗时的日志。
+ * <p>
+ * Represents the per-stage cost tracing of players joining and quitting games.
+ * <br/>
+ * The tracing is disabled by default. Once enabled, the join of every player is traced from posting the {@link PlayerAttemptToJoinGameEvent} event,
+ * through the {@link PlayerPreJoinGameEvent} event and {@link io.hikarilan.gamesenselib.games.AbstractGame#addPlayer(AbstractPlayer)},
+ * until the {@link PlayerPostJoinGameEvent} event is dispatched; the quit is traced from the {@link PlayerPreQuitGameEvent} event,
+ * through {@link io.hikarilan.gamesenselib.games.AbstractGame#removePlayer(AbstractPlayer)},
+ * until the {@link PlayerPostQuitGameEvent} event is dispatched.
+ * The cost of every stage ({@link LifecycleStage}) is recorded into fixed-memory {@link LogLinearHistogram}s,
+ * and aggregated into the server-wide tracing ({@link #global()}) as well;
+ * stages not passed through (e.g. a {@link PlayerPreJoinGameEvent} event posted directly) are not recorded.
+ * <br/>
+ * Incomplete traces are discarded when the player is dropped from the admission queue or leaves the server,
+ * other incomplete traces are kept for 10 minutes at most.
+ * <br/>
+ * Once trace logging is enabled ({@link #setTraceLogging(boolean)}),
+ * a line containing the cost of all stages will be logged every time a join or quit completes.
+ *
+ * @see io.hikarilan.gamesenselib.games.AbstractGame#getLifecycleTracer()
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor
+public class LifecycleTracer {
+
+    private static final LifecycleTracer GLOBAL = new LifecycleTracer(null);
+
+    private static final int ATTEMPT_BEGIN = 0, ATTEMPT_END = 1, PRE_JOIN = 2, ADDED = 3, POST_JOIN = 4;
+
+    private static final int PRE_QUIT = 0, REMOVED = 1, POST_QUIT = 2;
+
+    /**
+     * 进行中的追踪的最长保留时间，超过该时间仍未完成的追踪（例如中途停止的加入过程）将被丢弃。
+     * <p>
+     * The longest time a trace in progress is kept, traces not completed by then (such as joins stopped halfway) are discarded.
+     */
+    private static final long MAX_TRACE_AGE_NANOS = TimeUnit.MINUTES.toNanos(10);
+
+    private static final long PRUNE_INTERVAL_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    private static volatile boolean enabled;
+
+    private static volatile boolean traceLogging;
+
+    @Nullable
+    private final Logger logger;
+
+    private final Map<LifecycleStage, LogLinearHistogram> histograms = newHistograms();
+
+    /**
+     * 正在进行中的加入及退出过程的时间戳，按玩家的唯一标识符索引。
+     * <p>
+     * Timestamps of the joins and quits in progress, indexed by the unique identifier of the player.
+     */
+    private final Map<UUID, long[]> joins = new ConcurrentHashMap<>();
+
+    private final Map<UUID, long[]> quits = new ConcurrentHashMap<>();
+
+    private volatile long lastPrune = System.nanoTime();
+
+    /**
+     * 检查玩家生命周期追踪是否已开启。
+     * <p>
+     * Check whether the player lifecycle tracing is enabled.
+     *
+     * @return {@code true} if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启或关闭玩家生命周期追踪。
+     * <p>
+     * Enable or disable the player lifecycle tracing.
+     *
+     * @param enabled whether to enable
+     */
+    public static void setEnabled(boolean enabled) {
+        LifecycleTracer.enabled = enabled;
+    }
+
+    /**
+     * 检查追踪日志是否已开启。
+     * <p>
+     * Check whether the trace logging is enabled.
+     *
+     * @return {@code true} if enabled
+     */
+    public static boolean isTraceLogging() {
+        return traceLogging;
+    }
+
+    /**
+     * 开启或关闭追踪日志，仅在追踪开启时生效。
+     * <p>
+     * Enable or disable the trace logging, only takes effect while the tracing is enabled.
+     *
+     * @param traceLogging whether to enable
+     */
+    public static void setTraceLogging(boolean traceLogging) {
+        LifecycleTracer.traceLogging = traceLogging;
+    }
+
+    /**
+     * 获取服务端范围的玩家生命周期追踪，其中汇总了所有游戏实例的记录。
+     * <p>
+     * Get the server-wide player lifecycle tracing, aggregating the records of all game instances.
+     *
+     * @return the server-wide tracing
+     */
+    @NotNull
+    public static LifecycleTracer global() {
+        return GLOBAL;
+    }
+
+    /**
+     * 获取每个阶段耗时的直方图。
+     * <p>
+     * Get the histogram of the cost of every stage.
+     *
+     * @return histograms by stage
+     */
+    @NotNull
+    public Map<LifecycleStage, LogLinearHistogram> getHistograms() {
+        return Collections.unmodifiableMap(histograms);
+    }
+
+    /**
+     * 获取指定阶段耗时的直方图。
+     * <p>
+     * Get the histogram of the cost of the specified stage.
+     *
+     * @param stage the stage
+     * @return the histogram
+     */
+    @NotNull
+    public LogLinearHistogram getHistogram(@NotNull LifecycleStage stage) {
+        return histograms.get(stage);
+    }
+
+    /**
+     * 在分发事件前记录时间戳。
+     * <p>
+     * Record the timestamp before dispatching an event.
+     */
+    @ApiStatus.Internal
+    public void beforePost(@NotNull AbstractGameEvent event) {
+        val now = System.nanoTime();
+        prune(now);
+        if (event instanceof PlayerAttemptToJoinGameEvent) {
+            // a new attempt restarts the trace
+            val trace = new long[5];
+            trace[ATTEMPT_BEGIN] = now;
+            joins.put(((PlayerAttemptToJoinGameEvent) event).getPlayer().getUniqueId(), trace);
+        } else if (event instanceof PlayerPreJoinGameEvent) {
+            joins.computeIfAbsent(((PlayerPreJoinGameEvent) event).getPlayer().getUniqueId(), it -> new long[5])[PRE_JOIN] = now;
+        } else if (event instanceof PlayerPostJoinGameEvent) {
+            val trace = joins.get(((PlayerPostJoinGameEvent) event).getPlayer().getUniqueId());
+            if (trace != null) trace[POST_JOIN] = now;
+        } else if (event instanceof PlayerPreQuitGameEvent) {
+            val uniqueId = ((PlayerPreQuitGameEvent) event).getPlayer().getUniqueId();
+            joins.remove(uniqueId);
+            val trace = new long[3];
+            trace[PRE_QUIT] = now;
+            quits.put(uniqueId, trace);
+        } else if (event instanceof PlayerPostQuitGameEvent) {
+            val trace = quits.get(((PlayerPostQuitGameEvent) event).getPlayer().getUniqueId());
+            if (trace != null) trace[POST_QUIT] = now;
+        }
+    }
+
+    /**
+     * 在分发事件后记录时间戳，并在加入或退出过程完成时记录各阶段的耗时。
+     * <p>
+     * Record the timestamp after dispatching an event, and record the cost of every stage when a join or quit completes.
+     */
+    @ApiStatus.Internal
+    public void afterPost(@NotNull AbstractGameEvent event) {
+        val now = System.nanoTime();
+        if (event instanceof PlayerAttemptToJoinGameEvent) {
+            val uniqueId = ((PlayerAttemptToJoinGameEvent) event).getPlayer().getUniqueId();
+            // a denied attempt never completes
+            if (((AbstractCancellableGameEvent) event).isCancelled()) {
+                joins.remove(uniqueId);
+                return;
+            }
+            val trace = joins.get(uniqueId);
+            if (trace != null && trace[PRE_JOIN] == 0) trace[ATTEMPT_END] = now;
+        } else if (event instanceof PlayerPostJoinGameEvent) {
+            val player = ((PlayerPostJoinGameEvent) event).getPlayer();
+            val trace = joins.remove(player.getUniqueId());
+            if (trace != null) completeJoin(event, player, trace, now);
+        } else if (event instanceof PlayerPostQuitGameEvent) {
+            val player = ((PlayerPostQuitGameEvent) event).getPlayer();
+            val trace = quits.remove(player.getUniqueId());
+            if (trace != null) completeQuit(event, player, trace, now);
+        }
+    }
+
+    /**
+     * 记录玩家实例被添加到游戏实例的时间戳。
+     * <p>
+     * Record the timestamp of a player instance added to the game instance.
+     */
+    @ApiStatus.Internal
+    public void markAdded(@NotNull AbstractPlayer player) {
+        val trace = joins.get(player.getUniqueId());
+        if (trace != null) trace[ADDED] = System.nanoTime();
+    }
+
+    /**
+     * 记录玩家实例被从游戏实例中移除的时间戳。
+     * <p>
+     * Record the timestamp of a player instance removed from the game instance.
+     */
+    @ApiStatus.Internal
+    public void markRemoved(@NotNull AbstractPlayer player) {
+        val trace = quits.get(player.getUniqueId());
+        if (trace != null) trace[REMOVED] = System.nanoTime();
+    }
+
+    /**
+     * 丢弃指定玩家进行中的加入追踪，例如在玩家被移出准入队列或离开服务器时。
+     * <p>
+     * Discard the join trace in progress of the specified player,
+     * such as when the player is dropped from the admission queue or leaves the server.
+     *
+     * @param uniqueId the unique identifier of the player
+     */
+    @ApiStatus.Internal
+    public void discardJoin(@NotNull UUID uniqueId) {
+        joins.remove(uniqueId);
+    }
+
+    /**
+     * 重置所有直方图并丢弃所有进行中的追踪。
+     * <p>
+     * Reset all histograms and discard all traces in progress.
+     */
+    public void reset() {
+        histograms.values().forEach(LogLinearHistogram::reset);
+        joins.clear();
+        quits.clear();
+    }
+
+    private void prune(long now) {
+        if (now - lastPrune < PRUNE_INTERVAL_NANOS) return;
+        lastPrune = now;
+        joins.values().removeIf(trace -> now - first(trace) > MAX_TRACE_AGE_NANOS);
+        quits.values().removeIf(trace -> now - first(trace) > MAX_TRACE_AGE_NANOS);
+    }
+
+    private void completeJoin(@NotNull AbstractGameEvent event, @NotNull AbstractPlayer player, long[] trace, long now) {
+        val attempt = span(trace[ATTEMPT_BEGIN], trace[ATTEMPT_END]);
+        val admission = span(trace[ATTEMPT_END], trace[PRE_JOIN]);
+        val pre = span(trace[PRE_JOIN], trace[ADDED]);
+        val add = span(trace[ADDED], trace[POST_JOIN]);
+        val post = span(trace[POST_JOIN], now);
+        val total = span(first(trace), now);
+        record(LifecycleStage.JOIN_ATTEMPT, attempt);
+        record(LifecycleStage.JOIN_ADMISSION, admission);
+        record(LifecycleStage.JOIN_PRE, pre);
+        record(LifecycleStage.JOIN_ADD, add);
+        record(LifecycleStage.JOIN_POST, post);
+        record(LifecycleStage.JOIN_TOTAL, total);
+        if (traceLogging && logger != null) {
+            logger.info(String.format("Join of %s in game #%d took %.3f ms (attempt %s, admission %s, pre-join %s, add %s, post-join %s)",
+                    player.getName(), event.getGame().getId(), total / 1e6,
+                    format(attempt), format(admission), format(pre), format(add), format(post)));
+        }
+    }
+
+    private void completeQuit(@NotNull AbstractGameEvent event, @NotNull AbstractPlayer player, long[] trace, long now) {
+        val pre = span(trace[PRE_QUIT], trace[REMOVED]);
+        val remove = span(trace[REMOVED], trace[POST_QUIT]);
+        val post = span(trace[POST_QUIT], now);
+        val total = span(first(trace), now);
+        record(LifecycleStage.QUIT_PRE, pre);
+        record(LifecycleStage.QUIT_REMOVE, remove);
+        record(LifecycleStage.QUIT_POST, post);
+        record(LifecycleStage.QUIT_TOTAL, total);
+        if (traceLogging && logger != null) {
+            logger.info(String.format("Quit of %s in game #%d took %.3f ms (pre-quit %s, remove %s, post-quit %s)",
+                    player.getName(), event.getGame().getId(), total / 1e6,
+                    format(pre), format(remove), format(post)));
+        }
+    }
+
+    private void record(@NotNull LifecycleStage stage, long nanos) {
+        if (nanos < 0) return;
+        histograms.get(stage).record(nanos);
+        if (this != GLOBAL) GLOBAL.histograms.get(stage).record(nanos);
+    }
+
+    /**
+     * 计算两个时间戳之间的耗时。
+     * <p>
+     * Compute the cost between two timestamps.
+     *
+     * @return the cost, or {@code -1} if any of the timestamps is missing
+     */
+    private static long span(long from, long to) {
+        return from == 0 || to == 0 ? -1 : to - from;
+    }
+
+    private static long first(long[] trace) {
+        for (long timestamp : trace) {
+            if (timestamp != 0) return timestamp;
+        }
+        return 0;
+    }
+
+    @NotNull
+    private static String format(long nanos) {
+        return nanos < 0 ? "-" : String.format("%.3f ms", nanos / 1e6);
+    }
+
+    @NotNull
+    private static Map<LifecycleStage, LogLinearHistogram> newHistograms() {
+        val histograms = new EnumMap<LifecycleStage, LogLinearHistogram>(LifecycleStage.class);
+        for (LifecycleStage stage : LifecycleStage.values()) histograms.put(stage, new LogLinearHistogram());
+        return histograms;
+    }
+}
@@ -0,0 +1,181 @@
+package io.hikarilan.gamesenselib.timings;
+
+import lombok.val;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 代表一个固定内存的对数线性直方图，用于记录非负的耗时（纳秒）。
+ * <br/>
+ * 每个 2 的幂次区间被线性划分为 16 个桶，因此任意记录值的相对误差不超过 1/16；
+ * 大于约 18 分钟的值将被记录到最后一个桶中。记录值不会分配任何内存，且可在任意线程中进行。
+ * <p>
+ * Represents a fixed-memory log-linear histogram recording non-negative costs in nanoseconds.
+ * <br/>
+ * Every power-of-two range is split linearly into 16 buckets, so the relative error of any recorded value is at most 1/16;
+ * values larger than about 18 minutes are recorded into the last bucket.
+ * Recording allocates nothing and can be done from any thread.
+ */
+@SuppressWarnings("unused")
+public class LogLinearHistogram {
+
+    private static final int SUB_BUCKET_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MAX_EXPONENT = 40;
+    private static final int BUCKETS = SUB_BUCKETS + (MAX_EXPONENT - SUB_BUCKET_BITS + 1) * SUB_BUCKETS;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+    private final AtomicLong count = new AtomicLong();
+
+    private final AtomicLong sum = new AtomicLong();
+
+    private final AtomicLong max = new AtomicLong();
+
+    /**
+     * 记录一个值。
+     * <p>
+     * Record a value.
+     *
+     * @param nanos the value in nanoseconds, negative values are recorded as zero
+     */
+    public void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        buckets.incrementAndGet(indexOf(nanos));
+        count.incrementAndGet();
+        sum.addAndGet(nanos);
+        if (nanos > max.get()) max.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * 获取已记录的值的数量。
+     * <p>
+     * Get the number of recorded values.
+     *
+     * @return the count
+     */
+    public long getCount() {
+        return count.get();
+    }
+
+    /**
+     * 获取已记录的值的总和。
+     * <p>
+     * Get the sum of recorded values.
+     *
+     * @return the sum in nanoseconds
+     */
+    public long getSum() {
+        return sum.get();
+    }
+
+    /**
+     * 获取已记录的值的平均值。
+     * <p>
+     * Get the mean of recorded values.
+     *
+     * @return the mean in nanoseconds, or {@code 0} if nothing recorded
+     */
+    public long getMean() {
+        val count = getCount();
+        return count == 0 ? 0 : getSum() / count;
+    }
+
+    /**
+     * 获取已记录的最大值。
+     * <p>
+     * Get the max recorded value.
+     *
+     * @return the max in nanoseconds
+     */
+    public long getMax() {
+        return max.get();
+    }
+
+    /**
+     * 获取指定百分位数的近似值，即该百分位数所在桶的上界。
+     * <p>
+     * Get the approximate value at the specified percentile, i.e. the upper bound of the bucket the percentile falls in.
+     *
+     * @param percentile the percentile, from 0 to 100
+     * @return the value in nanoseconds, or {@code 0} if nothing recorded
+     * @throws IllegalArgumentException if the percentile is out of range
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100)
+            throw new IllegalArgumentException("The percentile should be from 0 to 100.");
+        val count = getCount();
+        if (count == 0) return 0;
+        val rank = Math.max(1, (long) Math.ceil(count * percentile / 100));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets.get(i);
+            if (seen >= rank) return Math.min(upperBoundOf(i), getMax());
+        }
+        return getMax();
+    }
+
+    /**
+     * 获取不大于指定值的记录数的近似值，即上界不大于该值的所有桶的记录数之和。
+     * <p>
+     * Get the approximate number of records not greater than the specified value,
+     * i.e. the sum of records of all buckets whose upper bound is not greater than the value.
+     *
+     * @param nanos the value in nanoseconds
+     * @return the number of records
+     */
+    public long getCountAtOrBelow(long nanos) {
+        long result = 0;
+        for (int i = 0; i < BUCKETS && upperBoundOf(i) <= nanos; i++) {
+            result += buckets.get(i);
+        }
+        return result;
+    }
+
+    /**
+     * 将该直方图中的所有记录合并到另一个直方图中。
+     * <p>
+     * Merge all records of this histogram into another histogram.
+     *
+     * @param target the histogram to merge into
+     */
+    public void addTo(LogLinearHistogram target) {
+        for (int i = 0; i < BUCKETS; i++) {
+            val bucket = buckets.get(i);
+            if (bucket != 0) target.buckets.addAndGet(i, bucket);
+        }
+        target.count.addAndGet(getCount());
+        target.sum.addAndGet(getSum());
+        target.max.accumulateAndGet(getMax(), Math::max);
+    }
+
+    /**
+     * 清空所有记录。
+     * <p>
+     * Clear all records.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) buckets.set(i, 0);
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    private static int indexOf(long value) {
+        if (value < SUB_BUCKETS) return (int) value;
+        val exponent = 63 - Long.numberOfLeadingZeros(value);
+        if (exponent > MAX_EXPONENT) return BUCKETS - 1;
+        val shift = exponent - SUB_BUCKET_BITS;
+        // the top (SUB_BUCKET_BITS + 1) bits, which is in [SUB_BUCKETS, 2 * SUB_BUCKETS)
+        val mantissa = (int) (value >>> shift);
+        return SUB_BUCKETS + shift * SUB_BUCKETS + (mantissa - SUB_BUCKETS);
+    }
+
+    private static long upperBoundOf(int index) {
+        if (index < SUB_BUCKETS) return index;
+        val shift = (index - SUB_BUCKETS) / SUB_BUCKETS;
+        val mantissa = (index - SUB_BUCKETS) % SUB_BUCKETS + SUB_BUCKETS;
+        return ((long) (mantissa + 1) << shift) - 1;
+    }
+}
@@ -0,0 +1,126 @@
+package io.hikarilan.gamesenselib.timings;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * 一个可重用的 UTF-8 字节缓冲区，用于在不分配额外内存的情况下渲染文本格式的指标。
+ * <p>
+ * A reusable UTF-8 byte buffer, used to render text format metrics without allocating extra memory.
+ */
+class MetricsBuffer {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private byte[] bytes = new byte[8192];
+
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void copyFrom(@NotNull MetricsBuffer other) {
+        size = 0;
+        ensure(other.size);
+        System.arraycopy(other.bytes, 0, bytes, 0, other.size);
+        size = other.size;
+    }
+
+    void writeTo(@NotNull OutputStream out) throws IOException {
+        out.write(bytes, 0, size);
+    }
+
+    @NotNull
+    MetricsBuffer append(char c) {
+        if (c < 0x80) {
+            ensure(1);
+            bytes[size++] = (byte) c;
+        } else if (c < 0x800) {
+            ensure(2);
+            bytes[size++] = (byte) (0xC0 | (c >> 6));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        } else if (Character.isSurrogate(c)) {
+            // surrogate pairs are not expected in metric labels
+            append('?');
+        } else {
+            ensure(3);
+            bytes[size++] = (byte) (0xE0 | (c >> 12));
+            bytes[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+            bytes[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+        return this;
+    }
+
+    @NotNull
+    MetricsBuffer append(@NotNull String text) {
+        for (int i = 0; i < text.length(); i++) append(text.charAt(i));
+        return this;
+    }
+
+    /**
+     * 追加一个标签值，并转义其中的反斜杠、双引号与换行符。
+     * <p>
+     * Append a label value, escaping backslashes, double quotes and line feeds in it.
+     */
+    @NotNull
+    MetricsBuffer appendLabelValue(@NotNull String value) {
+        for (int i = 0; i < value.length(); i++) {
+            val c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                append('\\').append(c);
+            } else if (c == '\n') {
+                append('\\').append('n');
+            } else {
+                append(c);
+            }
+        }
+        return this;
+    }
+
+    @NotNull
+    MetricsBuffer append(long value) {
+        if (value == Long.MIN_VALUE) return append("-9223372036854775808");
+        if (value < 0) {
+            append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) divisor *= 10;
+        for (; divisor > 0; divisor /= 10) {
+            append((char) ('0' + value / divisor % 10));
+        }
+        return this;
+    }
+
+    /**
+     * 以秒为单位追加一个纳秒值，保留 9 位小数。
+     * <p>
+     * Append a nanoseconds value in seconds, with 9 decimal places.
+     */
+    @NotNull
+    MetricsBuffer appendSeconds(long nanos) {
+        if (nanos < 0) {
+            append('-');
+            nanos = -nanos;
+        }
+        append(nanos / NANOS_PER_SECOND).append('.');
+        val fraction = nanos % NANOS_PER_SECOND;
+        for (long divisor = NANOS_PER_SECOND / 10; divisor > 0; divisor /= 10) {
+            append((char) ('0' + fraction / divisor % 10));
+        }
+        return this;
+    }
+
+    private void ensure(int extra) {
+        if (size + extra > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + extra));
+    }
+}
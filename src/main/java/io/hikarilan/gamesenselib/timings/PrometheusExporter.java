@@ -0,0 +1,440 @@
+package io.hikarilan.gamesenselib.timings;
+
+import io.hikarilan.gamesenselib.artifacts.IReusable;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.GameRegistry;
+import io.hikarilan.gamesenselib.games.extra.GameAutoscaler;
+import io.hikarilan.gamesenselib.schedulers.ITickScheduler;
+import io.hikarilan.gamesenselib.schedulers.ITickTask;
+import io.hikarilan.gamesenselib.utils.Durations;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+
+/**
+ * 以 Prometheus 文本格式导出 GameSenseLib 的内部指标。
+ * <br/>
+ * 导出的指标包括游戏实例数、每个游戏实例的玩家数、流程优先级、tick 耗时与离线队列深度，
+ * 所有游戏实例的 tick 耗时直方图，玩家加入及退出各阶段的耗时直方图（需开启 {@link LifecycleTracer}），
+ * 事件发布次数与分发耗时直方图（需开启 {@link EventBusMetrics}），
+ * 以及通过 {@link #addPool(String, GameAutoscaler)} 添加的游戏实例池的使用情况。
+ * <br/>
+ * 指标将按 {@link #setInterval(Duration)} 设置的间隔在 {@link #setScheduler(ITickScheduler)} 设置的调度器中渲染到一个可重用的缓冲区中，
+ * 并通过内嵌的 HTTP 端点（默认仅监听本地回环地址）提供，或由导出器自己的写入线程写入到指定文件中；
+ * 每次抓取仅会发送最近一次渲染的结果，除响应缓冲区外不会为抓取分配额外内存。
+ * 渲染结果在锁内被复制到响应缓冲区后才会写入套接字，因此缓慢的抓取方不会阻塞缓冲区的交换或文件的写入。
+ * <p>
+ * Export the internal metrics of GameSenseLib in the Prometheus text format.
+ * <br/>
+ * The exported metrics include the number of game instances, the number of players, flow pointer, tick cost and offline queue depth
+ * of every game instance, the tick cost histogram of all game instances,
+ * the cost histograms of the stages of players joining and quitting (requires {@link LifecycleTracer} enabled),
+ * the number of event posts and the dispatch cost histogram (requires {@link EventBusMetrics} enabled),
+ * and the usage of game pools added by {@link #addPool(String, GameAutoscaler)}.
+ * <br/>
+ * The metrics are rendered into a reusable buffer by the scheduler set by {@link #setScheduler(ITickScheduler)} every interval set by {@link #setInterval(Duration)},
+ * and are served from an embedded HTTP endpoint (listening on the loopback address only by default) or written to the specified file by the own writer thread of the exporter;
+ * every scrape only sends the latest rendering, and allocates nothing for the scrape beyond the response buffer.
+ * The rendering is copied into the response buffer under the lock before the socket is written,
+ * so a slow scraper never blocks swapping the buffers or writing the file.
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor(staticName = "of")
+public class PrometheusExporter implements IReusable {
+
+    private static final long[] BUCKET_BOUNDS_NANOS = {
+            100_000L, 500_000L, 1_000_000L, 5_000_000L, 10_000_000L, 50_000_000L, 100_000_000L
+    };
+
+    private static final int SOCKET_TIMEOUT_MILLIS = 2000;
+
+    @NotNull
+    private final Plugin plugin;
+
+    private long intervalTicks = 20;
+
+    @Nullable
+    private ITickScheduler scheduler;
+
+    @Nullable
+    private InetSocketAddress address;
+
+    @Nullable
+    private Path file;
+
+    private final Map<String, GameAutoscaler> pools = new ConcurrentHashMap<>();
+
+    /**
+     * 保护 {@link #front}，渲染线程仅在能立即获取锁时交换缓冲区，以免阻塞服务端主线程；
+     * 其他线程仅在复制 {@link #front} 期间持有该锁。
+     * <p>
+     * Guards {@link #front}, the rendering thread only swaps the buffers when the lock is immediately available,
+     * so that the server main thread is never blocked;
+     * other threads only hold the lock while copying {@link #front}.
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @NotNull
+    private MetricsBuffer front = new MetricsBuffer();
+
+    @NotNull
+    private MetricsBuffer back = new MetricsBuffer();
+
+    /**
+     * 写入文件时使用的最近一次渲染结果的副本。
+     * <p>
+     * The copy of the latest rendering used when writing the file.
+     */
+    private final MetricsBuffer fileCopy = new MetricsBuffer();
+
+    /**
+     * 是否已有一次文件写入在等待执行，等待中的写入总会写入最近一次渲染的结果，因此无需重复提交。
+     * <p>
+     * Whether a file write is already waiting to run, a waiting write always writes the latest rendering, so it needs no duplicate.
+     */
+    private final AtomicBoolean writePending = new AtomicBoolean();
+
+    @Nullable
+    private ITickTask renderTask;
+
+    @Nullable
+    private ExecutorService writer;
+
+    @Nullable
+    private ServerSocket server;
+
+    /**
+     * 设置渲染指标的间隔（默认：1 秒）。
+     * <p>
+     * Set the interval of rendering metrics (default: 1 second).
+     *
+     * @param interval the interval
+     * @return this exporter
+     */
+    public PrometheusExporter setInterval(@NotNull Duration interval) {
+        this.intervalTicks = Math.max(1, Durations.toTick(interval));
+        return this;
+    }
+
+    /**
+     * 设置渲染指标所使用的调度器（默认：{@link ITickScheduler#global(Plugin)}）。
+     * <p>
+     * Set the scheduler rendering the metrics (default: {@link ITickScheduler#global(Plugin)}).
+     *
+     * @param scheduler the scheduler
+     * @return this exporter
+     */
+    public PrometheusExporter setScheduler(@NotNull ITickScheduler scheduler) {
+        this.scheduler = scheduler;
+        return this;
+    }
+
+    /**
+     * 在本地回环地址的指定端口上提供指标。
+     * <p>
+     * Serve the metrics on the specified port of the loopback address.
+     *
+     * @param port the port, or {@code 0} to pick a free port
+     * @return this exporter
+     * @see #getPort()
+     */
+    public PrometheusExporter serve(int port) {
+        return serve(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+    }
+
+    /**
+     * 在指定地址上提供指标。
+     * <p>
+     * Serve the metrics on the specified address.
+     *
+     * @param address the address
+     * @return this exporter
+     */
+    public PrometheusExporter serve(@NotNull InetSocketAddress address) {
+        this.address = address;
+        return this;
+    }
+
+    /**
+     * 将指标写入到指定文件中，例如供 node_exporter 的 textfile 收集器读取。
+     * <p>
+     * Write the metrics to the specified file, such as for the textfile collector of node_exporter.
+     *
+     * @param file the file
+     * @return this exporter
+     */
+    public PrometheusExporter writeTo(@NotNull Path file) {
+        this.file = file;
+        return this;
+    }
+
+    /**
+     * 添加一个需要导出使用情况的游戏实例池。
+     * <p>
+     * Add a game pool whose usage should be exported.
+     *
+     * @param name       the name of the pool
+     * @param autoscaler the pool
+     * @return this exporter
+     */
+    public PrometheusExporter addPool(@NotNull String name, @NotNull GameAutoscaler autoscaler) {
+        pools.put(name, autoscaler);
+        return this;
+    }
+
+    /**
+     * 获取 HTTP 端点实际监听的端口。
+     * <p>
+     * Get the port the HTTP endpoint actually listens on.
+     *
+     * @return the port, or {@code -1} if not serving
+     */
+    public int getPort() {
+        val server = this.server;
+        return server == null ? -1 : server.getLocalPort();
+    }
+
+    @Override
+    public void init() {
+        if (address != null) {
+            try {
+                val server = new ServerSocket();
+                server.bind(address);
+                this.server = server;
+                val acceptor = new Thread(() -> accept(server), "GameSenseLib Prometheus Exporter");
+                acceptor.setDaemon(true);
+                acceptor.start();
+            } catch (IOException e) {
+                plugin.getLogger().log(Level.SEVERE, "Unable to serve metrics on " + address, e);
+            }
+        }
+        if (file != null) {
+            writer = Executors.newSingleThreadExecutor(runnable -> {
+                val thread = new Thread(runnable, "GameSenseLib Prometheus Writer");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        val scheduler = this.scheduler == null ? ITickScheduler.global(plugin) : this.scheduler;
+        renderTask = scheduler.runTimer(this::render, 0, intervalTicks);
+    }
+
+    @Override
+    public void destroy() {
+        if (renderTask != null) renderTask.cancel();
+        renderTask = null;
+        if (writer != null) writer.shutdown();
+        writer = null;
+        writePending.set(false);
+        if (server != null) {
+            try {
+                server.close();
+            } catch (IOException ignored) {
+            }
+        }
+        server = null;
+    }
+
+    private void render() {
+        back.clear();
+        render(back);
+        // if the rendering is being copied, keep the previous rendering and swap next time
+        if (!lock.tryLock()) return;
+        try {
+            val rendered = back;
+            back = front;
+            front = rendered;
+        } finally {
+            lock.unlock();
+        }
+        val writer = this.writer;
+        if (writer != null && writePending.compareAndSet(false, true)) writer.execute(this::writeFile);
+    }
+
+    private void render(@NotNull MetricsBuffer out) {
+        family(out, "gamesenselib_games", "gauge", "Number of live game instances.");
+        out.append("gamesenselib_games ").append(GameRegistry.getGameCount()).append('\n');
+
+        family(out, "gamesenselib_players", "gauge", "Number of players in live game instances.");
+        out.append("gamesenselib_players ").append(GameRegistry.getPlayerCount()).append('\n');
+
+        val games = GameRegistry.getGames();
+        family(out, "gamesenselib_game_players", "gauge", "Number of players in the game instance.");
+        for (AbstractGame game : games) gameSample(out, "gamesenselib_game_players", game).append(game.getPlayerCount()).append('\n');
+        family(out, "gamesenselib_game_flow_pointer", "gauge", "Priority of the current flow of the game instance.");
+        for (AbstractGame game : games) gameSample(out, "gamesenselib_game_flow_pointer", game).append(game.getFlowManager().getPointer()).append('\n');
+        family(out, "gamesenselib_game_tick_seconds", "gauge", "Average cost of a single tick of the game instance.");
+        for (AbstractGame game : games) gameSample(out, "gamesenselib_game_tick_seconds", game).appendSeconds(game.getAverageTickNanos()).append('\n');
+        family(out, "gamesenselib_game_offline_queue_depth", "gauge", "Number of operations waiting for players of the game instance to be online.");
+        for (AbstractGame game : games) gameSample(out, "gamesenselib_game_offline_queue_depth", game).append(game.getOfflineQueueDepth()).append('\n');
+        family(out, "gamesenselib_game_hibernating", "gauge", "Whether the game instance is hibernating.");
+        for (AbstractGame game : games) gameSample(out, "gamesenselib_game_hibernating", game).append(game.isHibernating() ? 1 : 0).append('\n');
+
+        family(out, "gamesenselib_tick_seconds", "histogram", "Cost of a single tick of all game instances.");
+        histogram(out, "gamesenselib_tick_seconds", null, null, GameRegistry.getTickHistogram());
+
+        family(out, "gamesenselib_player_lifecycle_seconds", "histogram", "Cost of a stage of players joining or quitting games.");
+        for (Map.Entry<LifecycleStage, LogLinearHistogram> entry : LifecycleTracer.global().getHistograms().entrySet()) {
+            histogram(out, "gamesenselib_player_lifecycle_seconds", "stage", entry.getKey().getKey(), entry.getValue());
+        }
+
+        val events = EventBusMetrics.global().getEventHistograms();
+        family(out, "gamesenselib_event_posts_total", "counter", "Number of game event posts.");
+        for (Map.Entry<Class<?>, LogLinearHistogram> entry : events.entrySet()) {
+            out.append("gamesenselib_event_posts_total{event=\"").appendLabelValue(entry.getKey().getName()).append("\"} ")
+                    .append(entry.getValue().getCount()).append('\n');
+        }
+        family(out, "gamesenselib_event_dispatch_seconds", "histogram", "Cost of dispatching a game event.");
+        for (Map.Entry<Class<?>, LogLinearHistogram> entry : events.entrySet()) {
+            histogram(out, "gamesenselib_event_dispatch_seconds", "event", entry.getKey().getName(), entry.getValue());
+        }
+
+        family(out, "gamesenselib_pool_games", "gauge", "Number of game instances managed by the pool.");
+        for (Map.Entry<String, GameAutoscaler> entry : pools.entrySet()) poolSample(out, "gamesenselib_pool_games", entry.getKey()).append(entry.getValue().getGameCount()).append('\n');
+        family(out, "gamesenselib_pool_max_games", "gauge", "Maximum number of game instances managed by the pool.");
+        for (Map.Entry<String, GameAutoscaler> entry : pools.entrySet()) poolSample(out, "gamesenselib_pool_max_games", entry.getKey()).append(entry.getValue().getMaxGames()).append('\n');
+        family(out, "gamesenselib_pool_queued_players", "gauge", "Number of players waiting for a game instance of the pool.");
+        for (Map.Entry<String, GameAutoscaler> entry : pools.entrySet()) poolSample(out, "gamesenselib_pool_queued_players", entry.getKey()).append(entry.getValue().getQueuedPlayerCount()).append('\n');
+    }
+
+    private static void family(@NotNull MetricsBuffer out, @NotNull String name, @NotNull String type, @NotNull String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    @NotNull
+    private static MetricsBuffer gameSample(@NotNull MetricsBuffer out, @NotNull String name, @NotNull AbstractGame game) {
+        return out.append(name).append("{game=\"").append(game.getId()).append("\",type=\"").appendLabelValue(game.getType()).append("\"} ");
+    }
+
+    @NotNull
+    private static MetricsBuffer poolSample(@NotNull MetricsBuffer out, @NotNull String name, @NotNull String pool) {
+        return out.append(name).append("{pool=\"").appendLabelValue(pool).append("\"} ");
+    }
+
+    private static void histogram(@NotNull MetricsBuffer out, @NotNull String name,
+                                  @Nullable String label, @Nullable String value,
+                                  @NotNull LogLinearHistogram histogram) {
+        for (long bound : BUCKET_BOUNDS_NANOS) {
+            out.append(name).append("_bucket{");
+            if (label != null && value != null) out.append(label).append("=\"").appendLabelValue(value).append("\",");
+            out.append("le=\"").appendSeconds(bound).append("\"} ").append(histogram.getCountAtOrBelow(bound)).append('\n');
+        }
+        out.append(name).append("_bucket{");
+        if (label != null && value != null) out.append(label).append("=\"").appendLabelValue(value).append("\",");
+        out.append("le=\"+Inf\"} ").append(histogram.getCount()).append('\n');
+        labelled(out, name + "_sum", label, value).appendSeconds(histogram.getSum()).append('\n');
+        labelled(out, name + "_count", label, value).append(histogram.getCount()).append('\n');
+    }
+
+    @NotNull
+    private static MetricsBuffer labelled(@NotNull MetricsBuffer out, @NotNull String name, @Nullable String label, @Nullable String value) {
+        out.append(name);
+        if (label != null && value != null) out.append('{').append(label).append("=\"").appendLabelValue(value).append('"').append('}');
+        return out.append(' ');
+    }
+
+    private void writeFile() {
+        writePending.set(false);
+        val file = this.file;
+        if (file == null) return;
+        val temp = file.resolveSibling(file.getFileName() + ".tmp");
+        // only the writer thread writes the file, renderings swapped meanwhile are picked up by the next write
+        copyFront(fileCopy);
+        try (OutputStream out = Files.newOutputStream(temp)) {
+            fileCopy.writeTo(out);
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Unable to write metrics to " + temp, e);
+            return;
+        }
+        try {
+            try {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            plugin.getLogger().log(Level.WARNING, "Unable to write metrics to " + file, e);
+        }
+    }
+
+    private void accept(@NotNull ServerSocket server) {
+        val request = new byte[1024];
+        val header = new MetricsBuffer();
+        val body = new MetricsBuffer();
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                socket.setSoTimeout(SOCKET_TIMEOUT_MILLIS);
+                skipRequest(socket.getInputStream(), request);
+                // copy the rendering out, so a slow scraper never holds the lock while the socket is written
+                copyFront(body);
+                header.clear();
+                header.append("HTTP/1.1 200 OK\r\n")
+                        .append("Content-Type: text/plain; version=0.0.4; charset=utf-8\r\n")
+                        .append("Content-Length: ").append(body.size()).append("\r\n")
+                        .append("Connection: close\r\n\r\n");
+                val out = socket.getOutputStream();
+                header.writeTo(out);
+                body.writeTo(out);
+                out.flush();
+            } catch (IOException e) {
+                // a broken scrape, or the server is closed
+            }
+        }
+    }
+
+    /**
+     * 在锁内将最近一次渲染的结果复制到指定缓冲区中，锁仅在复制期间被持有。
+     * <p>
+     * Copy the latest rendering into the specified buffer under the lock, which is only held while copying.
+     */
+    private void copyFront(@NotNull MetricsBuffer copy) {
+        lock.lock();
+        try {
+            copy.copyFrom(front);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * 读取并丢弃请求头，所有请求均会得到指标作为响应。
+     * <p>
+     * Read and discard the request header, every request is responded with the metrics.
+     */
+    private static void skipRequest(@NotNull InputStream in, byte[] buffer) throws IOException {
+        int matched = 0;
+        int read = 0;
+        while (read < buffer.length) {
+            val b = in.read();
+            if (b < 0) return;
+            read++;
+            // look for the blank line ending the header
+            matched = (b == '\r' || b == '\n') ? matched + 1 : 0;
+            if (matched == 4 || (matched == 2 && b == '\n' && buffer[read - 2] == '\n')) return;
+            buffer[read - 1] = (byte) b;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package io.hikarilan.gamesenselib.timings;
+
+import lombok.val;
+
+/**
+ * 用于控制 tick 耗时统计的全局开关。
+ * <br/>
+ * 统计默认关闭，关闭时每次 tick 仅需读取一次该开关；
+ * 开启后将记录每个游戏实例、每个已安装模块类及每个当前阶段的 tick 耗时，可通过
+ * {@link io.hikarilan.gamesenselib.games.AbstractGame#getTimings()} 查询。
+ * <br/>
+ * 开启统计时将测量单次统计本身的开销，可通过 {@link #getOverheadNanos()} 获取，用于评估统计结果。
+ * <p>
+ * The global switch controlling the tick cost instrumentation.
+ * <br/>
+ * The instrumentation is disabled by default, only one read of this switch is required per tick when disabled;
+ * Once enabled, the tick cost of every game instance, every installed module class and every current phase will be recorded,
+ * which can be queried through {@link io.hikarilan.gamesenselib.games.AbstractGame#getTimings()}.
+ * <br/>
+ * The overhead of a single measurement is calibrated when enabling the instrumentation,
+ * it can be obtained by {@link #getOverheadNanos()} to evaluate the results.
+ *
+ * @see GameTimings
+ */
+@SuppressWarnings("unused")
+public class TickTimings {
+
+    /**
+     * 每个耗时窗口保留的样本数，以 20 Hz 计约为 10 秒。
+     * <p>
+     * The number of samples each window keeps, about 10 seconds at 20 Hz.
+     */
+    public static final int WINDOW_SIZE = 200;
+
+    private static final int CALIBRATION_ROUNDS = 100_000;
+
+    private static volatile boolean enabled;
+
+    private static volatile long overheadNanos = -1;
+
+    /**
+     * 检查 tick 耗时统计是否已开启。
+     * <p>
+     * Check whether the tick cost instrumentation is enabled.
+     *
+     * @return {@code true} if enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 开启或关闭 tick 耗时统计。
+     * <br/>
+     * 首次开启时将进行一次开销测量，这可能会花费数毫秒。
+     * <p>
+     * Enable or disable the tick cost instrumentation.
+     * <br/>
+     * The overhead will be calibrated when enabling for the first time, which may take several milliseconds.
+     *
+     * @param enabled whether to enable
+     */
+    public static void setEnabled(boolean enabled) {
+        if (enabled && overheadNanos < 0) calibrate();
+        TickTimings.enabled = enabled;
+    }
+
+    /**
+     * 获取单次统计的平均开销（纳秒），即一对时间戳读取及一次样本记录的耗时。
+     * <p>
+     * Get the average overhead of a single measurement in nanoseconds,
+     * i.e. the cost of a pair of timestamp reads and a sample recording.
+     *
+     * @return the overhead, or {@code -1} if not calibrated yet
+     */
+    public static long getOverheadNanos() {
+        return overheadNanos;
+    }
+
+    /**
+     * 测量单次统计的平均开销。
+     * <p>
+     * Calibrate the average overhead of a single measurement.
+     *
+     * @return the overhead in nanoseconds
+     */
+    public static long calibrate() {
+        val scratch = new TimingWindow(WINDOW_SIZE);
+        // warm up so that the measured path is compiled
+        measure(scratch, CALIBRATION_ROUNDS);
+        val start = System.nanoTime();
+        measure(scratch, CALIBRATION_ROUNDS);
+        val overhead = (System.nanoTime() - start) / CALIBRATION_ROUNDS;
+        overheadNanos = overhead;
+        return overhead;
+    }
+
+    private static void measure(TimingWindow window, int rounds) {
+        for (int i = 0; i < rounds; i++) {
+            val start = System.nanoTime();
+            window.record(System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package io.hikarilan.gamesenselib.timings;
+
+import lombok.Value;
+
+/**
+ * 代表一个 {@link TimingWindow} 在某一时刻的统计快照，所有耗时单位均为纳秒。
+ * <p>
+ * Represents a statistical snapshot of a {@link TimingWindow} at a moment, all costs are in nanoseconds.
+ */
+@Value
+public class TimingSnapshot {
+
+    /**
+     * 空快照，表示尚未记录任何样本。
+     * <p>
+     * The empty snapshot, representing no sample recorded yet.
+     */
+    public static final TimingSnapshot EMPTY = new TimingSnapshot(0, 0, 0, 0, 0);
+
+    /**
+     * 快照中包含的样本数。
+     * <p>
+     * The number of samples in the snapshot.
+     */
+    int samples;
+
+    /**
+     * 平均耗时。
+     * <p>
+     * The mean cost.
+     */
+    long meanNanos;
+
+    /**
+     * 耗时的中位数（第 50 百分位数）。
+     * <p>
+     * The median (50th percentile) cost.
+     */
+    long p50Nanos;
+
+    /**
+     * 耗时的第 99 百分位数。
+     * <p>
+     * The 99th percentile cost.
+     */
+    long p99Nanos;
+
+    /**
+     * 最大耗时。
+     * <p>
+     * The max cost.
+     */
+    long maxNanos;
+
+}
@@ -0,0 +1,88 @@
+package io.hikarilan.gamesenselib.timings;
+
+import lombok.val;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * 代表一个滚动的耗时窗口，仅保留最近记录的固定数量的样本。
+ * <br/>
+ * 记录样本不会分配任何内存；百分位数仅在获取快照时计算。
+ * 样本应当仅在一个线程中被记录，快照可在任意线程中获取，但在记录的同时获取的快照可能是近似的。
+ * <p>
+ * Represents a rolling cost window, keeping only a fixed number of the most recently recorded samples.
+ * <br/>
+ * Recording a sample allocates nothing; percentiles are only computed when taking a snapshot.
+ * Samples should be recorded from a single thread, snapshots can be taken from any thread,
+ * but a snapshot taken while recording may be approximate.
+ */
+public class TimingWindow {
+
+    private final long[] samples;
+
+    private int cursor;
+
+    private long count;
+
+    /**
+     * 创建一个耗时窗口。
+     * <p>
+     * Create a cost window.
+     *
+     * @param size the number of samples to keep
+     * @throws IllegalArgumentException if size is not positive
+     */
+    public TimingWindow(int size) {
+        if (size <= 0) throw new IllegalArgumentException("The size of the window should be positive.");
+        this.samples = new long[size];
+    }
+
+    /**
+     * 记录一个样本。
+     * <p>
+     * Record a sample.
+     *
+     * @param nanos the cost in nanoseconds
+     */
+    public void record(long nanos) {
+        samples[cursor] = nanos;
+        if (++cursor == samples.length) cursor = 0;
+        count++;
+    }
+
+    /**
+     * 获取该窗口当前的统计快照。
+     * <p>
+     * Get the current statistical snapshot of this window.
+     *
+     * @return the snapshot
+     */
+    @NotNull
+    public TimingSnapshot snapshot() {
+        val size = (int) Math.min(count, samples.length);
+        if (size == 0) return TimingSnapshot.EMPTY;
+
+        // the first {@code size} slots are always filled
+        val sorted = Arrays.copyOf(samples, size);
+        Arrays.sort(sorted);
+        long sum = 0;
+        for (long sample : sorted) sum += sample;
+        return new TimingSnapshot(size, sum / size, percentile(sorted, 50), percentile(sorted, 99), sorted[size - 1]);
+    }
+
+    /**
+     * 清空该窗口中的所有样本。
+     * <p>
+     * Clear all samples in this window.
+     */
+    public void reset() {
+        cursor = 0;
+        count = 0;
+    }
+
+    private static long percentile(long[] sorted, int percent) {
+        // nearest-rank
+        return sorted[Math.max(0, (sorted.length * percent + 99) / 100 - 1)];
+    }
+}
@@ -5,6 +5,8 @@ import java.time.Duration;
 @SuppressWarnings("unused")
 public class Durations {
 
+    private static final long MILLIS_PER_TICK = 50;
+
     /**
      * 将一个 {@link Duration} 转换为 tick。
      * <br/>
@@ -17,7 +19,7 @@ public class Durations {
      * @return tick from the duration
      */
     public static long toTick(Duration duration) {
-        return duration.toMillis() / 1000 * 20;
+        return duration.toMillis() / MILLIS_PER_TICK;
     }
 
     /**
@@ -28,7 +30,7 @@ public class Durations {
      * @return duration from the tick
      */
     public static Duration ofTick(long tick) {
-        return Duration.ofMillis(tick / 20 * 1000);
+        return Duration.ofMillis(tick * MILLIS_PER_TICK);
     }
 
 
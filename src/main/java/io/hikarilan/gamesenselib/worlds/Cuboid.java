@@ -0,0 +1,64 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Objects;
+
+/**
+ * 代表一个长方体区域。
+ * <p>
+ * Represents a cuboid region.
+ */
+@SuppressWarnings("unused")
+@Getter
+@ToString
+public class Cuboid implements Region {
+
+    @NotNull
+    private final World world;
+
+    private final int minX, minY, minZ, maxX, maxY, maxZ;
+
+    /**
+     * 以两个对角方块坐标创建一个长方体区域，坐标顺序无关。
+     * <p>
+     * Create a cuboid region by two opposite block coordinates, in any order.
+     */
+    public Cuboid(@NotNull World world, int x1, int y1, int z1, int x2, int y2, int z2) {
+        this.world = world;
+        this.minX = Math.min(x1, x2);
+        this.minY = Math.min(y1, y2);
+        this.minZ = Math.min(z1, z2);
+        this.maxX = Math.max(x1, x2);
+        this.maxY = Math.max(y1, y2);
+        this.maxZ = Math.max(z1, z2);
+    }
+
+    /**
+     * 以两个对角位置创建一个长方体区域。
+     * <p>
+     * Create a cuboid region by two opposite locations.
+     *
+     * @param a a corner
+     * @param b the opposite corner
+     * @return the cuboid
+     * @throws IllegalArgumentException if the locations are not in the same world
+     */
+    @NotNull
+    public static Cuboid of(@NotNull Location a, @NotNull Location b) {
+        if (a.getWorld() == null || a.getWorld() != b.getWorld())
+            throw new IllegalArgumentException("The corners must be in the same world.");
+        return new Cuboid(Objects.requireNonNull(a.getWorld()),
+                a.getBlockX(), a.getBlockY(), a.getBlockZ(),
+                b.getBlockX(), b.getBlockY(), b.getBlockZ());
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+}
@@ -0,0 +1,60 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 代表一个绑定到区域的成员关系监听者，通常为一个以区域为边界的游戏实例的玩家加入模块。
+ * <p>
+ * Represents a listener of membership bound to a region,
+ * usually the player join module of a game instance bounded by a region.
+ *
+ * @see RegionMembershipTracker
+ */
+public interface IRegionMember {
+
+    /**
+     * 在玩家从区域外进入该区域前调用，此时玩家尚未离开其原先所在的区域。
+     * <br/>
+     * 该方法仅应进行不改变任何状态的预先检查（例如游戏实例是否已满），以免玩家在进入被拒绝前就已离开原先的游戏实例。
+     * <p>
+     * Called before a player enters the region from outside, while the player has not left the previous region yet.
+     * <br/>
+     * This method should only do pre-checks changing no state (such as whether the game instance is full),
+     * so that the player does not leave the previous game instance before the entry is denied.
+     *
+     * @param player the player
+     * @param region the region
+     * @return {@code false} to deny the entry
+     */
+    default boolean canEnterRegion(@NotNull Player player, @NotNull Region region) {
+        return true;
+    }
+
+    /**
+     * 当玩家从区域外进入，或登录到该区域时调用。
+     * <br/>
+     * 玩家跨越相邻区域时，该方法将在原先区域的 {@link #onLeaveRegion(Player, Region)} 之后调用。
+     * <p>
+     * Called when a player enters the region from outside, or logs into the region.
+     * <br/>
+     * When a player crosses between adjacent regions,
+     * this method is called after {@link #onLeaveRegion(Player, Region)} of the previous region.
+     *
+     * @param player the player
+     * @param region the region
+     * @param login  whether the player logs, respawns or is sent back into the region, in which case the entry cannot be denied
+     * @return {@code false} to deny the entry
+     */
+    boolean onEnterRegion(@NotNull Player player, @NotNull Region region, boolean login);
+
+    /**
+     * 当玩家离开该区域时调用。
+     * <p>
+     * Called when a player leaves the region.
+     *
+     * @param player the player
+     * @param region the region
+     */
+    void onLeaveRegion(@NotNull Player player, @NotNull Region region);
+}
@@ -0,0 +1,61 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 代表一个绑定到世界的成员关系监听者，通常为一个以世界为边界的游戏实例的玩家加入模块。
+ * <p>
+ * Represents a listener of membership bound to a world,
+ * usually the player join module of a game instance bounded by a world.
+ *
+ * @see WorldMembershipTracker
+ */
+public interface IWorldMember {
+
+    /**
+     * 在玩家从其他世界进入该世界前调用，此时绑定到该世界的所有成员都将被询问，之后才会调用任何成员的 {@link #onEnterWorld(Player, World, boolean)}。
+     * <br/>
+     * 该方法仅应进行不改变任何状态的预先检查（例如游戏实例是否已满），以免玩家在其他成员拒绝进入前就已加入游戏实例。
+     * <p>
+     * Called before a player enters the world from another world,
+     * all members bound to the world are asked before {@link #onEnterWorld(Player, World, boolean)} of any member is called.
+     * <br/>
+     * This method should only do pre-checks changing no state (such as whether the game instance is full),
+     * so that the player does not join a game instance before another member denies the entry.
+     *
+     * @param player the player
+     * @param world  the world
+     * @return {@code false} to deny the entry
+     */
+    default boolean canEnterWorld(@NotNull Player player, @NotNull World world) {
+        return true;
+    }
+
+    /**
+     * 当玩家从其他世界进入，或登录到该世界时调用。
+     * <br/>
+     * 如果之后的成员仍拒绝进入，已允许进入的成员将被调用 {@link #onLeaveWorld(Player, World)}。
+     * <p>
+     * Called when a player enters the world from another world, or logs into the world.
+     * <br/>
+     * If a later member still denies the entry, {@link #onLeaveWorld(Player, World)} is called on the members having allowed it.
+     *
+     * @param player the player
+     * @param world  the world
+     * @param login  whether the player logs into the world, in which case the entry cannot be denied
+     * @return {@code false} to deny the entry
+     */
+    boolean onEnterWorld(@NotNull Player player, @NotNull World world, boolean login);
+
+    /**
+     * 当玩家离开该世界前往其他世界时调用。
+     * <p>
+     * Called when a player leaves the world for another world.
+     *
+     * @param player the player
+     * @param world  the world
+     */
+    void onLeaveWorld(@NotNull Player player, @NotNull World world);
+}
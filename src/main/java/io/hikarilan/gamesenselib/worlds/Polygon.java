@@ -0,0 +1,106 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+
+/**
+ * 代表一个在垂直方向上拉伸的多边形区域。
+ * <br/>
+ * 多边形的顶点以方块坐标给出，一个方块被包含当且仅当其坐标位于多边形内或其边上且其高度位于范围内，
+ * 因此与 {@link Cuboid} 一致，边界上的方块（包括最大 X 与 Z 坐标上的方块）同样被包含。
+ * <p>
+ * Represents a polygon region extruded vertically.
+ * <br/>
+ * The vertices of the polygon are given in block coordinates,
+ * a block is contained if and only if its coordinates are inside or on an edge of the polygon and its height is within the range,
+ * so consistent with {@link Cuboid}, the blocks on the boundary (including the ones at the maximum X and Z coordinates) are contained as well.
+ */
+@SuppressWarnings("unused")
+@Getter
+@ToString
+public class Polygon implements Region {
+
+    @NotNull
+    private final World world;
+
+    private final int minY, maxY;
+
+    @ToString.Exclude
+    private final int[] xs, zs;
+
+    private final int minX, maxX, minZ, maxZ;
+
+    /**
+     * 创建一个多边形区域。
+     * <p>
+     * Create a polygon region.
+     *
+     * @param world the world
+     * @param minY  the minimum Y block coordinate
+     * @param maxY  the maximum Y block coordinate
+     * @param xs    the X block coordinates of the vertices
+     * @param zs    the Z block coordinates of the vertices
+     * @throws IllegalArgumentException if there are less than 3 vertices, or the coordinates do not match
+     */
+    public Polygon(@NotNull World world, int minY, int maxY, @NotNull int[] xs, @NotNull int[] zs) {
+        if (xs.length != zs.length) throw new IllegalArgumentException("The X and Z coordinates do not match.");
+        if (xs.length < 3) throw new IllegalArgumentException("A polygon requires at least 3 vertices.");
+        this.world = world;
+        this.minY = Math.min(minY, maxY);
+        this.maxY = Math.max(minY, maxY);
+        this.xs = xs.clone();
+        this.zs = zs.clone();
+        this.minX = Arrays.stream(xs).min().getAsInt();
+        this.maxX = Arrays.stream(xs).max().getAsInt();
+        this.minZ = Arrays.stream(zs).min().getAsInt();
+        this.maxZ = Arrays.stream(zs).max().getAsInt();
+    }
+
+    /**
+     * 获取顶点的 X 坐标。
+     * <p>
+     * Get the X coordinates of the vertices.
+     *
+     * @return a copy of the X block coordinates
+     */
+    public int[] getXs() {
+        return xs.clone();
+    }
+
+    /**
+     * 获取顶点的 Z 坐标。
+     * <p>
+     * Get the Z coordinates of the vertices.
+     *
+     * @return a copy of the Z block coordinates
+     */
+    public int[] getZs() {
+        return zs.clone();
+    }
+
+    @Override
+    public boolean contains(int x, int y, int z) {
+        if (y < minY || y > maxY || x < minX || x > maxX || z < minZ || z > maxZ) return false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if (onEdge(x, z, xs[j], zs[j], xs[i], zs[i])) return true;
+        }
+        // even-odd ray casting, the point is not on any edge
+        boolean inside = false;
+        for (int i = 0, j = xs.length - 1; i < xs.length; j = i++) {
+            if ((zs[i] > z) != (zs[j] > z)
+                    && x < (double) (xs[j] - xs[i]) * (z - zs[i]) / (zs[j] - zs[i]) + xs[i]) {
+                inside = !inside;
+            }
+        }
+        return inside;
+    }
+
+    private static boolean onEdge(int x, int z, int x1, int z1, int x2, int z2) {
+        if (x < Math.min(x1, x2) || x > Math.max(x1, x2) || z < Math.min(z1, z2) || z > Math.max(z1, z2)) return false;
+        return (long) (x2 - x1) * (z - z1) == (long) (z2 - z1) * (x - x1);
+    }
+}
@@ -0,0 +1,87 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import org.bukkit.Location;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 代表世界中的一个区域，区域以方块坐标描述，边界均为闭区间。
+ * <p>
+ * Represents a region in a world, described in block coordinates with inclusive bounds.
+ *
+ * @see Cuboid
+ * @see Polygon
+ * @see RegionIndex
+ */
+public interface Region {
+
+    /**
+     * 获取区域所在的世界。
+     * <p>
+     * Get the world the region is in.
+     *
+     * @return the world
+     */
+    @NotNull
+    World getWorld();
+
+    /**
+     * 获取区域水平包围盒的最小 X 坐标。
+     * <p>
+     * Get the minimum X coordinate of the horizontal bounding box of the region.
+     *
+     * @return the minimum X block coordinate
+     */
+    int getMinX();
+
+    /**
+     * 获取区域水平包围盒的最大 X 坐标。
+     * <p>
+     * Get the maximum X coordinate of the horizontal bounding box of the region.
+     *
+     * @return the maximum X block coordinate
+     */
+    int getMaxX();
+
+    /**
+     * 获取区域水平包围盒的最小 Z 坐标。
+     * <p>
+     * Get the minimum Z coordinate of the horizontal bounding box of the region.
+     *
+     * @return the minimum Z block coordinate
+     */
+    int getMinZ();
+
+    /**
+     * 获取区域水平包围盒的最大 Z 坐标。
+     * <p>
+     * Get the maximum Z coordinate of the horizontal bounding box of the region.
+     *
+     * @return the maximum Z block coordinate
+     */
+    int getMaxZ();
+
+    /**
+     * 查询区域是否包含指定方块坐标，不检查世界。
+     * <p>
+     * Check whether the region contains the specified block coordinates, without checking the world.
+     *
+     * @param x the X block coordinate
+     * @param y the Y block coordinate
+     * @param z the Z block coordinate
+     * @return {@code true} if contained
+     */
+    boolean contains(int x, int y, int z);
+
+    /**
+     * 查询区域是否包含指定位置。
+     * <p>
+     * Check whether the region contains the specified location.
+     *
+     * @param location the location
+     * @return {@code true} if contained
+     */
+    default boolean contains(@NotNull Location location) {
+        return location.getWorld() == getWorld() && contains(location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+}
@@ -0,0 +1,148 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 以区块网格为索引的区域空间索引。
+ * <br/>
+ * 每个区域会被登记到其水平包围盒覆盖的所有区块中，因此查询一个方块坐标所在的区域只需一次哈希查找，
+ * 再检查该区块中登记的少量区域，与区域总数无关。
+ * <br/>
+ * 该类不是线程安全的。
+ * <p>
+ * Spatial index of regions indexed by a chunk grid.
+ * <br/>
+ * Every region is registered into all chunks covered by its horizontal bounding box,
+ * so looking up the region containing a block coordinate only takes a single hash lookup
+ * followed by checking the few regions registered in that chunk, regardless of the total number of regions.
+ * <br/>
+ * This class is not thread-safe.
+ *
+ * @param <T> the type of the values bound to regions
+ */
+@SuppressWarnings("unused")
+public class RegionIndex<T> {
+
+    /**
+     * 每个世界中每个区块登记的区域，按世界的唯一标识符及区块键索引。
+     * <p>
+     * Regions registered in every chunk of every world, indexed by the unique identifier of the world and the chunk key.
+     */
+    private final Map<UUID, Map<Long, List<Entry<T>>>> chunks = Maps.newHashMap();
+
+    private int size;
+
+    /**
+     * 添加一个区域及其绑定的值。
+     * <p>
+     * Add a region and the value bound to it.
+     *
+     * @param region the region
+     * @param value  the value
+     */
+    public void add(@NotNull Region region, @NotNull T value) {
+        val entry = new Entry<T>(region, value);
+        val grid = chunks.computeIfAbsent(region.getWorld().getUID(), it -> Maps.newHashMap());
+        for (int cx = region.getMinX() >> 4; cx <= region.getMaxX() >> 4; cx++) {
+            for (int cz = region.getMinZ() >> 4; cz <= region.getMaxZ() >> 4; cz++) {
+                grid.computeIfAbsent(key(cx, cz), it -> Lists.newArrayListWithCapacity(1)).add(entry);
+            }
+        }
+        size++;
+    }
+
+    /**
+     * 移除一个区域及其绑定的值。
+     * <p>
+     * Remove a region and the value bound to it.
+     *
+     * @param region the region
+     * @param value  the value
+     * @return {@code true} if removed
+     */
+    public boolean remove(@NotNull Region region, @NotNull T value) {
+        val grid = chunks.get(region.getWorld().getUID());
+        if (grid == null) return false;
+        boolean removed = false;
+        for (int cx = region.getMinX() >> 4; cx <= region.getMaxX() >> 4; cx++) {
+            for (int cz = region.getMinZ() >> 4; cz <= region.getMaxZ() >> 4; cz++) {
+                val key = key(cx, cz);
+                val entries = grid.get(key);
+                if (entries == null) continue;
+                removed |= entries.removeIf(it -> it.region == region && it.value.equals(value));
+                if (entries.isEmpty()) grid.remove(key);
+            }
+        }
+        if (grid.isEmpty()) chunks.remove(region.getWorld().getUID());
+        if (removed) size--;
+        return removed;
+    }
+
+    /**
+     * 查找包含指定方块坐标的第一个区域所绑定的值。
+     * <p>
+     * Find the value bound to the first region containing the specified block coordinates.
+     *
+     * @param world the world
+     * @param x     the X block coordinate
+     * @param y     the Y block coordinate
+     * @param z     the Z block coordinate
+     * @return the value, or {@code null} if no region contains the coordinates
+     */
+    @Nullable
+    public T find(@NotNull World world, int x, int y, int z) {
+        val grid = chunks.get(world.getUID());
+        if (grid == null) return null;
+        val entries = grid.get(key(x >> 4, z >> 4));
+        if (entries == null) return null;
+        for (int i = 0; i < entries.size(); i++) {
+            val entry = entries.get(i);
+            if (entry.region.contains(x, y, z)) return entry.value;
+        }
+        return null;
+    }
+
+    /**
+     * 获取已添加的区域数。
+     * <p>
+     * Get the number of regions added.
+     *
+     * @return the number of regions
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * 查询索引是否为空。
+     * <p>
+     * Check whether the index is empty.
+     *
+     * @return {@code true} if empty
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private static long key(int chunkX, int chunkZ) {
+        return ((long) chunkX << 32) | (chunkZ & 0xFFFFFFFFL);
+    }
+
+    @RequiredArgsConstructor
+    private static class Entry<T> {
+        @NotNull
+        private final Region region;
+        @NotNull
+        private final T value;
+    }
+}
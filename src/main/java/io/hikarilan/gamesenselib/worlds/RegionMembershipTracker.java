@@ -0,0 +1,210 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import com.google.common.collect.Maps;
+import com.google.common.collect.Sets;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.Location;
+import org.bukkit.entity.Entity;
+import org.bukkit.entity.Player;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerMoveEvent;
+import org.bukkit.event.player.PlayerRespawnEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.vehicle.VehicleMoveEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * 共享的区域成员关系追踪器。
+ * <br/>
+ * 每个插件仅会注册一组 Bukkit 监听器，所有绑定的区域共用一个 {@link RegionIndex}；
+ * 对于每个 {@link PlayerMoveEvent}，未跨越方块的移动将被直接忽略，其余移动仅需两次区块网格查找即可确定玩家进出的区域，
+ * 只有玩家真正跨越区域边界时才会通知成员。
+ * 重生（{@link PlayerRespawnEvent}）及乘坐载具（{@link VehicleMoveEvent}）的移动同样会被追踪。
+ * <br/>
+ * 区域之间不应重叠，重叠部分将被视为属于先绑定的区域。该类的所有方法都应在主线程中调用。
+ * <p>
+ * Shared region membership tracker.
+ * <br/>
+ * Only one set of Bukkit listeners is registered per plugin, and all bound regions share a single {@link RegionIndex};
+ * for every {@link PlayerMoveEvent}, movements within the same block are ignored right away,
+ * and the rest only take two chunk grid lookups to determine the regions the player leaves and enters,
+ * members are notified only when a player actually crosses the boundary of a region.
+ * Movements by respawning ({@link PlayerRespawnEvent}) and riding vehicles ({@link VehicleMoveEvent}) are tracked as well.
+ * <br/>
+ * Regions should not overlap, the overlapping parts are considered to belong to the region bound first.
+ * All methods of this class should be called on the main thread.
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class RegionMembershipTracker implements Listener {
+
+    private static final Map<Plugin, RegionMembershipTracker> TRACKERS = Maps.newHashMap();
+
+    @NotNull
+    private final Plugin plugin;
+
+    private final RegionIndex<Binding> index = new RegionIndex<>();
+
+    /**
+     * 正在被送回原先区域的玩家，他们已重新登录到原先的区域，送回时的传送无需再次处理。
+     * <p>
+     * Players being sent back to the previous region,
+     * they have logged into the previous region again, so the teleport sending them back needs no handling.
+     */
+    private final Set<UUID> sendingBack = Sets.newHashSet();
+
+    /**
+     * 将成员绑定到指定区域。
+     * <p>
+     * Bind a member to the specified region.
+     *
+     * @param plugin the plugin registering the listeners
+     * @param region the region
+     * @param member the member
+     */
+    public static void bind(@NotNull Plugin plugin, @NotNull Region region, @NotNull IRegionMember member) {
+        val tracker = TRACKERS.computeIfAbsent(plugin, it -> {
+            val created = new RegionMembershipTracker(it);
+            it.getServer().getPluginManager().registerEvents(created, it);
+            return created;
+        });
+        tracker.index.add(region, new Binding(region, member));
+    }
+
+    /**
+     * 将成员从指定区域解绑，当插件不再有任何绑定时将注销其监听器。
+     * <p>
+     * Unbind a member from the specified region, the listeners are unregistered when the plugin has no binding anymore.
+     *
+     * @param plugin the plugin registering the listeners
+     * @param region the region
+     * @param member the member
+     */
+    public static void unbind(@NotNull Plugin plugin, @NotNull Region region, @NotNull IRegionMember member) {
+        val tracker = TRACKERS.get(plugin);
+        if (tracker == null) return;
+        tracker.index.remove(region, new Binding(region, member));
+        if (tracker.index.isEmpty()) {
+            HandlerList.unregisterAll(tracker);
+            TRACKERS.remove(plugin);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onPlayerMove(PlayerMoveEvent e) {
+        val from = e.getFrom();
+        val to = e.getTo();
+        if (to == null || sameBlock(from, to)) return;
+        if (!move(e.getPlayer(), from, to)) e.setCancelled(true);
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent e) {
+        if (e.getTo() == null || sendingBack.contains(e.getPlayer().getUniqueId())) return;
+        if (!move(e.getPlayer(), e.getFrom(), e.getTo())) e.setCancelled(true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onPlayerRespawn(PlayerRespawnEvent e) {
+        // a respawn cannot be cancelled, the player is considered logging into the region respawned in
+        val left = find(e.getPlayer().getLocation());
+        val entered = find(e.getRespawnLocation());
+        if (left == entered) return;
+        if (left != null) left.member.onLeaveRegion(e.getPlayer(), left.region);
+        if (entered != null) entered.member.onEnterRegion(e.getPlayer(), entered.region, true);
+    }
+
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onVehicleMove(VehicleMoveEvent e) {
+        val from = e.getFrom();
+        val to = e.getTo();
+        if (sameBlock(from, to)) return;
+        for (Entity passenger : e.getVehicle().getPassengers()) {
+            if (!(passenger instanceof Player) || move((Player) passenger, from, to)) continue;
+            // a vehicle movement cannot be cancelled, the denied player is dismounted and sent back instead
+            e.getVehicle().removePassenger(passenger);
+            sendingBack.add(passenger.getUniqueId());
+            try {
+                passenger.teleport(from);
+            } finally {
+                sendingBack.remove(passenger.getUniqueId());
+            }
+        }
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent e) {
+        val binding = find(e.getPlayer().getLocation());
+        if (binding != null) binding.member.onEnterRegion(e.getPlayer(), binding.region, true);
+    }
+
+    /**
+     * 处理玩家从一个位置到另一个位置的移动。
+     * <br/>
+     * 玩家会先离开原先的区域，再进入新的区域，因此在相邻区域之间移动的玩家不会同时属于两个游戏实例；
+     * 如果新区域在玩家离开后仍拒绝进入，玩家将被视为重新登录到原先的区域。
+     * <p>
+     * Handle a movement of a player from a location to another.
+     * <br/>
+     * The player leaves the previous region before entering the new one,
+     * so a player moving between adjacent regions never belongs to two game instances at once;
+     * if the new region still denies the entry after the player left, the player is considered logging into the previous region again.
+     *
+     * @return {@code false} if the movement should be undone
+     */
+    private boolean move(@NotNull Player player, @NotNull Location from, @NotNull Location to) {
+        val left = find(from);
+        val entered = find(to);
+        if (left == entered) return true;
+        if (entered != null && !entered.member.canEnterRegion(player, entered.region)) return false;
+        if (left != null) left.member.onLeaveRegion(player, left.region);
+        if (entered == null || entered.member.onEnterRegion(player, entered.region, false)) return true;
+        if (left != null) left.member.onEnterRegion(player, left.region, true);
+        return false;
+    }
+
+    private static boolean sameBlock(@NotNull Location from, @NotNull Location to) {
+        // most movements stay in the same block
+        return from.getBlockX() == to.getBlockX() && from.getBlockY() == to.getBlockY()
+                && from.getBlockZ() == to.getBlockZ() && from.getWorld() == to.getWorld();
+    }
+
+    @Nullable
+    private Binding find(@NotNull Location location) {
+        val world = location.getWorld();
+        if (world == null) return null;
+        return index.find(world, location.getBlockX(), location.getBlockY(), location.getBlockZ());
+    }
+
+    @RequiredArgsConstructor
+    private static class Binding {
+        @NotNull
+        private final Region region;
+        @NotNull
+        private final IRegionMember member;
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Binding)) return false;
+            return region == ((Binding) o).region && member == ((Binding) o).member;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(region) + System.identityHashCode(member);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import com.google.common.collect.Lists;
+import com.google.common.collect.Maps;
+import lombok.AccessLevel;
+import lombok.RequiredArgsConstructor;
+import lombok.val;
+import org.bukkit.World;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.HandlerList;
+import org.bukkit.event.Listener;
+import org.bukkit.event.player.PlayerChangedWorldEvent;
+import org.bukkit.event.player.PlayerJoinEvent;
+import org.bukkit.event.player.PlayerTeleportEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.plugin.Plugin;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * 共享的世界成员关系追踪器。
+ * <br/>
+ * 每个插件仅会注册一组 Bukkit 监听器，并按世界将事件分发给绑定到该世界的 {@link IWorldMember}；
+ * 只有玩家真正从其他世界进入（或登录到）绑定的世界时才会通知成员，同一世界内的传送（例如重生、末影珍珠）将被直接忽略。
+ * 进入世界时，所有绑定的成员都将先被询问，只有全部允许后才会被通知进入，因此玩家不会在进入被拒绝时加入任何游戏实例。
+ * 插件被禁用时，其追踪器将被一并移除。
+ * <br/>
+ * 该类的所有方法都应在主线程中调用。
+ * <p>
+ * Shared world membership tracker.
+ * <br/>
+ * Only one set of Bukkit listeners is registered per plugin, dispatching events by world to the {@link IWorldMember}s bound to it;
+ * members are notified only when a player actually enters (or logs into) the bound world from another world,
+ * teleports within the same world (e.g. respawns, ender pearls) are ignored right away.
+ * On entering a world, all bound members are asked first and notified of the entry only once all of them allow it,
+ * so a player never joins any game instance when the entry is denied.
+ * The tracker of a plugin is removed along with it when the plugin is disabled.
+ * <br/>
+ * All methods of this class should be called on the main thread.
+ */
+@SuppressWarnings("unused")
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public class WorldMembershipTracker implements Listener {
+
+    private static final Map<Plugin, WorldMembershipTracker> TRACKERS = Maps.newHashMap();
+
+    @NotNull
+    private final Plugin plugin;
+
+    /**
+     * 绑定到每个世界的成员，按世界的唯一标识符索引。
+     * <p>
+     * Members bound to every world, indexed by the unique identifier of the world.
+     */
+    private final Map<UUID, List<IWorldMember>> members = Maps.newHashMap();
+
+    /**
+     * 将成员绑定到指定世界。
+     * <p>
+     * Bind a member to the specified world.
+     *
+     * @param plugin the plugin registering the listeners
+     * @param world  the world
+     * @param member the member
+     */
+    public static void bind(@NotNull Plugin plugin, @NotNull World world, @NotNull IWorldMember member) {
+        val tracker = TRACKERS.computeIfAbsent(plugin, it -> {
+            val created = new WorldMembershipTracker(it);
+            it.getServer().getPluginManager().registerEvents(created, it);
+            return created;
+        });
+        val bound = tracker.members.computeIfAbsent(world.getUID(), it -> Lists.newArrayListWithCapacity(1));
+        if (!bound.contains(member)) bound.add(member);
+    }
+
+    /**
+     * 将成员从指定世界解绑，当插件不再有任何绑定时将注销其监听器。
+     * <p>
+     * Unbind a member from the specified world, the listeners are unregistered when the plugin has no binding anymore.
+     *
+     * @param plugin the plugin registering the listeners
+     * @param world  the world
+     * @param member the member
+     */
+    public static void unbind(@NotNull Plugin plugin, @NotNull World world, @NotNull IWorldMember member) {
+        val tracker = TRACKERS.get(plugin);
+        if (tracker == null) return;
+        val bound = tracker.members.get(world.getUID());
+        if (bound == null || !bound.remove(member)) return;
+        if (bound.isEmpty()) tracker.members.remove(world.getUID());
+        if (tracker.members.isEmpty()) {
+            HandlerList.unregisterAll(tracker);
+            TRACKERS.remove(plugin);
+        }
+    }
+
+    @EventHandler(priority = EventPriority.NORMAL, ignoreCancelled = true)
+    public void onPlayerTeleport(PlayerTeleportEvent e) {
+        val to = e.getTo();
+        if (to == null) return;
+        val world = to.getWorld();
+        if (world == null || world == e.getFrom().getWorld()) return;
+        val bound = members.get(world.getUID());
+        if (bound == null) return;
+        val player = e.getPlayer();
+        val asked = Lists.newArrayList(bound);
+        for (IWorldMember member : asked) {
+            if (!member.canEnterWorld(player, world)) {
+                e.setCancelled(true);
+                return;
+            }
+        }
+        for (int i = 0; i < asked.size(); i++) {
+            if (asked.get(i).onEnterWorld(player, world, false)) continue;
+            // the members entered so far are left again, the player stays in the previous world
+            for (int j = 0; j < i; j++) asked.get(j).onLeaveWorld(player, world);
+            e.setCancelled(true);
+            return;
+        }
+    }
+
+    @EventHandler
+    public void onPlayerChangedWorld(PlayerChangedWorldEvent e) {
+        val bound = members.get(e.getFrom().getUID());
+        if (bound == null) return;
+        for (IWorldMember member : Lists.newArrayList(bound)) member.onLeaveWorld(e.getPlayer(), e.getFrom());
+    }
+
+    @EventHandler
+    public void onPlayerJoin(PlayerJoinEvent e) {
+        val world = e.getPlayer().getWorld();
+        val bound = members.get(world.getUID());
+        if (bound == null) return;
+        for (IWorldMember member : Lists.newArrayList(bound)) member.onEnterWorld(e.getPlayer(), world, true);
+    }
+
+    @EventHandler
+    public void onPluginDisable(PluginDisableEvent e) {
+        // the listeners are unregistered by Bukkit, the plugin may not have unbound its members
+        if (e.getPlugin() != plugin) return;
+        members.clear();
+        TRACKERS.remove(plugin, this);
+    }
+}
@@ -0,0 +1,43 @@
+package org.greenrobot.eventbus;
+
+import io.hikarilan.gamesenselib.timings.EventBusMetrics;
+import org.jetbrains.annotations.ApiStatus;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * 在开启 {@link EventBusMetrics} 时记录每个订阅者耗时的事件总线。
+ * <br/>
+ * 该类位于事件总线的包中，以便覆盖其包私有的订阅者调用方法；分发本身（优先级、取消分发、订阅者异常及线程模式）仍完全由 {@link EventBus} 完成，
+ * 订阅者无需进行任何修改即可被统计。
+ * <p>
+ * An event bus recording the cost of every subscriber while {@link EventBusMetrics} is enabled.
+ * <br/>
+ * This class lives in the package of the event bus to override its package-private subscriber invocation;
+ * the dispatch itself (priorities, cancelling the delivery, subscriber exceptions and thread modes) is still entirely done by {@link EventBus},
+ * and subscribers are measured without any change to them.
+ */
+@ApiStatus.Internal
+public class MeasuredEventBus extends EventBus {
+
+    @NotNull
+    private final EventBusMetrics metrics;
+
+    public MeasuredEventBus(@NotNull EventBusBuilder builder, @NotNull EventBusMetrics metrics) {
+        super(builder);
+        this.metrics = metrics;
+    }
+
+    @Override
+    void invokeSubscriber(Subscription subscription, Object event) {
+        if (!EventBusMetrics.isEnabled()) {
+            super.invokeSubscriber(subscription, event);
+            return;
+        }
+        final long start = System.nanoTime();
+        try {
+            super.invokeSubscriber(subscription, event);
+        } finally {
+            metrics.recordSubscriber(event.getClass(), subscription.subscriber.getClass(), System.nanoTime() - start);
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package io.hikarilan.gamesenselib;
+
+import com.google.common.collect.Lists;
+import io.hikarilan.gamesenselib.schedulers.ITickScheduler;
+import io.hikarilan.gamesenselib.schedulers.ITickTask;
+import lombok.Getter;
+import lombok.val;
+import org.bukkit.Server;
+import org.bukkit.World;
+import org.bukkit.entity.Player;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.plugin.PluginManager;
+import org.bukkit.scheduler.BukkitScheduler;
+import org.bukkit.scheduler.BukkitTask;
+import org.jetbrains.annotations.NotNull;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+/**
+ * 一个不依赖服务端的最小插件替身，用于测试。
+ * <br/>
+ * 注册监听器将被忽略，重复任务（包括通过 {@link #getTickScheduler()} 调度的）将被记录并可通过 {@link #runTimers()} 手动执行，异步任务将被同步执行。
+ * <p>
+ * A minimal plugin stand-in not depending on any server, used in tests.
+ * <br/>
+ * Registering listeners is ignored, repeating tasks (including the ones scheduled by {@link #getTickScheduler()}) are recorded and can be run manually by {@link #runTimers()},
+ * and asynchronous tasks are run synchronously.
+ */
+public class StubPlugin {
+
+    private final List<Runnable> timers = Lists.newCopyOnWriteArrayList();
+
+    private final BukkitTask task = stub(BukkitTask.class, (method, args) -> null);
+
+    private final BukkitScheduler scheduler = stub(BukkitScheduler.class, (method, args) -> {
+        if (method.getName().equals("runTaskTimer") && args[1] instanceof Runnable) {
+            timers.add((Runnable) args[1]);
+            return task;
+        }
+        if (method.getName().equals("runTaskAsynchronously") && args[1] instanceof Runnable) {
+            ((Runnable) args[1]).run();
+            return task;
+        }
+        return null;
+    });
+
+    @Getter
+    private final ITickScheduler tickScheduler = new ITickScheduler() {
+        @NotNull
+        @Override
+        public ITickTask runTimer(@NotNull Runnable task, long delay, long period) {
+            timers.add(task);
+            return new ITickTask() {
+                private boolean cancelled;
+
+                @Override
+                public void cancel() {
+                    cancelled = timers.remove(task) || cancelled;
+                }
+
+                @Override
+                public boolean isCancelled() {
+                    return cancelled;
+                }
+            };
+        }
+
+        @NotNull
+        @Override
+        public ITickTask runLater(@NotNull Runnable task, long delay) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void execute(@NotNull Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public void executeForPlayer(@NotNull Player player, @NotNull Runnable task) {
+            task.run();
+        }
+
+        @Override
+        public boolean isOwnedByCurrentThread() {
+            return true;
+        }
+    };
+
+    private final PluginManager pluginManager = stub(PluginManager.class, (method, args) -> null);
+
+    private final Server server = stub(Server.class, (method, args) -> {
+        switch (method.getName()) {
+            case "getScheduler":
+                return scheduler;
+            case "getPluginManager":
+                return pluginManager;
+            default:
+                return null;
+        }
+    });
+
+    @Getter
+    private final Plugin plugin;
+
+    public StubPlugin(@NotNull String name) {
+        val logger = Logger.getLogger(name);
+        this.plugin = stub(Plugin.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getServer":
+                    return server;
+                case "getLogger":
+                    return logger;
+                case "getName":
+                    return name;
+                case "isEnabled":
+                    return true;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    /**
+     * 执行一次所有已调度的重复任务。
+     * <p>
+     * Run all scheduled repeating tasks once.
+     *
+     * @return the number of tasks run
+     */
+    public int runTimers() {
+        timers.forEach(Runnable::run);
+        return timers.size();
+    }
+
+    /**
+     * 创建一个世界替身，仅支持获取名称与唯一标识符。
+     * <p>
+     * Create a world stand-in, only supporting getting its name and unique identifier.
+     *
+     * @param name the name of the world
+     * @return the world
+     */
+    @NotNull
+    public static World world(@NotNull String name) {
+        val uid = UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+        return stub(World.class, (method, args) -> {
+            switch (method.getName()) {
+                case "getUID":
+                    return uid;
+                case "getName":
+                    return name;
+                default:
+                    return null;
+            }
+        });
+    }
+
+    private interface Handler {
+        Object invoke(Method method, Object[] args);
+    }
+
+    @NotNull
+    @SuppressWarnings("unchecked")
+    private static <T> T stub(@NotNull Class<T> stubbed, @NotNull Handler handler) {
+        return (T) Proxy.newProxyInstance(stubbed.getClassLoader(), new Class<?>[]{stubbed}, (self, method, args) -> {
+            switch (method.getName()) {
+                case "equals":
+                    return self == args[0];
+                case "hashCode":
+                    return System.identityHashCode(self);
+                case "toString":
+                    return stubbed.getSimpleName() + " stand-in";
+            }
+            val result = handler.invoke(method, args);
+            if (result != null || !method.getReturnType().isPrimitive()) return result;
+            val type = method.getReturnType();
+            if (type == void.class) return null;
+            if (type == boolean.class) return false;
+            if (type == long.class) return 0L;
+            if (type == double.class) return 0D;
+            if (type == float.class) return 0F;
+            if (type == char.class) return (char) 0;
+            if (type == byte.class) return (byte) 0;
+            if (type == short.class) return (short) 0;
+            return 0;
+        });
+    }
+}
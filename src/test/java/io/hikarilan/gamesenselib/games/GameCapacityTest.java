@@ -0,0 +1,154 @@
+package io.hikarilan.gamesenselib.games;
+
+import com.google.common.collect.Lists;
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试 {@link GameCapacity} 的预留、认领及释放。
+ * <p>
+ * Test reserving, claiming and releasing of {@link GameCapacity}.
+ */
+class GameCapacityTest {
+
+    private static final int THREADS = 8;
+
+    private static final int ATTEMPTS = 200;
+
+    private final GameCapacity capacity = new GameCapacity(2);
+
+    @Test
+    void reservesUpToTheMaximum() {
+        assertTrue(capacity.reserve(UUID.randomUUID()));
+        assertTrue(capacity.reserve(UUID.randomUUID()));
+        assertFalse(capacity.reserve(UUID.randomUUID()));
+        assertEquals(0, capacity.getAvailable());
+        assertEquals(2, capacity.getReserved());
+    }
+
+    @Test
+    void reservingTwiceTakesOneSlot() {
+        val player = UUID.randomUUID();
+        assertTrue(capacity.reserve(player));
+        assertTrue(capacity.reserve(player));
+        assertEquals(1, capacity.getAvailable());
+        assertEquals(1, capacity.getReserved());
+    }
+
+    @Test
+    void occupiedSlotsCountAgainstTheMaximum() {
+        capacity.setOccupied(1);
+        assertTrue(capacity.reserve(UUID.randomUUID()));
+        assertFalse(capacity.reserve(UUID.randomUUID()));
+
+        capacity.setOccupied(0);
+        assertEquals(1, capacity.getAvailable());
+    }
+
+    @Test
+    void claimingKeepsTheSlotTaken() {
+        val player = UUID.randomUUID();
+        assertTrue(capacity.reserve(player));
+
+        assertTrue(capacity.claim(player));
+        assertEquals(0, capacity.getReserved());
+        assertEquals(1, capacity.getAvailable());
+        // the published number includes the claimed player
+        capacity.setOccupied(1);
+        assertEquals(1, capacity.getAvailable());
+
+        assertFalse(capacity.claim(player));
+        assertFalse(capacity.cancel(player));
+        assertEquals(1, capacity.getAvailable());
+    }
+
+    @Test
+    void cancellingReleasesTheSlot() {
+        val player = UUID.randomUUID();
+        assertTrue(capacity.reserve(player));
+        assertTrue(capacity.reserve(UUID.randomUUID()));
+
+        assertTrue(capacity.cancel(player));
+        assertFalse(capacity.cancel(player));
+        assertEquals(1, capacity.getAvailable());
+        assertTrue(capacity.reserve(UUID.randomUUID()));
+    }
+
+    @Test
+    void expiresOnlyUnclaimedReservations() throws InterruptedException {
+        val capacity = new GameCapacity(2, Duration.ofNanos(1));
+        val claimed = UUID.randomUUID();
+        assertTrue(capacity.reserve(claimed));
+        assertTrue(capacity.reserve(UUID.randomUUID()));
+        assertTrue(capacity.claim(claimed));
+        capacity.setOccupied(1);
+        Thread.sleep(1);
+
+        assertEquals(1, capacity.expire());
+        assertEquals(0, capacity.getReserved());
+        assertEquals(1, capacity.getAvailable());
+        assertEquals(0, capacity.expire());
+    }
+
+    @Test
+    void refusesNewReservationsWhileNotAccepting() {
+        val player = UUID.randomUUID();
+        assertTrue(capacity.reserve(player));
+
+        capacity.setAccepting(false);
+        assertFalse(capacity.reserve(UUID.randomUUID()));
+        assertEquals(1, capacity.getAvailable());
+        // an existing reservation is still renewed
+        assertTrue(capacity.reserve(player));
+
+        capacity.setAccepting(true);
+        assertTrue(capacity.reserve(UUID.randomUUID()));
+    }
+
+    @Test
+    void clearReleasesEveryReservation() {
+        capacity.reserve(UUID.randomUUID());
+        capacity.reserve(UUID.randomUUID());
+
+        capacity.clear();
+        assertEquals(0, capacity.getReserved());
+        assertEquals(2, capacity.getAvailable());
+    }
+
+    @Test
+    void concurrentReservationsNeverExceedTheMaximum() throws Exception {
+        val capacity = new GameCapacity(50);
+        val barrier = new CyclicBarrier(THREADS);
+        val reserved = new AtomicInteger();
+        val failure = new AtomicInteger();
+        List<Thread> threads = Lists.newArrayList();
+        for (int i = 0; i < THREADS; i++) {
+            val thread = new Thread(() -> {
+                try {
+                    barrier.await();
+                    for (int j = 0; j < ATTEMPTS; j++) {
+                        if (capacity.reserve(UUID.randomUUID())) reserved.incrementAndGet();
+                    }
+                } catch (Exception e) {
+                    failure.incrementAndGet();
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(0, failure.get());
+        assertEquals(50, reserved.get());
+        assertEquals(50, capacity.getReserved());
+        assertEquals(0, capacity.getAvailable());
+    }
+}
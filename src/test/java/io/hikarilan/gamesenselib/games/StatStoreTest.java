@@ -0,0 +1,106 @@
+package io.hikarilan.gamesenselib.games;
+
+import lombok.val;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试 {@link StatStore} 按列排序行索引。
+ * <p>
+ * Test sorting row indexes by column of {@link StatStore}.
+ */
+class StatStoreTest {
+
+    private final StatStore store = new StatStore();
+
+    private final StatStore.IntColumn score = store.intColumn("score");
+
+    private final StatStore.LongColumn time = store.longColumn("time");
+
+    @Test
+    void sortsIntColumnsAscending() {
+        fill(score, 3, -5, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, -1);
+        assertArrayEquals(new int[]{3, 1, 5, 2, 0, 4}, store.sortedRows(score, false));
+    }
+
+    @Test
+    void sortsIntColumnsDescending() {
+        fill(score, 3, -5, 0, Integer.MIN_VALUE, Integer.MAX_VALUE, -1);
+        assertArrayEquals(new int[]{4, 0, 2, 5, 1, 3}, store.sortedRows(score, true));
+    }
+
+    @Test
+    void keepsTiesOfIntColumnsInAllocationOrder() {
+        fill(score, 7, -2, 7, -2, 7);
+        assertArrayEquals(new int[]{1, 3, 0, 2, 4}, store.sortedRows(score, false));
+        assertArrayEquals(new int[]{0, 2, 4, 1, 3}, store.sortedRows(score, true));
+    }
+
+    @Test
+    void sortsLongColumnsAscending() {
+        fill(time, 3L, -5L, 0L, Long.MIN_VALUE, Long.MAX_VALUE, -1L);
+        assertArrayEquals(new int[]{3, 1, 5, 2, 0, 4}, store.sortedRows(time, false));
+    }
+
+    @Test
+    void sortsLongColumnsDescending() {
+        fill(time, 3L, -5L, 0L, Long.MIN_VALUE, Long.MAX_VALUE, -1L);
+        assertArrayEquals(new int[]{4, 0, 2, 5, 1, 3}, store.sortedRows(time, true));
+    }
+
+    @Test
+    void keepsTiesOfLongColumnsInAllocationOrder() {
+        fill(time, 7L, -2L, 7L, -2L, 7L);
+        assertArrayEquals(new int[]{1, 3, 0, 2, 4}, store.sortedRows(time, false));
+        assertArrayEquals(new int[]{0, 2, 4, 1, 3}, store.sortedRows(time, true));
+    }
+
+    @Test
+    void sortsEmptyAndSingleRowStores() {
+        assertEquals(0, store.sortedRows(score, true).length);
+        assertEquals(0, store.sortedRows(time, true).length);
+        fill(score, -1);
+        assertArrayEquals(new int[]{0}, store.sortedRows(score, true));
+        assertArrayEquals(new int[]{0}, store.sortedRows(time, false));
+    }
+
+    @Test
+    void matchesAStableSortOfManyRows() {
+        val random = new Random(42);
+        val rows = 1000;
+        for (int i = 0; i < rows; i++) {
+            val row = store.row(UUID.randomUUID());
+            // a narrow range, so there are plenty of ties
+            store.set(score, row, random.nextInt(41) - 20);
+            store.set(time, row, (random.nextInt(41) - 20) * (long) Integer.MAX_VALUE);
+        }
+        for (boolean descending : new boolean[]{false, true}) {
+            Comparator<Integer> byScore = Comparator.comparingInt(row -> store.get(score, row));
+            Comparator<Integer> byTime = Comparator.comparingLong(row -> store.get(time, row));
+            assertArrayEquals(expected(rows, descending ? byScore.reversed() : byScore), store.sortedRows(score, descending));
+            assertArrayEquals(expected(rows, descending ? byTime.reversed() : byTime), store.sortedRows(time, descending));
+        }
+    }
+
+    private void fill(StatStore.IntColumn column, int... values) {
+        for (int value : values) store.set(column, store.row(UUID.randomUUID()), value);
+    }
+
+    private void fill(StatStore.LongColumn column, long... values) {
+        for (long value : values) store.set(column, store.row(UUID.randomUUID()), value);
+    }
+
+    private static int[] expected(int rows, Comparator<Integer> comparator) {
+        val boxed = new Integer[rows];
+        for (int i = 0; i < rows; i++) boxed[i] = i;
+        // Arrays.sort on objects is stable
+        Arrays.sort(boxed, comparator);
+        return Arrays.stream(boxed).mapToInt(Integer::intValue).toArray();
+    }
+}
@@ -0,0 +1,155 @@
+package io.hikarilan.gamesenselib.schedulers;
+
+import com.google.common.collect.Lists;
+import io.hikarilan.gamesenselib.StubPlugin;
+import io.hikarilan.gamesenselib.flows.FlowManager;
+import io.hikarilan.gamesenselib.flows.Phase;
+import io.hikarilan.gamesenselib.games.AbstractGame;
+import io.hikarilan.gamesenselib.games.extra.DefaultGame;
+import io.hikarilan.gamesenselib.modules.IModule;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 使用 {@link ExecutorTickScheduler} 作为替身调度器，在不同线程中同时运行多个游戏实例。
+ * <p>
+ * Run several game instances on separate threads at once, using {@link ExecutorTickScheduler} as the stand-in scheduler.
+ */
+class ExecutorTickSchedulerTest {
+
+    private static final int GAMES = 4;
+
+    private static final int TICKS = 5;
+
+    private final StubPlugin plugin = new StubPlugin("ExecutorTickSchedulerTest");
+
+    private final List<ExecutorTickScheduler> schedulers = Lists.newArrayList();
+
+    private final List<AbstractGame> games = Lists.newArrayList();
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        // destroy every game on its own thread, so that no tick runs concurrently with the destruction
+        val destroyed = new CountDownLatch(games.size());
+        for (AbstractGame game : games) {
+            game.getTickScheduler().execute(() -> {
+                game.destroy();
+                destroyed.countDown();
+            });
+        }
+        assertTrue(destroyed.await(10, TimeUnit.SECONDS));
+        schedulers.forEach(ExecutorTickScheduler::shutdown);
+    }
+
+    @Test
+    void runsSeveralGamesOnSeparateThreads() throws InterruptedException {
+        // every game waits for all the others in its first tick, which only passes if they tick in parallel
+        val barrier = new CyclicBarrier(GAMES);
+        val ticked = new CountDownLatch(GAMES);
+        val failure = new AtomicReference<Throwable>();
+        val threads = new ConcurrentHashMap<Integer, Set<String>>();
+
+        for (int i = 0; i < GAMES; i++) {
+            val index = i;
+            val scheduler = ExecutorTickScheduler.newSingleThread("game-" + index);
+            schedulers.add(scheduler);
+            val ticks = new AtomicInteger();
+            val phase = Phase.builder()
+                    .onStart(game -> {
+                        try {
+                            barrier.await(10, TimeUnit.SECONDS);
+                        } catch (Exception e) {
+                            failure.compareAndSet(null, e);
+                        }
+                    })
+                    .onTick(game -> {
+                        threads.computeIfAbsent(index, it -> ConcurrentHashMap.newKeySet()).add(Thread.currentThread().getName());
+                        if (!game.getTickScheduler().isOwnedByCurrentThread())
+                            failure.compareAndSet(null, new AssertionError("Game " + index + " ticked off its scheduler."));
+                        if (ticks.incrementAndGet() == TICKS) ticked.countDown();
+                        return false;
+                    })
+                    .build();
+            games.add(new DefaultGame(plugin.getPlugin(), FlowManager.builder().addPhase(0, () -> phase), scheduler));
+        }
+
+        assertTrue(ticked.await(30, TimeUnit.SECONDS), "every game should tick " + TICKS + " times");
+        assertNull(failure.get(), () -> String.valueOf(failure.get()));
+        for (int i = 0; i < GAMES; i++) {
+            assertEquals(Collections.singleton("game-" + i), threads.get(i), "game " + i + " should only tick on its own thread");
+        }
+    }
+
+    @Test
+    void installsModulesOnTheGameThread() throws InterruptedException {
+        val scheduler = ExecutorTickScheduler.newSingleThread("game");
+        schedulers.add(scheduler);
+        val game = new DefaultGame(plugin.getPlugin(), FlowManager.builder().addPhase(0, () -> Phase.builder().build()), scheduler);
+        games.add(game);
+
+        // installed from the test thread while the game may already tick on its own thread
+        val installed = new CountDownLatch(1);
+        val ticked = new CountDownLatch(3);
+        val threads = ConcurrentHashMap.<String>newKeySet();
+        game.installModule(new IModule() {
+            @Override
+            public void onInstall() {
+                threads.add(Thread.currentThread().getName());
+                installed.countDown();
+            }
+
+            @Override
+            public void onTick() {
+                threads.add(Thread.currentThread().getName());
+                ticked.countDown();
+            }
+
+            @Override
+            public void onUninstall() {
+            }
+
+            @Override
+            public boolean isHibernatable() {
+                return false;
+            }
+        });
+
+        assertTrue(installed.await(10, TimeUnit.SECONDS));
+        assertTrue(ticked.await(10, TimeUnit.SECONDS));
+        assertEquals(Collections.singleton("game"), threads);
+    }
+
+    @Test
+    void executeRunsInlineOnlyOnOwnThread() throws InterruptedException {
+        val first = ExecutorTickScheduler.newSingleThread("first");
+        val second = ExecutorTickScheduler.newSingleThread("second");
+        schedulers.add(first);
+        schedulers.add(second);
+
+        assertFalse(first.isOwnedByCurrentThread());
+        val done = new CountDownLatch(1);
+        val observed = new AtomicReference<String>();
+        first.execute(() -> {
+            val inline = new AtomicInteger();
+            // runs inline since the current thread is owned by the scheduler
+            first.execute(inline::incrementAndGet);
+            observed.set(Thread.currentThread().getName() + ":" + inline.get() + ":" + second.isOwnedByCurrentThread());
+            done.countDown();
+        });
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals("first:1:false", observed.get());
+    }
+}
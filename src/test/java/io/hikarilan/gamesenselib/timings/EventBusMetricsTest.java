@@ -0,0 +1,112 @@
+package io.hikarilan.gamesenselib.timings;
+
+import lombok.val;
+import org.greenrobot.eventbus.EventBus;
+import org.greenrobot.eventbus.MeasuredEventBus;
+import org.greenrobot.eventbus.Subscribe;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试 {@link MeasuredEventBus} 自动记录每个订阅者的耗时。
+ * <p>
+ * Test that {@link MeasuredEventBus} records the cost of every subscriber automatically.
+ */
+class EventBusMetricsTest {
+
+    private final EventBusMetrics metrics = new EventBusMetrics();
+
+    private final EventBus bus = new MeasuredEventBus(EventBus.builder()
+            .eventInheritance(false)
+            .logNoSubscriberMessages(false)
+            .sendNoSubscriberEvent(false), metrics);
+
+    @AfterEach
+    void tearDown() {
+        EventBusMetrics.setEnabled(false);
+        EventBusMetrics.global().reset();
+    }
+
+    @Test
+    void recordsEverySubscriberWithoutOptingIn() {
+        EventBusMetrics.setEnabled(true);
+        val first = new FirstSubscriber();
+        val second = new SecondSubscriber();
+        bus.register(first);
+        bus.register(second);
+
+        bus.post(new Ping());
+        bus.post(new Ping());
+
+        val histograms = metrics.getSubscriberHistograms(Ping.class);
+        assertEquals(2, histograms.get(FirstSubscriber.class).getCount());
+        assertEquals(2, histograms.get(SecondSubscriber.class).getCount());
+        assertEquals(2, first.handled.get());
+        assertEquals(2, second.handled.get());
+        assertEquals(2, EventBusMetrics.global().getSubscriberHistograms(Ping.class).get(FirstSubscriber.class).getCount());
+    }
+
+    @Test
+    void recordsNothingWhileDisabled() {
+        val first = new FirstSubscriber();
+        bus.register(first);
+
+        bus.post(new Ping());
+
+        assertEquals(1, first.handled.get());
+        assertTrue(metrics.getSubscriberHistograms(Ping.class).isEmpty());
+    }
+
+    @Test
+    void keepsCancellingTheDelivery() {
+        EventBusMetrics.setEnabled(true);
+        val cancelling = new CancellingSubscriber(bus);
+        val second = new SecondSubscriber();
+        bus.register(cancelling);
+        bus.register(second);
+
+        bus.post(new Ping());
+
+        assertEquals(0, second.handled.get());
+        assertEquals(1, metrics.getSubscriberHistograms(Ping.class).get(CancellingSubscriber.class).getCount());
+        assertNull(metrics.getSubscriberHistograms(Ping.class).get(SecondSubscriber.class));
+    }
+
+    public static class Ping {
+    }
+
+    public static class FirstSubscriber {
+        private final AtomicInteger handled = new AtomicInteger();
+
+        @Subscribe
+        public void onPing(Ping e) {
+            handled.incrementAndGet();
+        }
+    }
+
+    public static class SecondSubscriber {
+        private final AtomicInteger handled = new AtomicInteger();
+
+        @Subscribe
+        public void onPing(Ping e) {
+            handled.incrementAndGet();
+        }
+    }
+
+    public static class CancellingSubscriber {
+        private final EventBus bus;
+
+        public CancellingSubscriber(EventBus bus) {
+            this.bus = bus;
+        }
+
+        @Subscribe(priority = 1)
+        public void onPing(Ping e) {
+            bus.cancelEventDelivery(e);
+        }
+    }
+}
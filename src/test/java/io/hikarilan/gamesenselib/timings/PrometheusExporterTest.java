@@ -0,0 +1,122 @@
+package io.hikarilan.gamesenselib.timings;
+
+import io.hikarilan.gamesenselib.StubPlugin;
+import lombok.val;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 通过本地回环地址测试 {@link PrometheusExporter} 的 HTTP 端点。
+ * <p>
+ * Test the HTTP endpoint of {@link PrometheusExporter} over the loopback address.
+ */
+class PrometheusExporterTest {
+
+    private final StubPlugin plugin = new StubPlugin("PrometheusExporterTest");
+
+    private PrometheusExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        exporter = PrometheusExporter.of(plugin.getPlugin()).setScheduler(plugin.getTickScheduler());
+    }
+
+    @AfterEach
+    void tearDown() {
+        exporter.destroy();
+    }
+
+    @Test
+    void servesTheLatestRenderingOverLoopback() throws IOException {
+        exporter.serve(0).init();
+        render();
+
+        val response = scrape(exporter.getPort());
+        assertTrue(response.startsWith("HTTP/1.1 200 OK\r\n"), response);
+        val separator = response.indexOf("\r\n\r\n");
+        assertTrue(separator > 0, response);
+        val body = response.substring(separator + 4);
+        assertTrue(body.contains("# TYPE gamesenselib_games gauge\n"), body);
+        assertTrue(body.contains("\ngamesenselib_games "), body);
+        assertTrue(response.contains("Content-Length: " + body.getBytes(StandardCharsets.UTF_8).length + "\r\n"), response);
+    }
+
+    @Test
+    void servesEveryRequestPath() throws IOException {
+        exporter.serve(0).init();
+        render();
+
+        assertTrue(scrape(exporter.getPort(), "GET / HTTP/1.0\r\n\r\n").startsWith("HTTP/1.1 200 OK\r\n"));
+        assertTrue(scrape(exporter.getPort(), "GET /metrics HTTP/1.1\r\nHost: localhost\r\n\r\n").startsWith("HTTP/1.1 200 OK\r\n"));
+    }
+
+    @Test
+    void stalledScraperDoesNotBlockRenderingOrFileWrites(@TempDir Path directory) throws IOException {
+        val file = directory.resolve("gamesenselib.prom");
+        exporter.serve(0).writeTo(file).init();
+        render();
+
+        // connect without ever sending a request, the acceptor waits on this scraper
+        try (Socket stalled = new Socket(InetAddress.getLoopbackAddress(), exporter.getPort())) {
+            assertTimeoutPreemptively(Duration.ofMillis(500), () -> {
+                render();
+                render();
+            });
+            // the file is written by the writer thread of the exporter
+            assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+                while (!Files.exists(file) || !new String(Files.readAllBytes(file), StandardCharsets.UTF_8).contains("\ngamesenselib_games ")) {
+                    Thread.sleep(10);
+                }
+            });
+        }
+
+        assertTrue(scrape(exporter.getPort()).startsWith("HTTP/1.1 200 OK\r\n"));
+    }
+
+    @Test
+    void stopsServingWhenDestroyed() {
+        exporter.serve(0).init();
+        assertTrue(exporter.getPort() > 0);
+        exporter.destroy();
+        assertEquals(-1, exporter.getPort());
+    }
+
+    private void render() {
+        assertEquals(1, plugin.runTimers(), "the exporter should schedule exactly one rendering task");
+    }
+
+    private static String scrape(int port) throws IOException {
+        return scrape(port, "GET /metrics HTTP/1.1\r\nHost: localhost\r\nAccept: text/plain\r\n\r\n");
+    }
+
+    private static String scrape(int port, String request) throws IOException {
+        try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), port)) {
+            socket.setSoTimeout(5000);
+            socket.getOutputStream().write(request.getBytes(StandardCharsets.US_ASCII));
+            socket.getOutputStream().flush();
+            return new String(readAll(socket.getInputStream()), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        val out = new ByteArrayOutputStream();
+        val buffer = new byte[4096];
+        int read;
+        while ((read = in.read(buffer)) >= 0) out.write(buffer, 0, read);
+        return out.toByteArray();
+    }
+}
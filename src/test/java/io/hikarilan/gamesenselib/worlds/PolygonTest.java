@@ -0,0 +1,89 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import io.hikarilan.gamesenselib.StubPlugin;
+import lombok.val;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试 {@link Polygon} 的方块包含关系。
+ * <p>
+ * Test the block containment of {@link Polygon}.
+ */
+class PolygonTest {
+
+    private final World world = StubPlugin.world("world");
+
+    @Test
+    void squareContainsTheSameBlocksAsCuboid() {
+        val polygon = new Polygon(world, 0, 255, new int[]{0, 10, 10, 0}, new int[]{0, 0, 10, 10});
+        val cuboid = new Cuboid(world, 0, 0, 0, 10, 255, 10);
+        for (int x = -2; x <= 12; x++) {
+            for (int z = -2; z <= 12; z++) {
+                assertEquals(cuboid.contains(x, 64, z), polygon.contains(x, 64, z), "x=" + x + ", z=" + z);
+            }
+        }
+    }
+
+    @Test
+    void edgesAndVerticesAreInclusive() {
+        val triangle = new Polygon(world, 0, 0, new int[]{0, 10, 0}, new int[]{0, 0, 10});
+        assertTrue(triangle.contains(0, 0, 0));
+        assertTrue(triangle.contains(10, 0, 0));
+        assertTrue(triangle.contains(0, 0, 10));
+        // on the hypotenuse
+        assertTrue(triangle.contains(5, 0, 5));
+        assertTrue(triangle.contains(4, 0, 5));
+        assertFalse(triangle.contains(6, 0, 5));
+        assertFalse(triangle.contains(10, 0, 10));
+    }
+
+    @Test
+    void concaveNotchIsExcluded() {
+        // an L shape, the notch x in (5, 10], z in (5, 10] is outside
+        val shape = new Polygon(world, 0, 0, new int[]{0, 10, 10, 5, 5, 0}, new int[]{0, 0, 5, 5, 10, 10});
+        assertTrue(shape.contains(2, 0, 8));
+        assertTrue(shape.contains(8, 0, 2));
+        assertTrue(shape.contains(5, 0, 8));
+        assertTrue(shape.contains(8, 0, 5));
+        assertFalse(shape.contains(8, 0, 8));
+        assertFalse(shape.contains(10, 0, 10));
+    }
+
+    @Test
+    void negativeCoordinates() {
+        val polygon = new Polygon(world, 0, 0, new int[]{-20, -10, -10, -20}, new int[]{-20, -20, -10, -10});
+        assertTrue(polygon.contains(-20, 0, -20));
+        assertTrue(polygon.contains(-10, 0, -10));
+        assertTrue(polygon.contains(-15, 0, -15));
+        assertFalse(polygon.contains(-9, 0, -15));
+        assertFalse(polygon.contains(-21, 0, -15));
+    }
+
+    @Test
+    void heightIsInclusiveInEitherOrder() {
+        val polygon = new Polygon(world, 70, 60, new int[]{0, 10, 10, 0}, new int[]{0, 0, 10, 10});
+        assertTrue(polygon.contains(5, 60, 5));
+        assertTrue(polygon.contains(5, 70, 5));
+        assertFalse(polygon.contains(5, 59, 5));
+        assertFalse(polygon.contains(5, 71, 5));
+    }
+
+    @Test
+    void rejectsInvalidVertices() {
+        assertThrows(IllegalArgumentException.class, () -> new Polygon(world, 0, 0, new int[]{0, 1}, new int[]{0, 1}));
+        assertThrows(IllegalArgumentException.class, () -> new Polygon(world, 0, 0, new int[]{0, 1, 2}, new int[]{0, 1}));
+    }
+
+    @Test
+    void verticesAreCopied() {
+        val xs = new int[]{0, 10, 0};
+        val polygon = new Polygon(world, 0, 0, xs, new int[]{0, 0, 10});
+        xs[1] = 100;
+        assertFalse(polygon.contains(50, 0, 0));
+        polygon.getXs()[1] = 100;
+        assertEquals(10, polygon.getXs()[1]);
+    }
+}
@@ -0,0 +1,85 @@
+package io.hikarilan.gamesenselib.worlds;
+
+import io.hikarilan.gamesenselib.StubPlugin;
+import lombok.val;
+import org.bukkit.World;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 测试 {@link RegionIndex} 的区块网格查找。
+ * <p>
+ * Test the chunk grid lookups of {@link RegionIndex}.
+ */
+class RegionIndexTest {
+
+    private final World world = StubPlugin.world("world");
+
+    private final World nether = StubPlugin.world("world_nether");
+
+    private final RegionIndex<String> index = new RegionIndex<>();
+
+    @Test
+    void findsRegionsSpanningSeveralChunks() {
+        index.add(new Cuboid(world, -20, 0, -20, 40, 255, 40), "arena");
+        assertEquals("arena", index.find(world, -20, 64, -20));
+        assertEquals("arena", index.find(world, 0, 64, 0));
+        assertEquals("arena", index.find(world, 16, 64, -1));
+        assertEquals("arena", index.find(world, 40, 255, 40));
+        assertNull(index.find(world, 41, 64, 40));
+        assertNull(index.find(world, -21, 64, 0));
+        assertNull(index.find(world, 0, 256, 0));
+    }
+
+    @Test
+    void checksEveryRegionInTheChunk() {
+        // both regions are registered in chunk (0, 0)
+        index.add(new Cuboid(world, 0, 0, 0, 3, 255, 3), "first");
+        index.add(new Cuboid(world, 8, 0, 8, 11, 255, 11), "second");
+        assertEquals("first", index.find(world, 2, 64, 2));
+        assertEquals("second", index.find(world, 10, 64, 10));
+        assertNull(index.find(world, 5, 64, 5));
+    }
+
+    @Test
+    void overlappingPartsBelongToTheRegionAddedFirst() {
+        index.add(new Cuboid(world, 0, 0, 0, 10, 255, 10), "first");
+        index.add(new Cuboid(world, 5, 0, 5, 15, 255, 15), "second");
+        assertEquals("first", index.find(world, 7, 64, 7));
+        assertEquals("second", index.find(world, 12, 64, 12));
+    }
+
+    @Test
+    void separatesWorlds() {
+        index.add(new Cuboid(world, 0, 0, 0, 10, 255, 10), "overworld");
+        assertNull(index.find(nether, 5, 64, 5));
+        index.add(new Cuboid(nether, 0, 0, 0, 10, 255, 10), "nether");
+        assertEquals("overworld", index.find(world, 5, 64, 5));
+        assertEquals("nether", index.find(nether, 5, 64, 5));
+    }
+
+    @Test
+    void usesTheExactShapeOfPolygons() {
+        index.add(new Polygon(world, 0, 255, new int[]{0, 31, 0}, new int[]{0, 0, 31}), "triangle");
+        assertEquals("triangle", index.find(world, 1, 64, 1));
+        assertEquals("triangle", index.find(world, 31, 64, 0));
+        // inside the bounding box, outside the triangle
+        assertNull(index.find(world, 30, 64, 30));
+    }
+
+    @Test
+    void removesOnlyTheMatchingBinding() {
+        val region = new Cuboid(world, 0, 0, 0, 40, 255, 40);
+        index.add(region, "arena");
+        assertEquals(1, index.size());
+        assertFalse(index.remove(region, "other"));
+        assertFalse(index.remove(new Cuboid(world, 0, 0, 0, 40, 255, 40), "arena"));
+        assertEquals("arena", index.find(world, 20, 64, 20));
+
+        assertTrue(index.remove(region, "arena"));
+        assertTrue(index.isEmpty());
+        assertNull(index.find(world, 20, 64, 20));
+        assertFalse(index.remove(region, "arena"));
+    }
+}